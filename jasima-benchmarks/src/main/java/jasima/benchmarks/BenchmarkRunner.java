@@ -0,0 +1,58 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.benchmarks;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Main class of the benchmark jar. Accepts the same command line arguments as
+ * JMH's own main class, but writes results as JSON to
+ * {@value #DEF_RESULT_FILE} unless a different result format or file is given
+ * using the options {@code -rf} and {@code -rff}.
+ */
+public class BenchmarkRunner {
+
+	public static final String DEF_RESULT_FILE = "jasima-benchmarks.json";
+
+	public static void main(String... args) throws Exception {
+		CommandLineOptions cmdOptions = new CommandLineOptions(args);
+
+		if (cmdOptions.shouldHelp() || cmdOptions.shouldList() || cmdOptions.shouldListWithParams()
+				|| cmdOptions.shouldListProfilers() || cmdOptions.shouldListResultFormats()) {
+			// nothing to run, let JMH handle this
+			Main.main(args);
+			return;
+		}
+
+		ChainedOptionsBuilder options = new OptionsBuilder().parent(cmdOptions);
+		if (!cmdOptions.getResultFormat().hasValue()) {
+			options.resultFormat(ResultFormatType.JSON);
+		}
+		if (!cmdOptions.getResult().hasValue()) {
+			options.result(DEF_RESULT_FILE);
+		}
+
+		new Runner(options.build()).run();
+	}
+
+}
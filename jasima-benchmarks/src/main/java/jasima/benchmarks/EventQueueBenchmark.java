@@ -0,0 +1,123 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jasima.core.simulation.CalendarQueue;
+import jasima.core.simulation.EventHeap;
+import jasima.core.simulation.EventQueue;
+import jasima.core.simulation.PrimitiveEventHeap;
+import jasima.core.simulation.SimEvent;
+
+/**
+ * Compares the {@link EventQueue} implementations using the classical hold
+ * model: the queue is filled with {@code queueSize} events, then each operation
+ * extracts the next event and inserts a new one at a later time (exponentially
+ * distributed increment).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventQueueBenchmark {
+
+	private static final class HoldEvent extends SimEvent {
+		HoldEvent(double time, int prio) {
+			super(time, prio);
+		}
+
+		@Override
+		public void handle() {
+		}
+	}
+
+	@Param({ "EventHeap", "PrimitiveEventHeap2", "PrimitiveEventHeap4", "CalendarQueue" })
+	public String queueImpl;
+
+	@Param({ "100", "10000", "1000000" })
+	public int queueSize;
+
+	private EventQueue queue;
+	private double[] increments;
+	private int[] prios;
+	private int next;
+
+	static EventQueue createQueue(String name) {
+		switch (name) {
+		case "EventHeap":
+			return new EventHeap();
+		case "PrimitiveEventHeap2":
+			return new PrimitiveEventHeap(2, 103);
+		case "PrimitiveEventHeap4":
+			return new PrimitiveEventHeap(4, 103);
+		case "CalendarQueue":
+			return new CalendarQueue();
+		default:
+			throw new IllegalArgumentException(name);
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Random rnd = new Random(23);
+
+		// pre-compute random numbers, so they don't influence the measurement
+		increments = new double[1 << 16];
+		prios = new int[increments.length];
+		for (int i = 0; i < increments.length; i++) {
+			increments[i] = -Math.log(1.0 - rnd.nextDouble());
+			prios[i] = rnd.nextInt(3) - 1;
+		}
+
+		queue = createQueue(queueImpl);
+		for (int i = 0; i < queueSize; i++) {
+			queue.insert(new HoldEvent(increments[i & (increments.length - 1)], prios[i & (prios.length - 1)]));
+		}
+		next = 0;
+	}
+
+	@Benchmark
+	public SimEvent hold() {
+		SimEvent e = queue.extract();
+
+		int i = next++ & (increments.length - 1);
+		e.setTime(e.getTime() + increments[i]);
+		e.setPrio(prios[i]);
+		queue.insert(e);
+
+		return e;
+	}
+
+}
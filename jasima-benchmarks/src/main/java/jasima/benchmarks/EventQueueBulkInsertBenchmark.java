@@ -0,0 +1,98 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jasima.core.simulation.EventQueue;
+import jasima.core.simulation.SimEvent;
+
+/**
+ * Compares adding {@code numEvents} events to an empty {@link EventQueue} one by
+ * one with adding them using {@link EventQueue#insertAll(java.util.Collection)},
+ * as is done when loading, e.g., a static list of job arrivals or downtimes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventQueueBulkInsertBenchmark {
+
+	private static final class BulkEvent extends SimEvent {
+		BulkEvent(double time, int prio) {
+			super(time, prio);
+		}
+
+		@Override
+		public void handle() {
+		}
+	}
+
+	@Param({ "EventHeap", "PrimitiveEventHeap4", "CalendarQueue" })
+	public String queueImpl;
+
+	@Param({ "10000", "1000000" })
+	public int numEvents;
+
+	private List<SimEvent> events;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Random rnd = new Random(23);
+
+		events = new ArrayList<>(numEvents);
+		for (int i = 0; i < numEvents; i++) {
+			events.add(new BulkEvent(rnd.nextDouble() * numEvents, rnd.nextInt(3) - 1));
+		}
+	}
+
+	@Benchmark
+	public EventQueue sequentialInsert() {
+		EventQueue q = EventQueueBenchmark.createQueue(queueImpl);
+		for (SimEvent e : events) {
+			q.insert(e);
+		}
+		return q;
+	}
+
+	@Benchmark
+	public EventQueue bulkInsert() {
+		EventQueue q = EventQueueBenchmark.createQueue(queueImpl);
+		q.insertAll(events);
+		return q;
+	}
+
+}
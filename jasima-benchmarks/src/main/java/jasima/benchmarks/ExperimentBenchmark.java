@@ -0,0 +1,101 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.math3.distribution.ExponentialDistribution;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jasima.core.random.continuous.DblDistribution;
+import jasima.core.random.continuous.DblSequence;
+import jasima.core.random.continuous.DblUniformRange;
+import jasima.core.random.discrete.IntUniformRange;
+import jasima.shopSim.core.batchForming.HighestJobBatchingMBS;
+import jasima.shopSim.models.dynamicShop.DynamicShopExperiment;
+import jasima.shopSim.models.mimac.MimacExperiment;
+import jasima.shopSim.models.mimac.MimacExperiment.DataSet;
+import jasima.shopSim.prioRules.basic.TieBreakerFASFS;
+import jasima.shopSim.prioRules.setup.ATCS;
+
+/**
+ * End-to-end benchmarks running complete shop simulations, i.e., single
+ * replications of a {@link DynamicShopExperiment} and a
+ * {@link MimacExperiment}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ExperimentBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class DynamicShopParams {
+		@Param({ "FCFS", "ATC", "PTPlusWINQPlusNPT" })
+		public String rule;
+	}
+
+	@Benchmark
+	public Map<String, Object> dynamicShop(DynamicShopParams params) {
+		DynamicShopExperiment e = new DynamicShopExperiment();
+		e.setInitialSeed(8346);
+		e.setUtilLevel(0.95);
+		e.setNumMachines(10);
+		e.setStopArrivalsAfterNumJobs(2500);
+		e.setSequencingRule(PriorityQueueBenchmark.createRule(params.rule));
+
+		e.runExperiment();
+		return e.getResults();
+	}
+
+	@Benchmark
+	public Map<String, Object> mimacFab4r() {
+		MimacExperiment e = new MimacExperiment();
+		e.setInitialSeed(-6437543093816807328l);
+		e.setScenario(DataSet.FAB4r);
+		DblSequence arrivals1 = new DblDistribution(new ExponentialDistribution(1440d / 4.5));
+		DblSequence arrivals2 = new DblDistribution(new ExponentialDistribution(1440d / 10.5));
+		e.setInterArrivalTimes(new DblSequence[] { arrivals1, arrivals2 });
+		e.setDueDateFactors(new DblUniformRange(2.0, 5.0));
+		e.setJobWeights(new IntUniformRange(1, 10));
+		e.setSimulationLength(2 * 365 * 24 * 60);
+		e.setMaxJobsInSystem(3 * 250);
+		e.setEnableLookAhead(false);
+
+		ATCS atcs = new ATCS(0.01, 0.5);
+		atcs.setTieBreaker(new TieBreakerFASFS());
+		e.setSequencingRule(atcs);
+
+		e.setBatchForming(new HighestJobBatchingMBS(0.75));
+
+		e.runExperiment();
+		return e.getResults();
+	}
+
+}
@@ -0,0 +1,146 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jasima.core.simulation.Simulation;
+import jasima.shopSim.core.Job;
+import jasima.shopSim.core.Operation;
+import jasima.shopSim.core.PR;
+import jasima.shopSim.core.PriorityQueue;
+import jasima.shopSim.core.Shop;
+import jasima.shopSim.core.WorkStation;
+import jasima.shopSim.prioRules.basic.ATC;
+import jasima.shopSim.prioRules.basic.EDD;
+import jasima.shopSim.prioRules.basic.FASFS;
+import jasima.shopSim.prioRules.basic.FCFS;
+import jasima.shopSim.prioRules.basic.SLK;
+import jasima.shopSim.prioRules.basic.SPT;
+import jasima.shopSim.prioRules.basic.TieBreakerFASFS;
+import jasima.shopSim.prioRules.upDownStream.PTPlusWINQPlusNPT;
+import jasima.shopSim.prioRules.weighted.WSPT;
+
+/**
+ * Measures {@link PriorityQueue#removeLargest()} with some common sequencing
+ * rules. Each operation removes the job with the highest priority and adds it
+ * again, so the queue length stays constant.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriorityQueueBenchmark {
+
+	@Param({ "FCFS", "SPT", "EDD", "WSPT", "SLK", "ATC", "SPT_FASFS" })
+	public String rule;
+
+	@Param({ "10", "100", "1000" })
+	public int queueLength;
+
+	private PriorityQueue<Job> queue;
+
+	static PR createRule(String name) {
+		switch (name) {
+		case "FCFS":
+			return new FCFS();
+		case "SPT":
+			return new SPT().setFinalTieBreaker(new TieBreakerFASFS());
+		case "EDD":
+			return new EDD().setFinalTieBreaker(new TieBreakerFASFS());
+		case "WSPT":
+			return new WSPT().setFinalTieBreaker(new TieBreakerFASFS());
+		case "SLK":
+			return new SLK().setFinalTieBreaker(new TieBreakerFASFS());
+		case "ATC":
+			return new ATC(2.0).setFinalTieBreaker(new TieBreakerFASFS());
+		case "SPT_FASFS":
+			return new SPT().setFinalTieBreaker(new FASFS()).setFinalTieBreaker(new TieBreakerFASFS());
+		case "PTPlusWINQPlusNPT":
+			return new PTPlusWINQPlusNPT().setFinalTieBreaker(new TieBreakerFASFS());
+		default:
+			throw new IllegalArgumentException(name);
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Random rnd = new Random(23);
+
+		Simulation sim = new Simulation();
+		Shop shop = new Shop();
+		WorkStation ws = new WorkStation(1);
+		shop.addMachine(ws);
+		sim.addComponent(shop);
+		sim.init(); // to have a valid simulation time
+
+		PR pr = createRule(rule);
+		pr.setOwner(ws);
+		pr.init();
+
+		queue = new PriorityQueue<>(ws);
+		queue.setSequencingRule(pr);
+
+		for (int i = 0; i < queueLength; i++) {
+			Job j = new Job(shop);
+			j.setJobNum(i);
+
+			int numOps = 1 + rnd.nextInt(10);
+			Operation[] ops = new Operation[numOps];
+			for (int n = 0; n < numOps; n++) {
+				ops[n] = new Operation();
+				ops[n].setMachine(ws);
+				ops[n].setProcTime(1 + rnd.nextInt(49));
+			}
+			j.setOps(ops);
+			j.setTaskNumber(0);
+			j.setCurrMachine(ws);
+
+			j.setRelDate(-rnd.nextDouble() * 1000);
+			j.setArriveTime(j.getRelDate() + rnd.nextDouble() * 100);
+			j.setDueDate(j.getRelDate() + 4 * j.procSum());
+			j.setWeight(1 + rnd.nextInt(10));
+
+			queue.add(j);
+		}
+	}
+
+	@Benchmark
+	public Job removeLargest() {
+		Job j = queue.removeLargest();
+		queue.add(j);
+		return j;
+	}
+
+}
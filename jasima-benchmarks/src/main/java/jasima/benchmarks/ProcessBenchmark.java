@@ -0,0 +1,137 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.benchmarks;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jasima.core.simulation.SimProcess;
+import jasima.core.simulation.Simulation;
+import jasima.core.simulation.generic.Q;
+import jasima.core.util.SimProcessUtil;
+
+/**
+ * Compares the executors available to run {@link SimProcess}es (see
+ * {@link SimProcessUtil#EXECUTOR_KEY}) using models with many concurrently
+ * existing processes. The virtual thread executor requires Java 21 or later.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ProcessBenchmark {
+
+	static final int NUM_WAITS = 10;
+
+	@Param({ SimProcessUtil.EXECUTOR_PLATFORM, SimProcessUtil.EXECUTOR_VIRTUAL })
+	public String executor;
+
+	@Param({ "100", "1000", "10000" })
+	public int numProcesses;
+
+	private ExecutorService oldExecutor;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		oldExecutor = SimProcessUtil.getProcessExecutor();
+
+		ExecutorService exec;
+		if (SimProcessUtil.EXECUTOR_VIRTUAL.equals(executor)) {
+			exec = SimProcessUtil.virtualThreadExecutor();
+			if (exec == null) {
+				throw new IllegalStateException("virtual threads require Java 21 or later");
+			}
+		} else {
+			exec = SimProcessUtil.platformThreadExecutor();
+		}
+		SimProcessUtil.setProcessExecutor(exec);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		SimProcessUtil.setProcessExecutor(oldExecutor);
+	}
+
+	/**
+	 * Starts {@code numProcesses} processes at once, each waiting
+	 * {@value #NUM_WAITS} times for a random amount of time.
+	 */
+	@Benchmark
+	public long concurrentWaits() {
+		Simulation sim = new Simulation();
+		sim.setMainProcessActions(s -> {
+			for (int i = 0; i < numProcesses; i++) {
+				int n = i;
+				s.activate("p" + i, () -> {
+					SimProcess<?> p = s.currentProcess();
+					for (int k = 0; k < NUM_WAITS; k++) {
+						p.waitFor(1.0 + ((n * 31 + k * 17) % 100) / 10.0);
+					}
+				});
+			}
+		});
+		sim.performRun();
+		return sim.numEventsProcessed();
+	}
+
+	/**
+	 * Producer/consumer model: {@code numProcesses} consumers are blocked in
+	 * {@link Q#take()} waiting for items from a single producer.
+	 */
+	@Benchmark
+	public long queueTakers() {
+		Simulation sim = new Simulation();
+		sim.setMainProcessActions(s -> {
+			Q<Integer> q = new Q<>();
+			for (int i = 0; i < numProcesses; i++) {
+				s.activate("consumer" + i, () -> {
+					SimProcess<?> p = s.currentProcess();
+					for (int k = 0; k < NUM_WAITS; k++) {
+						q.take();
+						p.waitFor(1.0);
+					}
+				});
+			}
+
+			SimProcess<?> producer = s.currentProcess();
+			for (int i = 0; i < numProcesses * NUM_WAITS; i++) {
+				q.put(i);
+				producer.waitFor(0.1);
+			}
+		});
+		sim.performRun();
+		return sim.numEventsProcessed();
+	}
+
+}
@@ -0,0 +1,212 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jasima.core.simulation.EventQueue;
+import jasima.core.simulation.SimEvent;
+import jasima.core.simulation.SimProcess;
+import jasima.core.simulation.SimStepProcess;
+import jasima.core.simulation.Simulation;
+
+/**
+ * Measures the throughput of the main event loop ({@code Simulation.schedule()}
+ * plus event dispatch) and of {@link SimProcess} context switches. Each
+ * benchmark invocation performs a complete simulation run of
+ * {@value #NUM_EVENTS} events, scores are reported per event.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulationBenchmark {
+
+	static final int NUM_EVENTS = 100_000;
+	static final int NUM_WAITS = 10_000;
+
+	@Param({ "EventHeap", "PrimitiveEventHeap4", "CalendarQueue" })
+	public String queueImpl;
+
+	@Param({ "1000" })
+	public int numPending;
+
+	// use "-p batchDispatch=false,true" to compare both modes
+	@Param({ "false" })
+	public boolean batchDispatch;
+
+	private double[] increments;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Random rnd = new Random(23);
+		increments = new double[1 << 16];
+		for (int i = 0; i < increments.length; i++) {
+			increments[i] = -Math.log(1.0 - rnd.nextDouble());
+		}
+	}
+
+	private Simulation newSimulation() {
+		Simulation sim = new Simulation() {
+			@Override
+			protected EventQueue createEventQueue() {
+				return EventQueueBenchmark.createQueue(SimulationBenchmark.this.queueImpl);
+			}
+		};
+		sim.setBatchDispatch(batchDispatch);
+		return sim;
+	}
+
+	/**
+	 * Hold model in a real simulation, each event reschedules itself (no
+	 * allocation per event).
+	 */
+	@Benchmark
+	@OperationsPerInvocation(NUM_EVENTS)
+	public long scheduleReusedEvents() {
+		Simulation sim = newSimulation();
+		int[] n = { 0 };
+		for (int i = 0; i < numPending; i++) {
+			sim.schedule(new SimEvent(increments[i], SimEvent.EVENT_PRIO_NORMAL) {
+				@Override
+				public void handle() {
+					int k = n[0]++;
+					if (k == NUM_EVENTS) {
+						sim.end();
+					}
+					setTime(sim.simTime() + increments[k & (increments.length - 1)]);
+					sim.schedule(this);
+				}
+			});
+		}
+		sim.performRun();
+		return sim.numEventsProcessed();
+	}
+
+	/**
+	 * Hold model using {@code scheduleIn()} with a lambda expression, creating a
+	 * new event object for each event.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(NUM_EVENTS)
+	public long scheduleInLambda() {
+		Simulation sim = newSimulation();
+		int[] n = { 0 };
+		Runnable[] action = new Runnable[1];
+		action[0] = () -> {
+			int k = n[0]++;
+			if (k == NUM_EVENTS) {
+				sim.end();
+			}
+			sim.scheduleIn(increments[k & (increments.length - 1)], SimEvent.EVENT_PRIO_NORMAL, action[0]);
+		};
+		for (int i = 0; i < numPending; i++) {
+			sim.scheduleAt(increments[i], SimEvent.EVENT_PRIO_NORMAL, action[0]);
+		}
+		sim.performRun();
+		return sim.numEventsProcessed();
+	}
+
+	/**
+	 * Like {@link #scheduleInLambda()}, but with integer time increments, so many
+	 * events share the same time stamp (as is common in shop models). This
+	 * benefits most from {@link Simulation#setBatchDispatch(boolean)}.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(NUM_EVENTS)
+	public long sameTimeEvents() {
+		Simulation sim = newSimulation();
+		int[] n = { 0 };
+		Runnable[] action = new Runnable[1];
+		action[0] = () -> {
+			int k = n[0]++;
+			if (k == NUM_EVENTS) {
+				sim.end();
+			}
+			sim.scheduleIn(1.0 + Math.floor(increments[k & (increments.length - 1)]), SimEvent.EVENT_PRIO_NORMAL,
+					action[0]);
+		};
+		for (int i = 0; i < numPending; i++) {
+			sim.scheduleAt(1.0 + Math.floor(increments[i]), SimEvent.EVENT_PRIO_NORMAL, action[0]);
+		}
+		sim.performRun();
+		return sim.numEventsProcessed();
+	}
+
+	/**
+	 * A single process repeatedly waiting for a certain amount of time. Each wait
+	 * requires two thread hand-offs between the process and the event loop.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(NUM_WAITS)
+	public long processContextSwitches() {
+		Simulation sim = newSimulation();
+		sim.setMainProcessActions(s -> {
+			// not using the main process, as it runs the event loop in its own thread
+			s.activate("waiter", () -> {
+				SimProcess<?> p = s.currentProcess();
+				for (int i = 0; i < NUM_WAITS; i++) {
+					p.waitFor(1.0);
+				}
+			});
+		});
+		sim.performRun();
+		return sim.numEventsProcessed();
+	}
+
+	/**
+	 * Same as {@link #processContextSwitches()}, but using a {@link SimStepProcess}
+	 * executed directly in the event loop's thread.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(NUM_WAITS)
+	public long stepProcessWaits() {
+		Simulation sim = newSimulation();
+		int[] n = { 0 };
+		sim.setMainProcessActions(s -> {
+			s.activateSteps("waiter", new Runnable() {
+				@Override
+				public void run() {
+					if (n[0]++ < NUM_WAITS) {
+						SimStepProcess.current().waitFor(1.0, this);
+					}
+				}
+			});
+		});
+		sim.performRun();
+		return sim.numEventsProcessed();
+	}
+
+}
@@ -0,0 +1,106 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jasima.core.simulation.Simulation;
+import jasima.shopSim.core.Job;
+import jasima.shopSim.core.Operation;
+import jasima.shopSim.core.Shop;
+import jasima.shopSim.core.WorkStation;
+
+/**
+ * Measures the event path of {@link WorkStation}s (job arrival, selection,
+ * lookahead notification and departure). A few jobs with very long routes
+ * alternate between two machines, so no objects are created by job sources.
+ * Scores are reported per operation processed.
+ * <p>
+ * Run with {@code -prof gc} to see the memory allocated per operation
+ * ({@code gc.alloc.rate.norm}), which should be (close to) zero, as the setup
+ * of the simulation is amortized over {@value #NUM_JOBS}*{@value #NUM_OPS}
+ * operations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkStationAllocationBenchmark {
+
+	static final int NUM_JOBS = 10;
+	static final int NUM_OPS = 20_000;
+
+	@Param({ "false", "true" })
+	public boolean lookahead;
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_JOBS * NUM_OPS)
+	public long workStationEvents() {
+		Simulation sim = new Simulation();
+
+		Shop shop = new Shop();
+		shop.setEnableLookAhead(lookahead);
+		WorkStation m1 = new WorkStation(1);
+		WorkStation m2 = new WorkStation(2);
+		shop.addMachine(m1);
+		shop.addMachine(m2);
+		sim.addComponent(shop);
+
+		Operation op1 = new Operation();
+		op1.setMachine(m1);
+		op1.setProcTime(1.0);
+		Operation op2 = new Operation();
+		op2.setMachine(m2);
+		op2.setProcTime(1.5);
+
+		// the same operation objects are shared by all jobs
+		Operation[] route = new Operation[NUM_OPS];
+		for (int i = 0; i < route.length; i++) {
+			route[i] = (i % 2 == 0) ? op1 : op2;
+		}
+
+		sim.setMainProcessActions(() -> {
+			for (int i = 0; i < NUM_JOBS; i++) {
+				Job j = new Job(shop);
+				j.setOps(route);
+				j.setTaskNumber(0);
+				j.setRelDate(sim.simTime());
+				j.setDueDate(Double.POSITIVE_INFINITY);
+				shop.startJob(j);
+			}
+		});
+
+		sim.performRun();
+		return sim.numEventsProcessed();
+	}
+
+}
@@ -42,6 +42,7 @@ import jasima.core.experiment.ExperimentCompletableFuture;
  * @author Torsten Hildebrandt
  * @see ThreadPoolExecutor
  * @see ForkJoinPoolExecutor
+ * @see SocketExecutor
  */
 public abstract class ExperimentExecutor {
 
@@ -95,6 +96,30 @@ public abstract class ExperimentExecutor {
 	 */
 	public abstract ExecutorService experimentExecutor(Experiment e, @Nullable Experiment parent);
 
+	/**
+	 * Returns the number of experiments this executor can execute concurrently.
+	 * The implementation here returns the number of available processors.
+	 * 
+	 * @return The number of experiments executed in parallel.
+	 */
+	public int getParallelism() {
+		return Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Starts execution of an experiment. The implementation here runs {@code e}
+	 * locally using the {@link ExecutorService} returned by
+	 * {@link #experimentExecutor(Experiment, Experiment)}.
+	 * 
+	 * @param e      The experiment to execute.
+	 * @param parent The parent experiment of "e". This might be null.
+	 * 
+	 * @return An {@link ExperimentCompletableFuture} to access experiment results.
+	 */
+	public ExperimentCompletableFuture runAsync(Experiment e, @Nullable Experiment parent) {
+		return runExperimentAsync(e, parent, experimentExecutor(e, parent));
+	}
+
 	/**
 	 * Execute many experiments at once. The implementation here simply calls
 	 * {@link #runExperimentAsync(Experiment,Experiment)} for all experiments in
@@ -128,7 +153,7 @@ public abstract class ExperimentExecutor {
 	 * @return An {@link ExperimentCompletableFuture} to access experiment results.
 	 */
 	public static ExperimentCompletableFuture runExperimentAsync(Experiment e, Experiment parent) {
-		return runExperimentAsync(e, parent, getExecutor().experimentExecutor(e, parent));
+		return getExecutor().runAsync(e, parent);
 	}
 
 	/**
@@ -0,0 +1,333 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.core.expExecution;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Serializable;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Map;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import jasima.core.experiment.Experiment;
+import jasima.core.util.Util;
+
+/**
+ * <p>
+ * Worker daemon executing experiments on behalf of a {@link SocketExecutor}.
+ * The worker listens on a TCP port, receives serialized {@link Experiment}s,
+ * runs them and sends back their result maps. Each connection is served by its
+ * own thread, so a worker can execute several experiments at once if a
+ * {@link SocketExecutor} opens several connections to it.
+ * </p>
+ * <p>
+ * <b>Security:</b> experiments are transferred using Java serialization, so
+ * everybody able to send data to a worker can execute arbitrary code on the
+ * worker's machine. Therefore each peer has to prove that it knows a shared
+ * secret token before any object is read (a challenge-response handshake using
+ * HMAC-SHA256, the token itself is never sent). The connection is not
+ * encrypted though, so workers on other machines should only be used in
+ * trusted networks.
+ * </p>
+ * <p>
+ * To start a worker, run this class with the address to bind to and the port
+ * to listen on (default: {@value #DEFAULT_PORT}) as its arguments, e.g.,
+ * "{@code 192.168.1.10 4711}". The token is read from the environment variable
+ * {@value #TOKEN_ENV}, the worker refuses to start without one. The class path
+ * has to contain all classes required by the experiments to execute. Results
+ * that are not {@link Serializable} are sent back as their {@code String}
+ * representation.
+ * </p>
+ * <p>
+ * Workers started by a {@link SocketExecutor} on the local machine only listen
+ * on the loopback interface and use a random token.
+ * </p>
+ * 
+ * @see SocketExecutor
+ */
+public class ExperimentWorker {
+
+	private static final Logger log = LogManager.getLogger(ExperimentWorker.class);
+
+	public static final int DEFAULT_PORT = 4711;
+
+	/**
+	 * Name of the environment variable containing the shared secret token.
+	 */
+	public static final String TOKEN_ENV = "JASIMA_WORKER_TOKEN";
+
+	/**
+	 * Written to stdout as soon as the worker accepts connections.
+	 */
+	static final String LISTENING_MSG = "jasima worker listening on port ";
+
+	/**
+	 * Command line option used by {@link SocketExecutor} for workers it started
+	 * itself. Such a worker listens on the loopback interface only and reads its
+	 * token from the first line of its standard input. It terminates when its
+	 * standard input is closed, i.e., when the process that started it
+	 * terminated.
+	 */
+	static final String LOCAL_OPTION = "--local";
+
+	// timeout for the handshake of a new connection
+	static final int HANDSHAKE_MILLIS = 10000;
+
+	private static final int NONCE_LENGTH = 32;
+	private static final SecureRandom random = new SecureRandom();
+
+	private final ServerSocket server;
+	private final byte[] token;
+
+	/**
+	 * Creates a new worker.
+	 * 
+	 * @param bindAddress The address to listen on, use
+	 *                    {@link InetAddress#getLoopbackAddress()} to accept
+	 *                    connections from the local machine only.
+	 * @param port        The port to listen on, 0 to use any free port.
+	 * @param token       The shared secret token clients have to know.
+	 * @throws IOException If the server socket can't be opened.
+	 */
+	public ExperimentWorker(InetAddress bindAddress, int port, String token) throws IOException {
+		super();
+		if (token == null || token.isEmpty()) {
+			throw new IllegalArgumentException("A token is required.");
+		}
+		this.token = tokenBytes(token);
+		server = new ServerSocket(port, 0, bindAddress);
+	}
+
+	/**
+	 * Returns the port this worker is listening on.
+	 */
+	public int getPort() {
+		return server.getLocalPort();
+	}
+
+	/**
+	 * Accepts connections until {@link #close()} is called.
+	 */
+	public void serve() {
+		int n = 0;
+		while (!server.isClosed()) {
+			try {
+				Socket s = server.accept();
+				Thread t = new Thread(() -> handle(s), "jasimaWorkerConnection-" + (++n));
+				t.start();
+			} catch (IOException e) {
+				if (!server.isClosed()) {
+					log.warn("error accepting connection", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Stops accepting connections.
+	 */
+	public void close() throws IOException {
+		server.close();
+	}
+
+	private void handle(Socket s) {
+		try (Socket socket = s;
+				DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+			socket.setTcpNoDelay(true);
+
+			socket.setSoTimeout(HANDSHAKE_MILLIS);
+			if (!authenticateClient(in, out, token)) {
+				log.warn("connection from {} rejected, authentication failed", s.getRemoteSocketAddress());
+				return;
+			}
+			socket.setSoTimeout(0);
+
+			while (true) {
+				byte[] data;
+				try {
+					data = new byte[in.readInt()];
+				} catch (EOFException closed) {
+					return;
+				}
+				in.readFully(data);
+
+				Experiment e = (Experiment) Util.deserialize(data);
+				Map<String, Object> res;
+				try {
+					res = e.runExperiment();
+				} catch (RuntimeException ex) {
+					// error is also contained in results
+					res = e.getResults();
+				}
+
+				writeFrame(out, Util.serializeResults(res));
+			}
+		} catch (IOException | ClassNotFoundException e) {
+			log.warn("connection from {} terminated", s.getRemoteSocketAddress(), e);
+		}
+	}
+
+	/**
+	 * Worker side of the handshake: sends a random challenge, checks the
+	 * client's response and then proves knowledge of the token to the client.
+	 * 
+	 * @return Whether the client knows the token.
+	 */
+	static boolean authenticateClient(DataInputStream in, DataOutputStream out, byte[] token) throws IOException {
+		byte[] nonceWorker = newNonce();
+		out.write(nonceWorker);
+		out.flush();
+
+		byte[] nonceClient = new byte[NONCE_LENGTH];
+		in.readFully(nonceClient);
+		byte[] response = new byte[NONCE_LENGTH];
+		in.readFully(response);
+		if (!MessageDigest.isEqual(response, mac(token, nonceWorker, nonceClient))) {
+			return false;
+		}
+
+		out.write(mac(token, nonceClient, nonceWorker));
+		out.flush();
+		return true;
+	}
+
+	/**
+	 * Client side of the handshake, see
+	 * {@link #authenticateClient(DataInputStream, DataOutputStream, byte[])}.
+	 * 
+	 * @return Whether the worker knows the token.
+	 */
+	static boolean authenticateWorker(DataInputStream in, DataOutputStream out, byte[] token) throws IOException {
+		byte[] nonceWorker = new byte[NONCE_LENGTH];
+		in.readFully(nonceWorker);
+
+		byte[] nonceClient = newNonce();
+		out.write(nonceClient);
+		out.write(mac(token, nonceWorker, nonceClient));
+		out.flush();
+
+		byte[] response = new byte[NONCE_LENGTH];
+		in.readFully(response);
+		return MessageDigest.isEqual(response, mac(token, nonceClient, nonceWorker));
+	}
+
+	private static byte[] newNonce() {
+		byte[] res = new byte[NONCE_LENGTH];
+		random.nextBytes(res);
+		return res;
+	}
+
+	private static byte[] mac(byte[] token, byte[] challenge, byte[] nonce) {
+		try {
+			Mac mac = Mac.getInstance("HmacSHA256");
+			mac.init(new SecretKeySpec(token, "HmacSHA256"));
+			mac.update(challenge);
+			return mac.doFinal(nonce);
+		} catch (GeneralSecurityException e) {
+			// HmacSHA256 is available in every JRE
+			throw new AssertionError(e);
+		}
+	}
+
+	static byte[] tokenBytes(String token) {
+		return token.getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Creates a random token, e.g., for workers on the local machine.
+	 */
+	static String newToken() {
+		StringBuilder sb = new StringBuilder();
+		for (byte b : newNonce()) {
+			sb.append(String.format("%02x", b));
+		}
+		return sb.toString();
+	}
+
+	static void writeFrame(DataOutputStream out, byte[] data) throws IOException {
+		out.writeInt(data.length);
+		out.write(data);
+		out.flush();
+	}
+
+	public static void main(String... args) throws IOException {
+		InetAddress bindAddress;
+		int port;
+		String token;
+		BufferedReader stdin = null;
+		if (args.length == 2 && LOCAL_OPTION.equals(args[1])) {
+			bindAddress = InetAddress.getLoopbackAddress();
+			port = Integer.parseInt(args[0]);
+			stdin = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+			token = stdin.readLine();
+		} else if (args.length == 1 || args.length == 2) {
+			bindAddress = InetAddress.getByName(args[0]);
+			port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+			token = System.getenv(TOKEN_ENV);
+		} else {
+			System.err.println("usage: " + ExperimentWorker.class.getName() + " <bindAddress> [<port>]");
+			System.exit(1);
+			return;
+		}
+		if (token == null || token.isEmpty()) {
+			System.err.println("No token given, set the environment variable " + TOKEN_ENV + ".");
+			System.exit(1);
+			return;
+		}
+
+		ExperimentWorker worker = new ExperimentWorker(bindAddress, port, token);
+		System.out.println(LISTENING_MSG + worker.getPort());
+		System.out.flush();
+
+		if (stdin != null) {
+			BufferedReader r = stdin;
+			Thread t = new Thread(() -> {
+				try {
+					while (r.read() >= 0) {
+						// ignore input
+					}
+				} catch (IOException ignore) {
+				}
+				System.exit(0);
+			}, "jasimaWorkerParentWatch");
+			t.setDaemon(true);
+			t.start();
+		}
+
+		worker.serve();
+	}
+
+}
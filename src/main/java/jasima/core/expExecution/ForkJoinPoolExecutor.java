@@ -0,0 +1,102 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.core.expExecution;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jasima.core.experiment.Experiment;
+
+/**
+ * <p>
+ * Implementation of an {@link ExperimentExecutor} using a single
+ * {@link ForkJoinPool} for experiments of all nesting levels. Idle worker
+ * threads steal sub-experiments from busy ones, so cores are kept busy even if
+ * run times of experiments differ a lot. If a parent experiment waits for its
+ * sub-experiments, the pool can activate a compensating worker thread, so there
+ * is no starvation even though there is only a single pool.
+ * </p>
+ * <p>
+ * The pool uses up to {@code Runtime.getRuntime().availableProcessors()}
+ * threads. This number can be overridden by setting the system property
+ * "jasima.core.expExecution.ForkJoinPoolExecutor.numThreads". To use this
+ * executor, set the system property
+ * "{@code jasima.core.expExecution.ExperimentExecutor}" to
+ * "{@code jasima.core.expExecution.ForkJoinPoolExecutor}".
+ * </p>
+ * 
+ * @see ThreadPoolExecutor
+ */
+public class ForkJoinPoolExecutor extends ExperimentExecutor {
+
+	public static final String POOL_SIZE_SETTING = ForkJoinPoolExecutor.class.getName() + ".numThreads";
+
+	private ForkJoinPool pool;
+
+	// has to be public to be callable using reflection
+	public ForkJoinPoolExecutor() {
+		super();
+	}
+
+	@Override
+	public synchronized ExecutorService experimentExecutor(Experiment e, Experiment parent) {
+		if (pool == null) {
+			pool = createPool();
+		}
+		return pool;
+	}
+
+	@Override
+	public int getParallelism() {
+		String sizeStr = System.getProperty(POOL_SIZE_SETTING);
+		if (sizeStr != null)
+			return Integer.parseInt(sizeStr.trim());
+		else
+			return super.getParallelism();
+	}
+
+	@Override
+	public synchronized void shutdownNow() {
+		if (pool != null) {
+			pool.shutdownNow();
+			pool = null;
+		}
+	}
+
+	private ForkJoinPool createPool() {
+		int numThreads = getParallelism();
+
+		ForkJoinWorkerThreadFactory threadFactory = new ForkJoinWorkerThreadFactory() {
+			final AtomicInteger numCreated = new AtomicInteger(0);
+
+			@Override
+			public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+				ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+				t.setDaemon(true);
+				t.setName("jasimaWorker-" + numCreated.addAndGet(1));
+				return t;
+			}
+		};
+
+		return new ForkJoinPool(numThreads, threadFactory, null, false);
+	}
+
+}
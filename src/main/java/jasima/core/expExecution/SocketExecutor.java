@@ -0,0 +1,482 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.core.expExecution;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.ProcessBuilder.Redirect;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import jasima.core.experiment.AbstractMultiExperiment;
+import jasima.core.experiment.Experiment;
+import jasima.core.experiment.ExperimentCompletableFuture;
+import jasima.core.util.Util;
+
+/**
+ * <p>
+ * Implementation of an {@link ExperimentExecutor} executing experiments in
+ * separate worker processes, possibly on other machines. Experiments are sent
+ * to {@link ExperimentWorker}s as serialized clones using TCP sockets, their
+ * result maps are sent back. This isolates experiments from each other: if a
+ * worker crashes (e.g., because of an {@code OutOfMemoryError}), the
+ * experiments it was executing are resubmitted to another worker (up to
+ * {@value #DEFAULT_MAX_ATTEMPTS} attempts, can be changed with the system
+ * property "jasima.core.expExecution.SocketExecutor.maxAttempts").
+ * </p>
+ * <p>
+ * Only experiments without sub-experiments are executed by workers.
+ * Sub-classes of {@link AbstractMultiExperiment} are executed locally by a
+ * {@link ThreadPoolExecutor}, because they have to coordinate their
+ * sub-experiments. Listeners of experiments executed by a worker are notified
+ * in the worker process only.
+ * </p>
+ * <p>
+ * <b>Security:</b> experiments are sent using Java serialization, so a worker
+ * executes code on behalf of everybody who can connect to it. Workers and
+ * executors therefore authenticate each other using a shared secret token (see
+ * {@link ExperimentWorker}). Local workers only listen on the loopback interface
+ * and use a random token. Connections are not encrypted, so only use remote
+ * workers in trusted networks. The token for remote workers is read from the
+ * environment variable {@value ExperimentWorker#TOKEN_ENV}.
+ * </p>
+ * <p>
+ * Workers are configured using the following system properties:
+ * </p>
+ * <ul>
+ * <li>"jasima.core.expExecution.SocketExecutor.workers": comma-separated list
+ * of worker addresses ({@code host:port}) of {@link ExperimentWorker}s that
+ * were started manually. Each address is used for a single experiment at a
+ * time, list an address several times to execute several experiments in
+ * parallel on this worker.
+ * <li>"jasima.core.expExecution.SocketExecutor.numLocalWorkers": number of
+ * worker processes to start on the local machine. These use the same Java
+ * installation and class path as the current process. Defaults to
+ * {@code Runtime.getRuntime().availableProcessors()} if no worker addresses are
+ * given, 0 otherwise.
+ * <li>"jasima.core.expExecution.SocketExecutor.workerJvmArgs": additional
+ * arguments (separated by white space) for the JVMs of local workers, e.g.,
+ * "-Xmx1g".
+ * </ul>
+ * <p>
+ * To use this executor, set the system property
+ * "{@code jasima.core.expExecution.ExperimentExecutor}" to
+ * "{@code jasima.core.expExecution.SocketExecutor}".
+ * </p>
+ * 
+ * @see ExperimentWorker
+ */
+public class SocketExecutor extends ExperimentExecutor {
+
+	private static final Logger log = LogManager.getLogger(SocketExecutor.class);
+
+	public static final String WORKERS_SETTING = SocketExecutor.class.getName() + ".workers";
+	public static final String NUM_LOCAL_WORKERS_SETTING = SocketExecutor.class.getName() + ".numLocalWorkers";
+	public static final String WORKER_JVM_ARGS_SETTING = SocketExecutor.class.getName() + ".workerJvmArgs";
+	public static final String MAX_ATTEMPTS_SETTING = SocketExecutor.class.getName() + ".maxAttempts";
+
+	public static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+	// interval to check for interruption while waiting for results
+	private static final int POLL_MILLIS = 200;
+
+	private final List<WorkerSlot> slots;
+	private final BlockingQueue<WorkerSlot> idleSlots;
+	private final AtomicInteger numAvailable;
+	private final List<String> workerJvmArgs;
+	private final int maxAttempts;
+	private final ThreadPoolExecutor local;
+	private ExecutorService dispatcher;
+
+	// has to be public to be callable using reflection
+	public SocketExecutor() {
+		this(parseAddresses(System.getProperty(WORKERS_SETTING)), -1);
+	}
+
+	/**
+	 * Creates a new executor using the given workers. The token for remote
+	 * workers is read from the environment variable
+	 * {@value ExperimentWorker#TOKEN_ENV}.
+	 * 
+	 * @see #SocketExecutor(Collection, int, String)
+	 */
+	public SocketExecutor(Collection<String> workerAddresses, int numLocalWorkers) {
+		this(workerAddresses, numLocalWorkers, System.getenv(ExperimentWorker.TOKEN_ENV));
+	}
+
+	/**
+	 * Creates a new executor using the given workers.
+	 * 
+	 * @param workerAddresses Addresses ({@code host:port}) of running
+	 *                        {@link ExperimentWorker}s.
+	 * @param numLocalWorkers The number of worker processes to start on this
+	 *                        machine. If this is -1, the value of the system
+	 *                        property
+	 *                        "jasima.core.expExecution.SocketExecutor.numLocalWorkers"
+	 *                        is used (see above).
+	 * @param token           The secret token shared with the remote workers. Can
+	 *                        be {@code null} if there are only local workers.
+	 */
+	public SocketExecutor(Collection<String> workerAddresses, int numLocalWorkers, @Nullable String token) {
+		super();
+
+		if (!workerAddresses.isEmpty() && (token == null || token.isEmpty())) {
+			throw new IllegalArgumentException("A token is required to use remote workers.");
+		}
+
+		if (numLocalWorkers < 0) {
+			String s = System.getProperty(NUM_LOCAL_WORKERS_SETTING);
+			if (s != null) {
+				numLocalWorkers = Integer.parseInt(s.trim());
+			} else {
+				numLocalWorkers = workerAddresses.isEmpty() ? Runtime.getRuntime().availableProcessors() : 0;
+			}
+		}
+
+		String jvmArgs = System.getProperty(WORKER_JVM_ARGS_SETTING, "").trim();
+		workerJvmArgs = jvmArgs.isEmpty() ? Collections.emptyList() : Arrays.asList(jvmArgs.split("\\s+"));
+		String attempts = System.getProperty(MAX_ATTEMPTS_SETTING);
+		maxAttempts = attempts == null ? DEFAULT_MAX_ATTEMPTS : Integer.parseInt(attempts.trim());
+
+		slots = new ArrayList<>();
+		for (String address : workerAddresses) {
+			int i = address.lastIndexOf(':');
+			if (i < 0) {
+				slots.add(new WorkerSlot(address.trim(), ExperimentWorker.DEFAULT_PORT, token));
+			} else {
+				slots.add(new WorkerSlot(address.substring(0, i).trim(),
+						Integer.parseInt(address.substring(i + 1).trim()), token));
+			}
+		}
+		for (int i = 0; i < numLocalWorkers; i++) {
+			slots.add(new WorkerSlot(null, -1, null));
+		}
+		if (slots.isEmpty()) {
+			throw new IllegalArgumentException("No workers configured.");
+		}
+
+		idleSlots = new LinkedBlockingQueue<>(slots);
+		numAvailable = new AtomicInteger(slots.size());
+		local = new ThreadPoolExecutor();
+	}
+
+	private static List<String> parseAddresses(@Nullable String s) {
+		List<String> res = new ArrayList<>();
+		if (s != null) {
+			for (String address : s.split(",")) {
+				if (!address.trim().isEmpty()) {
+					res.add(address.trim());
+				}
+			}
+		}
+		return res;
+	}
+
+	@Override
+	public ExecutorService experimentExecutor(Experiment e, @Nullable Experiment parent) {
+		return local.experimentExecutor(e, parent);
+	}
+
+	@Override
+	public ExperimentCompletableFuture runAsync(Experiment e, @Nullable Experiment parent) {
+		if (e instanceof AbstractMultiExperiment) {
+			return super.runAsync(e, parent);
+		} else {
+			return new ExperimentCompletableFuture(e, dispatcher(), this::runRemote);
+		}
+	}
+
+	/**
+	 * Returns the number of workers.
+	 */
+	@Override
+	public int getParallelism() {
+		return slots.size();
+	}
+
+	@Override
+	public synchronized void shutdownNow() {
+		if (dispatcher != null) {
+			dispatcher.shutdownNow();
+			dispatcher = null;
+		}
+		local.shutdownNow();
+		for (WorkerSlot slot : slots) {
+			slot.reset();
+		}
+	}
+
+	private synchronized ExecutorService dispatcher() {
+		if (dispatcher == null) {
+			AtomicInteger numCreated = new AtomicInteger(0);
+			dispatcher = Executors.newFixedThreadPool(slots.size(), r -> {
+				Thread t = new Thread(r, "jasimaDispatcher-" + numCreated.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			});
+		}
+		return dispatcher;
+	}
+
+	/**
+	 * Executes an experiment on the next idle worker, resubmitting it if the
+	 * worker fails.
+	 */
+	private Map<String, Object> runRemote(Experiment e) {
+		byte[] data;
+		try {
+			data = Util.serialize(e);
+		} catch (IOException ex) {
+			throw new UncheckedIOException("Can't serialize experiment '" + e + "'.", ex);
+		}
+
+		IOException lastError = null;
+		for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+			WorkerSlot slot = takeIdleSlot();
+			try {
+				return slot.run(data);
+			} catch (ClassNotFoundException ex) {
+				throw new RuntimeException(ex);
+			} catch (IOException ex) {
+				lastError = ex;
+				log.warn("attempt {} to execute '{}' on worker {} failed: {}", attempt, e, slot, ex.toString());
+			} finally {
+				if (slot.available) {
+					idleSlots.add(slot);
+				} else {
+					numAvailable.decrementAndGet();
+				}
+			}
+		}
+
+		throw new UncheckedIOException("Execution of '" + e + "' failed " + maxAttempts + " times.", lastError);
+	}
+
+	private WorkerSlot takeIdleSlot() {
+		try {
+			while (true) {
+				if (numAvailable.get() <= 0) {
+					throw new IllegalStateException("No workers available.");
+				}
+				WorkerSlot slot = idleSlots.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if (slot != null) {
+					return slot;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt(); // restore interrupt flag
+			throw new CancellationException("Execution interrupted.");
+		}
+	}
+
+	/**
+	 * A connection to a worker executing one experiment at a time. A slot without
+	 * host starts its own local worker process.
+	 */
+	private final class WorkerSlot {
+		final @Nullable String host;
+		int port;
+		byte[] token;
+
+		// set to false if no connection can be established
+		volatile boolean available = true;
+
+		Process process;
+		Socket socket;
+		DataInputStream in;
+		DataOutputStream out;
+
+		WorkerSlot(@Nullable String host, int port, @Nullable String token) {
+			super();
+			this.host = host;
+			this.port = port;
+			this.token = token == null ? null : ExperimentWorker.tokenBytes(token);
+		}
+
+		Map<String, Object> run(byte[] data) throws IOException, ClassNotFoundException {
+			if (socket == null) {
+				connect();
+			}
+
+			try {
+				ExperimentWorker.writeFrame(out, data);
+
+				byte[] len = new byte[4];
+				readFully(len);
+				byte[] res = new byte[ByteBuffer.wrap(len).getInt()];
+				readFully(res);
+
+				@SuppressWarnings("unchecked")
+				Map<String, Object> map = (Map<String, Object>) Util.deserialize(res);
+				return map;
+			} catch (IOException | RuntimeException e) {
+				// state of the connection is unknown, start over
+				reset();
+				throw e;
+			}
+		}
+
+		/**
+		 * Reads {@code b.length} bytes, checking periodically whether the current
+		 * thread was interrupted.
+		 */
+		private void readFully(byte[] b) throws IOException {
+			int off = 0;
+			while (off < b.length) {
+				try {
+					int n = in.read(b, off, b.length - off);
+					if (n < 0) {
+						throw new EOFException("Connection closed by worker.");
+					}
+					off += n;
+				} catch (SocketTimeoutException e) {
+					if (Thread.currentThread().isInterrupted()) {
+						throw new CancellationException("Execution interrupted.");
+					}
+				}
+			}
+		}
+
+		private void connect() throws IOException {
+			try {
+				if (host == null && process == null) {
+					startLocalWorker();
+				}
+				socket = host == null ? new Socket(InetAddress.getLoopbackAddress(), port) : new Socket(host, port);
+				socket.setTcpNoDelay(true);
+				in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+				out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+				socket.setSoTimeout(ExperimentWorker.HANDSHAKE_MILLIS);
+				if (!ExperimentWorker.authenticateWorker(in, out, token)) {
+					throw new IOException("Authentication failed.");
+				}
+				socket.setSoTimeout(POLL_MILLIS);
+			} catch (IOException e) {
+				log.warn("can't connect to worker {}, not using it anymore: {}", this, e.toString());
+				available = false;
+				reset();
+				throw e;
+			}
+		}
+
+		private void startLocalWorker() throws IOException {
+			List<String> cmd = new ArrayList<>();
+			cmd.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+			cmd.addAll(workerJvmArgs);
+			cmd.add("-cp");
+			cmd.add(System.getProperty("java.class.path"));
+			cmd.add(ExperimentWorker.class.getName());
+			cmd.add("0");
+			cmd.add(ExperimentWorker.LOCAL_OPTION);
+
+			process = new ProcessBuilder(cmd).redirectError(Redirect.INHERIT).start();
+
+			// pass a new token using stdin, which is kept open until the worker is
+			// no longer needed
+			String t = ExperimentWorker.newToken();
+			token = ExperimentWorker.tokenBytes(t);
+			OutputStream stdin = process.getOutputStream();
+			stdin.write((t + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+			stdin.flush();
+
+			// wait until the worker reports its port
+			BufferedReader r = new BufferedReader(
+					new InputStreamReader(process.getInputStream(), Charset.defaultCharset()));
+			String line;
+			while ((line = r.readLine()) != null && !line.startsWith(ExperimentWorker.LISTENING_MSG)) {
+				log.info("local worker: {}", line);
+			}
+			if (line == null) {
+				throw new IOException("Local worker process terminated unexpectedly.");
+			}
+			port = Integer.parseInt(line.substring(ExperimentWorker.LISTENING_MSG.length()).trim());
+
+			// forward any further output
+			int p = port;
+			Thread th = new Thread(() -> {
+				try {
+					String l;
+					while ((l = r.readLine()) != null) {
+						log.info("local worker {}: {}", p, l);
+					}
+				} catch (IOException ignore) {
+				}
+			}, "jasimaWorkerOutput-" + port);
+			th.setDaemon(true);
+			th.start();
+		}
+
+		/**
+		 * Closes the connection. Local worker processes are terminated and started
+		 * again when the slot is used the next time.
+		 */
+		void reset() {
+			if (socket != null) {
+				try {
+					socket.close();
+				} catch (IOException ignore) {
+				}
+				socket = null;
+				in = null;
+				out = null;
+			}
+			if (process != null) {
+				process.destroyForcibly();
+				process = null;
+			}
+		}
+
+		@Override
+		public String toString() {
+			return host == null ? "local" + (process == null ? "" : ":" + port) : host + ":" + port;
+		}
+	}
+
+}
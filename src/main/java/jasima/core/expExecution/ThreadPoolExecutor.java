@@ -57,6 +57,15 @@ public class ThreadPoolExecutor extends ExperimentExecutor {
 		return getExecutorInstance(e.nestingLevel());
 	}
 
+	@Override
+	public int getParallelism() {
+		String sizeStr = System.getProperty(POOL_SIZE_SETTING);
+		if (sizeStr != null)
+			return Integer.parseInt(sizeStr.trim());
+		else
+			return super.getParallelism();
+	}
+
 	@Override
 	public synchronized void shutdownNow() {
 		for (ExecutorService inst : insts.values()) {
@@ -76,10 +85,7 @@ public class ThreadPoolExecutor extends ExperimentExecutor {
 	}
 
 	private ExecutorService createExecService(final int nestingLevel) {
-		int numThreads = Runtime.getRuntime().availableProcessors();
-		String sizeStr = System.getProperty(POOL_SIZE_SETTING);
-		if (sizeStr != null)
-			numThreads = Integer.parseInt(sizeStr.trim());
+		int numThreads = getParallelism();
 
 		ThreadFactory threadFactory = new ThreadFactory() {
 			final ThreadFactory defFactory = Executors.defaultThreadFactory();
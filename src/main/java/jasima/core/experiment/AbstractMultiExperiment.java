@@ -17,19 +17,24 @@ limitations under the License.
 */
 package jasima.core.experiment;
 
-import static jasima.core.expExecution.ExperimentExecutor.runAllExperiments;
-
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import jasima.core.expExecution.ExperimentExecutor;
 import jasima.core.statistics.SummaryStat;
+import jasima.core.util.MsgCategory;
 import jasima.core.util.Pair;
 
 /**
@@ -71,6 +76,7 @@ public abstract class AbstractMultiExperiment extends Experiment {
 	private boolean abortUponBaseExperimentAbort = false;
 	private String[] keepResults = {};
 	private boolean produceAveragedResults = true;
+	private String journalFile = null;
 
 	// fields used during run
 
@@ -79,11 +85,33 @@ public abstract class AbstractMultiExperiment extends Experiment {
 	protected Random seedStream;
 	protected List<Experiment> experiments;
 	protected int numTasksExecuted;
+	private long taskNumber; // number of the task whose results are currently stored
+
+	// journal of completed sub-experiments, shared with nested multi-experiments
+	private transient ExperimentJournal journal;
+	private transient boolean ownsJournal;
+	private transient String journalPrefix;
+	private transient Map<String, Integer> journalKeyCounts;
+	private transient Map<Experiment, String> journalKeys;
 
 	@Override
 	public void init() {
 		super.init();
 
+		if (journal == null && getJournalFile() != null) {
+			try {
+				journal = new ExperimentJournal(new File(getJournalFile()), getInitialSeed());
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			ownsJournal = true;
+			journalPrefix = "";
+			print(MsgCategory.INFO, "journal '%s' contains %d completed sub-experiments", getJournalFile(),
+					journal.size());
+		}
+		journalKeyCounts = new HashMap<>();
+		journalKeys = new IdentityHashMap<>();
+
 		experiments = new ArrayList<Experiment>();
 		seedStream = null;
 
@@ -97,6 +125,24 @@ public abstract class AbstractMultiExperiment extends Experiment {
 		}
 	}
 
+	@Override
+	protected void finalActions() {
+		super.finalActions();
+
+		if (ownsJournal) {
+			try {
+				journal.close();
+			} catch (IOException e) {
+				print(MsgCategory.WARN, "error closing journal: %s", e);
+			}
+		}
+		journal = null;
+		ownsJournal = false;
+		journalPrefix = null;
+		journalKeyCounts = null;
+		journalKeys = null;
+	}
+
 	@Override
 	protected void performRun() {
 		do {
@@ -114,28 +160,49 @@ public abstract class AbstractMultiExperiment extends Experiment {
 
 	protected void executeExperiments() {
 		try {
+			int firstTaskNumber = getNumTasksExecuted() + 1;
 			if (isAllowParallelExecution()) {
-				// start execution and store process results in the same order
-				// as they are stored in tasks
-				int n = 0;
-				Collection<ExperimentCompletableFuture> allFutures = runAllExperiments(experiments, this);
-				Iterator<ExperimentCompletableFuture> it = allFutures.iterator();
-				while (it.hasNext()) {
-					ExperimentCompletableFuture f = it.next();
-					it.remove();
-
-					assert f.getExperiment() == experiments.get(n);
-					getAndStoreResults(experiments.get(n), f);
-					experiments.set(n, null);
-					n++;
-
-					// check if to abort this experiment, if so cancel all
-					// future tasks
-					if (aborted != 0) {
-						for (ExperimentCompletableFuture f2 : allFutures) {
-							f2.cancel(true);
+				// start execution and store results in the order experiments finish, so
+				// results don't have to wait for slower experiments started earlier;
+				// if aborting upon the first aborted sub-experiment, results are stored in
+				// task order, so the same sub-experiments are considered as without
+				// parallel execution
+				List<ExperimentCompletableFuture> allFutures = new ArrayList<>(experiments.size());
+				for (Experiment e : experiments) {
+					allFutures.add(runSubExperiment(e));
+				}
+				BlockingQueue<Integer> finished = new LinkedBlockingQueue<>();
+				for (int i = 0; i < allFutures.size(); i++) {
+					int n = i;
+					allFutures.get(i).whenComplete((r, ex) -> finished.add(n));
+				}
+
+				boolean inOrder = isAbortUponBaseExperimentAbort();
+				boolean[] isFinished = new boolean[allFutures.size()];
+				int numStored = 0;
+				int next = 0; // next task to store if in task order
+				while (numStored < allFutures.size() && aborted == 0) {
+					int n = takeFinished(finished);
+					isFinished[n] = true;
+					if (!inOrder) {
+						storeResults(allFutures, n, firstTaskNumber + n);
+						numStored++;
+					} else {
+						while (next < isFinished.length && isFinished[next] && aborted == 0) {
+							storeResults(allFutures, next, firstTaskNumber + next);
+							next++;
+							numStored++;
+						}
+					}
+				}
+
+				// check if to abort this experiment, if so cancel all
+				// future tasks
+				if (aborted != 0) {
+					for (ExperimentCompletableFuture f : allFutures) {
+						if (f != null) {
+							f.cancel(true);
 						}
-						break; // while
 					}
 				}
 			} else {
@@ -145,8 +212,8 @@ public abstract class AbstractMultiExperiment extends Experiment {
 					experiments.set(i, null);
 
 					if (aborted == 0) {
-						ExperimentCompletableFuture future = ExperimentExecutor.runExperimentAsync(e, this);
-						getAndStoreResults(e, future);
+						ExperimentCompletableFuture future = runSubExperiment(e);
+						getAndStoreResults(e, firstTaskNumber + i, future);
 					} else {
 						break; // for i
 					}
@@ -157,22 +224,136 @@ public abstract class AbstractMultiExperiment extends Experiment {
 		}
 	}
 
-	private void getAndStoreResults(Experiment e, ExperimentCompletableFuture f) throws InterruptedException {
+	private void storeResults(List<ExperimentCompletableFuture> allFutures, int n, int taskNum)
+			throws InterruptedException {
+		ExperimentCompletableFuture f = allFutures.get(n);
+		allFutures.set(n, null);
+
+		assert f.getExperiment() == experiments.get(n);
+		getAndStoreResults(experiments.get(n), taskNum, f);
+		experiments.set(n, null);
+	}
+
+	/**
+	 * Waits until the next sub-experiment finished. If called in a
+	 * {@link ForkJoinPool} (see {@link jasima.core.expExecution.ForkJoinPoolExecutor}),
+	 * the pool can activate another worker thread while this thread is blocked.
+	 */
+	static int takeFinished(BlockingQueue<Integer> finished) throws InterruptedException {
+		Integer[] res = { null };
+		ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+			@Override
+			public boolean block() throws InterruptedException {
+				if (res[0] == null) {
+					res[0] = finished.take();
+				}
+				return true;
+			}
+
+			@Override
+			public boolean isReleasable() {
+				return res[0] != null || (res[0] = finished.poll()) != null;
+			}
+		});
+		return res[0];
+	}
+
+	/**
+	 * Starts execution of a sub-experiment. If a journal is used (see
+	 * {@link #setJournalFile(String)}) and it contains results for {@code e},
+	 * these results are used instead of executing {@code e}.
+	 * 
+	 * @param e The sub-experiment to execute.
+	 * @return An {@link ExperimentCompletableFuture} to access its results.
+	 */
+	protected ExperimentCompletableFuture runSubExperiment(Experiment e) {
+		if (journal != null) {
+			String key = journalKey(e);
+			Map<String, Object> res = journal.get(key);
+			if (res != null) {
+				return new ExperimentCompletableFuture(e, ExperimentExecutor.getExecutor().experimentExecutor(e, this),
+						exp -> res);
+			}
+
+			journalKeys.put(e, key);
+			if (e instanceof AbstractMultiExperiment) {
+				AbstractMultiExperiment ame = (AbstractMultiExperiment) e;
+				ame.journal = journal;
+				ame.journalPrefix = key + "/";
+			}
+		}
+
+		return ExperimentExecutor.runExperimentAsync(e, this);
+	}
+
+	/**
+	 * Sub-experiments are identified by their name and seed. If an experiment is
+	 * executed several times (like configurations of an {@link OCBAExperiment}),
+	 * keys are made unique by counting executions.
+	 */
+	private String journalKey(Experiment e) {
+		String key = journalPrefix + e.getName() + "#" + e.getInitialSeed();
+		int n = journalKeyCounts.merge(key, 1, Integer::sum);
+		return key + "#" + n;
+	}
+
+	void getAndStoreResults(Experiment e, int taskNum, ExperimentCompletableFuture f)
+			throws InterruptedException {
 		// wait for results ignoring exceptions (they are also reflected in experiment
 		// results)
 		Map<String, Object> res = f.joinIgnoreExceptions();
 
+		String journalKey = journalKeys == null ? null : journalKeys.remove(e);
+		if (journalKey != null && !(e.getError() instanceof CancellationException)) {
+			try {
+				journal.add(journalKey, res);
+			} catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		}
+
 		numTasksExecuted++;
+		taskNumber = taskNumberOf(e, taskNum);
 		storeRunResults(e, res);
 
 		fire(new BaseExperimentCompleted(e, res));
 	}
 
+	/**
+	 * Returns the task number used to store the results of a sub-experiment.
+	 * 
+	 * @param e       The sub-experiment.
+	 * @param taskNum The number of the task in the order sub-experiments were
+	 *                created.
+	 * @return The task number, by default {@code taskNum}.
+	 */
+	protected long taskNumberOf(Experiment e, int taskNum) {
+		return taskNum;
+	}
+
 	protected void configureRunExperiment(Experiment e) {
-		e.setInitialSeed(getExperimentSeed());
+		configureRunExperiment(e, getExperimentSeed(), experiments.size() + 1);
+	}
+
+	/**
+	 * Configures the sub-experiment with the given index, i.e., the index in the
+	 * sequence of all sub-experiments as if all were executed in a single run.
+	 * Name and seed (unless using common random numbers) only depend on
+	 * {@code index}, so they are the same if only a part of the sub-experiments
+	 * is executed.
+	 * 
+	 * @param e     The sub-experiment.
+	 * @param index Its index, starting with 0.
+	 */
+	protected void configureRunExperiment(Experiment e, long index) {
+		configureRunExperiment(e, getExperimentSeed(index), index + 1);
+	}
+
+	private void configureRunExperiment(Experiment e, long seed, long taskNum) {
+		e.setInitialSeed(seed);
 		e.nestingLevel(nestingLevel() + 1);
 
-		String name = prefix() + padNumTasks(experiments.size() + 1);
+		String name = prefix() + padNumTasks(taskNum);
 		if (e.getName() != null)
 			name = name + "." + e.getName();
 		e.setName(name);
@@ -188,6 +369,53 @@ public abstract class AbstractMultiExperiment extends Experiment {
 		}
 	}
 
+	/**
+	 * Returns the seed of the sub-experiment with the given index, i.e., the same
+	 * value the {@code (index + 1)}-th call of {@link #getExperimentSeed()} would
+	 * return (after skipping {@code skipSeedCount} seeds), without computing all
+	 * previous seeds.
+	 * 
+	 * @param index The index of the sub-experiment, starting with 0.
+	 * @return The seed.
+	 */
+	protected long getExperimentSeed(long index) {
+		if (isCommonRandomNumbers())
+			return getInitialSeed();
+		else
+			return nthLong(getInitialSeed(), getSkipSeedCount() + index);
+	}
+
+	/**
+	 * Returns the result of the {@code (n + 1)}-th call of
+	 * {@link Random#nextLong()} of {@code new Random(seed)}. The linear
+	 * congruential generator of {@link Random} is advanced in O(log n) steps.
+	 */
+	static long nthLong(long seed, long n) {
+		final long multiplier = 0x5DEECE66DL;
+		final long addend = 0xBL;
+		final long mask = (1L << 48) - 1;
+
+		// each call of nextLong() advances the generator twice
+		long steps = 2 * n;
+		long accMult = 1;
+		long accAdd = 0;
+		long curMult = multiplier;
+		long curAdd = addend;
+		while (steps > 0) {
+			if ((steps & 1) != 0) {
+				accMult = (accMult * curMult) & mask;
+				accAdd = (accAdd * curMult + curAdd) & mask;
+			}
+			curAdd = ((curMult + 1) * curAdd) & mask;
+			curMult = (curMult * curMult) & mask;
+			steps >>>= 1;
+		}
+
+		long state = (((seed ^ multiplier) & mask) * accMult + accAdd) & mask;
+		// setSeed() scrambles its argument the same way
+		return new Random(state ^ multiplier).nextLong();
+	}
+
 	protected void storeRunResults(Experiment e, Map<String, Object> r) {
 		Integer subAborted = (Integer) r.get(Experiment.EXP_ABORTED);
 		if (subAborted != null) {
@@ -200,7 +428,7 @@ public abstract class AbstractMultiExperiment extends Experiment {
 			Object val = r.get(key);
 
 			if (shouldKeepDetails(key))
-				detailedResultsOther.put(key + "." + prefix() + padNumTasks(getNumTasksExecuted()), r.get(key));
+				detailedResultsOther.put(key + "." + prefix() + padNumTasks(taskNumber), r.get(key));
 
 			if (isProduceAveragedResults()) {
 				if ((val != null) && ((val instanceof SummaryStat) || ((val instanceof Number))))
@@ -219,8 +447,8 @@ public abstract class AbstractMultiExperiment extends Experiment {
 		return false;
 	}
 
-	private String padNumTasks(int v) {
-		int l = String.valueOf(getNumExperiments()).length();
+	private String padNumTasks(long v) {
+		int l = String.valueOf(getMaxTaskNumber()).length();
 
 		StringBuilder sb = new StringBuilder(l);
 		sb.append(v);
@@ -231,6 +459,14 @@ public abstract class AbstractMultiExperiment extends Experiment {
 
 	public abstract int getNumExperiments();
 
+	/**
+	 * Returns the largest possible task number, used to format the names of
+	 * sub-experiments. Defaults to {@link #getNumExperiments()}.
+	 */
+	protected long getMaxTaskNumber() {
+		return getNumExperiments();
+	}
+
 	public int getNumTasks() {
 		return experiments.size();
 	}
@@ -242,7 +478,9 @@ public abstract class AbstractMultiExperiment extends Experiment {
 	protected abstract String prefix();
 
 	/**
-	 * Handles arbitrary values "val" by storing them in an object array.
+	 * Handles arbitrary values "val" by storing them in an object array. Values
+	 * are ordered by the number of the sub-experiment producing them, even if
+	 * sub-experiments finish in a different order.
 	 * 
 	 * @param key Name of the value to store.
 	 * @param val The value to store. Can be null.
@@ -252,13 +490,30 @@ public abstract class AbstractMultiExperiment extends Experiment {
 			key = "baseExperiment." + key;
 		}
 
-		@SuppressWarnings("unchecked")
-		ArrayList<Object> l = (ArrayList<Object>) detailedResultsOther.get(key);
+		OtherValues l = (OtherValues) detailedResultsOther.get(key);
 		if (l == null) {
-			l = new ArrayList<Object>();
+			l = new OtherValues();
 			detailedResultsOther.put(key, l);
 		}
-		l.add(val);
+		l.add(taskNumber, val);
+	}
+
+	/**
+	 * List of values collected by {@link #handleOtherValue(String, Object)},
+	 * sorted by task number.
+	 */
+	private static class OtherValues {
+		final ArrayList<Long> taskNums = new ArrayList<>();
+		final ArrayList<Object> values = new ArrayList<>();
+
+		void add(long taskNum, Object val) {
+			int i = taskNums.size();
+			while (i > 0 && taskNums.get(i - 1) > taskNum) {
+				i--;
+			}
+			taskNums.add(i, taskNum);
+			values.add(i, val);
+		}
 	}
 
 	/**
@@ -337,8 +592,8 @@ public abstract class AbstractMultiExperiment extends Experiment {
 			while (resultMap.containsKey(key))
 				key += "@Other";
 
-			if (val instanceof ArrayList) {
-				ArrayList<?> l = (ArrayList<?>) val;
+			if (val instanceof OtherValues) {
+				ArrayList<Object> l = ((OtherValues) val).values;
 				val = l.toArray(new Object[l.size()]);
 			}
 			resultMap.put(key, val);
@@ -354,6 +609,9 @@ public abstract class AbstractMultiExperiment extends Experiment {
 		if (keepResults != null)
 			mre.keepResults = keepResults.clone();
 
+		mre.journal = null;
+		mre.ownsJournal = false;
+
 		return mre;
 	}
 
@@ -449,6 +707,11 @@ public abstract class AbstractMultiExperiment extends Experiment {
 	 * abort in its results) after the first sub-experiment aborting. If this is set
 	 * to {@code false}, execution of sub-experiments continues, ignoring aborting
 	 * experiments.
+	 * <p>
+	 * If set to {@code true}, results of sub-experiments executed in parallel are
+	 * processed in the order sub-experiments were created (instead of the order
+	 * they finish), so the same sub-experiments are considered as in sequential
+	 * execution.
 	 * 
 	 * @param abortUponBaseExperimentAbort Whether or not to abort execution of
 	 *                                     sub-experiments upon the first execution
@@ -476,4 +739,29 @@ public abstract class AbstractMultiExperiment extends Experiment {
 		this.produceAveragedResults = produceAveragedResults;
 	}
 
+	public String getJournalFile() {
+		return journalFile;
+	}
+
+	/**
+	 * Sets the name of a file to record the results of all completed
+	 * sub-experiments in (including sub-experiments of nested multi-experiments).
+	 * Each result is written to disk as soon as the sub-experiment finished. If
+	 * the file already exists when this experiment is started, all
+	 * sub-experiments contained in the journal are not executed again; their
+	 * recorded results are used instead. This allows to resume long-running
+	 * experiments after a crash.
+	 * <p>
+	 * Sub-experiments are identified by their name and {@code initialSeed}, so
+	 * results can only be reused if the experiment is configured in the same way
+	 * and with the same {@code initialSeed}. A journal written with a different
+	 * {@code initialSeed} is rejected. The default value is {@code null}, i.e., no
+	 * journal is written.
+	 * 
+	 * @param journalFile The name of the journal file.
+	 */
+	public void setJournalFile(String journalFile) {
+		this.journalFile = journalFile;
+	}
+
 }
@@ -29,6 +29,7 @@ import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.function.Function;
 
 import jasima.core.expExecution.ExperimentExecutor;
 import jasima.core.experiment.Experiment.ExperimentEvent;
@@ -330,6 +331,56 @@ public abstract class Experiment implements Notifier<Experiment, ExperimentEvent
 		}
 	}
 
+	/**
+	 * Don't call this method directly. Used internally by
+	 * {@link ExperimentCompletableFuture} for experiments executed elsewhere,
+	 * e.g., in another process. Instead of executing the life-cycle methods,
+	 * {@code runner} is called to obtain the results of this experiment.
+	 * Listeners of this experiment are not notified.
+	 */
+	final Map<String, Object> runExperimentElsewhere(Function<? super Experiment, Map<String, Object>> runner) {
+		synchronized (state) {
+			// checking and setting as an atomic operation
+			requireState(ExperimentState.ABOUT_TO_START);
+			state.set(ExperimentState.RUNNING);
+		}
+
+		try {
+			runTimeReal = System.currentTimeMillis();
+			aborted = 0;
+			resultMap = new LinkedHashMap<>();
+			isCancelled = false;
+			error = null;
+
+			try {
+				Map<String, Object> res = runner.apply(this);
+				Object subAborted = res.get(EXP_ABORTED);
+				if (subAborted instanceof Integer) {
+					aborted = (Integer) subAborted;
+				}
+				resultMap.putAll(res);
+			} finally {
+				runTimeReal = System.currentTimeMillis() - runTimeReal;
+				if (!resultMap.containsKey(RUNTIME)) {
+					addStandardResults();
+				}
+			}
+
+			return getResults();
+		} catch (Throwable t) {
+			try {
+				handleExecutionError(t);
+			} catch (Throwable t2) {
+				// keep the original exception
+				t.addSuppressed(t2);
+				print(MsgCategory.ERROR, "Error handling exception '%s' of '%s': %s", t, this, t2);
+			}
+			throw t;
+		} finally {
+			state.set(error == null ? ExperimentState.FINISHED : ExperimentState.ERROR);
+		}
+	}
+
 	/**
 	 * Don't call this method directly. Used internally by
 	 * {@link ExperimentCompletableFuture} and in {@link #runExperiment()}.
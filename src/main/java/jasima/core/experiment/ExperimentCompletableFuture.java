@@ -27,6 +27,9 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
 
 /**
  * Thin wrapper around a {@link Future}, making it cancellable/interruptable and
@@ -40,30 +43,50 @@ import java.util.concurrent.TimeoutException;
 public class ExperimentCompletableFuture extends CompletableFuture<Map<String, Object>> {
 
 	private final Experiment experiment;
+	private final @Nullable Function<? super Experiment, Map<String, Object>> runner;
 	private final Future<Map<String, Object>> future;
 
 	public ExperimentCompletableFuture(Experiment e, ExecutorService es) {
+		this(e, es, null);
+	}
+
+	/**
+	 * Creates a future for an experiment that is executed elsewhere, e.g., in
+	 * another process. Instead of running the experiment's life-cycle methods,
+	 * {@code runner} is executed by {@code es}. The result map returned by
+	 * {@code runner} becomes the result of {@code e}.
+	 * 
+	 * @param e      The experiment.
+	 * @param es     The {@link ExecutorService} to execute {@code runner} with.
+	 * @param runner Produces the results of {@code e}. If this is {@code null},
+	 *               {@code e} is run locally.
+	 */
+	public ExperimentCompletableFuture(Experiment e, ExecutorService es,
+			@Nullable Function<? super Experiment, Map<String, Object>> runner) {
 		super();
 
 		this.experiment = requireNonNull(e);
+		this.runner = runner;
 		e.aboutToStart();
-		addFinishedListener();
-		this.future = es.submit(e::runExperimentInternal);
+		this.future = es.submit(this::runExperiment);
 	}
 
-	private void addFinishedListener() {
-		ExperimentListener finallyListener = new ExperimentListener() {
-			@Override
-			public void finalAction(Experiment e) {
-				if (e.getError() != null) {
-					completeExceptionally(e.getError());
-				} else {
-					complete(e.getResults());
-				}
-				e.removeCurrentListener();
+	private Map<String, Object> runExperiment() {
+		try {
+			if (runner == null) {
+				return experiment.runExperimentInternal();
+			} else {
+				return experiment.runExperimentElsewhere(runner);
+			}
+		} finally {
+			// complete only after the experiment reached its final state, so it can be
+			// re-used immediately by code waiting for this future
+			if (experiment.getError() != null) {
+				completeExceptionally(experiment.getError());
+			} else {
+				complete(experiment.getResults());
 			}
-		};
-		experiment.addListener(finallyListener);
+		}
 	}
 
 	public Experiment getExperiment() {
@@ -0,0 +1,192 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.core.experiment;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import jasima.core.util.Util;
+
+/**
+ * Append-only file containing the results of all sub-experiments completed by
+ * an {@link AbstractMultiExperiment} (and its nested multi-experiments). Each
+ * record is written to disk before execution continues, so after a crash an
+ * experiment can be resumed, skipping all sub-experiments with a record in the
+ * journal. A record that was only partially written when the process died is
+ * discarded.
+ * 
+ * @see AbstractMultiExperiment#setJournalFile(String)
+ */
+final class ExperimentJournal implements Closeable {
+
+	private static final String HEADER = "jasima experiment journal";
+
+	private final File file;
+	private final Map<String, Map<String, Object>> entries;
+	private FileOutputStream fileOut;
+	private DataOutputStream out;
+
+	/**
+	 * Opens a journal, reading all records written before.
+	 * 
+	 * @param file The journal file. It is created if it doesn't exist.
+	 * @param seed The initial seed of the experiment writing the journal.
+	 * @throws IllegalArgumentException If the journal was written by an
+	 *                                  experiment with a different seed.
+	 */
+	ExperimentJournal(File file, long seed) throws IOException {
+		super();
+
+		this.file = file;
+		entries = new HashMap<>();
+
+		long validLength = read(seed);
+
+		fileOut = new FileOutputStream(file, true);
+		fileOut.getChannel().truncate(validLength);
+		out = new DataOutputStream(new BufferedOutputStream(fileOut));
+
+		if (validLength == 0) {
+			out.writeUTF(HEADER);
+			out.writeLong(seed);
+			sync();
+		}
+	}
+
+	/**
+	 * Reads all complete records and returns the length of the file without an
+	 * incomplete last record.
+	 */
+	private long read(long seed) throws IOException {
+		if (!file.exists() || file.length() == 0) {
+			return 0;
+		}
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			long pos;
+			try {
+				if (!HEADER.equals(in.readUTF())) {
+					throw new IllegalArgumentException("'" + file + "' is not an experiment journal.");
+				}
+				if (in.readLong() != seed) {
+					throw new IllegalArgumentException(
+							"Journal '" + file + "' was written by an experiment with a different initial seed.");
+				}
+				pos = utfLength(HEADER) + 8;
+			} catch (EOFException e) {
+				return 0; // incomplete header
+			}
+
+			while (true) {
+				try {
+					String key = in.readUTF();
+					byte[] data = new byte[in.readInt()];
+					in.readFully(data);
+
+					@SuppressWarnings("unchecked")
+					Map<String, Object> res = (Map<String, Object>) Util.deserialize(data);
+					entries.put(key, res);
+
+					pos += utfLength(key) + 4 + data.length;
+				} catch (EOFException | StreamCorruptedException | NegativeArraySizeException e) {
+					// end of file or incomplete last record
+					return pos;
+				} catch (ClassNotFoundException e) {
+					throw new IOException(e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of bytes written by {@link DataOutputStream#writeUTF(String)}.
+	 */
+	private static int utfLength(String s) {
+		int res = 2;
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c >= 0x0001 && c <= 0x007F) {
+				res += 1;
+			} else if (c <= 0x07FF) {
+				res += 2;
+			} else {
+				res += 3;
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Returns the number of records read when opening the journal.
+	 */
+	synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Returns the results recorded for a sub-experiment.
+	 * 
+	 * @param key The key of the sub-experiment.
+	 * @return The results or {@code null} if there is no record for {@code key}.
+	 */
+	synchronized @Nullable Map<String, Object> get(String key) {
+		return entries.get(key);
+	}
+
+	/**
+	 * Appends a record and forces it to disk.
+	 * 
+	 * @param key The key of the sub-experiment.
+	 * @param res Its results.
+	 */
+	synchronized void add(String key, Map<String, Object> res) throws IOException {
+		byte[] data = Util.serializeResults(res);
+		out.writeUTF(key);
+		out.writeInt(data.length);
+		out.write(data);
+		sync();
+	}
+
+	private void sync() throws IOException {
+		out.flush();
+		fileOut.getFD().sync();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (out != null) {
+			out.close();
+			out = null;
+			fileOut = null;
+		}
+	}
+
+}
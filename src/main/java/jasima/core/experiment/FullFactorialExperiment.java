@@ -21,18 +21,32 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import javax.annotation.Nullable;
 
+import jasima.core.expExecution.ExperimentExecutor;
 import jasima.core.util.MsgCategory;
 import jasima.core.util.i18n.I18n;
 
 /**
  * Systematically tests all possible combinations of various discrete factors
  * and their values on a base experiment.
+ * <p>
+ * Combinations are numbered like a mixed-radix number, with one digit per
+ * factor (in the order factors were added) and the last factor varying
+ * fastest. Using {@link #setFirstCombination(long)} and
+ * {@link #setLastCombination(long)}, only a part of all combinations can be
+ * executed, e.g., to split a large sweep or to resume an interrupted one. Name,
+ * seed and task number of each sub-experiment are derived from its combination
+ * number, so the results of all parts are the same as those of a single run.
+ * If {@link #setLazyConfigurations(boolean) lazyConfigurations} is set,
+ * sub-experiments are created only when they are about to be executed.
  * 
  * @author Torsten Hildebrandt
  * 
@@ -46,9 +60,15 @@ public class FullFactorialExperiment extends AbstractMultiConfExperiment {
 	// fields for parameters
 	private int maxConfigurations = 1000000;
 	private Map<String, List<Object>> factors;
+	private boolean lazyConfigurations = false;
+	private long firstCombination = 0;
+	private long lastCombination = -1;
 
 	// fields used during run
 	private ArrayList<String> factorNames;
+	private long numCombinationsToRun = -1;
+	private long currCombination = -1;
+	private IdentityHashMap<Experiment, Long> combinationNumbers;
 
 	public FullFactorialExperiment() {
 		this(null);
@@ -199,44 +219,184 @@ public class FullFactorialExperiment extends AbstractMultiConfExperiment {
 	}
 
 	@Override
-	protected void createExperiments() {
+	public void init() {
+		super.init();
+
+		combinationNumbers = new IdentityHashMap<>();
+	}
+
+	@Override
+	protected void performRun() {
+		if (isLazyConfigurations() && isLazyCreationSupported()) {
+			try {
+				performLazyRun();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			} finally {
+				experiments.clear();
+				factorNames = null;
+				numCombinationsToRun = -1;
+			}
+		} else {
+			super.performRun();
+		}
+	}
+
+	/**
+	 * Returns whether {@link #setLazyConfigurations(boolean) lazyConfigurations}
+	 * can be used and sub-experiments are numbered by their combination number.
+	 * Sub-classes creating their experiments differently have to return
+	 * {@code false}.
+	 */
+	protected boolean isLazyCreationSupported() {
+		return true;
+	}
+
+	/**
+	 * Creates and starts sub-experiments one at a time, keeping at most twice the
+	 * parallelism of the {@link ExperimentExecutor} running (or a single one if
+	 * {@code allowParallelExecution} is {@code false}).
+	 */
+	private void performLazyRun() throws InterruptedException {
 		factorNames = new ArrayList<String>(getFactorNames());
-		int numFactors = factorNames.size();
-		int[] numValuesPerFactor = new int[numFactors];
+		int[] numValuesPerFactor = numValuesPerFactor();
+		long first = getFirstCombination();
+		long last = lastCombinationToRun(getNumCombinations());
+		numCombinationsToRun = Math.max(0, last - first + 1);
+
+		print(MsgCategory.INFO, "lazily executing combinations %d to %d ...", first, last);
+
+		int maxRunning = isAllowParallelExecution() ? 2 * ExperimentExecutor.getExecutor().getParallelism() : 1;
+		Map<Integer, ExperimentCompletableFuture> running = new HashMap<>();
+		BlockingQueue<Integer> finished = new LinkedBlockingQueue<>();
+
+		int[] is = getCombination(first);
+		long next = first;
+		while (true) {
+			while (running.size() < maxRunning && next <= last && aborted == 0) {
+				Experiment e = createExperimentForCombination(is, next);
+				next++;
+				createNextCombination(is, numValuesPerFactor);
+				if (e == null) {
+					continue; // invalid configuration
+				}
+				experiments.add(e);
+
+				int n = experiments.size() - 1;
+				ExperimentCompletableFuture f = runSubExperiment(e);
+				running.put(n, f);
+				f.whenComplete((r, ex) -> finished.add(n));
+			}
+			if (running.isEmpty()) {
+				break; // all combinations executed
+			}
 
-		// calculate totals
-		long total = 1;
-		int i = 0;
-		for (String name : factorNames) {
-			int n = getFactorValues(name).size();
-			numValuesPerFactor[i++] = n;
-
-			long last = total;
-			total *= n;
-			// check for overflow
-			if (total < last) {
-				throw new RuntimeException("Too many combinations.");
+			int n = takeFinished(finished);
+			ExperimentCompletableFuture f = running.remove(n);
+			getAndStoreResults(experiments.get(n), n + 1, f);
+			experiments.set(n, null);
+
+			if (aborted != 0) {
+				for (ExperimentCompletableFuture f2 : running.values()) {
+					f2.cancel(true);
+				}
+				break;
 			}
 		}
 
+		print(MsgCategory.INFO, "executed %d experiments.", experiments.size());
+	}
+
+	@Override
+	protected void createExperiments() {
+		factorNames = new ArrayList<String>(getFactorNames());
+		int[] numValuesPerFactor = numValuesPerFactor();
+		long total = getNumCombinations();
+
 		print(MsgCategory.INFO, "building and validating configurations, %d theoretical combinations ...", total);
 
 		// create and add experiments
-		int[] is = new int[numFactors];
-		do {
-			addExperimentForConf(is);
+		long last = lastCombinationToRun(total);
+		int[] is = getCombination(getFirstCombination());
+		for (long c = getFirstCombination(); c <= last; c++) {
+			if (isLazyCreationSupported()) {
+				Experiment e = createExperimentForCombination(is, c);
+				if (e != null) {
+					experiments.add(e);
+				}
+			} else {
+				addExperimentForConf(is);
+			}
 			if (getMaxConfigurations() > 0 && experiments.size() > getMaxConfigurations()) {
 				throw new RuntimeException(String.format(I18n.DEF_LOCALE,
 						"More than %d configurations. Consider reducing the number of factors and/or factor values or using an optimization algorithm instead.",
 						getMaxConfigurations()));
 			}
-		} while (createNextCombination(is, numValuesPerFactor));
+			createNextCombination(is, numValuesPerFactor);
+		}
 
 		print(MsgCategory.INFO, "executing %d experiments ...", experiments.size());
 
 		factorNames = null;
 	}
 
+	private int[] numValuesPerFactor() {
+		int[] res = new int[factors.size()];
+		int i = 0;
+		for (List<Object> values : factors.values()) {
+			res[i++] = values.size();
+		}
+		return res;
+	}
+
+	private long lastCombinationToRun(long total) {
+		if (getFirstCombination() < 0) {
+			throw new IllegalArgumentException("firstCombination can't be negative: " + getFirstCombination());
+		}
+		return getLastCombination() < 0 ? total - 1 : Math.min(getLastCombination(), total - 1);
+	}
+
+	/**
+	 * Returns the total number of factor combinations, i.e., the product of the
+	 * number of values of all factors. This number includes combinations a
+	 * {@link ConfigurationValidator} might reject.
+	 * 
+	 * @return The number of combinations.
+	 * @throws RuntimeException If there are more than {@link Long#MAX_VALUE}
+	 *                          combinations.
+	 */
+	public long getNumCombinations() {
+		long total = 1;
+		for (List<Object> values : factors.values()) {
+			try {
+				total = Math.multiplyExact(total, values.size());
+			} catch (ArithmeticException e) {
+				throw new RuntimeException("Too many combinations.", e);
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * Converts the number of a combination to the value indices of all factors.
+	 * Combinations are numbered like a mixed-radix number, i.e., the last factor
+	 * varies fastest.
+	 * 
+	 * @param index The combination number, between 0 (inclusive) and
+	 *              {@link #getNumCombinations()} (exclusive).
+	 * @return An array containing the index of each factor's value, in the order
+	 *         of {@link #getFactorNames()}.
+	 */
+	public int[] getCombination(long index) {
+		int[] numValuesPerFactor = numValuesPerFactor();
+		int[] res = new int[numValuesPerFactor.length];
+		for (int i = res.length - 1; i >= 0; i--) {
+			res[i] = (int) (index % numValuesPerFactor[i]);
+			index /= numValuesPerFactor[i];
+		}
+		return res;
+	}
+
 	private static boolean createNextCombination(int[] is, int[] numValuesPerFactor) {
 		assert is.length == numValuesPerFactor.length;
 		for (int i = is.length - 1; i >= 0; i--) {
@@ -250,7 +410,47 @@ public class FullFactorialExperiment extends AbstractMultiConfExperiment {
 		return false;
 	}
 
+	private @Nullable Experiment createExperimentForCombination(int[] conf, long c) {
+		currCombination = c;
+		try {
+			Experiment e = createExperimentForConf(confMap(conf));
+			if (e != null) {
+				combinationNumbers.put(e, c);
+			}
+			return e;
+		} finally {
+			currCombination = -1;
+		}
+	}
+
+	@Override
+	protected void configureRunExperiment(Experiment e) {
+		if (currCombination >= 0) {
+			configureRunExperiment(e, currCombination);
+		} else {
+			super.configureRunExperiment(e);
+		}
+	}
+
+	@Override
+	protected long taskNumberOf(Experiment e, int taskNum) {
+		Long c = combinationNumbers.remove(e);
+		return c == null ? taskNum : c + 1;
+	}
+
+	@Override
+	protected long getMaxTaskNumber() {
+		return isLazyCreationSupported() ? getNumCombinations() : super.getMaxTaskNumber();
+	}
+
 	protected void addExperimentForConf(int[] conf) {
+		Experiment e = createExperimentForConf(confMap(conf));
+		if (e != null) {
+			experiments.add(e);
+		}
+	}
+
+	private HashMap<String, Object> confMap(int[] conf) {
 		assert conf.length == factorNames.size();
 
 		HashMap<String, Object> c = new HashMap<String, Object>();
@@ -262,10 +462,22 @@ public class FullFactorialExperiment extends AbstractMultiConfExperiment {
 			c.put(name, value);
 		}
 
-		Experiment e = createExperimentForConf(c);
-		if (e != null) {
-			experiments.add(e);
+		return c;
+	}
+
+	@Override
+	public int getNumExperiments() {
+		if (numCombinationsToRun >= 0) {
+			// lazy creation, return upper bound
+			return (int) Math.min(numCombinationsToRun, Integer.MAX_VALUE);
 		}
+		return super.getNumExperiments();
+	}
+
+	@Override
+	public int getNumTasks() {
+		// sub-experiments created so far would be misleading in progress messages
+		return numCombinationsToRun >= 0 ? getNumExperiments() : super.getNumTasks();
 	}
 
 	// just make public, so it appears as a property in the GUI
@@ -295,4 +507,57 @@ public class FullFactorialExperiment extends AbstractMultiConfExperiment {
 		this.maxConfigurations = maxConfigurations;
 	}
 
+	public boolean isLazyConfigurations() {
+		return lazyConfigurations;
+	}
+
+	/**
+	 * If set, sub-experiments are not all created before execution starts.
+	 * Instead each configuration is created (and the base experiment cloned) only
+	 * when it is about to be executed, keeping at most twice the parallelism of
+	 * the {@link ExperimentExecutor} running. This way memory consumption doesn't
+	 * depend on the number of combinations. {@code maxConfigurations} is not
+	 * checked in this mode.
+	 * <p>
+	 * This setting is ignored by sub-classes creating experiments differently,
+	 * like {@link OCBAExperiment} or {@link RandomFractionalExperiment}. Its
+	 * default value is {@code false}.
+	 * 
+	 * @param lazyConfigurations Whether or not to create sub-experiments on
+	 *                           demand.
+	 */
+	public void setLazyConfigurations(boolean lazyConfigurations) {
+		this.lazyConfigurations = lazyConfigurations;
+	}
+
+	public long getFirstCombination() {
+		return firstCombination;
+	}
+
+	/**
+	 * Sets the number of the first combination to execute (see
+	 * {@link #getCombination(long)}). The default value is 0.
+	 * 
+	 * @param firstCombination The first combination to execute.
+	 */
+	public void setFirstCombination(long firstCombination) {
+		this.firstCombination = firstCombination;
+	}
+
+	public long getLastCombination() {
+		return lastCombination;
+	}
+
+	/**
+	 * Sets the number of the last combination to execute (inclusive). Together
+	 * with {@link #setFirstCombination(long)} this allows to split a sweep over
+	 * several runs or to resume an interrupted one. The default value of -1
+	 * executes all combinations up to the last one.
+	 * 
+	 * @param lastCombination The last combination to execute.
+	 */
+	public void setLastCombination(long lastCombination) {
+		this.lastCombination = lastCombination;
+	}
+
 }
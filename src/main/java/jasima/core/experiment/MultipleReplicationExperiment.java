@@ -21,12 +21,17 @@ import static jasima.core.util.i18n.I18n.defFormat;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import org.apache.commons.math3.analysis.solvers.RiddersSolver;
 import org.apache.commons.math3.distribution.TDistribution;
 import org.apache.commons.math3.exception.NoBracketingException;
 import org.apache.commons.math3.exception.TooManyEvaluationsException;
 
+import jasima.core.expExecution.ExperimentExecutor;
 import jasima.core.statistics.SummaryStat;
 import jasima.core.util.MsgCategory;
 import jasima.core.util.Pair;
@@ -59,6 +64,13 @@ import jasima.core.util.Pair;
  * <li>if there is another run (i.e., confidence interval too large), another
  * batch of getMinReplications() is performed, i.e., go back to step 1
  * </ol>
+ * <p>
+ * If {@link #setStreaming(boolean) streaming} is enabled, there are no batches.
+ * Instead always getMinReplications() replications are executed concurrently,
+ * a new one is started whenever one finishes. The confidence intervals are
+ * checked after each finished replication and outstanding replications are
+ * cancelled as soon as results are precise enough.
+ * </p>
  * 
  * @see OCBAExperiment
  * @author Torsten Hildebrandt
@@ -75,6 +87,7 @@ public class MultipleReplicationExperiment extends AbstractMultiExperiment {
 	private String[] confIntervalMeasures = {};
 	private double errorProb = 0.05d;
 	private double allowancePercentage = 0.01d;
+	private boolean streaming = false;
 
 	public MultipleReplicationExperiment() {
 		super();
@@ -93,7 +106,7 @@ public class MultipleReplicationExperiment extends AbstractMultiExperiment {
 	protected void createExperiments() {
 		experiments.clear();
 
-		int batchSize = getNumExperiments();
+		int batchSize = Math.min(getNumExperiments(), getMaxReplications() - numTasksExecuted);
 
 		for (int i = 0; i < batchSize; i++) {
 			Experiment e = getBaseExperiment().clone();
@@ -110,6 +123,67 @@ public class MultipleReplicationExperiment extends AbstractMultiExperiment {
 		if (numTasksExecuted >= getMaxReplications())
 			return false;
 
+		return !isPrecisionReached();
+	}
+
+	@Override
+	protected void performRun() {
+		if (isStreaming() && isNumRunsDynamic() && isAllowParallelExecution()) {
+			try {
+				performStreamingRun();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			} finally {
+				experiments.clear();
+			}
+		} else {
+			super.performRun();
+		}
+	}
+
+	/**
+	 * Keeps {@link #getNumExperiments()} replications running, checking the
+	 * confidence intervals after each finished replication.
+	 */
+	private void performStreamingRun() throws InterruptedException {
+		int numInFlight = getNumExperiments();
+		int numStarted = 0;
+		Map<Integer, ExperimentCompletableFuture> running = new HashMap<>();
+		BlockingQueue<Integer> finished = new LinkedBlockingQueue<>();
+
+		while (true) {
+			while (running.size() < numInFlight && numStarted < getMaxReplications()) {
+				Experiment e = getBaseExperiment().clone();
+				configureRunExperiment(e);
+				experiments.add(e);
+
+				int n = numStarted++;
+				ExperimentCompletableFuture f = runSubExperiment(e);
+				running.put(n, f);
+				f.whenComplete((r, ex) -> finished.add(n));
+			}
+			if (running.isEmpty()) {
+				break; // maxReplications performed
+			}
+
+			int n = takeFinished(finished);
+			ExperimentCompletableFuture f = running.remove(n);
+			getAndStoreResults(experiments.get(n), n + 1, f);
+			experiments.set(n, null);
+
+			if (aborted != 0 || (numTasksExecuted >= numInFlight && isPrecisionReached())) {
+				for (ExperimentCompletableFuture f2 : running.values()) {
+					f2.cancel(true);
+				}
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Checks whether all {@code confIntervalMeasures} are precise enough.
+	 */
+	private boolean isPrecisionReached() {
 		// check all measures in "confIntervalMeasure" to have the quality
 		// measured by "errorProb" and "allowancePercentage".
 		for (String name : confIntervalMeasures) {
@@ -127,10 +201,10 @@ public class MultipleReplicationExperiment extends AbstractMultiExperiment {
 					name, vs.mean(), interv, allowance, estimateNumReps(vs, allowance));
 
 			if (!(interv <= allowance))
-				return true;
+				return false;
 		}
 
-		return false;
+		return true;
 	}
 
 	/**
@@ -318,6 +392,30 @@ public class MultipleReplicationExperiment extends AbstractMultiExperiment {
 		this.confIntervalMeasures = confIntervalMeasures;
 	}
 
+	public boolean isStreaming() {
+		return streaming;
+	}
+
+	/**
+	 * If set to {@code true} and the number of replications is dynamic,
+	 * replications are not executed in batches. Instead a fixed number of
+	 * replications (see {@link #setMinReplications(int)}) is kept running in
+	 * parallel and the confidence intervals of all {@code confIntervalMeasures}
+	 * are checked after each finished replication. As soon as results are precise
+	 * enough, replications still running are cancelled. This avoids idle cores at
+	 * the end of each batch, but the exact number of replications performed
+	 * depends on the order replications finish.
+	 * <p>
+	 * This setting has no effect if the number of runs is static or
+	 * {@code allowParallelExecution} is {@code false}. Its default value is
+	 * {@code false}.
+	 * 
+	 * @param streaming Whether or not to use streaming execution.
+	 */
+	public void setStreaming(boolean streaming) {
+		this.streaming = streaming;
+	}
+
 	public Experiment getBaseExperiment() {
 		return baseExperiment;
 	}
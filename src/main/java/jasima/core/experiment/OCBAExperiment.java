@@ -20,10 +20,16 @@ package jasima.core.experiment;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import org.apache.commons.math3.distribution.NormalDistribution;
 
+import jasima.core.expExecution.ExperimentExecutor;
 import jasima.core.statistics.SummaryStat;
 import jasima.core.util.Util;
 
@@ -60,6 +66,12 @@ import jasima.core.util.Util;
  * in order to benefit from parallelization.
  * </p>
  * <p>
+ * If {@link #setAsynchronous(boolean) asynchronous} is set, there are no such
+ * iterations. Instead single replications are executed and the budget is
+ * reallocated each time a replication finishes, so slow configurations don't
+ * delay the allocation of further runs.
+ * </p>
+ * <p>
  * A usage example is given below. It selects the best of two dispatching rules
  * of a dynamic job shop scenario.
  * 
@@ -137,6 +149,7 @@ public class OCBAExperiment extends FullFactorialExperiment {
 	private int numReplicationsPerConfiguration = 10;
 	private double pcsLevel = 0.0;
 	private boolean detailedResults = true;
+	private boolean asynchronous = false;
 
 	//
 	// fields used during experiment run
@@ -147,12 +160,18 @@ public class OCBAExperiment extends FullFactorialExperiment {
 	private SummaryStat[] stats;
 	private double finalPCS;
 	private int currBest;
+	private Map<Experiment, Integer> replicationConfs; // only in asynchronous mode
 
 	public OCBAExperiment() {
 		super();
 		setProduceAveragedResults(false);
 	}
 
+	@Override
+	protected boolean isLazyCreationSupported() {
+		return false;
+	}
+
 	@Override
 	protected void createExperiments() {
 		// only perform once, not each iteration
@@ -164,10 +183,7 @@ public class OCBAExperiment extends FullFactorialExperiment {
 			configurations = new ArrayList<MultipleReplicationExperiment>();
 			for (Experiment e : experiments) {
 				MultipleReplicationExperiment mre = (MultipleReplicationExperiment) e;
-				int numIterations = getMinReplicationsPerConfiguration() == -1
-						? Math.max(3, Runtime.getRuntime().availableProcessors())
-						: getMinReplicationsPerConfiguration();
-				mre.setMaxReplications(numIterations);
+				mre.setMaxReplications(numInitialReplications());
 				configurations.add(mre);
 			}
 
@@ -191,6 +207,139 @@ public class OCBAExperiment extends FullFactorialExperiment {
 		}
 	}
 
+	private int numInitialReplications() {
+		return getMinReplicationsPerConfiguration() == -1 ? Math.max(3, Runtime.getRuntime().availableProcessors())
+				: getMinReplicationsPerConfiguration();
+	}
+
+	@Override
+	protected void performRun() {
+		if (isAsynchronous() && isAllowParallelExecution()) {
+			try {
+				performAsynchronousRun();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			} finally {
+				experiments.clear();
+				replicationConfs = null;
+			}
+		} else {
+			super.performRun();
+		}
+	}
+
+	/**
+	 * Keeps as many single replications running as the {@link ExperimentExecutor}
+	 * can execute in parallel. Each time a replication finishes, its result is
+	 * added to the statistics of its configuration, the stopping conditions are
+	 * checked and the free slot is allocated to the configuration that OCBA
+	 * considers most in need of another run.
+	 */
+	private void performAsynchronousRun() throws InterruptedException {
+		createExperiments();
+		experiments.clear();
+
+		int numConfigurations = configurations.size();
+		int minReps = numInitialReplications();
+		int maxRunning = ExperimentExecutor.getExecutor().getParallelism();
+
+		// each configuration uses the same seeds as its MultipleReplicationExperiment
+		Random[] seeds = new Random[numConfigurations];
+		for (int i = 0; i < numConfigurations; i++) {
+			seeds[i] = new Random(configurations.get(i).getInitialSeed());
+		}
+		int[] numStarted = new int[numConfigurations];
+		int[] numRunning = new int[numConfigurations];
+
+		replicationConfs = new IdentityHashMap<>();
+		Map<Integer, ExperimentCompletableFuture> running = new HashMap<>();
+		BlockingQueue<Integer> finished = new LinkedBlockingQueue<>();
+		int numTasks = 0;
+
+		while (true) {
+			while (running.size() < maxRunning && (totalBudget <= 0 || budgetUsed + running.size() < totalBudget)) {
+				int i = nextConfiguration(minReps, numStarted, numRunning, running.size());
+				MultipleReplicationExperiment mre = configurations.get(i);
+
+				Experiment e = mre.getBaseExperiment().clone();
+				e.setInitialSeed(seeds[i].nextLong());
+				e.nestingLevel(nestingLevel() + 1);
+				e.setName(mre.getName() + ".rep" + (++numStarted[i]));
+				numRunning[i]++;
+				replicationConfs.put(e, i);
+
+				int n = numTasks++;
+				ExperimentCompletableFuture f = runSubExperiment(e);
+				running.put(n, f);
+				f.whenComplete((r, ex) -> finished.add(n));
+			}
+			if (running.isEmpty()) {
+				break; // budget used up
+			}
+
+			int n = takeFinished(finished);
+			ExperimentCompletableFuture f = running.remove(n);
+			Experiment e = f.getExperiment();
+			numRunning[replicationConfs.get(e)]--;
+			getAndStoreResults(e, n + 1, f);
+
+			if (aborted != 0 || (isInitialPhaseDone(minReps) && isPcsReached())) {
+				for (ExperimentCompletableFuture f2 : running.values()) {
+					f2.cancel(true);
+				}
+				break;
+			}
+		}
+
+		findBest();
+	}
+
+	/**
+	 * Returns the index of the configuration to start another replication for.
+	 * As long as some configuration has less than {@code minReps} results, this
+	 * is the configuration with the least replications started. Afterwards OCBA
+	 * is used, taking into account replications still running.
+	 */
+	private int nextConfiguration(int minReps, int[] numStarted, int[] numRunning, int numRunningTotal) {
+		if (!isInitialPhaseDone(minReps)) {
+			int res = 0;
+			for (int i = 1; i < numStarted.length; i++) {
+				if (numStarted[i] < numStarted[res]) {
+					res = i;
+				}
+			}
+			return res;
+		}
+
+		findBest();
+		int[] newRuns = ocba(numRunningTotal + 1);
+
+		int res = currBest;
+		int max = Integer.MIN_VALUE;
+		for (int i = 0; i < newRuns.length; i++) {
+			int missing = newRuns[i] - numRunning[i];
+			if (missing > max) {
+				max = missing;
+				res = i;
+			}
+		}
+		return res;
+	}
+
+	private boolean isInitialPhaseDone(int minReps) {
+		for (SummaryStat vs : stats) {
+			if (vs.numObs() < minReps) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean isPcsReached() {
+		findBest();
+		return getPcsLevel() > 0.0 && calcPCS() > getPcsLevel();
+	}
+
 	@Override
 	protected Experiment createExperimentForConf(Map<String, Object> conf) {
 		Experiment e = super.createExperimentForConf(conf);
@@ -272,9 +421,11 @@ public class OCBAExperiment extends FullFactorialExperiment {
 		return ranks;
 	}
 
-	@Override
-	protected boolean hasMoreTasks() {
-		// identify currently best system
+	/**
+	 * Identifies the currently best system and stores its index in
+	 * {@code currBest}.
+	 */
+	private void findBest() {
 		currBest = 0;
 		double bestMean = getProblemType() == ProblemType.MAXIMIZE ? stats[0].mean() : -stats[0].mean();
 		for (int i = 1; i < stats.length; i++) {
@@ -284,6 +435,12 @@ public class OCBAExperiment extends FullFactorialExperiment {
 				currBest = i;
 			}
 		}
+	}
+
+	@Override
+	protected boolean hasMoreTasks() {
+		// identify currently best system
+		findBest();
 
 		experiments.clear();
 
@@ -316,8 +473,17 @@ public class OCBAExperiment extends FullFactorialExperiment {
 		super.storeRunResults(e, r);
 
 		// update statistics for this configuration
-		int i = configurations.indexOf(e);
-		assert i >= 0;
+		int i;
+		int numRuns;
+		if (replicationConfs != null) {
+			// single replication in asynchronous mode
+			i = replicationConfs.remove(e);
+			numRuns = 1;
+		} else {
+			i = configurations.indexOf(e);
+			assert i >= 0;
+			numRuns = configurations.get(i).getMaxReplications();
+		}
 
 		Object o = r.get(getObjective());
 		if (o == null) {
@@ -327,13 +493,19 @@ public class OCBAExperiment extends FullFactorialExperiment {
 			throw new RuntimeException("Can't find result value for objective '" + getObjective() + "'.");
 		}
 
-		budgetUsed += configurations.get(i).getMaxReplications();
+		budgetUsed += numRuns;
 
 		SummaryStat vs = stats[i];
 		if (o instanceof Number) {
 			vs.value(((Number) o).doubleValue());
 		} else if (o instanceof SummaryStat) {
-			vs.combine((SummaryStat) o);
+			if (replicationConfs != null) {
+				// a single replication counts as one observation, no matter how many values
+				// it summarizes
+				vs.value(((SummaryStat) o).mean());
+			} else {
+				vs.combine((SummaryStat) o);
+			}
 		} else
 			throw new RuntimeException("Don't know how to handle result '" + String.valueOf(o) + "'.");
 	}
@@ -608,4 +780,25 @@ public class OCBAExperiment extends FullFactorialExperiment {
 		this.problemType = problemType;
 	}
 
+	public boolean isAsynchronous() {
+		return asynchronous;
+	}
+
+	/**
+	 * If set, the budget is reallocated whenever a single replication finishes
+	 * instead of in synchronous iterations waiting for the slowest configuration.
+	 * As many replications are kept running as the {@link ExperimentExecutor} can
+	 * execute in parallel, and execution stops as soon as {@code pcsLevel} is
+	 * exceeded (replications still running are cancelled). The allocation of runs
+	 * therefore depends on the order replications finish.
+	 * <p>
+	 * This setting has no effect if {@code allowParallelExecution} is
+	 * {@code false}. Its default value is {@code false}.
+	 * 
+	 * @param asynchronous Whether or not to allocate runs asynchronously.
+	 */
+	public void setAsynchronous(boolean asynchronous) {
+		this.asynchronous = asynchronous;
+	}
+
 }
@@ -61,6 +61,11 @@ public class RandomFractionalExperiment extends FullFactorialExperiment {
 		rnd = new MersenneTwister(getInitialSeed());
 	}
 
+	@Override
+	protected boolean isLazyCreationSupported() {
+		return false;
+	}
+
 	@Override
 	protected void createExperiments() {
 		int numFactors = getFactorNames().size();
@@ -20,7 +20,14 @@ package jasima.core.random;
 import static jasima.core.util.TypeUtil.getClassFromSystemProperty;
 import static jasima.core.util.i18n.I18n.defFormat;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Random;
 import java.util.function.Consumer;
@@ -29,6 +36,7 @@ import javax.annotation.Nullable;
 
 import jasima.core.experiment.Experiment;
 import jasima.core.random.continuous.DblSequence;
+import jasima.core.simulation.Checkpointable;
 import jasima.core.simulation.Simulation;
 import jasima.core.util.MersenneTwister;
 import jasima.core.util.MsgCategory;
@@ -48,10 +56,14 @@ import jasima.core.util.TypeUtil;
  * (default is {@link MersenneTwister}), use the system property
  * {@link #RANDOM_CLASS_PROP_KEY}.
  * </ol>
+ * <p>
+ * The state of all streams created by a {@code RandomFactory} can be saved and
+ * restored (see {@link Checkpointable}), if they are instances of
+ * {@link MersenneTwister}.
  * 
  * @author Torsten Hildebrandt
  */
-public class RandomFactory implements Serializable {
+public class RandomFactory implements Serializable, Checkpointable {
 
 	private static final long serialVersionUID = 4828925858942593527L;
 
@@ -78,6 +90,9 @@ public class RandomFactory implements Serializable {
 	}
 
 	private HashMap<Long, String> seeds = new HashMap<Long, String>();
+	// all streams created in creation order, names might not be unique
+	private ArrayList<Random> streams = new ArrayList<>();
+	private ArrayList<String> streamNames = new ArrayList<>();
 	private Random seedStream = new Random();
 	private long hashMask = 5787905968364136369L;
 	private Simulation sim;
@@ -134,7 +149,10 @@ public class RandomFactory implements Serializable {
 				getSim().trace("create_random_stream", name, seed);
 			}
 		}
-		return createRandom(seed);
+		Random rnd = createRandom(seed);
+		streams.add(rnd);
+		streamNames.add(name);
+		return rnd;
 	}
 
 	/**
@@ -196,6 +214,79 @@ public class RandomFactory implements Serializable {
 	public void setSeed(long seed) {
 		hashMask = new Random(seed).nextLong();
 		seeds.clear();
+		streams.clear();
+		streamNames.clear();
+	}
+
+	/**
+	 * Sets a new seed (see {@link #setSeed(long)}) and reinitializes all streams
+	 * created so far. Afterwards each stream produces the same numbers as a new
+	 * stream with the same name created with the new seed.
+	 * 
+	 * @param seed The seed to use.
+	 */
+	public void reseedStreams(long seed) {
+		ArrayList<Random> created = new ArrayList<>(streams);
+		ArrayList<String> names = new ArrayList<>(streamNames);
+		setSeed(seed);
+		streams.clear();
+		streamNames.clear();
+
+		Consumer<String> warningReceiver = getSim() == null ? null : msg -> getSim().print(MsgCategory.WARN, msg);
+		for (int i = 0; i < created.size(); i++) {
+			Random rnd = created.get(i);
+			rnd.setSeed(getSeed(names.get(i), warningReceiver));
+			streams.add(rnd);
+			streamNames.add(names.get(i));
+		}
+	}
+
+	/**
+	 * Saves the seed of this factory and the state of all streams created so far.
+	 * 
+	 * @throws IllegalStateException If a stream is not a {@link MersenneTwister}.
+	 */
+	@Override
+	public Object saveState() {
+		Random[] rnds = streams.toArray(new Random[streams.size()]);
+		byte[][] rndStates = new byte[rnds.length][];
+		for (int i = 0; i < rnds.length; i++) {
+			if (!(rnds[i] instanceof MersenneTwister)) {
+				throw new IllegalStateException(
+						"Can't save state of random number generator of type " + rnds[i].getClass().getName() + ".");
+			}
+
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (DataOutputStream out = new DataOutputStream(bytes)) {
+				((MersenneTwister) rnds[i]).writeState(out);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			rndStates[i] = bytes.toByteArray();
+		}
+
+		return new Object[] { hashMask, new HashMap<>(seeds), new ArrayList<>(streams), new ArrayList<>(streamNames),
+				rndStates };
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void restoreState(Object state) {
+		Object[] s = (Object[]) state;
+		hashMask = (Long) s[0];
+		seeds = new HashMap<>((HashMap<Long, String>) s[1]);
+		streams = new ArrayList<>((ArrayList<Random>) s[2]);
+		streamNames = new ArrayList<>((ArrayList<String>) s[3]);
+
+		byte[][] rndStates = (byte[][]) s[4];
+		int i = 0;
+		for (Random rnd : streams) {
+			try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(rndStates[i++]))) {
+				((MersenneTwister) rnd).readState(in);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
 	}
 
 	/**
@@ -0,0 +1,452 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.core.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
+
+/**
+ * An implementation of {@link jasima.core.simulation.EventQueue} using a
+ * calendar queue (R. Brown: "Calendar queues: a fast O(1) priority queue
+ * implementation for the simulation event set problem", Communications of the
+ * ACM, 31(10), 1988).
+ * <p>
+ * Events are distributed over an array of buckets ("days"), each covering a
+ * time interval of a certain width. The number of buckets and their width are
+ * adapted automatically when the number of events grows or shrinks, so
+ * {@link #insert(SimEvent)} and {@link #extract()} require O(1) amortized time
+ * for the usual event time distributions. Events are ordered exactly as by
+ * {@link SimEvent#compareTo(SimEvent)}, i.e., by time, priority and event
+ * number.
+ * <p>
+ * To use this queue instead of the default {@link EventHeap}, set the system
+ * property {@value Simulation#QUEUE_IMPL_KEY} to
+ * {@code jasima.core.simulation.CalendarQueue}.
+ */
+public final class CalendarQueue implements EventQueue {
+
+	private static final int MIN_BUCKETS = 2;
+	private static final int INITIAL_BUCKET_CAPACITY = 4;
+	private static final int NUM_SAMPLES = 25;
+	private static final int BULK_SAMPLES = 256;
+	private static final double DEF_WIDTH = 1.0;
+
+	// each bucket is sorted in descending order, i.e., its smallest event is
+	// always the last one
+	private SimEvent[][] buckets;
+	private int[] bucketSizes;
+	private int mask; // number of buckets minus 1, number of buckets is a power of 2
+	private double width; // time span covered by a single bucket
+
+	private long currentSlot; // slot (absolute bucket number) to start searching
+	private int count = 0;
+
+	private int growThreshold;
+	private int shrinkThreshold;
+	private boolean resizeEnabled = true;
+
+	/**
+	 * Create a new calendar queue with an initial bucket width of 1.0.
+	 */
+	public CalendarQueue() {
+		this(DEF_WIDTH);
+	}
+
+	/**
+	 * Create a new calendar queue with the given initial bucket width.
+	 *
+	 * @exception IllegalArgumentException if width is not positive
+	 */
+	public CalendarQueue(double initialWidth) throws IllegalArgumentException {
+		if (!(initialWidth > 0.0 && initialWidth < Double.POSITIVE_INFINITY))
+			throw new IllegalArgumentException("" + initialWidth);
+		initBuckets(MIN_BUCKETS, initialWidth, 0);
+	}
+
+	private void initBuckets(int numBuckets, double newWidth, long startSlot) {
+		buckets = new SimEvent[numBuckets][];
+		bucketSizes = new int[numBuckets];
+		mask = numBuckets - 1;
+		width = newWidth;
+		currentSlot = startSlot;
+
+		growThreshold = 2 * numBuckets;
+		shrinkThreshold = numBuckets <= MIN_BUCKETS ? -1 : numBuckets / 2 - 2;
+	}
+
+	/**
+	 * Insert an event, resizing the calendar if necessary.
+	 */
+	@Override
+	public void insert(SimEvent e) {
+		long slot = slotOf(e.getTime());
+		if (slot < currentSlot) {
+			// event before current position, restart search there
+			currentSlot = slot;
+		}
+
+		addToBucket(e, (int) (slot & mask));
+		++count;
+
+		if (count > growThreshold && resizeEnabled) {
+			resize(2 * buckets.length);
+		}
+	}
+
+	/**
+	 * Inserts all events. If at least as many events are added as are currently
+	 * contained in the queue, the calendar is resized just once to its final size
+	 * (estimating the bucket width from the time span of the new events) before the
+	 * events are appended to their buckets. This requires O(n) expected time
+	 * instead of several intermediate resize operations.
+	 */
+	@Override
+	public void insertAll(Collection<? extends SimEvent> events) {
+		int n = events.size();
+		if (n < count || n < NUM_SAMPLES) {
+			for (SimEvent e : events) {
+				insert(e);
+			}
+			return;
+		}
+
+		int newCount = count + n;
+		int numBuckets = buckets.length;
+		while (newCount > 2 * numBuckets) {
+			numBuckets *= 2;
+		}
+
+		// estimate event density from the central 80% of a sample of event times, so
+		// outliers don't lead to an unsuitable bucket width
+		int step = Math.max(1, n / BULK_SAMPLES);
+		double[] sample = new double[(n + step - 1) / step];
+		int i = 0, k = 0;
+		for (SimEvent e : events) {
+			if (i++ % step == 0) {
+				sample[k++] = e.getTime();
+			}
+		}
+		Arrays.sort(sample);
+		double span = sample[sample.length * 9 / 10] - sample[sample.length / 10];
+		double newWidth = 3.0 * span / (0.8 * newCount);
+		if (!(newWidth > 0.0 && newWidth < Double.POSITIVE_INFINITY)) {
+			newWidth = width;
+		}
+
+		SimEvent[][] oldBuckets = buckets;
+		int[] oldSizes = bucketSizes;
+
+		initBuckets(numBuckets, newWidth, Long.MAX_VALUE);
+		for (int b = 0; b < oldBuckets.length; b++) {
+			// add in ascending order
+			for (int j = oldSizes[b] - 1; j >= 0; j--) {
+				addToCalendar(oldBuckets[b][j]);
+			}
+		}
+		for (SimEvent e : events) {
+			addToCalendar(e);
+		}
+		count = newCount;
+	}
+
+	private void addToCalendar(SimEvent e) {
+		long slot = slotOf(e.getTime());
+		if (slot < currentSlot) {
+			currentSlot = slot;
+		}
+		addToBucket(e, (int) (slot & mask));
+	}
+
+	/**
+	 * Return and remove the least element, or null if empty.
+	 */
+	@Override
+	public SimEvent extract() {
+		if (count == 0) {
+			return null;
+		}
+
+		return removeLast(nextBucket());
+	}
+
+	/**
+	 * Return the least element without removing it, or null if empty.
+	 */
+	@Override
+	public SimEvent peek() {
+		if (count == 0) {
+			return null;
+		}
+
+		int i = nextBucket();
+		return buckets[i][bucketSizes[i] - 1];
+	}
+
+	/**
+	 * Returns the bucket containing the least element and moves the current slot
+	 * there. The queue mustn't be empty.
+	 */
+	private int nextBucket() {
+		final SimEvent[][] buckets = this.buckets;
+		final int[] bucketSizes = this.bucketSizes;
+
+		// scan one "year" starting at the current slot
+		long slot = currentSlot;
+		for (int n = 0; n <= mask; n++, slot++) {
+			int i = (int) (slot & mask);
+			int size = bucketSizes[i];
+			if (size > 0) {
+				SimEvent e = buckets[i][size - 1];
+				if (slotOf(e.getTime()) <= slot) {
+					currentSlot = slot;
+					return i;
+				}
+			}
+		}
+
+		// nothing found in a whole year, so do a direct search for the minimum
+		int minIdx = -1;
+		SimEvent min = null;
+		for (int i = 0; i <= mask; i++) {
+			int size = bucketSizes[i];
+			if (size > 0 && (min == null || buckets[i][size - 1].compareTo(min) < 0)) {
+				minIdx = i;
+				min = buckets[i][size - 1];
+			}
+		}
+
+		currentSlot = slotOf(min.getTime());
+		return minIdx;
+	}
+
+	private SimEvent removeLast(int bucket) {
+		int size = --bucketSizes[bucket];
+		SimEvent e = buckets[bucket][size];
+		buckets[bucket][size] = null;
+		--count;
+
+		if (count < shrinkThreshold && resizeEnabled) {
+			resize(buckets.length / 2);
+		}
+
+		return e;
+	}
+
+	/**
+	 * Removes an element from this queue. This usually requires time proportional
+	 * to the number of events in the element's bucket. If the time of
+	 * {@code element} was changed after inserting it, all buckets have to be
+	 * scanned.
+	 *
+	 * @param element the element to remove
+	 * @return {@code true} if the element was contained in the queue and
+	 *         successfully removed, {@code false} otherwise
+	 */
+	@Override
+	public boolean remove(SimEvent element) {
+		Objects.requireNonNull(element);
+
+		int bucket = (int) (slotOf(element.getTime()) & mask);
+		int idx = indexInBucket(bucket, element);
+		if (idx < 0) {
+			// event time might have changed, search all buckets
+			for (bucket = 0; bucket <= mask; bucket++) {
+				idx = linearSearch(bucket, element);
+				if (idx >= 0) {
+					break;
+				}
+			}
+			if (idx < 0) {
+				return false;
+			}
+		}
+
+		SimEvent[] b = buckets[bucket];
+		int size = --bucketSizes[bucket];
+		System.arraycopy(b, idx + 1, b, idx, size - idx);
+		b[size] = null;
+		--count;
+
+		if (count < shrinkThreshold && resizeEnabled) {
+			resize(buckets.length / 2);
+		}
+
+		return true;
+	}
+
+	private int indexInBucket(int bucket, SimEvent element) {
+		int size = bucketSizes[bucket];
+		if (size == 0) {
+			return -1;
+		}
+
+		SimEvent[] b = buckets[bucket];
+		int pos = searchPos(b, size, element);
+		return (pos < size && b[pos] == element) ? pos : -1;
+	}
+
+	private int linearSearch(int bucket, SimEvent element) {
+		SimEvent[] b = buckets[bucket];
+		for (int i = 0, n = bucketSizes[bucket]; i < n; i++) {
+			if (b[i] == element) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private void addToBucket(SimEvent e, int bucket) {
+		SimEvent[] b = buckets[bucket];
+		int size = bucketSizes[bucket];
+		if (b == null) {
+			b = buckets[bucket] = new SimEvent[INITIAL_BUCKET_CAPACITY];
+		} else if (size == b.length) {
+			b = buckets[bucket] = Arrays.copyOf(b, 2 * size);
+		}
+
+		// find insert position; new events are usually scheduled after existing ones,
+		// so most often they are inserted at or near the beginning of the array
+		int pos = searchPos(b, size, e);
+		System.arraycopy(b, pos, b, pos + 1, size - pos);
+		b[pos] = e;
+		bucketSizes[bucket] = size + 1;
+	}
+
+	/**
+	 * Returns the first position in the (descending) array {@code b} containing an
+	 * element that is not larger than {@code e}.
+	 */
+	private static int searchPos(SimEvent[] b, int size, SimEvent e) {
+		int lo = 0;
+		int hi = size;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (b[mid].compareTo(e) > 0) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	private long slotOf(double time) {
+		return (long) Math.floor(time / width);
+	}
+
+	/**
+	 * Changes the number of buckets and recomputes the bucket width using a sample
+	 * of the events to be extracted next.
+	 */
+	private void resize(int newNumBuckets) {
+		if (newNumBuckets < MIN_BUCKETS) {
+			return;
+		}
+
+		double newWidth = estimateWidth();
+
+		SimEvent[][] oldBuckets = buckets;
+		int[] oldSizes = bucketSizes;
+
+		initBuckets(newNumBuckets, newWidth, Long.MAX_VALUE);
+		for (int i = 0; i < oldBuckets.length; i++) {
+			SimEvent[] b = oldBuckets[i];
+			// add in ascending order
+			for (int j = oldSizes[i] - 1; j >= 0; j--) {
+				addToCalendar(b[j]);
+			}
+		}
+		if (count == 0) {
+			currentSlot = 0;
+		}
+	}
+
+	/**
+	 * Estimates a good bucket width by looking at the average time difference
+	 * between the next events, ignoring large outliers.
+	 */
+	private double estimateWidth() {
+		int n = Math.min(count, NUM_SAMPLES);
+		if (n < 2) {
+			return width;
+		}
+
+		// temporarily take the next events out of the queue
+		resizeEnabled = false;
+		SimEvent[] sample = new SimEvent[n];
+		for (int i = 0; i < n; i++) {
+			sample[i] = extract();
+		}
+		for (int i = n - 1; i >= 0; i--) {
+			insert(sample[i]);
+		}
+		resizeEnabled = true;
+
+		double avgSep = (sample[n - 1].getTime() - sample[0].getTime()) / (n - 1);
+		if (!(avgSep > 0.0 && avgSep < Double.POSITIVE_INFINITY)) {
+			return width;
+		}
+
+		// recompute average only using separations not too large
+		double sum = 0.0;
+		int numSep = 0;
+		for (int i = 1; i < n; i++) {
+			double sep = sample[i].getTime() - sample[i - 1].getTime();
+			if (sep <= 2.0 * avgSep) {
+				sum += sep;
+				numSep++;
+			}
+		}
+
+		double newWidth = 3.0 * (numSep > 0 ? sum / numSep : avgSep);
+		return newWidth > 0.0 ? newWidth : width;
+	}
+
+	/** remove all elements * */
+	public void clear() {
+		initBuckets(MIN_BUCKETS, width, 0);
+		count = 0;
+	}
+
+	/** Return number of elements * */
+	@Override
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Returns all events as an ordered list.
+	 *
+	 * @return All events.
+	 */
+	@Override
+	public ArrayList<SimEvent> allEvents() {
+		ArrayList<SimEvent> res = new ArrayList<>(count);
+		for (int i = 0; i <= mask; i++) {
+			for (int j = 0, n = bucketSizes[i]; j < n; j++) {
+				res.add(buckets[i][j]);
+			}
+		}
+		Collections.sort(res);
+		return res;
+	}
+
+}
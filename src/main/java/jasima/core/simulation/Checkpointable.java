@@ -0,0 +1,59 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.core.simulation;
+
+/**
+ * Interface to be implemented by components, events and other objects whose
+ * state can be saved and later restored. This is required to execute a
+ * {@link ParallelSimulation} optimistically, where partitions might have to be
+ * rolled back to an earlier point in simulation time, and to fork several runs
+ * from a {@link Simulation.Snapshot}.
+ *
+ * @since 3.0
+ * @see ParallelSimulation#setOptimistic(boolean)
+ * @see Simulation#saveSnapshot()
+ */
+public interface Checkpointable {
+
+	/**
+	 * Returns a copy of the current state of this object. The object returned must
+	 * not be changed by later state changes of this object.
+	 */
+	Object saveState();
+
+	/**
+	 * Restores a state previously returned by {@link #saveState()}. The same state
+	 * might be restored multiple times.
+	 *
+	 * @param state The state to restore.
+	 */
+	void restoreState(Object state);
+
+	/**
+	 * Returns whether the state saved by {@link #saveState()} is complete enough to
+	 * roll back to arbitrary points in simulation time, as required for optimistic
+	 * execution of a {@link ParallelSimulation}. Objects returning {@code false}
+	 * can only be used with {@link Simulation#saveSnapshot()}, e.g., because state
+	 * kept by their listeners is not saved and therefore has to be reset after a
+	 * snapshot was restored. The default implementation returns {@code true}.
+	 */
+	default boolean isRollbackSupported() {
+		return true;
+	}
+
+}
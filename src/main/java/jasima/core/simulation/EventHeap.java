@@ -19,11 +19,13 @@ package jasima.core.simulation;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Objects;
 
 /**
  * An implementation of {@link jasima.core.simulation.EventQueue} using an
- * array-based heap.
+ * array-based heap. Each event stores its current position in the heap, so
+ * {@link #remove(SimEvent)} requires only O(log n) time.
  * 
  * @author Torsten Hildebrandt
  */
@@ -72,11 +74,10 @@ public final class EventHeap implements EventQueue {
 
 		if (invalidRoot) {
 			// move new element to root
-			nodes[0] = x;
 			++count;
 			invalidRoot = false;
 
-			sink(nodes[0], 0);
+			sink(x, 0);
 		} else {
 			// bubble up: normal heap insertion if more than one insert() in
 			// succession
@@ -85,6 +86,41 @@ public final class EventHeap implements EventQueue {
 		}
 	}
 
+	/**
+	 * Inserts all events. If at least as many events are added as are currently
+	 * contained in the heap, the heap is rebuilt in O(n) time (Floyd's method).
+	 * Otherwise events are inserted one by one.
+	 */
+	@Override
+	public void insertAll(Collection<? extends SimEvent> events) {
+		int n = events.size();
+		if (n < count) {
+			for (SimEvent e : events) {
+				insert(e);
+			}
+			return;
+		}
+
+		if (invalidRoot) {
+			fixRootNode();
+		}
+		if (count + n > nodes.length) {
+			setCapacity(count + n + 1);
+		}
+
+		final SimEvent[] nodes = this.nodes;
+		for (SimEvent e : events) {
+			nodes[count] = e;
+			e.heapPos = count;
+			count++;
+		}
+
+		// restore heap condition bottom-up
+		for (int k = (count - 2) >> 1; k >= 0; k--) {
+			sink(nodes[k], k);
+		}
+	}
+
 	/**
 	 * Return and remove least element, or null if empty.
 	 */
@@ -99,6 +135,9 @@ public final class EventHeap implements EventQueue {
 
 		SimEvent least = nodes[0];
 		nodes[0] = null;
+		if (least != null) {
+			least.heapPos = -1;
+		}
 
 		--count;
 
@@ -107,19 +146,35 @@ public final class EventHeap implements EventQueue {
 		return least;
 	}
 
+	/**
+	 * Return least element without removing it, or null if empty.
+	 */
+	@Override
+	public SimEvent peek() {
+		if (invalidRoot) {
+			fixRootNode();
+		}
+
+		return nodes[0];
+	}
+
 	private void fixRootNode() {
 		// move last element to root
-		nodes[0] = nodes[count];
+		SimEvent last = nodes[count];
 		nodes[count] = null;
 		invalidRoot = false;
 
-		sink(nodes[0], 0);
+		if (last != null) {
+			sink(last, 0);
+		}
 	}
 
 	/**
-	 * Scans the underlying array if it contains the given element. This methods
-	 * requires O(n) time and compares object references for equality, not using
-	 * {@code equals()}.
+	 * Returns the position of the given element in the underlying array. This
+	 * usually requires O(1) time using the position stored in the event. Only if
+	 * this is not available (e.g., because the same event object was inserted
+	 * more than once), the underlying array is scanned in O(n) time. This method
+	 * compares object references for equality, not using {@code equals()}.
 	 * 
 	 * @param element the element to look for.
 	 * @return the index of the element in the underlying array
@@ -130,6 +185,11 @@ public final class EventHeap implements EventQueue {
 			fixRootNode();
 		}
 
+		int pos = element.heapPos;
+		if (pos >= 0 && pos < count && nodes[pos] == element) {
+			return pos;
+		}
+
 		for (int i = 0; i < count; i++) {
 			if (nodes[i] == element) {
 				return i;
@@ -140,8 +200,8 @@ public final class EventHeap implements EventQueue {
 	}
 
 	/**
-	 * Removes an element from this heap. Required O(n) time to find the position of
-	 * {@code element} in the underlying array.
+	 * Removes an element from this heap. This requires O(log n) time, as the
+	 * position of {@code element} in the underlying array is known.
 	 * 
 	 * @param element the element to remove
 	 * @return {@code true} if the element was contained in the heap and
@@ -154,6 +214,7 @@ public final class EventHeap implements EventQueue {
 		}
 
 		nodes[idx] = null;
+		element.heapPos = -1;
 
 		SimEvent e = nodes[count - 1];
 		nodes[count - 1] = null;
@@ -172,7 +233,13 @@ public final class EventHeap implements EventQueue {
 
 	/** remove all elements * */
 	public void clear() {
-		Arrays.fill(nodes, 0, count, null);
+		int n = invalidRoot ? count + 1 : count; // root slot might be empty
+		for (int i = 0; i < n; i++) {
+			if (nodes[i] != null) {
+				nodes[i].heapPos = -1;
+			}
+		}
+		Arrays.fill(nodes, 0, n, null);
 		count = 0;
 		invalidRoot = false;
 	}
@@ -190,13 +257,13 @@ public final class EventHeap implements EventQueue {
 	 */
 	@Override
 	public ArrayList<SimEvent> allEvents() {
-		ArrayList<SimEvent> res = new ArrayList<>();
-
-		EventHeap copy = new EventHeap(this);
-		for (int i = 0; i < count; i++)
-			res.add(copy.extract());
+		// sort a copy instead of extracting from a copied heap, because extracting
+		// would change the positions stored in the events
+		int from = invalidRoot ? 1 : 0;
+		SimEvent[] copy = Arrays.copyOfRange(nodes, from, from + count);
+		Arrays.sort(copy);
 
-		return res;
+		return new ArrayList<>(Arrays.asList(copy));
 	}
 
 	private void setCapacity(int newCap) {
@@ -213,13 +280,16 @@ public final class EventHeap implements EventQueue {
 
 		while (k > 0) {
 			int par = parent(k);
-			if (x.compareTo(nodes[par]) < 0) {
-				nodes[k] = nodes[par];
+			SimEvent p = nodes[par];
+			if (x.compareTo(p) < 0) {
+				nodes[k] = p;
+				p.heapPos = k;
 				k = par;
 			} else
 				break;
 		}
 		nodes[k] = x;
+		x.heapPos = k;
 		return k;
 	}
 
@@ -231,13 +301,16 @@ public final class EventHeap implements EventQueue {
 		while ((l = left(k)) < count) {
 			int r = right(k);
 			int child = (r >= count || nodes[l].compareTo(nodes[r]) < 0) ? l : r;
-			if (x.compareTo(nodes[child]) > 0) {
-				nodes[k] = nodes[child];
+			SimEvent c = nodes[child];
+			if (x.compareTo(c) > 0) {
+				nodes[k] = c;
+				c.heapPos = k;
 				k = child;
 			} else
 				break;
 		}
 		nodes[k] = x;
+		x.heapPos = k;
 		return k;
 	}
 
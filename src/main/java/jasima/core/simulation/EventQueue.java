@@ -17,6 +17,7 @@ limitations under the License.
 */
 package jasima.core.simulation;
 
+import java.util.Collection;
 import java.util.List;
 
 /** Public interface of event queue implementations. */
@@ -25,9 +26,34 @@ public interface EventQueue {
 	/** Insert an event in the queue. */
 	void insert(SimEvent e);
 
+	/**
+	 * Inserts all events contained in {@code events}. The default implementation
+	 * just calls {@link #insert(SimEvent)} for each event, implementations can
+	 * provide a more efficient bulk operation.
+	 */
+	default void insertAll(Collection<? extends SimEvent> events) {
+		for (SimEvent e : events) {
+			insert(e);
+		}
+	}
+
 	/** Extract the (chronologically) next event from the queue. */
 	SimEvent extract();
 
+	/**
+	 * Returns the (chronologically) next event without removing it from the queue,
+	 * or {@code null} if the queue is empty. The default implementation extracts
+	 * the event and inserts it again, implementations should provide a cheaper way
+	 * to access it.
+	 */
+	default SimEvent peek() {
+		SimEvent e = extract();
+		if (e != null) {
+			insert(e);
+		}
+		return e;
+	}
+
 	/**
 	 * Removes the given element from the queue.
 	 * 
@@ -0,0 +1,520 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.core.simulation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import jasima.core.experiment.Experiment;
+import jasima.core.simulation.Partition.CrossPartitionEvent;
+import jasima.core.simulation.Simulation.SimulationFailed;
+import jasima.core.util.SimProcessUtil.SimAction;
+
+/**
+ * Executes several {@link Partition}s of a model in parallel, each with its own
+ * {@link Simulation} and event queue, running in a thread of its own.
+ * Partitions interact only by sending messages to each other (see
+ * {@link Partition#send(Partition, double, int, Runnable)}), each message
+ * having a delay of at least {@link #getLookahead()}.
+ * <p>
+ * Execution is synchronized conservatively using time windows: if {@code t} is
+ * the time of the earliest event in any partition, then no message can arrive
+ * before {@code t+lookahead}, so all partitions can execute their events up to
+ * this time independently. Partitions then wait for each other, messages are
+ * delivered and the next window is determined. Messages are delivered in a
+ * fixed order, so results are deterministic and independent of the number of
+ * threads or their timing.
+ * <p>
+ * A parallel simulation ends if the simulation length is reached, there are no
+ * more application events in any partition, or any partition ended
+ * prematurely, e.g., by calling {@link Simulation#end()} or because of an
+ * unhandled exception. In the last case, the remaining partitions end at the
+ * end of the current time window.
+ * <p>
+ * If lookahead is small, conservative synchronization requires many time
+ * windows with only few events each. In this case partitions can be executed
+ * optimistically (see {@link #setOptimistic(boolean)}): each partition executes
+ * its events speculatively and is rolled back to a saved checkpoint if a message
+ * arrives in its past (Time Warp). This requires the whole state of a partition
+ * to be {@link Checkpointable}. If this is not the case for any partition,
+ * e.g., because it contains a {@code WorkStation}, conservative synchronization
+ * is used instead.
+ * <p>
+ * Usage example:
+ *
+ * <pre>
+ * ParallelSimulation ps = new ParallelSimulation();
+ * ps.setLookahead(5.0);
+ * ps.setSimulationLength(24 * 60);
+ * ps.addPartition("area1", shop1);
+ * ps.addPartition("area2", shop2);
+ * Map&lt;String, Object&gt; res = ps.performRun();
+ * </pre>
+ *
+ * @since 3.0
+ */
+public class ParallelSimulation {
+
+	private static final Logger log = LogManager.getLogger(ParallelSimulation.class);
+
+	public static final String NUM_WINDOWS = "numWindows";
+	public static final String NUM_GVT_ROUNDS = "numGvtRounds";
+	public static final String NUM_ROLLBACKS = "numRollbacks";
+	public static final String NUM_EVENTS_ROLLED_BACK = "numEventsRolledBack";
+
+	// parameters
+	private double lookahead = Double.NaN;
+	private double simulationLength = 0.0d;
+	private boolean optimistic = false;
+	private int checkpointInterval = 10;
+	private int gvtInterval = 1000;
+
+	private final List<Partition> partitions;
+
+	// used during run
+	private Phaser phaser;
+	private double windowEnd;
+	private boolean lastWindow;
+	private boolean stopPremature;
+	private int numWindows;
+	// used during optimistic run
+	private boolean useTimeWarp;
+	volatile boolean gvtRequested;
+	double gvt;
+	private boolean terminate;
+	private int numGvtRounds;
+	final AtomicInteger numIdle = new AtomicInteger();
+
+	public ParallelSimulation() {
+		super();
+
+		partitions = new ArrayList<>();
+	}
+
+	/**
+	 * Adds a new partition containing the given components.
+	 *
+	 * @param name       The name of the partition.
+	 * @param components The components of the partition, usually a
+	 *                   {@link SimComponentContainer}.
+	 * @return The new partition. Its simulation can be further configured using
+	 *         {@link Partition#getSim()}.
+	 */
+	public Partition addPartition(String name, SimComponent... components) {
+		Simulation sim = new Simulation();
+		sim.setName(name);
+		sim.addComponent(components);
+
+		Partition p = new Partition(this, partitions.size(), sim);
+		partitions.add(p);
+		return p;
+	}
+
+	/**
+	 * Returns an unmodifiable list of all partitions.
+	 */
+	public List<Partition> partitions() {
+		return Collections.unmodifiableList(partitions);
+	}
+
+	/**
+	 * Runs all partitions in parallel, each in its own thread.
+	 *
+	 * @return The results of all partitions, each prefixed with the name of the
+	 *         partition and a ".".
+	 * @throws SimulationFailed If any of the partitions failed with an exception.
+	 */
+	public Map<String, Object> performRun() {
+		if (!(lookahead > 0.0)) {
+			throw new IllegalStateException("Lookahead has to be set to a positive value.");
+		}
+		if (partitions.isEmpty()) {
+			throw new IllegalStateException("No partitions.");
+		}
+
+		long runTimeReal = System.currentTimeMillis();
+
+		int n = partitions.size();
+		phaser = new Phaser(n) {
+			@Override
+			protected boolean onAdvance(int phase, int registeredParties) {
+				if (registeredParties == 0) {
+					return true; // all partitions finished
+				}
+				if (useTimeWarp) {
+					computeGvt();
+				} else {
+					synchronize();
+				}
+				return false;
+			}
+		};
+		numWindows = 0;
+		lastWindow = false;
+		stopPremature = false;
+		numGvtRounds = 0;
+		gvtRequested = false;
+		terminate = false;
+		numIdle.set(0);
+
+		useTimeWarp = isOptimistic() && initTimeWarp();
+		if (!useTimeWarp) {
+			for (Partition p : partitions) {
+				Simulation sim = p.getSim();
+				sim.setSimulationLength(getSimulationLength());
+				sim.schedule(new SyncEvent(sim));
+			}
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(n);
+		try {
+			List<Future<Map<String, Object>>> futures = new ArrayList<>(n);
+			for (Partition p : partitions) {
+				futures.add(pool.submit(() -> runPartition(p)));
+			}
+
+			Map<String, Object> res = new LinkedHashMap<>();
+			double simTime = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < n; i++) {
+				Partition p = partitions.get(i);
+				Map<String, Object> partRes = futures.get(i).get();
+				if (p.failure != null) {
+					throw new SimulationFailed("Partition '" + p + "' failed.", p.failure);
+				}
+
+				partRes.forEach((k, v) -> res.put(p.getName() + "." + k, v));
+				simTime = Math.max(simTime, p.getSim().simTime());
+				if (useTimeWarp) {
+					res.put(p.getName() + "." + NUM_ROLLBACKS, p.timeWarp.numRollbacks);
+					res.put(p.getName() + "." + NUM_EVENTS_ROLLED_BACK, p.timeWarp.numEventsRolledBack);
+				}
+			}
+
+			runTimeReal = System.currentTimeMillis() - runTimeReal;
+			res.put(Experiment.RUNTIME, runTimeReal / 1000.0);
+			res.put("simTime", simTime);
+			if (useTimeWarp) {
+				res.put(NUM_GVT_ROUNDS, numGvtRounds);
+			} else {
+				res.put(NUM_WINDOWS, numWindows);
+			}
+
+			return res;
+		} catch (InterruptedException | ExecutionException e) {
+			throw new RuntimeException(e);
+		} finally {
+			pool.shutdown();
+			phaser = null;
+			for (Partition p : partitions) {
+				p.timeWarp = null;
+			}
+		}
+	}
+
+	/**
+	 * Prepares all partitions for optimistic execution.
+	 *
+	 * @return {@code false} if the state of any partition can't be saved, i.e.,
+	 *         conservative synchronization has to be used
+	 */
+	private boolean initTimeWarp() {
+		List<List<Checkpointable>> checkpointables = new ArrayList<>();
+		for (Partition p : partitions) {
+			List<Checkpointable> l = TimeWarp.findCheckpointables(p);
+			if (l == null) {
+				log.info("partition '{}' contains components that are not Checkpointable, "
+						+ "using conservative synchronization.", p);
+				return false;
+			}
+			checkpointables.add(l);
+		}
+
+		double endTime = endTime();
+		for (int i = 0; i < partitions.size(); i++) {
+			Partition p = partitions.get(i);
+			Simulation sim = p.getSim();
+			sim.recycleEvents = false;
+			p.timeWarp = new TimeWarp(p, checkpointables.get(i));
+
+			SimAction userActions = sim.getMainProcessActions();
+			sim.setMainProcessActions(s -> {
+				if (userActions != null) {
+					userActions.run(s);
+				}
+				p.timeWarp.run(endTime);
+				s.end();
+			});
+		}
+		return true;
+	}
+
+	private Map<String, Object> runPartition(Partition p) {
+		try {
+			return p.getSim().performRun();
+		} catch (Exception e) {
+			log.warn("partition '{}' failed: {}", p, e);
+			p.failure = e;
+			return null;
+		} finally {
+			p.finished = true;
+			phaser.arriveAndDeregister();
+		}
+	}
+
+	/**
+	 * Called when all active partitions reached the end of the current time
+	 * window. At this point all partitions are blocked, so this method can
+	 * access their simulations.
+	 */
+	private void synchronize() {
+		numWindows++;
+
+		// deliver messages
+		ArrayList<CrossPartitionEvent> msgs = new ArrayList<>();
+		for (Partition p : partitions) {
+			msgs.addAll(p.outbox);
+			p.outbox.clear();
+			if (p.finished) {
+				stopPremature = true;
+			}
+		}
+		msgs.sort(CrossPartitionEvent.DELIVERY_ORDER);
+		for (CrossPartitionEvent m : msgs) {
+			if (!m.dest.finished) {
+				m.dest.getSim().schedule(m);
+			}
+		}
+
+		// determine next window
+		double lbts = Double.POSITIVE_INFINITY;
+		long numAppEvents = 0;
+		for (Partition p : partitions) {
+			if (!p.finished) {
+				Simulation sim = p.getSim();
+				lbts = Math.min(lbts, sim.nextEventTime());
+				numAppEvents += sim.numAppEvents();
+			}
+		}
+
+		// no synchronization required if no message can arrive before the simulation
+		// ends
+		double endTime = endTime();
+		windowEnd = lbts + getLookahead();
+		lastWindow = stopPremature || numAppEvents == 0 || windowEnd > endTime;
+
+		log.trace("window {}: end={}, last={}", numWindows, windowEnd, lastWindow);
+	}
+
+	private double endTime() {
+		return getSimulationLength() > 0.0
+				? partitions.get(0).getSim().getInitialSimTime() + getSimulationLength()
+				: Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Requests a new GVT computation in optimistic mode. Can be called by any
+	 * partition.
+	 */
+	void requestGvt() {
+		gvtRequested = true;
+		for (Partition p : partitions) {
+			p.timeWarp.wakeUp();
+		}
+	}
+
+	/**
+	 * Waits until all partitions are ready for GVT computation.
+	 *
+	 * @return Whether to continue the simulation.
+	 */
+	boolean awaitGvt() {
+		phaser.arriveAndAwaitAdvance();
+		return !terminate;
+	}
+
+	/**
+	 * Computes the global virtual time (GVT) in optimistic mode, i.e., the minimum
+	 * time any partition can be rolled back to. Called when all partitions are
+	 * blocked in {@link #awaitGvt()}.
+	 */
+	private void computeGvt() {
+		numGvtRounds++;
+		gvtRequested = false;
+
+		double min = Double.POSITIVE_INFINITY;
+		boolean failed = false;
+		for (Partition p : partitions) {
+			min = Math.min(min, p.timeWarp.localMinimum());
+			failed |= p.failure != null;
+		}
+		gvt = min;
+
+		terminate = failed || gvt == Double.POSITIVE_INFINITY || gvt > endTime();
+
+		log.trace("GVT round {}: gvt={}, terminate={}", numGvtRounds, gvt, terminate);
+	}
+
+	/**
+	 * Event executed at the end of each time window in each partition. It blocks
+	 * until all partitions have reached the end of the window.
+	 */
+	private class SyncEvent extends SimEvent {
+
+		private final Simulation sim;
+
+		SyncEvent(Simulation sim) {
+			// start with synchronization to determine first window
+			super(sim.getInitialSimTime(), SimEvent.EVENT_PRIO_MAX, "partition_sync");
+			this.sim = sim;
+		}
+
+		@Override
+		public void handle() {
+			phaser.arriveAndAwaitAdvance();
+
+			if (stopPremature) {
+				sim.end();
+			} else if (!lastWindow) {
+				setTime(windowEnd);
+				sim.schedule(this);
+			}
+		}
+
+	}
+
+	// getter/setter for parameters
+
+	/**
+	 * Returns the lookahead, i.e., the minimum delay of messages between
+	 * partitions.
+	 */
+	public double getLookahead() {
+		return lookahead;
+	}
+
+	/**
+	 * Sets the lookahead, i.e., the minimum delay of any message between
+	 * partitions. This has to be a positive value. The larger the lookahead, the
+	 * less often partitions have to be synchronized.
+	 */
+	public void setLookahead(double lookahead) {
+		if (!(lookahead > 0.0)) {
+			throw new IllegalArgumentException("Lookahead has to be positive: " + lookahead);
+		}
+		this.lookahead = lookahead;
+	}
+
+	/**
+	 * Returns the maximum simulation time; a value of 0.0 means no such limit.
+	 */
+	public double getSimulationLength() {
+		return simulationLength;
+	}
+
+	/**
+	 * Sets the maximum simulation time of all partitions. A value of 0.0 means no
+	 * such limit.
+	 */
+	public void setSimulationLength(double simulationLength) {
+		this.simulationLength = simulationLength;
+	}
+
+	/**
+	 * Returns whether partitions are executed optimistically.
+	 */
+	public boolean isOptimistic() {
+		return optimistic;
+	}
+
+	/**
+	 * Sets whether to execute partitions optimistically (Time Warp) instead of
+	 * using conservative time windows. Optimistic execution has the following
+	 * requirements, otherwise results are undefined:
+	 * <ul>
+	 * <li>all components of a partition have to be {@link Checkpointable} (or be a
+	 * plain {@link SimComponentContainerBase}), further model state has to be
+	 * registered using {@link Partition#addCheckpointable(Checkpointable)};
+	 * <li>events must not have any state besides time and priority unless they
+	 * are {@link Checkpointable};
+	 * <li>actions sent as messages must not change after sending;
+	 * <li>no {@link SimProcess}es can be used and {@link Simulation#end()} must
+	 * not be called.
+	 * </ul>
+	 * If any component is not {@link Checkpointable}, conservative synchronization
+	 * is used instead. As events might be executed multiple times, they should not
+	 * have any side effects outside the model. Other than with conservative
+	 * synchronization, the order of messages and local events with the same time
+	 * and priority is not deterministic.
+	 */
+	public void setOptimistic(boolean optimistic) {
+		this.optimistic = optimistic;
+	}
+
+	/**
+	 * Returns the number of events between two checkpoints in optimistic mode.
+	 */
+	public int getCheckpointInterval() {
+		return checkpointInterval;
+	}
+
+	/**
+	 * Sets the number of events executed between saving two checkpoints in
+	 * optimistic mode. Larger values save time and memory for checkpoints, but
+	 * rollbacks have to re-execute more events.
+	 */
+	public void setCheckpointInterval(int checkpointInterval) {
+		if (checkpointInterval <= 0) {
+			throw new IllegalArgumentException("" + checkpointInterval);
+		}
+		this.checkpointInterval = checkpointInterval;
+	}
+
+	/**
+	 * Returns the number of events executed by a partition before a new
+	 * computation of global virtual time is requested in optimistic mode.
+	 */
+	public int getGvtInterval() {
+		return gvtInterval;
+	}
+
+	/**
+	 * Sets the number of events executed by a partition before a new computation
+	 * of global virtual time (GVT) is requested in optimistic mode. Checkpoints
+	 * before GVT are discarded, so smaller values reduce memory usage, but require
+	 * more frequent synchronization of all partitions.
+	 */
+	public void setGvtInterval(int gvtInterval) {
+		if (gvtInterval <= 0) {
+			throw new IllegalArgumentException("" + gvtInterval);
+		}
+		this.gvtInterval = gvtInterval;
+	}
+
+}
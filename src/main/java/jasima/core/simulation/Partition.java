@@ -0,0 +1,205 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.core.simulation;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+
+import javax.annotation.Nullable;
+
+/**
+ * One partition of a {@link ParallelSimulation}. Each partition has its own
+ * {@link Simulation} (and therefore event queue), which is executed in a
+ * separate thread. Partitions can only interact by sending messages using
+ * {@link #send(Partition, double, int, Runnable)}.
+ * <p>
+ * When executed optimistically, all state of a partition has to be
+ * {@link Checkpointable}, see {@link ParallelSimulation#setOptimistic(boolean)}.
+ *
+ * @since 3.0
+ * @see ParallelSimulation
+ */
+public class Partition {
+
+	static final String VALUE_STORE_KEY = Partition.class.getName();
+
+	/**
+	 * Message sent between partitions. Delivered as a normal event in the
+	 * destination partition.
+	 */
+	static final class CrossPartitionEvent extends SimEvent {
+
+		// deterministic order of delivery
+		static final Comparator<CrossPartitionEvent> DELIVERY_ORDER = Comparator
+				.comparingDouble(CrossPartitionEvent::getTime).thenComparingInt(CrossPartitionEvent::getPrio)
+				.thenComparingInt((CrossPartitionEvent e) -> e.source.getIndex())
+				.thenComparingLong(e -> e.seqNum);
+
+		final Partition source;
+		final Partition dest;
+		final long seqNum;
+		final Runnable action;
+
+		// used in optimistic mode only
+		volatile boolean cancelled; // set by sender
+		boolean received; // set by receiver
+		boolean annihilated; // set by receiver
+		long recvSeq; // set by receiver
+
+		CrossPartitionEvent(double time, int prio, Partition source, Partition dest, long seqNum,
+				Runnable action) {
+			super(time, prio, "cross_partition");
+			this.source = source;
+			this.dest = dest;
+			this.seqNum = seqNum;
+			this.action = action;
+		}
+
+		@Override
+		public void handle() {
+			action.run();
+		}
+	}
+
+	private final ParallelSimulation parent;
+	private final int index;
+	private final Simulation sim;
+
+	// accessed only by the thread of this partition or during synchronization
+	final ArrayList<CrossPartitionEvent> outbox;
+	private long numSent;
+	final ArrayList<Checkpointable> checkpointables;
+	TimeWarp timeWarp; // only set in optimistic mode
+
+	volatile boolean finished;
+	Exception failure;
+
+	Partition(ParallelSimulation parent, int index, Simulation sim) {
+		super();
+
+		this.parent = parent;
+		this.index = index;
+		this.sim = sim;
+
+		outbox = new ArrayList<>();
+		numSent = 0;
+		checkpointables = new ArrayList<>();
+		timeWarp = null;
+		finished = false;
+		failure = null;
+
+		sim.valueStorePut(VALUE_STORE_KEY, this);
+	}
+
+	/**
+	 * Returns the partition a simulation belongs to.
+	 *
+	 * @param sim The simulation.
+	 * @return The {@link Partition} executing {@code sim} or {@code null}, if
+	 *         {@code sim} is not part of a {@link ParallelSimulation}.
+	 */
+	public static @Nullable Partition of(Simulation sim) {
+		return (Partition) sim.valueStoreGet(VALUE_STORE_KEY);
+	}
+
+	/**
+	 * Sends a message to another partition (or this partition). The message is
+	 * handled as an event in partition {@code dest} after a delay of
+	 * {@code delay}, i.e., {@code action} is executed at a simulation time of
+	 * {@code simTime()+delay} in {@code dest}'s simulation thread.
+	 * <p>
+	 * {@code action} must not access any state of the sending partition.
+	 *
+	 * @param dest   The destination partition.
+	 * @param delay  The delay of the message, has to be at least
+	 *               {@link ParallelSimulation#getLookahead()}.
+	 * @param prio   The priority of the event in the destination partition.
+	 * @param action The action to execute in the destination partition.
+	 * @throws IllegalArgumentException If {@code delay} is smaller than the
+	 *                                  lookahead.
+	 */
+	public void send(Partition dest, double delay, int prio, Runnable action) {
+		requireNonNull(dest);
+		requireNonNull(action);
+		if (dest.parent != parent) {
+			throw new IllegalArgumentException("Partition '" + dest + "' belongs to another parallel simulation.");
+		}
+		if (!(delay >= parent.getLookahead())) {
+			throw new IllegalArgumentException(
+					"Message delay (" + delay + ") can't be smaller than lookahead (" + parent.getLookahead() + ").");
+		}
+
+		CrossPartitionEvent msg = new CrossPartitionEvent(sim.simTime() + delay, prio, this, dest, numSent++, action);
+		if (timeWarp != null) {
+			timeWarp.send(msg);
+		} else {
+			outbox.add(msg);
+		}
+	}
+
+	/**
+	 * Registers an object with state that has to be saved and restored when
+	 * executing optimistically (see {@link ParallelSimulation#setOptimistic(boolean)}).
+	 * Components of the partition implementing {@link Checkpointable} are
+	 * registered automatically, so this method is only required for additional
+	 * model state, e.g., referenced by actions of events.
+	 *
+	 * @param c The object to register.
+	 */
+	public void addCheckpointable(Checkpointable c) {
+		checkpointables.add(requireNonNull(c));
+	}
+
+	/**
+	 * Returns the parallel simulation this partition belongs to.
+	 */
+	public ParallelSimulation getParallelSimulation() {
+		return parent;
+	}
+
+	/**
+	 * Returns the simulation executed by this partition.
+	 */
+	public Simulation getSim() {
+		return sim;
+	}
+
+	/**
+	 * Returns the name of this partition, this is the same as the name of its
+	 * simulation.
+	 */
+	public String getName() {
+		return sim.getName();
+	}
+
+	/**
+	 * Returns the (0-based) index of this partition in its
+	 * {@link ParallelSimulation}.
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	@Override
+	public String toString() {
+		return getName();
+	}
+
+}
@@ -0,0 +1,376 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.core.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * An implementation of {@link jasima.core.simulation.EventQueue} using an
+ * array-based d-ary heap. In contrast to {@link EventHeap} the sort keys of
+ * each event are copied into primitive arrays (structure of arrays) when the
+ * event is inserted: the event time in a {@code double[]} and priority and event
+ * number combined in a {@code long[]}. Sifting events up and down the heap
+ * therefore only accesses contiguous memory and doesn't have to dereference
+ * the event objects.
+ * <p>
+ * The arity of the heap can be 2, 4 or 8, the default is a 4-ary heap, which
+ * is more cache-friendly than a binary heap. Events are ordered exactly as by
+ * {@link SimEvent#compareTo(SimEvent)}. As the keys are copied on insertion,
+ * time and priority of an event mustn't be changed while it is contained in
+ * the queue.
+ * <p>
+ * To use this queue instead of the default {@link EventHeap}, set the system
+ * property {@value Simulation#QUEUE_IMPL_KEY} to
+ * {@code jasima.core.simulation.PrimitiveEventHeap}.
+ */
+public final class PrimitiveEventHeap implements EventQueue {
+
+	public static final int DEF_ARITY = 4;
+
+	private final int shift; // log2 of arity
+	private SimEvent[] nodes; // the tree nodes, packed into an array
+	private double[] times; // event times
+	private long[] keys; // event priorities and event numbers
+	private int count = 0; // number of used slots
+	private boolean invalidRoot = false;
+
+	/**
+	 * Create a 4-ary event heap with an initial capacity of 103.
+	 */
+	public PrimitiveEventHeap() {
+		this(DEF_ARITY, 103);
+	}
+
+	/**
+	 * Create an event heap with the given arity and capacity.
+	 *
+	 * @param arity    the number of children of each node; has to be 2, 4 or 8
+	 * @param capacity the initial capacity
+	 * @exception IllegalArgumentException if arity is not supported or capacity
+	 *                                     less or equal to zero
+	 */
+	public PrimitiveEventHeap(int arity, int capacity) throws IllegalArgumentException {
+		if (arity != 2 && arity != 4 && arity != 8)
+			throw new IllegalArgumentException("Unsupported arity: " + arity);
+		if (capacity <= 0)
+			throw new IllegalArgumentException();
+
+		shift = Integer.numberOfTrailingZeros(arity);
+		nodes = new SimEvent[capacity];
+		times = new double[capacity];
+		keys = new long[capacity];
+	}
+
+	/**
+	 * Combines priority and event number into a single long value preserving their
+	 * (signed) order. Priority is stored in the upper 32 bits, the event number
+	 * (converted to an unsigned value) in the lower 32 bits.
+	 */
+	private static long keyOf(SimEvent e) {
+		return ((long) e.getPrio() << 32) | ((e.eventNum ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * insert an element, resize if necessary
+	 */
+	@Override
+	public void insert(SimEvent x) {
+		if (count >= nodes.length) {
+			setCapacity(3 * nodes.length / 2 + 1);
+		}
+
+		double t = x.getTime();
+		long k = keyOf(x);
+		if (invalidRoot) {
+			// move new element to root
+			++count;
+			invalidRoot = false;
+
+			sink(x, t, k, 0);
+		} else {
+			// bubble up: normal heap insertion if more than one insert() in
+			// succession
+			bubbleUp(x, t, k, count);
+			++count;
+		}
+	}
+
+	/**
+	 * Inserts all events. If at least as many events are added as are currently
+	 * contained in the heap, the heap is rebuilt in O(n) time (Floyd's method).
+	 * Otherwise events are inserted one by one.
+	 */
+	@Override
+	public void insertAll(Collection<? extends SimEvent> events) {
+		int n = events.size();
+		if (n < count) {
+			for (SimEvent e : events) {
+				insert(e);
+			}
+			return;
+		}
+
+		if (invalidRoot) {
+			fixRootNode();
+		}
+		if (count + n > nodes.length) {
+			setCapacity(count + n + 1);
+		}
+
+		for (SimEvent e : events) {
+			nodes[count] = e;
+			times[count] = e.getTime();
+			keys[count] = keyOf(e);
+			e.heapPos = count;
+			count++;
+		}
+
+		// restore heap condition bottom-up
+		for (int k = (count - 2) >> shift; k >= 0; k--) {
+			sink(nodes[k], times[k], keys[k], k);
+		}
+	}
+
+	/**
+	 * Return and remove least element, or null if empty.
+	 */
+	@Override
+	public SimEvent extract() {
+		// extract() called more than once in succession?
+		if (invalidRoot) {
+			fixRootNode();
+		}
+
+		SimEvent least = nodes[0];
+		nodes[0] = null;
+		if (least != null) {
+			least.heapPos = -1;
+		}
+
+		--count;
+
+		invalidRoot = true;
+
+		return least;
+	}
+
+	/**
+	 * Return least element without removing it, or null if empty.
+	 */
+	@Override
+	public SimEvent peek() {
+		if (invalidRoot) {
+			fixRootNode();
+		}
+
+		return nodes[0];
+	}
+
+	private void fixRootNode() {
+		// move last element to root
+		SimEvent last = nodes[count];
+		nodes[count] = null;
+		invalidRoot = false;
+
+		if (last != null) {
+			sink(last, times[count], keys[count], 0);
+		}
+	}
+
+	/**
+	 * Returns the position of the given element in the underlying arrays. This
+	 * usually requires O(1) time using the position stored in the event, falling
+	 * back to a linear scan if this is not available.
+	 *
+	 * @param element the element to look for.
+	 * @return the index of the element in the underlying array
+	 */
+	public int indexOf(SimEvent element) {
+		Objects.requireNonNull(element);
+		if (invalidRoot) {
+			fixRootNode();
+		}
+
+		int pos = element.heapPos;
+		if (pos >= 0 && pos < count && nodes[pos] == element) {
+			return pos;
+		}
+
+		for (int i = 0; i < count; i++) {
+			if (nodes[i] == element) {
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Removes an element from this heap in O(log n) time.
+	 *
+	 * @param element the element to remove
+	 * @return {@code true} if the element was contained in the heap and
+	 *         successfully removed, {@code false} otherwise
+	 */
+	@Override
+	public boolean remove(SimEvent element) {
+		int idx = indexOf(element);
+		if (idx < 0) {
+			return false;
+		}
+
+		nodes[idx] = null;
+		element.heapPos = -1;
+
+		int last = count - 1;
+		SimEvent e = nodes[last];
+		nodes[last] = null;
+
+		count--;
+
+		// restore heap condition
+		if (e != null) {
+			double t = times[last];
+			long k = keys[last];
+			if (bubbleUp(e, t, k, idx) == idx) {
+				sink(e, t, k, idx);
+			}
+		}
+
+		return true;
+	}
+
+	/** remove all elements * */
+	public void clear() {
+		int n = invalidRoot ? count + 1 : count; // root slot might be empty
+		for (int i = 0; i < n; i++) {
+			if (nodes[i] != null) {
+				nodes[i].heapPos = -1;
+			}
+		}
+		Arrays.fill(nodes, 0, n, null);
+		count = 0;
+		invalidRoot = false;
+	}
+
+	/** Return number of elements * */
+	@Override
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Returns all events as an ordered list.
+	 *
+	 * @return All events.
+	 */
+	@Override
+	public ArrayList<SimEvent> allEvents() {
+		int from = invalidRoot ? 1 : 0;
+		SimEvent[] copy = Arrays.copyOfRange(nodes, from, from + count);
+		Arrays.sort(copy);
+
+		return new ArrayList<>(Arrays.asList(copy));
+	}
+
+	/**
+	 * Returns the arity of this heap, i.e., the number of children of each node.
+	 */
+	public int getArity() {
+		return 1 << shift;
+	}
+
+	private void setCapacity(int newCap) {
+		if (newCap < count) {
+			throw new IllegalArgumentException("Capacity has to be larger than count.");
+		}
+		nodes = Arrays.copyOf(nodes, newCap);
+		times = Arrays.copyOf(times, newCap);
+		keys = Arrays.copyOf(keys, newCap);
+	}
+
+	private int bubbleUp(SimEvent x, double t, long key, int k) {
+		final SimEvent[] nodes = this.nodes;
+		final double[] times = this.times;
+		final long[] keys = this.keys;
+
+		while (k > 0) {
+			int par = (k - 1) >>> shift;
+			double pt = times[par];
+			if (t < pt || (t == pt && key < keys[par])) {
+				SimEvent p = nodes[par];
+				nodes[k] = p;
+				times[k] = pt;
+				keys[k] = keys[par];
+				p.heapPos = k;
+				k = par;
+			} else
+				break;
+		}
+		nodes[k] = x;
+		times[k] = t;
+		keys[k] = key;
+		x.heapPos = k;
+		return k;
+	}
+
+	private int sink(SimEvent x, double t, long key, int k) {
+		final SimEvent[] nodes = this.nodes;
+		final double[] times = this.times;
+		final long[] keys = this.keys;
+		final int count = this.count;
+		final int shift = this.shift;
+		final int arity = 1 << shift;
+
+		int first;
+		while ((first = (k << shift) + 1) < count) {
+			// find smallest child
+			int child = first;
+			double ct = times[first];
+			long ck = keys[first];
+			int end = Math.min(first + arity, count);
+			for (int c = first + 1; c < end; c++) {
+				double tc = times[c];
+				if (tc < ct || (tc == ct && keys[c] < ck)) {
+					child = c;
+					ct = tc;
+					ck = keys[c];
+				}
+			}
+
+			if (ct < t || (ct == t && ck < key)) {
+				SimEvent c = nodes[child];
+				nodes[k] = c;
+				times[k] = ct;
+				keys[k] = ck;
+				c.heapPos = k;
+				k = child;
+			} else
+				break;
+		}
+		nodes[k] = x;
+		times[k] = t;
+		keys[k] = key;
+		x.heapPos = k;
+		return k;
+	}
+
+}
@@ -53,7 +53,7 @@ public class SimEntity extends SimComponentContainerBase {
 
 		if (lifecycleProcess != null)
 			throw new IllegalStateException();
-		lifecycleProcess = new SimProcess<>(getSim(), this::lifecycle, "lifecycle");
+		lifecycleProcess = createLifecycleProcess();
 		lifecycleProcess.setOwner(this);
 	}
 
@@ -64,6 +64,13 @@ public class SimEntity extends SimComponentContainerBase {
 		lifecycleProcess.awakeIn(0.0);
 	}
 
+	/**
+	 * Factory method to create the process executing {@link #lifecycle()}.
+	 */
+	protected SimProcess<Void> createLifecycleProcess() {
+		return new SimProcess<>(getSim(), this::lifecycle, "lifecycle");
+	}
+
 	/**
 	 * Defines the behaviour of the {@link SimEntity}, potentially using
 	 * blocking/process-oriented operations. This method can be overridden, the
@@ -159,7 +166,7 @@ public class SimEntity extends SimComponentContainerBase {
 			return;
 		if (sim == null)
 			setSim(SimContext.currentSimulation());
-		lifecycleProcess = new SimProcess<>(getSim(), this::lifecycle, "lifecycle");
+		lifecycleProcess = createLifecycleProcess();
 	}
 
 	@Override
@@ -46,6 +46,7 @@ public abstract class SimEvent implements Comparable<SimEvent>, Runnable {
 	private int prio;
 	private String description;
 	int eventNum;
+	int heapPos = -1; // position in a heap-based EventQueue (if any), for fast removal
 
 	public SimEvent(double time, int prio) {
 		this(time, prio, null);
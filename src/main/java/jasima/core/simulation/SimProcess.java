@@ -119,7 +119,7 @@ public class SimProcess<R> implements Runnable {
 	private SimComponent owner;
 	private ArrayList<Consumer<SimProcess<R>>> completionNotifiers;
 
-	private ProcessState state;
+	ProcessState state;
 	private R execResult;
 	private Exception execFailure;
 
@@ -226,18 +226,10 @@ public class SimProcess<R> implements Runnable {
 
 		try {
 			try {
-				execResult = lifecycle();
-				execFailure = null;
-				state = ProcessState.TERMINATED;
-				sim.processTerminated(this);
+				R res = lifecycle();
+				lifecycleFinished(res, null);
 			} catch (Exception e) {
-				execResult = null;
-				execFailure = e;
-				state = ProcessState.ERROR;
-				sim.processTerminated(this);
-				if (handleError(e, false)) {
-					sim.terminateWithException(e); // unrecoverable error
-				}
+				lifecycleFinished(null, e);
 			}
 
 			log.trace("actions finished, " + (completionNotifiers == null ? "null" : "" + completionNotifiers.size()));
@@ -266,6 +258,23 @@ public class SimProcess<R> implements Runnable {
 		}
 	}
 
+	/**
+	 * Stores the result of executing the lifecycle actions and updates the process
+	 * state accordingly.
+	 * 
+	 * @param res     The process result (if finished normally).
+	 * @param failure The unhandled {@code Exception} (if finished abnormally).
+	 */
+	void lifecycleFinished(R res, Exception failure) {
+		execResult = res;
+		execFailure = failure;
+		state = failure == null ? ProcessState.TERMINATED : ProcessState.ERROR;
+		sim.processTerminated(this);
+		if (failure != null && handleError(failure, false)) {
+			sim.terminateWithException(failure); // unrecoverable error
+		}
+	}
+
 	/**
 	 * Give control to some other process.
 	 */
@@ -576,6 +585,9 @@ public class SimProcess<R> implements Runnable {
 		if (current == this) {
 			throw new IllegalStateException("A process can't wait for its own completion.");
 		}
+		if (current instanceof SimStepProcess) {
+			throw new UnsupportedOperationException("Use SimStepProcess.join(SimProcess, Runnable) instead.");
+		}
 
 		// schedule re-activation of "current"
 		addCompletionNotifier(p -> {
@@ -637,7 +649,7 @@ public class SimProcess<R> implements Runnable {
 		completionNotifiers.add(callback);
 	}
 
-	private synchronized void runCompleteCallbacks() {
+	synchronized void runCompleteCallbacks() {
 		try {
 			if (completionNotifiers != null) {
 				completionNotifiers.forEach(callback -> callback.accept(this));
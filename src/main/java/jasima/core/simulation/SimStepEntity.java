@@ -0,0 +1,110 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.core.simulation;
+
+import jasima.core.util.observer.ObservableValue;
+
+/**
+ * A {@link SimEntity} with its lifecycle executed by a {@link SimStepProcess}
+ * instead of a thread-backed {@link SimProcess}. Override
+ * {@link #lifecycleStart()} to define the first step of the lifecycle, it then
+ * uses the methods of this class like {@link #waitFor(double, Runnable)} to
+ * continue with the next steps.
+ *
+ * @since 3.0
+ */
+public class SimStepEntity extends SimEntity {
+
+	public SimStepEntity() {
+		this(null);
+	}
+
+	public SimStepEntity(String name) {
+		super(name);
+	}
+
+	@Override
+	protected SimProcess<Void> createLifecycleProcess() {
+		return new SimStepProcess<>(getSim(), this::lifecycleStart, "lifecycle");
+	}
+
+	/**
+	 * The first step of the entity's lifecycle. This method can be overridden, the
+	 * implementation here does nothing, so the lifecycle process terminates
+	 * immediately.
+	 */
+	protected void lifecycleStart() {
+	}
+
+	/**
+	 * Not used by a {@link SimStepEntity}, override {@link #lifecycleStart()}
+	 * instead.
+	 */
+	@Override
+	protected final void lifecycle() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public SimStepProcess<Void> getLifecycleProcess() {
+		return (SimStepProcess<Void>) super.getLifecycleProcess();
+	}
+
+	/**
+	 * @see SimStepProcess#next(Runnable)
+	 */
+	public void next(Runnable step) {
+		getLifecycleProcess().next(step);
+	}
+
+	/**
+	 * @see SimStepProcess#waitFor(double, Runnable)
+	 */
+	public void waitFor(double deltaT, Runnable step) {
+		getLifecycleProcess().waitFor(deltaT, step);
+	}
+
+	/**
+	 * @see SimStepProcess#waitUntil(double, Runnable)
+	 */
+	public void waitUntil(double tAbs, Runnable step) {
+		getLifecycleProcess().waitUntil(tAbs, step);
+	}
+
+	/**
+	 * @see SimStepProcess#suspend(Runnable)
+	 */
+	public void suspend(Runnable step) {
+		getLifecycleProcess().suspend(step);
+	}
+
+	/**
+	 * @see SimStepProcess#waitCondition(ObservableValue, Runnable)
+	 */
+	public void waitCondition(ObservableValue<Boolean> triggerCondition, Runnable step) {
+		getLifecycleProcess().waitCondition(triggerCondition, step);
+	}
+
+	/**
+	 * @see SimStepProcess#join(SimProcess, Runnable)
+	 */
+	public void join(SimProcess<?> p, Runnable step) {
+		getLifecycleProcess().join(p, step);
+	}
+
+}
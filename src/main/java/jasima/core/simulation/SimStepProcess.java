@@ -0,0 +1,261 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.core.simulation;
+
+import static jasima.core.util.ComponentStates.requireAllowedState;
+import static java.util.Objects.requireNonNull;
+
+import javax.annotation.Nullable;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import jasima.core.simulation.Simulation.SimExecState;
+import jasima.core.util.SimProcessUtil.SimCallable;
+import jasima.core.util.observer.ObservableValue;
+import jasima.core.util.observer.ObservableValues;
+
+/**
+ * A stackless {@link SimProcess}, that doesn't require a Thread of its own.
+ * Instead of blocking, its lifecycle is split into a sequence of steps (usually
+ * lambda expressions), each one being a plain {@link Runnable}. Each step is
+ * executed directly in the thread running the event loop, so process
+ * activation is as cheap as handling a normal event.
+ * <p>
+ * Before returning, a step specifies which step to execute next and when using
+ * one of the methods {@link #next(Runnable)}, {@link #waitFor(double, Runnable)},
+ * {@link #waitUntil(double, Runnable)}, {@link #suspend(Runnable)},
+ * {@link #waitCondition(ObservableValue, Runnable)} or
+ * {@link #join(SimProcess, Runnable)}. If a step doesn't specify a next step,
+ * then the process terminates. Its result can be set using
+ * {@link #setResult(Object)}.
+ * <p>
+ * The state transitions of a {@code SimStepProcess} are the same as for a
+ * normal, thread-backed {@link SimProcess}, so both kinds of processes can be
+ * mixed freely. The classes in {@code jasima.core.simulation.generic} provide
+ * non-blocking variants of their blocking operations, which can be used from
+ * within a step, e.g., {@code Q.take(Consumer)} or {@code Resource.seize(Runnable)}.
+ * The blocking methods of {@link SimProcess} like {@link #waitFor(double)} or
+ * {@link #suspend()} can not be used and throw an
+ * {@link UnsupportedOperationException}.
+ *
+ * @since 3.0
+ *
+ * @param <R> The return type of the process. Can be {@link Void}.
+ */
+public class SimStepProcess<R> extends SimProcess<R> {
+
+	private static final Logger log = LogManager.getLogger(SimStepProcess.class);
+
+	private Runnable nextStep;
+	private R result;
+
+	public SimStepProcess(Simulation sim, Runnable firstStep) {
+		this(sim, firstStep, null);
+	}
+
+	public SimStepProcess(Simulation sim, Runnable firstStep, String name) {
+		super(sim, (SimCallable<R>) null, name);
+		this.nextStep = requireNonNull(firstStep);
+		this.result = null;
+	}
+
+	/**
+	 * Returns the currently running {@link SimStepProcess}.
+	 *
+	 * @throws IllegalStateException If the current process is not a
+	 *                               {@link SimStepProcess}.
+	 */
+	public static SimStepProcess<?> current() {
+		SimProcess<?> p = SimContext.currentProcess();
+		if (!(p instanceof SimStepProcess)) {
+			throw new IllegalStateException("Not called from a SimStepProcess: " + p);
+		}
+		return (SimStepProcess<?>) p;
+	}
+
+	/**
+	 * Executes the steps of this process directly in the current thread. Steps are
+	 * executed until one of them makes the process wait or the process terminates.
+	 */
+	@Override
+	void activateProcess() {
+		Simulation sim = getSim();
+		if (sim.state() == SimExecState.TERMINATING) {
+			return;
+		}
+
+		requireAllowedState(state, ProcessState.PASSIVE, ProcessState.SCHEDULED);
+		state = ProcessState.RUNNING;
+
+		SimProcess<?> caller = sim.currentProcess();
+		sim.setCurrentProcess(this);
+		log.trace("process activating: {}", getName());
+		try {
+			runSteps();
+		} finally {
+			sim.setCurrentProcess(caller);
+		}
+	}
+
+	private void runSteps() {
+		try {
+			while (state == ProcessState.RUNNING) {
+				Runnable step = nextStep;
+				if (step == null) {
+					lifecycleFinished(result, null);
+					break;
+				}
+				nextStep = null;
+
+				step.run();
+			}
+		} catch (RuntimeException e) {
+			nextStep = null;
+			lifecycleFinished(null, e);
+		}
+
+		if (hasFinished()) {
+			log.trace("process finished: {}", getName());
+			runCompleteCallbacks();
+		}
+	}
+
+	/**
+	 * Makes {@code step} the next step to execute. It is executed immediately after
+	 * the current step finished.
+	 *
+	 * @param step The next step.
+	 */
+	public void next(Runnable step) {
+		requireRunning();
+		nextStep = requireNonNull(step);
+	}
+
+	/**
+	 * Continues with {@code step} after a certain amount of time.
+	 *
+	 * @see SimProcess#waitFor(double)
+	 */
+	public void waitFor(double deltaT, Runnable step) {
+		waitUntil(getSim().simTime() + deltaT, step);
+	}
+
+	/**
+	 * Continues with {@code step} at a certain absolute simulation time.
+	 *
+	 * @see SimProcess#waitUntil(double)
+	 */
+	public void waitUntil(double tAbs, Runnable step) {
+		requireRunning();
+		nextStep = requireNonNull(step);
+
+		activateProcessEvent.setTime(tAbs);
+		getSim().schedule(activateProcessEvent);
+		state = ProcessState.SCHEDULED;
+
+		log.trace("process {} waiting until {}", getName(), tAbs);
+	}
+
+	/**
+	 * Puts the process into PASSIVE state. After it was resumed by some other
+	 * component or event, execution continues with {@code step}.
+	 *
+	 * @see SimProcess#suspend()
+	 */
+	public void suspend(Runnable step) {
+		requireRunning();
+		nextStep = requireNonNull(step);
+		state = ProcessState.PASSIVE;
+
+		log.trace("process suspended: {}", getName());
+	}
+
+	/**
+	 * Continues with {@code step} as soon as {@code triggerCondition} is
+	 * {@code true}. If the condition is already true, {@code step} is executed
+	 * immediately.
+	 *
+	 * @see SimProcess#waitCondition(ObservableValue)
+	 */
+	public void waitCondition(ObservableValue<Boolean> triggerCondition, Runnable step) {
+		if (!Boolean.TRUE.equals(triggerCondition.get())) {
+			suspend(step);
+			ObservableValues.whenTrueExecuteOnce(triggerCondition, this::resume);
+		} else {
+			next(step);
+		}
+	}
+
+	/**
+	 * Continues with {@code step} after the process {@code p} has finished.
+	 *
+	 * @see SimProcess#join()
+	 */
+	public void join(SimProcess<?> p, Runnable step) {
+		if (p == this) {
+			throw new IllegalStateException("A process can't wait for its own completion.");
+		}
+
+		if (p.hasFinished()) {
+			next(step);
+		} else {
+			suspend(step);
+			p.addCompletionNotifier(finished -> resume());
+		}
+	}
+
+	/**
+	 * Sets the result of this process, that is returned by {@link #get()} after the
+	 * process has finished.
+	 */
+	public void setResult(@Nullable R result) {
+		this.result = result;
+	}
+
+	private void requireRunning() {
+		requireAllowedState(state, ProcessState.RUNNING);
+		assert getSim().currentProcess() == this;
+	}
+
+	/**
+	 * Not supported, use {@link #waitUntil(double, Runnable)} instead.
+	 */
+	@Override
+	public SimProcess<R> waitUntil(double tAbs) {
+		throw new UnsupportedOperationException("Use waitUntil(double, Runnable) in a SimStepProcess.");
+	}
+
+	/**
+	 * Not supported, use {@link #suspend(Runnable)} instead.
+	 */
+	@Override
+	public SimProcess<R> suspend() {
+		throw new UnsupportedOperationException("Use suspend(Runnable) in a SimStepProcess.");
+	}
+
+	/**
+	 * Don't call this method, there is no thread executing a
+	 * {@link SimStepProcess}.
+	 */
+	@Override
+	public void run() {
+		throw new UnsupportedOperationException();
+	}
+
+}
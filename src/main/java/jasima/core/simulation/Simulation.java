@@ -41,9 +41,11 @@ import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalUnit;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
@@ -65,10 +67,13 @@ import javax.annotation.Nullable;
 import jasima.core.experiment.Experiment;
 import jasima.core.random.RandomFactory;
 import jasima.core.random.continuous.DblSequence;
+import jasima.core.simulation.SimComponent.SimComponentEvent;
 import jasima.core.simulation.SimProcess.MightBlock;
 import jasima.core.simulation.Simulation.SimLifecycleEvent;
 import jasima.core.simulation.util.ProcessActivator;
+import jasima.core.simulation.util.RecycledMethodCall;
 import jasima.core.simulation.util.SimComponentRoot;
+import jasima.core.simulation.util.SimEventPool;
 import jasima.core.simulation.util.SimOperations;
 import jasima.core.util.MsgCategory;
 import jasima.core.util.SimProcessUtil;
@@ -82,6 +87,7 @@ import jasima.core.util.ValueStoreImpl;
 import jasima.core.util.i18n.I18n;
 import jasima.core.util.observer.Notifier;
 import jasima.core.util.observer.NotifierImpl;
+import jasima.core.util.observer.NotifierListener;
 import jasima.core.util.observer.ObservableValue;
 
 /**
@@ -216,6 +222,7 @@ public class Simulation
 	private ZoneId zoneId = ZoneId.of("UTC");
 
 	private SimAction mainProcessActions = null;
+	private boolean batchDispatch = false;
 
 	// ////////////// attributes/fields used during a simulation run
 
@@ -223,6 +230,7 @@ public class Simulation
 	private int currPrio;
 	private SimEvent currEvent;
 	private long numEventsProcessed;
+	private boolean batchOpen; // current batch not finished yet (batch dispatch only)
 
 	private Clock clock; // optionally access simulation time as Java Clock
 
@@ -252,9 +260,18 @@ public class Simulation
 	private SimProcess<?> currentProcess;
 	private SimProcess<?> eventLoopProcess;
 
+	private final SimEventPool<RecycledMethodCall> methodCallPool;
+	// recycled events can't be used when saving the kernel state
+	boolean recycleEvents = true;
+
 	private Map<String, Object> additionalResults;
 	private Map<String, Object> res; // set only temporarily during produceResults
 
+	// additional state saved in snapshots
+	private final ArrayList<Checkpointable> checkpointables;
+	// next call of run() continues from a restored snapshot
+	private boolean resumeFromSnapshot;
+
 	public Simulation() {
 		super();
 
@@ -265,6 +282,8 @@ public class Simulation
 		printListener = new ArrayList<>();
 		valueStore = new ValueStoreImpl();
 		runnableProcesses = new HashSet<>();
+		methodCallPool = new SimEventPool<>(RecycledMethodCall::new);
+		checkpointables = new ArrayList<>();
 
 		RandomFactory randomFactory = RandomFactory.newInstance();
 		setRndStreamFactory(randomFactory);
@@ -345,12 +364,20 @@ public class Simulation
 	 * reached, there are no more application events in the queue, or the method
 	 * {@link #end()} was called.
 	 * 
+	 * <p>
+	 * If a {@link Snapshot} was restored before (see
+	 * {@link #restoreSnapshot(Snapshot)}), the run continues from the snapshot's
+	 * simulation time. In this case neither the main process actions are executed
+	 * again nor are statistics reset.
+	 * 
 	 * @see jasima.core.simulation.SimEvent#isAppEvent()
 	 */
 	public void run() {
 		requireAllowedState(state.get(), SimExecState.BEFORE_RUN);
+		boolean resume = resumeFromSnapshot;
+		resumeFromSnapshot = false;
 
-		mainProcess = new SimProcess<>(this, getMainProcessActions(), "simMain");
+		mainProcess = new SimProcess<>(this, resume ? null : getMainProcessActions(), "simMain");
 		currEvent = mainProcess.activateProcessEvent;
 		setCurrentProcess(mainProcess);
 		setEventLoopProcess(mainProcess);
@@ -358,7 +385,9 @@ public class Simulation
 		execFailure = null;
 
 		state.set(SimExecState.RUNNING);
-		resetStats();
+		if (!resume) {
+			resetStats();
+		}
 
 		checkInitialEventTime();
 
@@ -408,11 +437,55 @@ public class Simulation
 
 		// determine next event
 		SimEvent evt = events.extract();
-		currEvent = evt;
 
-		// Advance clock to time of next event
-		simTime = evt.getTime();
-		currPrio = evt.getPrio();
+		if (batchDispatch) {
+			handleEventBatch(evt);
+		} else {
+			// Advance clock to time of next event
+			simTime = evt.getTime();
+			currPrio = evt.getPrio();
+
+			dispatchEvent(evt);
+		}
+	}
+
+	/**
+	 * Handles {@code first} and all further events with the same time and priority
+	 * without returning to the main loop in between.
+	 */
+	private void handleEventBatch(SimEvent first) {
+		// a batch left early for a process continues with the next event of the same
+		// time and priority; this is not a new batch
+		if (!batchOpen || first.getTime() != simTime || first.getPrio() != currPrio) {
+			simTime = first.getTime();
+			currPrio = first.getPrio();
+			batchOpen = true;
+
+			eventBatchStarting();
+		}
+
+		SimEvent evt = first;
+		while (true) {
+			dispatchEvent(evt);
+
+			// stop if control was transferred to a (thread-backed) process, the
+			// batch is continued once the event loop is running again
+			if (currentProcess != null) {
+				return;
+			}
+
+			SimEvent next = events.peek();
+			if (!continueSim() || next == null || next.getTime() != simTime || next.getPrio() != currPrio) {
+				batchOpen = false;
+				return;
+			}
+
+			evt = events.extract();
+		}
+	}
+
+	private void dispatchEvent(SimEvent evt) {
+		currEvent = evt;
 		if (evt.isAppEvent()) {
 			--numAppEvents;
 		}
@@ -421,6 +494,17 @@ public class Simulation
 		runEventHandler(evt);
 	}
 
+	/**
+	 * This method is called once before the first event of a batch of events with
+	 * the same time and priority is handled (only if {@link #isBatchDispatch()} is
+	 * set). {@link #simTime()} and {@link #currentPrio()} are already set to the
+	 * time and priority of the batch. The implementation here does nothing, it
+	 * exists to allow executing custom code once per time step, e.g., to update
+	 * statistics, by sub-classing {@link Simulation}.
+	 */
+	protected void eventBatchStarting() {
+	}
+
 	/**
 	 * Runs the handle-method of {@code evt} (see {@link SimEvent#handle()}. This
 	 * method exists to allow executing custom code before and after each event by
@@ -589,6 +673,81 @@ public class Simulation
 		return performRunAsync(Util.DEF_POOL);
 	}
 
+	/**
+	 * Performs several runs of this simulation sharing a common warm-up period.
+	 * The simulation is initialized and run up to {@code forkTime} once, then a
+	 * {@link Snapshot} is saved (see {@link #saveSnapshot()}). Afterwards a run is
+	 * continued from this snapshot for each seed in {@code seeds}, with all random
+	 * number streams reseeded (see {@link RandomFactory#reseedStreams(long)}).
+	 * <p>
+	 * Each of these runs calls {@link #afterRun()} and {@link #done()} and produces
+	 * its results just like {@link #performRun()}. If {@code forkTime} is before
+	 * {@link #getStatsResetTime()}, the warm-up period is not part of the results
+	 * of any run.
+	 * 
+	 * @param forkTime The simulation time when to save the snapshot. Has to be
+	 *                 larger than the initial simulation time.
+	 * @param seeds    The seeds to use for the random number streams in each run.
+	 * @return The results of each run, in the same order as {@code seeds}.
+	 * @throws IllegalStateException If the simulation ended before
+	 *                               {@code forkTime} was reached or its state
+	 *                               can't be saved.
+	 */
+	public List<Map<String, Object>> performForkedRuns(double forkTime, long... seeds) {
+		if (!(forkTime > getInitialSimTime())) {
+			throw new IllegalArgumentException(
+					defFormat("Fork time (%f) has to be after initial simulation time (%f).", forkTime,
+							getInitialSimTime()));
+		}
+
+		SimContext.setThreadContext(this);
+		try {
+			init();
+			beforeRun();
+
+			Snapshot[] snapshot = { null };
+			schedule(new SimEvent(forkTime, SimEvent.EVENT_PRIO_MAX, "snapshot") {
+				@Override
+				public void handle() {
+					snapshot[0] = saveSnapshot();
+					end();
+				}
+
+				@Override
+				public boolean isAppEvent() {
+					return false;
+				}
+			});
+			run();
+
+			if (snapshot[0] == null) {
+				throw new IllegalStateException(defFormat("Simulation ended before fork time %f.", forkTime));
+			}
+
+			List<Map<String, Object>> results = new ArrayList<>(seeds.length);
+			for (long seed : seeds) {
+				long runTimeReal = System.currentTimeMillis();
+
+				restoreSnapshot(snapshot[0]);
+				getRndStreamFactory().reseedStreams(seed);
+				run();
+				afterRun();
+				done();
+
+				runTimeReal = System.currentTimeMillis() - runTimeReal;
+
+				Map<String, Object> res = new LinkedHashMap<>();
+				res.put(Experiment.RUNTIME, runTimeReal / 1000.0);
+				produceResults(res);
+				results.add(res);
+			}
+
+			return results;
+		} finally {
+			SimContext.setThreadContext(null);
+		}
+	}
+
 	/**
 	 * Removes the given event object from the event queue.
 	 * 
@@ -597,7 +756,28 @@ public class Simulation
 	 *         could be successfully removed, {@code false} otherwise
 	 */
 	public boolean unschedule(SimEvent event) {
-		return events.remove(event);
+		boolean removed = events.remove(event);
+		if (removed && event.isAppEvent()) {
+			numAppEvents--;
+		}
+		return removed;
+	}
+
+	/**
+	 * Moves an event to a new point in time. If {@code event} is currently
+	 * contained in the event queue, it is removed first, then its time is set to
+	 * {@code newTime} and it is scheduled again (see {@link #schedule(SimEvent)}).
+	 * This means it is executed after all other events with the same time and
+	 * priority that are already scheduled.
+	 * 
+	 * @param event   the event to move
+	 * @param newTime the new time of {@code event}
+	 * @return {@code event} to allow chaining of calls
+	 */
+	public SimEvent reschedule(SimEvent event, double newTime) {
+		unschedule(event);
+		event.setTime(newTime);
+		return schedule(event);
 	}
 
 	/**
@@ -607,6 +787,36 @@ public class Simulation
 	 */
 	@Override
 	public SimEvent schedule(SimEvent event) {
+		checkTime(event);
+		number(event);
+		events.insert(event);
+
+		return event;
+	}
+
+	/**
+	 * Schedules all events contained in {@code evts}. The result is the same as
+	 * calling {@link #schedule(SimEvent)} for each event in iteration order, i.e.,
+	 * events with the same time and priority are executed in this order. Events
+	 * are added to the event queue using {@link EventQueue#insertAll(Collection)},
+	 * so a large number of events can be added more efficiently, e.g., when loading
+	 * a static instance or a list of downtimes.
+	 * 
+	 * @param evts The events to schedule.
+	 */
+	@Override
+	public void scheduleAll(Collection<? extends SimEvent> evts) {
+		// check all events first, so nothing is changed if one is invalid
+		for (SimEvent event : evts) {
+			checkTime(event);
+		}
+		for (SimEvent event : evts) {
+			number(event);
+		}
+		events.insertAll(evts);
+	}
+
+	private void checkTime(SimEvent event) {
 		if (event.getTime() == simTime && event.getPrio() <= currPrio) {
 			printFmt(MsgCategory.WARN, "Priority inversion (current: %d, scheduled: %d, event=%s).", currPrio,
 					event.getPrio(), event.toString());
@@ -616,13 +826,28 @@ public class Simulation
 			printFmt(MsgCategory.ERROR, msg);
 			throw new IllegalArgumentException(msg);
 		}
+	}
 
+	private void number(SimEvent event) {
 		event.eventNum = eventNum++;
 		if (event.isAppEvent())
 			numAppEvents++;
-		events.insert(event);
+	}
 
-		return event;
+	/**
+	 * Schedules a call to {@code method} using an event object from an internal
+	 * pool of {@link RecycledMethodCall}s. The event object is returned to the pool
+	 * after it was executed.
+	 * 
+	 * @see SimOperations#scheduleAtRecycled(double, int, Runnable)
+	 */
+	@Override
+	public void scheduleAtRecycled(double time, int prio, Runnable method) {
+		if (recycleEvents) {
+			schedule(methodCallPool.acquire().set(time, prio, method, true));
+		} else {
+			scheduleAt(time, prio, method);
+		}
 	}
 
 	/**
@@ -942,6 +1167,315 @@ public class Simulation
 		return events.size();
 	}
 
+	/**
+	 * Returns the time of the next event in the event queue or
+	 * {@code Double.POSITIVE_INFINITY} if there is none. This method must not be
+	 * called concurrently with the main simulation loop.
+	 */
+	double nextEventTime() {
+		SimEvent e = nextEvent();
+		return e == null ? Double.POSITIVE_INFINITY : e.getTime();
+	}
+
+	/**
+	 * Returns the next event in the event queue without removing it or
+	 * {@code null} if there is none.
+	 */
+	@Nullable
+	SimEvent nextEvent() {
+		return events.size() == 0 ? null : events.peek();
+	}
+
+	/**
+	 * State of the simulation kernel (clock, event counters and contents of the
+	 * event queue) as saved by {@link #saveKernelState()}.
+	 */
+	static final class KernelState {
+		final double simTime;
+		final int currPrio;
+		final int eventNum;
+		final int numAppEvents;
+		final long numEventsProcessed;
+		final SimEvent[] events;
+		final double[] times;
+		final int[] prios;
+		final int[] eventNums;
+		final Object[] eventStates;
+
+		KernelState(Simulation sim) {
+			simTime = sim.simTime;
+			currPrio = sim.currPrio;
+			eventNum = sim.eventNum;
+			numAppEvents = sim.numAppEvents;
+			numEventsProcessed = sim.numEventsProcessed;
+
+			List<SimEvent> all = sim.events.allEvents();
+			int n = all.size();
+			events = all.toArray(new SimEvent[n]);
+			times = new double[n];
+			prios = new int[n];
+			eventNums = new int[n];
+			Object[] states = null;
+			for (int i = 0; i < n; i++) {
+				SimEvent e = events[i];
+				times[i] = e.getTime();
+				prios[i] = e.getPrio();
+				eventNums[i] = e.eventNum;
+				if (e instanceof Checkpointable) {
+					if (states == null) {
+						states = new Object[n];
+					}
+					states[i] = ((Checkpointable) e).saveState();
+				}
+			}
+			eventStates = states;
+		}
+	}
+
+	/**
+	 * Saves the state of the simulation kernel, i.e., the simulation time, event
+	 * counters and all events currently contained in the event queue. This is used
+	 * by {@link ParallelSimulation} for optimistic execution. Events implementing
+	 * {@link Checkpointable} also have their state saved, other events are assumed
+	 * to change only their time and priority.
+	 */
+	KernelState saveKernelState() {
+		return new KernelState(this);
+	}
+
+	/**
+	 * Restores the kernel state previously saved with {@link #saveKernelState()}.
+	 * 
+	 * @param ks     The state to restore.
+	 * @param filter Only events passing this filter are put back into the event
+	 *               queue.
+	 */
+	void restoreKernelState(KernelState ks, Predicate<SimEvent> filter) {
+		simTime = ks.simTime;
+		currPrio = ks.currPrio;
+		eventNum = ks.eventNum;
+		numAppEvents = ks.numAppEvents;
+		numEventsProcessed = ks.numEventsProcessed;
+
+		EventQueue q = createEventQueue();
+		ArrayList<SimEvent> restored = new ArrayList<>(ks.events.length);
+		for (int i = 0; i < ks.events.length; i++) {
+			SimEvent e = ks.events[i];
+			if (!filter.test(e)) {
+				if (e.isAppEvent()) {
+					numAppEvents--;
+				}
+				continue;
+			}
+
+			e.setTime(ks.times[i]);
+			e.setPrio(ks.prios[i]);
+			e.eventNum = ks.eventNums[i];
+			if (ks.eventStates != null && ks.eventStates[i] != null) {
+				((Checkpointable) e).restoreState(ks.eventStates[i]);
+			}
+			restored.add(e);
+		}
+		q.insertAll(restored);
+		events = q;
+	}
+
+	/**
+	 * Adds all {@link Checkpointable} components of the subtree starting at
+	 * {@code c} to {@code res}.
+	 * 
+	 * @param rollback Whether components have to support rollbacks (see
+	 *                 {@link Checkpointable#isRollbackSupported()}).
+	 * @return The first component that is neither {@link Checkpointable} nor a
+	 *         simple container without own state or {@code null} if there is
+	 *         none.
+	 */
+	static @Nullable SimComponent addCheckpointables(SimComponent c, List<Checkpointable> res, boolean rollback) {
+		if (c instanceof Checkpointable && (!rollback || ((Checkpointable) c).isRollbackSupported())) {
+			res.add((Checkpointable) c);
+		} else if (c.getClass() != SimComponentContainerBase.class && c.getClass() != SimComponentRoot.class) {
+			return c;
+		}
+
+		for (SimComponent child : c.getChildren()) {
+			SimComponent failed = addCheckpointables(child, res, rollback);
+			if (failed != null) {
+				return failed;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * The state of a running simulation as saved by {@link #saveSnapshot()}.
+	 * Contains the state of the simulation kernel (clock and event queue), the
+	 * listeners of all components, the state of all {@link Checkpointable}
+	 * components, listeners and other objects (see
+	 * {@link #addCheckpointable(Checkpointable)}) and of all random number streams
+	 * created by the simulation's {@link RandomFactory}.
+	 */
+	public static final class Snapshot {
+		private final Simulation sim;
+		private final KernelState kernel;
+		private final SimComponent[] components;
+		private final List<List<NotifierListener<SimComponent, SimComponentEvent>>> listeners;
+		private final Checkpointable[] objects;
+		private final Object[] states;
+		private final Object rndState;
+		private final Map<String, Object> additionalResults;
+
+		Snapshot(Simulation sim, List<SimComponent> components, List<Checkpointable> checkpointables) {
+			this.sim = sim;
+
+			this.components = components.toArray(new SimComponent[components.size()]);
+			listeners = new ArrayList<>(components.size());
+			Set<Checkpointable> objects = Collections.newSetFromMap(new IdentityHashMap<>());
+			objects.addAll(checkpointables);
+			for (SimComponent c : components) {
+				List<NotifierListener<SimComponent, SimComponentEvent>> l = new ArrayList<>(c.numListener());
+				for (int i = 0; i < c.numListener(); i++) {
+					NotifierListener<SimComponent, SimComponentEvent> listener = c.getListener(i);
+					l.add(listener);
+					if (listener instanceof Checkpointable) {
+						objects.add((Checkpointable) listener);
+					}
+				}
+				listeners.add(l);
+			}
+
+			this.objects = objects.toArray(new Checkpointable[objects.size()]);
+			states = new Object[this.objects.length];
+			for (int i = 0; i < states.length; i++) {
+				states[i] = this.objects[i].saveState();
+			}
+			rndState = sim.getRndStreamFactory().saveState();
+			additionalResults = new LinkedHashMap<>(sim.additionalResults);
+			kernel = sim.saveKernelState();
+		}
+
+		/**
+		 * Returns the simulation this snapshot was taken of.
+		 */
+		public Simulation getSim() {
+			return sim;
+		}
+
+		/**
+		 * Returns the simulation time when this snapshot was taken.
+		 */
+		public double simTime() {
+			return kernel.simTime;
+		}
+	}
+
+	/**
+	 * Saves the state of this simulation, so it can be continued from this state
+	 * later on, possibly multiple times (see {@link #restoreSnapshot(Snapshot)}).
+	 * This method has to be called from an event handler during a simulation run,
+	 * usually as its last action. The remaining actions of the current event are
+	 * not part of the snapshot.
+	 * <p>
+	 * Taking a snapshot requires all components to implement
+	 * {@link Checkpointable} (simple containers without own state excepted).
+	 * Further model state, e.g., referenced by actions of events, has to be
+	 * registered using {@link #addCheckpointable(Checkpointable)}. The listeners
+	 * of all components are saved as well, but the state of a listener only if it
+	 * implements {@link Checkpointable}, e.g., to collect statistics. Processes
+	 * can't be saved, therefore no {@link SimProcess} may be active (this includes
+	 * the main process actions, see {@link #setMainProcessActions(SimAction)}).
+	 * 
+	 * @return The snapshot.
+	 * @throws IllegalStateException If the state of this simulation can't be
+	 *                               saved.
+	 * @see #performForkedRuns(double, long...)
+	 */
+	public Snapshot saveSnapshot() {
+		requireAllowedState(state.get(), RUNNING);
+		List<SimProcess<?>> active = runnableProcesses();
+		if (!active.isEmpty()) {
+			throw new IllegalStateException("Can't save a snapshot while process '" + active.get(0) + "' is active.");
+		}
+
+		List<Checkpointable> l = new ArrayList<>();
+		SimComponent failed = addCheckpointables(getRootComponent(), l, false);
+		if (failed != null) {
+			throw new IllegalStateException(
+					"Can't save a snapshot, component '" + failed.getHierarchicalName() + "' is not Checkpointable.");
+		}
+		l.addAll(checkpointables);
+
+		List<SimComponent> components = new ArrayList<>();
+		addComponents(getRootComponent(), components);
+
+		return new Snapshot(this, components, l);
+	}
+
+	private static void addComponents(SimComponent c, List<SimComponent> res) {
+		res.add(c);
+		for (SimComponent child : c.getChildren()) {
+			addComponents(child, res);
+		}
+	}
+
+	/**
+	 * Restores the state saved in a {@link Snapshot}. The next call of
+	 * {@link #run()} continues the simulation from this state. This method can only
+	 * be called when a run is finished.
+	 * 
+	 * @param s The snapshot to restore. It has to be taken of this simulation.
+	 */
+	public void restoreSnapshot(Snapshot s) {
+		requireAllowedState(state.get(), SimExecState.FINISHED);
+		if (s.sim != this) {
+			throw new IllegalArgumentException("Snapshot was taken of a different simulation.");
+		}
+
+		restoreKernelState(s.kernel, e -> true);
+		// event objects recycled after the snapshot was saved might be restored
+		methodCallPool.clear();
+		for (int i = 0; i < s.components.length; i++) {
+			SimComponent c = s.components[i];
+			while (c.numListener() > 0) {
+				c.removeListener(c.getListener(c.numListener() - 1));
+			}
+			s.listeners.get(i).forEach(c::addListener);
+		}
+		for (int i = 0; i < s.objects.length; i++) {
+			s.objects[i].restoreState(s.states[i]);
+		}
+		getRndStreamFactory().restoreState(s.rndState);
+		additionalResults = new LinkedHashMap<>(s.additionalResults);
+
+		endRequested = false;
+		execFailure = null;
+		resumeFromSnapshot = true;
+		state.set(SimExecState.BEFORE_RUN);
+	}
+
+	/**
+	 * Registers an object with state that has to be saved in a {@link Snapshot}.
+	 * Components implementing {@link Checkpointable} are saved automatically, so
+	 * this method is only required for additional model state, e.g., referenced by
+	 * actions of events.
+	 * 
+	 * @param c The object to register.
+	 */
+	public void addCheckpointable(Checkpointable c) {
+		checkpointables.add(requireNonNull(c));
+	}
+
+	/**
+	 * Extracts the next event from the event queue, advances the simulation clock
+	 * to its time and handles it. Other than the main event loop this method
+	 * neither checks {@link #continueSim()} nor handles exceptions.
+	 */
+	void executeNextEvent() {
+		SimEvent evt = events.extract();
+		simTime = evt.getTime();
+		currPrio = evt.getPrio();
+		dispatchEvent(evt);
+	}
+
 	/**
 	 * Returns an ordered list of all events currently in the event queue. Use with
 	 * care, this is an expensive operation. The list does not include the current
@@ -1408,6 +1942,37 @@ public class Simulation
 		this.errorHandler = errorHandler;
 	}
 
+	/**
+	 * Returns whether all events with the same time and priority are handled as a
+	 * batch.
+	 * 
+	 * @see #setBatchDispatch(boolean)
+	 */
+	public boolean isBatchDispatch() {
+		return batchDispatch;
+	}
+
+	/**
+	 * If set to {@code true}, the main event loop handles all events with the same
+	 * time and priority in a single pass, i.e., only checks for actions from other
+	 * threads (see {@link #runInSimThread(SimAction)}) between such batches. The
+	 * order of event execution is not changed by this setting. The method
+	 * {@link #eventBatchStarting()} is called once before each batch.
+	 * <p>
+	 * Whether the simulation should end ({@link #continueSim()}) is still checked
+	 * after each event. If an event of a batch activates a thread-backed
+	 * {@link SimProcess}, the main loop is left to run the process. The batch's
+	 * remaining events are handled once the event loop resumes (after checking for
+	 * actions from other threads), without calling {@link #eventBatchStarting()}
+	 * again.
+	 * <p>
+	 * This is most useful if many events share the same time stamp (as is usually
+	 * the case in shop models). The default value is {@code false}.
+	 */
+	public void setBatchDispatch(boolean batchDispatch) {
+		this.batchDispatch = batchDispatch;
+	}
+
 	/**
 	 * Sets the factor used to convert the (double-valued) simulation time to
 	 * milli-seconds since {@link #getSimTimeStartInstant()}. The default value is
@@ -0,0 +1,374 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.core.simulation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.Nullable;
+
+import jasima.core.simulation.Partition.CrossPartitionEvent;
+import jasima.core.simulation.Simulation.KernelState;
+
+/**
+ * Optimistic (Time Warp) execution of a single {@link Partition}. Events are
+ * executed speculatively without waiting for other partitions. If a message
+ * arrives in the past of a partition (a "straggler"), the partition is rolled
+ * back: its newest checkpoint before the time of the straggler is restored,
+ * events are re-executed up to this time ("coasting forward") and all messages
+ * sent after this time are cancelled by sending anti-messages.
+ * <p>
+ * Checkpoints are saved periodically every
+ * {@link ParallelSimulation#getCheckpointInterval()} events. Checkpoints and
+ * message logs no longer required are discarded when a new global virtual time
+ * (GVT) was determined by {@link ParallelSimulation}.
+ *
+ * @since 3.0
+ */
+final class TimeWarp {
+
+	private static final long IDLE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private static final class Checkpoint {
+		final double time;
+		final int prio;
+		final long recvSeq;
+		final KernelState kernel;
+		final Object[] states;
+
+		Checkpoint(double time, int prio, long recvSeq, KernelState kernel, Object[] states) {
+			super();
+			this.time = time;
+			this.prio = prio;
+			this.recvSeq = recvSeq;
+			this.kernel = kernel;
+			this.states = states;
+		}
+	}
+
+	/**
+	 * A message sent by this partition together with time and priority of the
+	 * sending event.
+	 */
+	private static final class Output {
+		final double time;
+		final int prio;
+		final CrossPartitionEvent msg;
+
+		Output(double time, int prio, CrossPartitionEvent msg) {
+			super();
+			this.time = time;
+			this.prio = prio;
+			this.msg = msg;
+		}
+	}
+
+	private final Partition partition;
+	private final ParallelSimulation parent;
+	private final Simulation sim;
+	private final Checkpointable[] checkpointables;
+
+	// messages and anti-messages from other partitions
+	final ConcurrentLinkedQueue<CrossPartitionEvent> inbox;
+	private volatile Thread thread;
+
+	// accessed only by the thread of this partition
+	private final ArrayDeque<Checkpoint> checkpoints;
+	private final ArrayDeque<CrossPartitionEvent> inputs;
+	private final ArrayDeque<Output> outputs;
+	private long numReceived;
+	private boolean suppressSends;
+	private int eventsSinceCheckpoint;
+	private int eventsSinceGvt;
+
+	long numRollbacks;
+	long numEventsRolledBack;
+
+	TimeWarp(Partition partition, List<Checkpointable> checkpointables) {
+		super();
+
+		this.partition = partition;
+		this.parent = partition.getParallelSimulation();
+		this.sim = partition.getSim();
+		this.checkpointables = checkpointables.toArray(new Checkpointable[checkpointables.size()]);
+
+		inbox = new ConcurrentLinkedQueue<>();
+		checkpoints = new ArrayDeque<>();
+		inputs = new ArrayDeque<>();
+		outputs = new ArrayDeque<>();
+	}
+
+	/**
+	 * Returns all objects of a partition which have to be saved in a checkpoint,
+	 * i.e., all {@link Checkpointable} components and objects registered with
+	 * {@link Partition#addCheckpointable(Checkpointable)}.
+	 *
+	 * @return The list of objects or {@code null} if there is a component that is
+	 *         neither {@link Checkpointable} (supporting rollbacks) nor a simple
+	 *         container without own state.
+	 */
+	static @Nullable List<Checkpointable> findCheckpointables(Partition p) {
+		List<Checkpointable> res = new ArrayList<>();
+		if (Simulation.addCheckpointables(p.getSim().getRootComponent(), res, true) != null) {
+			return null;
+		}
+		res.addAll(p.checkpointables);
+		return res;
+	}
+
+	/**
+	 * Main loop of optimistic execution, called in the main process of the
+	 * partition's simulation. Returns when {@link ParallelSimulation} decided to
+	 * terminate.
+	 */
+	void run(double endTime) {
+		thread = Thread.currentThread();
+
+		if (endTime < Double.POSITIVE_INFINITY) {
+			// advance simulation time to end time
+			sim.schedule(new SimEvent(endTime, SimEvent.EVENT_PRIO_MIN, "sim_end") {
+				@Override
+				public void handle() {
+				}
+
+				@Override
+				public boolean isAppEvent() {
+					return false;
+				}
+			});
+		}
+
+		// initial checkpoint before any event is executed
+		saveCheckpoint(Double.NEGATIVE_INFINITY, SimEvent.EVENT_PRIO_MAX);
+
+		while (true) {
+			try {
+				receiveMessages();
+			} catch (RuntimeException e) {
+				fail(e);
+			}
+
+			if (parent.gvtRequested) {
+				if (!parent.awaitGvt()) {
+					break;
+				}
+				fossilCollection(parent.gvt);
+			} else if (canExecute(endTime)) {
+				executeEvent();
+			} else {
+				idle();
+			}
+		}
+	}
+
+	private boolean canExecute(double endTime) {
+		if (partition.failure != null || sim.numAppEvents() == 0) {
+			return false;
+		}
+		SimEvent next = sim.nextEvent();
+		return next != null && next.getTime() <= endTime;
+	}
+
+	private void executeEvent() {
+		try {
+			sim.executeNextEvent();
+		} catch (RuntimeException e) {
+			fail(e);
+			return;
+		}
+
+		if (++eventsSinceCheckpoint >= parent.getCheckpointInterval()) {
+			saveCheckpoint(sim.simTime(), sim.currentPrio());
+		}
+		if (++eventsSinceGvt >= parent.getGvtInterval()) {
+			eventsSinceGvt = 0;
+			parent.requestGvt();
+		}
+	}
+
+	private void fail(RuntimeException e) {
+		partition.failure = e;
+		parent.requestGvt();
+	}
+
+	private void idle() {
+		if (parent.numIdle.incrementAndGet() == parent.partitions().size()) {
+			parent.requestGvt();
+		}
+		LockSupport.parkNanos(this, IDLE_WAIT_NANOS);
+		parent.numIdle.decrementAndGet();
+	}
+
+	/**
+	 * Wakes up the thread of this partition if it is idle.
+	 */
+	void wakeUp() {
+		Thread t = thread;
+		if (t != null) {
+			LockSupport.unpark(t);
+		}
+	}
+
+	/**
+	 * Called in the sending partition's thread.
+	 */
+	void send(CrossPartitionEvent msg) {
+		if (suppressSends) {
+			return; // coasting forward, message was sent before
+		}
+		outputs.addLast(new Output(sim.simTime(), sim.currentPrio(), msg));
+		msg.dest.timeWarp.deliver(msg);
+	}
+
+	private void deliver(CrossPartitionEvent msg) {
+		inbox.add(msg);
+		wakeUp();
+	}
+
+	private void receiveMessages() {
+		CrossPartitionEvent m;
+		while ((m = inbox.poll()) != null) {
+			if (m.annihilated) {
+				continue;
+			}
+
+			if (!m.received) {
+				if (m.cancelled) {
+					// anti-message arrived before message was received
+					m.annihilated = true;
+					continue;
+				}
+
+				if (!isBefore(sim.simTime(), sim.currentPrio(), m.getTime(), m.getPrio())) {
+					rollback(m.getTime(), m.getPrio());
+				}
+				m.received = true;
+				m.recvSeq = ++numReceived;
+				inputs.addLast(m);
+				sim.schedule(m);
+			} else if (m.cancelled) {
+				m.annihilated = true;
+				inputs.remove(m);
+				if (!sim.unschedule(m)) {
+					// message was already executed
+					rollback(m.getTime(), m.getPrio());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Rolls back to the state immediately before any event with time {@code t}
+	 * and priority {@code prio} was executed.
+	 */
+	private void rollback(double t, int prio) {
+		numRollbacks++;
+		long numProcessed = sim.numEventsProcessed();
+
+		// cancel messages sent at or after (t,prio)
+		while (!outputs.isEmpty() && !isBefore(outputs.peekLast().time, outputs.peekLast().prio, t, prio)) {
+			CrossPartitionEvent msg = outputs.removeLast().msg;
+			msg.cancelled = true;
+			msg.dest.timeWarp.deliver(msg);
+		}
+
+		// restore newest checkpoint before (t,prio)
+		while (!isBefore(checkpoints.peekLast().time, checkpoints.peekLast().prio, t, prio)) {
+			checkpoints.removeLast();
+		}
+		Checkpoint ck = checkpoints.peekLast();
+		sim.restoreKernelState(ck.kernel, e -> !(e instanceof CrossPartitionEvent && ((CrossPartitionEvent) e).annihilated));
+		for (int i = 0; i < checkpointables.length; i++) {
+			checkpointables[i].restoreState(ck.states[i]);
+		}
+		// messages received after checkpoint was saved
+		for (CrossPartitionEvent m : inputs) {
+			if (m.recvSeq > ck.recvSeq) {
+				sim.schedule(m);
+			}
+		}
+
+		// coast forward
+		suppressSends = true;
+		try {
+			SimEvent next;
+			while ((next = sim.nextEvent()) != null && isBefore(next.getTime(), next.getPrio(), t, prio)) {
+				sim.executeNextEvent();
+			}
+		} finally {
+			suppressSends = false;
+		}
+		eventsSinceCheckpoint = 0;
+
+		numEventsRolledBack += numProcessed - sim.numEventsProcessed();
+	}
+
+	private void saveCheckpoint(double time, int prio) {
+		Object[] states = new Object[checkpointables.length];
+		for (int i = 0; i < checkpointables.length; i++) {
+			states[i] = checkpointables[i].saveState();
+		}
+		checkpoints.addLast(new Checkpoint(time, prio, numReceived, sim.saveKernelState(), states));
+		eventsSinceCheckpoint = 0;
+	}
+
+	/**
+	 * Returns a lower bound of the time of any event this partition might still
+	 * execute or roll back to. Only called during GVT computation, i.e., while
+	 * this partition's thread is blocked.
+	 */
+	double localMinimum() {
+		double min = sim.numAppEvents() > 0 ? sim.nextEventTime() : Double.POSITIVE_INFINITY;
+		for (CrossPartitionEvent m : inbox) {
+			min = Math.min(min, m.getTime());
+		}
+		return min;
+	}
+
+	/**
+	 * Discards all checkpoints and messages that can't be required anymore, i.e.,
+	 * all but the newest checkpoint before {@code gvt}.
+	 */
+	private void fossilCollection(double gvt) {
+		while (checkpoints.size() > 1) {
+			Checkpoint first = checkpoints.removeFirst();
+			if (checkpoints.peekFirst().time >= gvt) {
+				checkpoints.addFirst(first);
+				break;
+			}
+		}
+
+		long recvSeq = checkpoints.peekFirst().recvSeq;
+		while (!inputs.isEmpty() && inputs.peekFirst().recvSeq <= recvSeq) {
+			inputs.removeFirst();
+		}
+
+		while (!outputs.isEmpty() && outputs.peekFirst().time < gvt) {
+			outputs.removeFirst();
+		}
+	}
+
+	private static boolean isBefore(double t1, int prio1, double t2, int prio2) {
+		return t1 < t2 || (t1 == t2 && prio1 < prio2);
+	}
+
+}
@@ -18,14 +18,16 @@ limitations under the License.
 package jasima.core.simulation.arrivalprocess;
 
 import jasima.core.random.continuous.DblSequence;
+import jasima.core.simulation.Checkpointable;
 import jasima.core.util.Pair;
 
 /**
  * Base class for arrival processes, i.e., calculating absolute arrival times.
+ * The state saved as a {@link Checkpointable} is the last arrival time.
  * 
  * @author Torsten Hildebrandt, 2012-08-07
  */
-public abstract class ArrivalProcess extends DblSequence {
+public abstract class ArrivalProcess extends DblSequence implements Checkpointable {
 
 	private static final long serialVersionUID = 99456277227340206L;
 
@@ -43,6 +45,18 @@ public abstract class ArrivalProcess extends DblSequence {
 
 	public abstract double nextDbl();
 
+	@Override
+	public Object saveState() {
+		return new double[] { state, isFirst ? 1.0 : 0.0 };
+	}
+
+	@Override
+	public void restoreState(Object state) {
+		double[] s = (double[]) state;
+		this.state = s[0];
+		isFirst = s[1] != 0.0;
+	}
+
 	/**
 	 * A mean value for an arrival process is usually undefined, therefore this
 	 * method throws an {@link UnsupportedOperationException}.
@@ -25,6 +25,7 @@ import java.util.ArrayList;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 import javax.annotation.Nullable;
 
@@ -34,6 +35,7 @@ import jasima.core.simulation.SimContext;
 import jasima.core.simulation.SimProcess;
 import jasima.core.simulation.SimProcess.MightBlock;
 import jasima.core.simulation.SimProcess.ProcessState;
+import jasima.core.simulation.SimStepProcess;
 import jasima.core.simulation.generic.Q.QEvent;
 import jasima.core.util.observer.Notifier;
 import jasima.core.util.observer.NotifierImpl;
@@ -161,6 +163,39 @@ public class Q<T> implements Notifier<Q<T>, QEvent> {
 		assert putRes;
 	}
 
+	/**
+	 * Non-blocking version of {@link #put(Object)} to be used in a
+	 * {@link SimStepProcess}. If there is no space available, the current process
+	 * is suspended until there is. Execution continues with {@code then} after
+	 * {@code t} was added to the queue.
+	 * 
+	 * @param t    The item to add.
+	 * @param then The next step of the current {@link SimStepProcess}.
+	 */
+	public void put(T t, Runnable then) {
+		SimStepProcess<?> p = SimStepProcess.current();
+
+		if (tryPut(t)) {
+			p.next(then);
+		} else {
+			// no empty space, we have to wait until we get one
+			awaitingPut.add(p);
+			p.suspend(new Runnable() {
+				@Override
+				public void run() {
+					if (numAvailable() <= 0) {
+						p.suspend(this);
+					} else {
+						awaitingPut.remove(p);
+						boolean putRes = tryPut(t);
+						assert putRes;
+						then.run();
+					}
+				}
+			});
+		}
+	}
+
 	public boolean tryPut(T t) {
 		if (t == null)
 			throw new NullPointerException();
@@ -223,6 +258,37 @@ public class Q<T> implements Notifier<Q<T>, QEvent> {
 		return res;
 	}
 
+	/**
+	 * Non-blocking version of {@link #take()} to be used in a
+	 * {@link SimStepProcess}. If the queue is empty, the current process is
+	 * suspended until an item becomes available. Execution continues with
+	 * {@code then}, receiving the item taken.
+	 * 
+	 * @param then The next step of the current {@link SimStepProcess}.
+	 */
+	public void take(Consumer<? super T> then) {
+		SimStepProcess<?> p = SimStepProcess.current();
+
+		T res = tryTake();
+		if (res != null) {
+			p.next(() -> then.accept(res));
+		} else {
+			// nothing to take, we have to wait
+			awaitingTake.add(p);
+			p.suspend(new Runnable() {
+				@Override
+				public void run() {
+					if (numItems() == 0) {
+						p.suspend(this);
+					} else {
+						awaitingTake.remove(p);
+						then.accept(tryTake());
+					}
+				}
+			});
+		}
+	}
+
 	public @Nullable T tryTake() {
 		while (numItems() == 0) {
 			return null;
@@ -23,6 +23,7 @@ import static jasima.core.simulation.generic.Q.leave;
 import jasima.core.simulation.SimContext;
 import jasima.core.simulation.SimProcess;
 import jasima.core.simulation.SimProcess.MightBlock;
+import jasima.core.simulation.SimStepProcess;
 
 public class Resource {
 
@@ -41,6 +42,17 @@ public class Resource {
 		enter(seizedBy);
 	}
 
+	/**
+	 * Non-blocking version of {@link #seize()} to be used in a
+	 * {@link SimStepProcess}. Execution continues with {@code then} after the
+	 * resource was seized.
+	 * 
+	 * @param then The next step of the current {@link SimStepProcess}.
+	 */
+	public void seize(Runnable then) {
+		seizedBy.put(SimStepProcess.current(), then);
+	}
+
 	public boolean trySeize() {
 		SimProcess<?> p = SimContext.currentProcess();
 		return seizedBy.tryPut(p);
@@ -28,6 +28,7 @@ import org.apache.logging.log4j.Logger;
 
 import jasima.core.simulation.SimContext;
 import jasima.core.simulation.SimProcess;
+import jasima.core.simulation.SimStepProcess;
 import jasima.core.simulation.Simulation;
 import jasima.core.util.SimProcessUtil.SimAction;
 import jasima.core.util.SimProcessUtil.SimCallable;
@@ -68,14 +69,40 @@ public interface ProcessActivator {
 	}
 
 	public default <T> SimProcess<T> activateCallable(String name, SimCallable<T> a) {
+		return activateProcess(new SimProcess<>(getSim(), a, name));
+	}
+
+	/**
+	 * Activates a new {@link SimStepProcess} executing {@code firstStep} (and all
+	 * steps following it).
+	 * 
+	 * @see SimStepProcess
+	 */
+	public default SimStepProcess<Void> activateSteps(Runnable firstStep) {
+		return activateSteps(null, firstStep);
+	}
+
+	/**
+	 * Same as {@link #activateSteps(Runnable)}, but additionally specifying the
+	 * process name.
+	 */
+	public default SimStepProcess<Void> activateSteps(String name, Runnable firstStep) {
+		return activateProcess(new SimStepProcess<>(getSim(), firstStep, name));
+	}
+
+	/**
+	 * Activates the PASSIVE process {@code p} at the current simulation time.
+	 * 
+	 * @param p The process to activate.
+	 * @return {@code p} to allow chaining of calls.
+	 */
+	public default <P extends SimProcess<?>> P activateProcess(P p) {
 		Simulation ctxSim = SimContext.currentSimulation();
 		if (ctxSim != null && ctxSim != getSim()) {
 			throw new IllegalStateException(); // should not occur
 		}
 
-		SimProcess<T> p = new SimProcess<>(getSim(), a, name);
-
-		FutureTask<SimProcess<T>> f = new FutureTask<>(() -> {
+		FutureTask<P> f = new FutureTask<>(() -> {
 			p.awakeIn(0.0);
 			return p;
 		});
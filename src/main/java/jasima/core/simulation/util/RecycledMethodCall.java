@@ -0,0 +1,88 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.core.simulation.util;
+
+import static java.util.Objects.requireNonNull;
+
+import jasima.core.simulation.Checkpointable;
+import jasima.core.simulation.SimEvent;
+
+/**
+ * Same as {@link SimEventMethodCall}, but the event object is returned to its
+ * {@link SimEventPool} after it was handled.
+ * 
+ * @see SimOperations#scheduleAtRecycled(double, int, Runnable)
+ */
+public final class RecycledMethodCall extends SimEvent implements Checkpointable {
+
+	private final SimEventPool<RecycledMethodCall> pool;
+	private Runnable m;
+	private boolean isAppEvent;
+
+	public RecycledMethodCall(SimEventPool<RecycledMethodCall> pool) {
+		super(0.0, EVENT_PRIO_NORMAL);
+		this.pool = requireNonNull(pool);
+	}
+
+	/**
+	 * Sets all parameters of this event before it is scheduled.
+	 * 
+	 * @return {@code this} to allow chaining of calls.
+	 */
+	public RecycledMethodCall set(double time, int prio, Runnable method, boolean isAppEvent) {
+		setTime(time);
+		setPrio(prio);
+		this.m = requireNonNull(method);
+		this.isAppEvent = isAppEvent;
+		return this;
+	}
+
+	@Override
+	public void handle() {
+		Runnable method = m;
+		m = null;
+		try {
+			method.run();
+		} finally {
+			pool.recycle(this);
+		}
+	}
+
+	@Override
+	public boolean isAppEvent() {
+		return isAppEvent;
+	}
+
+	@Override
+	public Object saveState() {
+		return new Object[] { m, isAppEvent };
+	}
+
+	@Override
+	public void restoreState(Object state) {
+		Object[] s = (Object[]) state;
+		m = (Runnable) s[0];
+		isAppEvent = (Boolean) s[1];
+	}
+
+	@Override
+	public String toString() {
+		return String.format("RecycledMethodCall(%s)", m);
+	}
+
+}
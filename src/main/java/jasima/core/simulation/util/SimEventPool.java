@@ -0,0 +1,107 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.core.simulation.util;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.function.Function;
+
+import jasima.core.simulation.SimEvent;
+
+/**
+ * A simple pool of reusable event objects, to avoid creating a new event object
+ * each time an event is scheduled. An event is obtained with
+ * {@link #acquire()}, and should be returned to the pool with
+ * {@link #recycle(SimEvent)} once it was handled (usually as the last action of
+ * its {@code handle()}-method) or unscheduled. An event mustn't be used any more
+ * after it was recycled.
+ * <p>
+ * Pools are not thread-safe, they are intended to be used by a single
+ * simulation only.
+ * 
+ * @param <E> The type of events in the pool.
+ * 
+ * @see RecycledMethodCall
+ */
+public class SimEventPool<E extends SimEvent> {
+
+	private final Function<? super SimEventPool<E>, ? extends E> factory;
+	private final ArrayList<E> available;
+	private int numCreated;
+
+	/**
+	 * Creates a new pool.
+	 * 
+	 * @param factory Used to create new event objects if the pool is empty. The
+	 *                pool itself is passed as a parameter, so events can recycle
+	 *                themselves.
+	 */
+	public SimEventPool(Function<? super SimEventPool<E>, ? extends E> factory) {
+		super();
+		this.factory = requireNonNull(factory);
+		this.available = new ArrayList<>();
+		this.numCreated = 0;
+	}
+
+	/**
+	 * Returns an unused event from the pool, creating a new one if the pool is
+	 * empty.
+	 */
+	public E acquire() {
+		int n = available.size();
+		if (n > 0) {
+			return available.remove(n - 1);
+		} else {
+			numCreated++;
+			return factory.apply(this);
+		}
+	}
+
+	/**
+	 * Returns the event {@code e} to the pool, so it can be reused by subsequent
+	 * calls of {@link #acquire()}.
+	 */
+	public void recycle(E e) {
+		available.add(requireNonNull(e));
+	}
+
+	/**
+	 * Removes all events currently available for reuse. This is required when
+	 * restoring a {@link jasima.core.simulation.Simulation.Snapshot}, as events
+	 * that were recycled after the snapshot was saved might be scheduled again.
+	 */
+	public void clear() {
+		available.clear();
+	}
+
+	/**
+	 * Returns the number of event objects created by this pool.
+	 */
+	public int numCreated() {
+		return numCreated;
+	}
+
+	/**
+	 * Returns the number of event objects currently available for reuse.
+	 */
+	public int numAvailable() {
+		return available.size();
+	}
+
+}
@@ -23,6 +23,7 @@ import static jasima.core.simulation.util.SimOperations.SimEventType.UTILITY_EVE
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.TemporalUnit;
+import java.util.Collection;
 import java.util.Map;
 import java.util.Random;
 import java.util.function.BooleanSupplier;
@@ -142,6 +143,15 @@ public interface SimOperations {
 		return getSim().schedule(event);
 	}
 
+	/**
+	 * Schedules all events in {@code events}.
+	 * 
+	 * @see Simulation#scheduleAll(Collection)
+	 */
+	default void scheduleAll(Collection<? extends SimEvent> events) {
+		getSim().scheduleAll(events);
+	}
+
 	//
 	// scheduleAt(...) in different flavors
 	//
@@ -535,6 +545,36 @@ public interface SimOperations {
 		return scheduleIn(description, numUnits, unit, currentPrio(), method);
 	}
 
+	//
+	// schedule using recycled event objects
+	//
+
+	/**
+	 * Same as {@link #scheduleAt(double, int, Runnable)}, but the event object is
+	 * taken from a pool and returned to it after the event was handled. Therefore
+	 * no object is allocated in a steady state (provided {@code method} is not
+	 * newly created for each call, e.g., by using a method reference stored in a
+	 * field). As it is recycled, the event object is not returned and the event
+	 * can't be unscheduled.
+	 * 
+	 * @param time   The time when to call {@code method}.
+	 * @param prio   Priority of the event (to deterministically sequence events at
+	 *               the same time).
+	 * @param method The method to call at the given moment.
+	 * @see Simulation#scheduleAtRecycled(double, int, Runnable)
+	 */
+	default void scheduleAtRecycled(double time, int prio, Runnable method) {
+		getSim().scheduleAtRecycled(time, prio, method);
+	}
+
+	/**
+	 * Same as {@link #scheduleAtRecycled(double, int, Runnable)}, but using a time
+	 * relative to the current simulation time.
+	 */
+	default void scheduleInRecycled(double time, int prio, Runnable method) {
+		scheduleAtRecycled(simTime() + time, prio, method);
+	}
+
 	//
 	// schedule periodically
 	//
@@ -22,9 +22,13 @@ import static java.util.Objects.requireNonNull;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.LockSupport;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
 import jasima.core.simulation.SimProcess;
 import jasima.core.simulation.SimProcess.MightBlock;
 import jasima.core.simulation.Simulation;
@@ -36,18 +40,132 @@ import jasima.core.simulation.Simulation;
  */
 public final class SimProcessUtil {
 
+	private static final Logger log = LogManager.getLogger(SimProcessUtil.class);
+
+	/**
+	 * Name of the system property to select the threads used to execute
+	 * {@link SimProcess}es. Possible values are {@value #EXECUTOR_PLATFORM} (the
+	 * default) and {@value #EXECUTOR_VIRTUAL}.
+	 * 
+	 * @see #setProcessExecutor(ExecutorService)
+	 */
+	public static final String EXECUTOR_KEY = SimProcess.class.getName() + ".executor";
+
+	/**
+	 * Value of {@link #EXECUTOR_KEY} to run processes using a cached pool of
+	 * platform threads with a stack size of {@code threadStackSize} (256 KB by
+	 * default).
+	 */
+	public static final String EXECUTOR_PLATFORM = "platform";
+
+	/**
+	 * Value of {@link #EXECUTOR_KEY} to run each process in its own virtual
+	 * thread. This requires Java 21 or later, platform threads are used instead if
+	 * virtual threads are not supported by the JVM.
+	 */
+	public static final String EXECUTOR_VIRTUAL = "virtual";
+
 	private static final int DEF_THREAD_STACK_SIZE = 256 * 1024;
 
-	private static final ExecutorService exec = Executors.newCachedThreadPool(SimProcessUtil::newWorkerThread);
 	private static volatile ThreadGroup simThreads = null;
 	private static final int threadStackSize = Integer
 			.parseInt(System.getProperty(SimProcess.class.getName() + ".threadStackSize", "" + DEF_THREAD_STACK_SIZE));
 	private static AtomicInteger threadNumber = new AtomicInteger(0);
-	
+
+	private static ExecutorService platformExec = null;
+	private static ExecutorService virtualExec = null;
+	private static volatile ExecutorService exec = createExecutor(
+			System.getProperty(EXECUTOR_KEY, EXECUTOR_PLATFORM));
+
 	public static int numThreadsCreated() {
 		return threadNumber.get();
 	}
 
+	/**
+	 * Returns the {@link ExecutorService} used to start new processes.
+	 */
+	public static ExecutorService getProcessExecutor() {
+		return exec;
+	}
+
+	/**
+	 * Sets the {@link ExecutorService} used to start new processes. Each process
+	 * requires its own thread for its whole lifetime, so the executor must not
+	 * limit the number of threads. Processes already running are not affected by
+	 * this setting.
+	 * 
+	 * @param executor The new executor, e.g., {@link #platformThreadExecutor()} or
+	 *                 {@link #virtualThreadExecutor()}.
+	 */
+	public static void setProcessExecutor(ExecutorService executor) {
+		exec = requireNonNull(executor);
+	}
+
+	/**
+	 * Returns the executor running processes in a cached pool of platform threads.
+	 * This is the default.
+	 */
+	public static synchronized ExecutorService platformThreadExecutor() {
+		if (platformExec == null) {
+			platformExec = Executors.newCachedThreadPool(SimProcessUtil::newWorkerThread);
+		}
+		return platformExec;
+	}
+
+	/**
+	 * Returns an executor starting a new virtual thread for each process.
+	 * 
+	 * @return The executor or {@code null}, if the JVM doesn't support virtual
+	 *         threads (requires Java 21 or later).
+	 */
+	public static synchronized ExecutorService virtualThreadExecutor() {
+		if (virtualExec == null) {
+			try {
+				// use reflection, as we still have to compile for Java 8
+				Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+				ThreadFactory vf = (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory")
+						.invoke(builder);
+
+				ThreadFactory tf = r -> {
+					Thread t = vf.newThread(r);
+					t.setName("jasimaVirtualSimThread-" + threadNumber.incrementAndGet());
+					return t;
+				};
+				virtualExec = (ExecutorService) Executors.class
+						.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, tf);
+			} catch (ReflectiveOperationException | RuntimeException e) {
+				// not supported or only available as a preview feature
+				log.debug("virtual threads not available: {}", e.toString());
+				return null;
+			}
+		}
+		return virtualExec;
+	}
+
+	/**
+	 * Returns whether the JVM supports running processes in virtual threads.
+	 */
+	public static boolean isVirtualThreadSupported() {
+		return virtualThreadExecutor() != null;
+	}
+
+	private static ExecutorService createExecutor(String type) {
+		switch (type) {
+		case EXECUTOR_PLATFORM:
+			return platformThreadExecutor();
+		case EXECUTOR_VIRTUAL:
+			ExecutorService vExec = virtualThreadExecutor();
+			if (vExec == null) {
+				log.warn("Virtual threads are not supported by this JVM, using platform threads instead.");
+				return platformThreadExecutor();
+			}
+			return vExec;
+		default:
+			throw new IllegalArgumentException("Invalid value for '" + EXECUTOR_KEY + "': '" + type + "'. Valid values: "
+					+ EXECUTOR_PLATFORM + ", " + EXECUTOR_VIRTUAL);
+		}
+	}
+
 	private static Thread newWorkerThread(Runnable r) {
 		// lazy init of ThreadGroup simThreads using double check idiom
 		ThreadGroup tg = simThreads;
@@ -20,10 +20,15 @@ package jasima.core.util;
 import static jasima.core.util.i18n.I18n.defFormat;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 //import java.io.File;
 //import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.PrintWriter;
 import java.io.Reader;
 import java.io.StringWriter;
@@ -34,6 +39,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Random;
@@ -129,6 +135,62 @@ public class Util {
 		return s.replace(System.lineSeparator() + '\t', " \\\\ ").trim();
 	}
 
+	/**
+	 * Converts an object to a byte array using Java serialization.
+	 * 
+	 * @param o The object to serialize.
+	 * @return The serialized form of {@code o}.
+	 * @throws IOException If {@code o} can't be serialized.
+	 */
+	public static byte[] serialize(Object o) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(o);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Serializes a result map of an experiment. All values that are not
+	 * serializable are replaced by their {@code String} representation.
+	 * 
+	 * @param res The results to serialize.
+	 * @return The serialized form of (a copy of) {@code res}.
+	 * @throws IOException If there was an error serializing the map.
+	 */
+	public static byte[] serializeResults(Map<String, Object> res) throws IOException {
+		try {
+			return serialize(new LinkedHashMap<>(res));
+		} catch (NotSerializableException e) {
+			LinkedHashMap<String, Object> copy = new LinkedHashMap<>();
+			for (Map.Entry<String, Object> entry : res.entrySet()) {
+				Object value = entry.getValue();
+				try {
+					serialize(value);
+				} catch (NotSerializableException notSerializable) {
+					value = String.valueOf(value);
+				}
+				copy.put(entry.getKey(), value);
+			}
+			return serialize(copy);
+		}
+	}
+
+	/**
+	 * Reads an object produced by {@link #serialize(Object)}.
+	 * 
+	 * @param data The serialized object.
+	 * @return The object.
+	 * @throws IOException            If {@code data} is not a valid serialized
+	 *                                object.
+	 * @throws ClassNotFoundException If the class of the object can't be found.
+	 */
+	public static Object deserialize(byte[] data) throws IOException, ClassNotFoundException {
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+			return in.readObject();
+		}
+	}
+
 	/**
 	 * Returns a new array with a certain number of new objects of a certain type.
 	 * 
@@ -0,0 +1,306 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.shopSim.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * The jobs in the queue of a {@link WorkStation} grouped by their batch family
+ * (see {@link Operation#getBatchFamily()}). The index is updated whenever a job
+ * arrives at or leaves the queue, so batch forming implementations don't have
+ * to split the queue into families on each selection.
+ * <p>
+ * Each family gets an integer id in the order families are first seen. The
+ * jobs of a family are kept in the order they were added; adding and removing
+ * a job takes constant time. In addition each {@link Family} maintains the
+ * number of its (future) jobs, their total processing time and the sum of
+ * their due dates.
+ *
+ * @since 3.0
+ * @see WorkStation#getBatchFamilyIndex()
+ */
+public class BatchFamilyIndex {
+
+	/**
+	 * All jobs of a single batch family.
+	 */
+	public static final class Family implements Iterable<Job> {
+		private final int id;
+		private final String name;
+		private Node first;
+		private Node last;
+		private int numJobs;
+		private int numFutures;
+		private double workContent;
+		private double sumDueDates;
+
+		private Family(int id, String name) {
+			super();
+			this.id = id;
+			this.name = name;
+		}
+
+		public int id() {
+			return id;
+		}
+
+		public String name() {
+			return name;
+		}
+
+		/** Returns the number of jobs of this family, including future jobs. */
+		public int numJobs() {
+			return numJobs;
+		}
+
+		/** Returns the number of future jobs of this family. */
+		public int numFutures() {
+			return numFutures;
+		}
+
+		/** Returns the number of jobs of this family that already arrived. */
+		public int numArrived() {
+			return numJobs - numFutures;
+		}
+
+		/**
+		 * Returns the total processing time of the current operations of all jobs
+		 * of this family.
+		 */
+		public double workContent() {
+			return workContent;
+		}
+
+		/**
+		 * Returns the average due date of the jobs of this family or {@code NaN} if
+		 * there are no jobs.
+		 */
+		public double meanDueDate() {
+			return numJobs == 0 ? Double.NaN : sumDueDates / numJobs;
+		}
+
+		/**
+		 * Returns the first (i.e., oldest) job of this family or {@code null} if
+		 * there is none.
+		 */
+		public Job first() {
+			return first == null ? null : first.job;
+		}
+
+		/**
+		 * Iterates over all jobs of this family in the order they were added. The
+		 * iterator doesn't support removal.
+		 */
+		@Override
+		public Iterator<Job> iterator() {
+			return new Iterator<Job>() {
+				private Node n = first;
+
+				@Override
+				public boolean hasNext() {
+					return n != null;
+				}
+
+				@Override
+				public Job next() {
+					if (n == null)
+						throw new NoSuchElementException();
+					Job res = n.job;
+					n = n.next;
+					return res;
+				}
+			};
+		}
+
+		@Override
+		public String toString() {
+			return name + "(" + numJobs + ")";
+		}
+	}
+
+	private static final class Node {
+		final Job job;
+		final Family family;
+		final boolean future;
+		final double procTime;
+		final double dueDate;
+		Node prev;
+		Node next;
+
+		Node(Job job, Family family, double procTime) {
+			super();
+			this.job = job;
+			this.family = family;
+			this.future = job.isFuture();
+			this.procTime = procTime;
+			this.dueDate = job.getDueDate();
+		}
+	}
+
+	private final Map<String, Family> byName;
+	private final ArrayList<Family> families;
+	private final IdentityHashMap<Job, Node> nodes;
+
+	public BatchFamilyIndex() {
+		super();
+
+		byName = new HashMap<>();
+		families = new ArrayList<>();
+		nodes = new IdentityHashMap<>();
+	}
+
+	/**
+	 * Adds a job (with the batch family and processing time of its current
+	 * operation) as the last job of its family.
+	 *
+	 * @param j The job to add. It must not be contained already.
+	 */
+	public void add(Job j) {
+		Operation o = j.getCurrentOperation();
+		add(j, o.getBatchFamily(), o.getProcTime());
+	}
+
+	void add(Job j, String batchFamily, double procTime) {
+		Family f = family(batchFamily);
+		Node n = new Node(j, f, procTime);
+		Node old = nodes.put(j, n);
+		assert old == null;
+
+		n.prev = f.last;
+		if (f.last == null)
+			f.first = n;
+		else
+			f.last.next = n;
+		f.last = n;
+
+		f.numJobs++;
+		if (n.future)
+			f.numFutures++;
+		f.workContent += procTime;
+		f.sumDueDates += n.dueDate;
+	}
+
+	/**
+	 * Removes a job.
+	 *
+	 * @param j The job to remove.
+	 * @return Whether {@code j} was contained.
+	 */
+	public boolean remove(Job j) {
+		Node n = nodes.remove(j);
+		if (n == null)
+			return false;
+
+		Family f = n.family;
+		if (n.prev == null)
+			f.first = n.next;
+		else
+			n.prev.next = n.next;
+		if (n.next == null)
+			f.last = n.prev;
+		else
+			n.next.prev = n.prev;
+
+		f.numJobs--;
+		if (n.future)
+			f.numFutures--;
+		if (f.numJobs == 0) {
+			// avoid accumulating rounding errors
+			f.workContent = 0.0;
+			f.sumDueDates = 0.0;
+		} else {
+			f.workContent -= n.procTime;
+			f.sumDueDates -= n.dueDate;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the family with the given name, creating it if it doesn't exist
+	 * yet.
+	 */
+	public Family family(String name) {
+		Family f = byName.get(name);
+		if (f == null) {
+			f = new Family(families.size(), name);
+			byName.put(name, f);
+			families.add(f);
+		}
+		return f;
+	}
+
+	/**
+	 * Returns the family with the given id.
+	 */
+	public Family family(int id) {
+		return families.get(id);
+	}
+
+	/**
+	 * Returns the family of a job contained in this index or {@code null} if
+	 * {@code j} is not contained.
+	 */
+	public Family familyOf(Job j) {
+		Node n = nodes.get(j);
+		return n == null ? null : n.family;
+	}
+
+	/**
+	 * Returns the number of families ever seen, i.e., the largest family id plus
+	 * one. Families might currently not have any jobs.
+	 */
+	public int numFamilies() {
+		return families.size();
+	}
+
+	/**
+	 * Returns all families ever seen, ordered by their ids.
+	 */
+	public List<Family> families() {
+		return Collections.unmodifiableList(families);
+	}
+
+	/**
+	 * Returns the total number of jobs in this index.
+	 */
+	public int size() {
+		return nodes.size();
+	}
+
+	/**
+	 * Returns a copy of this index with the same family ids.
+	 */
+	BatchFamilyIndex copy() {
+		BatchFamilyIndex res = new BatchFamilyIndex();
+		for (Family f : families) {
+			res.family(f.name);
+			for (Node n = f.first; n != null; n = n.next) {
+				res.add(n.job, f.name, n.procTime);
+			}
+		}
+		return res;
+	}
+
+}
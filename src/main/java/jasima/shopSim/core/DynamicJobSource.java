@@ -21,6 +21,7 @@ import jasima.core.random.RandomFactory;
 import jasima.core.random.continuous.DblConst;
 import jasima.core.random.continuous.DblSequence;
 import jasima.core.random.discrete.IntSequence;
+import jasima.core.simulation.Checkpointable;
 import jasima.core.simulation.SimComponentContainer;
 import jasima.core.simulation.arrivalprocess.ArrivalsStationary;
 
@@ -39,6 +40,10 @@ import jasima.core.simulation.arrivalprocess.ArrivalsStationary;
  * optionally numOps (number of operations, default: number of machines in shop)
  * have to be set. A route created this way will create a random route with no
  * machine being revisited.
+ * <p>
+ * Besides the state of their random number generators, the state of
+ * sequences implementing {@link Checkpointable} (e.g., the arrival process)
+ * is saved as part of this component's state.
  * 
  * @author Torsten Hildebrandt
  */
@@ -92,6 +97,36 @@ public class DynamicJobSource extends JobSource {
 		return j;
 	}
 
+	private DblSequence[] sequences() {
+		return new DblSequence[] { getArrivalProcess(), getDueDateFactors(), getJobWeights(), getMachIdx(),
+				getProcTimes(), getNumOps() };
+	}
+
+	@Override
+	public Object saveState() {
+		DblSequence[] seqs = sequences();
+		Object[] res = new Object[seqs.length + 1];
+		res[0] = super.saveState();
+		for (int i = 0; i < seqs.length; i++) {
+			if (seqs[i] instanceof Checkpointable) {
+				res[i + 1] = ((Checkpointable) seqs[i]).saveState();
+			}
+		}
+		return res;
+	}
+
+	@Override
+	public void restoreState(Object state) {
+		Object[] s = (Object[]) state;
+		super.restoreState(s[0]);
+		DblSequence[] seqs = sequences();
+		for (int i = 0; i < seqs.length; i++) {
+			if (seqs[i] instanceof Checkpointable) {
+				((Checkpointable) seqs[i]).restoreState(s[i + 1]);
+			}
+		}
+	}
+
 	protected Operation[] getRouteForJob() {
 		return route != null ? route.ops() : createRoute();
 	}
@@ -0,0 +1,224 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.shopSim.core;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caches values of {@link Feature}s (like the remaining processing time or the
+ * slack of a job) during a single selection of a {@link PriorityQueue}, i.e.,
+ * while priorities are computed to make a single dispatching decision. This
+ * way each feature is computed at most once per job and selection, even if it
+ * is used by several rules of a rule chain or several times in a complex (e.g.,
+ * GP-generated) rule.
+ * <p>
+ * Each {@link WorkStation} has its own cache, rules usually access it using
+ * {@link PR#feature(PrioRuleTarget, Feature)}. Outside of a selection values
+ * are not cached but always computed.
+ *
+ * @since 3.0
+ * @see PR#feature(PrioRuleTarget, Feature)
+ */
+public class FeatureCache {
+
+	private static final AtomicInteger numFeatures = new AtomicInteger();
+
+	/**
+	 * Computes the value of a feature.
+	 */
+	@FunctionalInterface
+	public static interface FeatureFunction {
+		double compute(PrioRuleTarget t);
+	}
+
+	/**
+	 * A feature of a {@link PrioRuleTarget}, i.e., a named function computing a
+	 * {@code double} value. The value of a feature must not change during a
+	 * selection. Features are usually defined as static constants, as each
+	 * feature object uses a separate cache slot.
+	 */
+	public static final class Feature {
+		private final String name;
+		private final FeatureFunction function;
+		private final int index;
+
+		private Feature(String name, FeatureFunction function) {
+			super();
+			this.name = requireNonNull(name);
+			this.function = requireNonNull(function);
+			this.index = numFeatures.getAndIncrement();
+		}
+
+		/**
+		 * Computes the value of this feature without using a cache.
+		 *
+		 * @param t The job or batch.
+		 * @return The feature's value.
+		 */
+		public double compute(PrioRuleTarget t) {
+			return function.compute(t);
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	/**
+	 * Defines a new feature.
+	 *
+	 * @param name     The name of the new feature.
+	 * @param function The function computing the feature's value.
+	 * @return The new feature.
+	 */
+	public static Feature feature(String name, FeatureFunction function) {
+		return new Feature(name, function);
+	}
+
+	/** Remaining processing time, see {@link PrioRuleTarget#remainingProcTime()}. */
+	public static final Feature REM_PROC_TIME = feature("remProcTime", PrioRuleTarget::remainingProcTime);
+	/** Number of operations left, see {@link PrioRuleTarget#numOpsLeft()}. */
+	public static final Feature NUM_OPS_LEFT = feature("numOpsLeft", PrioRuleTarget::numOpsLeft);
+
+	/**
+	 * Cached values of a single job or batch.
+	 */
+	private static final class Values {
+		double[] values;
+		long[] computed; // bit set of the features in 'values'
+
+		Values(int numFeatures) {
+			super();
+			values = new double[numFeatures];
+			computed = new long[numWords(numFeatures)];
+		}
+
+		void ensureCapacity(int numFeatures) {
+			if (values.length < numFeatures) {
+				values = Arrays.copyOf(values, numFeatures);
+				computed = Arrays.copyOf(computed, numWords(numFeatures));
+			}
+		}
+
+		private static int numWords(int numFeatures) {
+			return (numFeatures + 63) >>> 6;
+		}
+	}
+
+	private final IdentityHashMap<PrioRuleTarget, Values> values;
+	private final ArrayList<Values> unused;
+	private int depth;
+
+	public FeatureCache() {
+		super();
+
+		values = new IdentityHashMap<>();
+		unused = new ArrayList<>();
+		depth = 0;
+	}
+
+	/**
+	 * Returns the value of feature {@code f} for {@code t}, computing it only if
+	 * it was not computed before in the current selection.
+	 *
+	 * @param t The job or batch.
+	 * @param f The feature.
+	 * @return The feature's value.
+	 */
+	public double get(PrioRuleTarget t, Feature f) {
+		if (depth == 0) {
+			return f.compute(t);
+		}
+
+		Values vs = values.get(t);
+		if (vs == null) {
+			vs = newValues();
+			values.put(t, vs);
+		} else {
+			vs.ensureCapacity(f.index + 1);
+		}
+
+		// features might have any value (including NaN), so keep track of computed
+		// ones separately
+		int word = f.index >>> 6;
+		long bit = 1L << f.index;
+		if ((vs.computed[word] & bit) == 0) {
+			double v = f.compute(t);
+			vs.values[f.index] = v;
+			vs.computed[word] |= bit;
+			return v;
+		}
+		return vs.values[f.index];
+	}
+
+	/**
+	 * Returns whether values are currently cached, i.e., a selection is in
+	 * progress.
+	 */
+	public boolean isActive() {
+		return depth > 0;
+	}
+
+	/**
+	 * Called by {@link PriorityQueue} before starting to compute priorities. Calls
+	 * can be nested, values are discarded when the outermost selection begins.
+	 */
+	void beginSelection() {
+		if (depth++ == 0) {
+			clear();
+		}
+	}
+
+	/**
+	 * Called by {@link PriorityQueue} after a selection.
+	 */
+	void endSelection() {
+		assert depth > 0;
+		depth--;
+	}
+
+	private void clear() {
+		if (values.isEmpty())
+			return;
+
+		unused.addAll(values.values());
+		values.clear();
+	}
+
+	private Values newValues() {
+		if (unused.isEmpty()) {
+			return new Values(numFeatures.get());
+		}
+
+		Values vs = unused.remove(unused.size() - 1);
+		Arrays.fill(vs.computed, 0L);
+		vs.ensureCapacity(numFeatures.get());
+		return vs;
+	}
+
+}
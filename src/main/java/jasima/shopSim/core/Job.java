@@ -17,6 +17,9 @@ limitations under the License.
 */
 package jasima.shopSim.core;
 
+import jasima.core.simulation.Checkpointable;
+import jasima.core.simulation.ParallelSimulation;
+import jasima.core.simulation.Partition;
 import jasima.core.util.TypeUtil;
 import jasima.core.util.ValueStore;
 import jasima.core.util.ValueStoreImpl;
@@ -26,11 +29,15 @@ import jasima.shopSim.core.Job.JobEvent;
 
 /**
  * Main work unit in a shop.
+ * <p>
+ * The state saved as a {@link Checkpointable} contains all attributes changing
+ * while a job is processed and a copy of its value store. Listeners are not
+ * saved.
  * 
  * @author Torsten Hildebrandt
  */
 // TODO: PrioRuleTarget should be an interface
-public class Job extends PrioRuleTarget implements Cloneable, ValueStore, Notifier<Job, JobEvent> {
+public class Job extends PrioRuleTarget implements Cloneable, ValueStore, Notifier<Job, JobEvent>, Checkpointable {
 
 	public interface JobEvent {
 	}
@@ -39,7 +46,7 @@ public class Job extends PrioRuleTarget implements Cloneable, ValueStore, Notifi
 		JOB_RELEASED, JOB_FINISHED, JOB_ARRIVED_IN_QUEUE, JOB_REMOVED_FROM_QUEUE, JOB_START_OPERATION, JOB_END_OPERATION
 	}
 
-	private final Shop shop;
+	private Shop shop;
 	// delegate Notifier functionality
 	private NotifierImpl<Job, JobEvent> notifierAdapter;
 	// delegate ValueStore functionality
@@ -152,12 +159,37 @@ public class Job extends PrioRuleTarget implements Cloneable, ValueStore, Notifi
 			setTaskNumber(getTaskNumber() + 1);
 
 			WorkStation mNext = ops[taskNumber].getMachine();
-			mNext.enqueueOrProcess(this);
+			if (mNext.getSim() == shop.getSim()) {
+				mNext.enqueueOrProcess(this);
+			} else {
+				moveToPartition(mNext);
+			}
 		} else {
 			shop.jobFinished(this);
 		}
 	}
 
+	/**
+	 * Sends this job to a machine that is simulated in a different
+	 * {@link Partition} of a {@link ParallelSimulation}. The job arrives there
+	 * after a delay of {@link ParallelSimulation#getLookahead()} and becomes part
+	 * of the machine's shop.
+	 */
+	private void moveToPartition(WorkStation mNext) {
+		Partition from = Partition.of(shop.getSim());
+		Partition to = Partition.of(mNext.getSim());
+		if (from == null || to == null) {
+			throw new IllegalStateException("Machine '" + mNext + "' belongs to a different simulation.");
+		}
+
+		// the job must not be accessed by the old partition after sending
+		from.send(to, from.getParallelSimulation().getLookahead(), JobSource.ARRIVE_PRIO, () -> {
+			shop = mNext.shop();
+			future = null;
+			mNext.enqueueOrProcess(this);
+		});
+	}
+
 	void jobReleased() {
 		if (numListener() > 0)
 			fire(JobMessage.JOB_RELEASED);
@@ -204,7 +236,10 @@ public class Job extends PrioRuleTarget implements Cloneable, ValueStore, Notifi
 		if (!isLastOperation() && shop.isEnableLookAhead()) {
 			final Job f = getMyFuture();
 			final WorkStation next = f.ops[f.taskNumber].getMachine();
-			next.futureArrival(f, getFinishTime());
+			// no lookahead across simulations/partitions
+			if (next.getSim() == shop.getSim()) {
+				next.futureArrival(f, getFinishTime());
+			}
 		}
 	}
 
@@ -242,6 +277,11 @@ public class Job extends PrioRuleTarget implements Cloneable, ValueStore, Notifi
 		return s;
 	}
 
+	/**
+	 * Returns the shop this job is currently processed in. This is the shop that
+	 * created the job, unless the job was sent to a machine in another
+	 * {@link Partition}.
+	 */
 	public Shop getShop() {
 		return shop;
 	}
@@ -434,6 +474,58 @@ public class Job extends PrioRuleTarget implements Cloneable, ValueStore, Notifi
 		return notifierAdapter;
 	}
 
+	//
+	//
+	// Checkpointable implementation
+	//
+	//
+
+	private static final class State {
+		final Shop shop;
+		final double arriveTime;
+		final WorkStation currMachine;
+		final double startTime;
+		final double finishTime;
+		final double dueDate;
+		final int jobNum;
+		final int taskNumber;
+		final Job future;
+		final ValueStoreImpl valueStore;
+
+		State(Job j) {
+			shop = j.shop;
+			arriveTime = j.arriveTime;
+			currMachine = j.currMachine;
+			startTime = j.startTime;
+			finishTime = j.finishTime;
+			dueDate = j.dueDate;
+			jobNum = j.jobNum;
+			taskNumber = j.taskNumber;
+			future = j.future;
+			valueStore = j.valueStore.clone();
+		}
+	}
+
+	@Override
+	public Object saveState() {
+		return new State(this);
+	}
+
+	@Override
+	public void restoreState(Object state) {
+		State s = (State) state;
+		shop = s.shop;
+		arriveTime = s.arriveTime;
+		currMachine = s.currMachine;
+		startTime = s.startTime;
+		finishTime = s.finishTime;
+		dueDate = s.dueDate;
+		jobNum = s.jobNum;
+		setTaskNumber(s.taskNumber);
+		future = s.future;
+		valueStore = s.valueStore.clone();
+	}
+
 	// cloning
 
 	@Override
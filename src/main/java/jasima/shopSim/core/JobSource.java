@@ -17,15 +17,18 @@ limitations under the License.
 */
 package jasima.shopSim.core;
 
+import jasima.core.simulation.Checkpointable;
 import jasima.core.simulation.SimEvent;
 import jasima.core.simulation.SimComponentBase;
 
 /**
  * A job source is an abstract base class for classes producing {@link Job}s.
+ * Sub-classes with additional state have to extend {@link #saveState()} and
+ * {@link #restoreState(Object)}.
  * 
  * @author Torsten Hildebrandt
  */
-public abstract class JobSource extends SimComponentBase {
+public abstract class JobSource extends SimComponentBase implements Checkpointable {
 
 	// bigger than WorkStation.DEPART_PRIO but smaller than
 	// WorkStation.SELECT_PRIO
@@ -48,40 +51,77 @@ public abstract class JobSource extends SimComponentBase {
 		stopArrivals = false;
 		jobsStarted = 0;
 
-		SimEvent arriveEvent = new SimEvent(0.0d, ARRIVE_PRIO) {
+		SimEvent arriveEvent = new ArriveEvent();
 
-			private Job nextJob; // next job to be released
+		// schedule first arrival
+		arriveEvent.setTime(simTime());
+		getSim().schedule(arriveEvent);
+	}
+
+	private final class ArriveEvent extends SimEvent implements Checkpointable {
 
-			@Override
-			public void handle() {
-				if (stopArrivals)
-					return;
+		private Job nextJob; // next job to be released
 
-				// create new job
-				Job job = createNextJob();
+		ArriveEvent() {
+			super(0.0d, ARRIVE_PRIO);
+		}
 
-				if (job != null) {
-					if (job.getRelDate() < simTime())
-						throw new IllegalStateException("arrival time is in the past: " + job);
+		@Override
+		public void handle() {
+			if (stopArrivals)
+				return;
 
-					// schedule next arrival reusing this Event object
-					this.setTime(job.getRelDate());
-					getSim().schedule(this);
-				}
+			// create new job
+			Job job = createNextJob();
 
-				// release "nextJob"
-				if (nextJob != null) {
-					getShop().startJob(nextJob);
-				}
+			if (job != null) {
+				if (job.getRelDate() < simTime())
+					throw new IllegalStateException("arrival time is in the past: " + job);
 
-				nextJob = job;
+				// schedule next arrival reusing this Event object
+				this.setTime(job.getRelDate());
+				getSim().schedule(this);
 			}
 
-		};
+			// release "nextJob"
+			if (nextJob != null) {
+				getShop().startJob(nextJob);
+			}
 
-		// schedule first arrival
-		arriveEvent.setTime(simTime());
-		getSim().schedule(arriveEvent);
+			nextJob = job;
+		}
+
+		@Override
+		public Object saveState() {
+			return new Object[] { nextJob, nextJob == null ? null : nextJob.saveState() };
+		}
+
+		@Override
+		public void restoreState(Object state) {
+			Object[] s = (Object[]) state;
+			nextJob = (Job) s[0];
+			if (nextJob != null) {
+				nextJob.restoreState(s[1]);
+			}
+		}
+
+	}
+
+	@Override
+	public Object saveState() {
+		return new Object[] { stopArrivals, jobsStarted };
+	}
+
+	@Override
+	public void restoreState(Object state) {
+		Object[] s = (Object[]) state;
+		stopArrivals = (Boolean) s[0];
+		jobsStarted = (Integer) s[1];
+	}
+
+	@Override
+	public boolean isRollbackSupported() {
+		return false;
 	}
 
 	public abstract Job createNextJob();
@@ -0,0 +1,192 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.shopSim.core;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An ordered set of the {@link IndividualMachine}s of a single
+ * {@link WorkStation}, implemented as a doubly linked list indexed by
+ * {@link IndividualMachine#idx}. Adding, removing and checking membership
+ * therefore take constant time. Used by {@link WorkStation} to keep track of
+ * its free machines.
+ *
+ * @since 3.0
+ */
+final class MachineList extends AbstractCollection<IndividualMachine> {
+
+	private static final int NONE = -1;
+
+	private final IndividualMachine[] machines;
+	private final int[] prev;
+	private final int[] next;
+	private final boolean[] contained;
+	private int first;
+	private int last;
+	private int size;
+
+	MachineList(IndividualMachine[] machines) {
+		super();
+		this.machines = machines;
+		prev = new int[machines.length];
+		next = new int[machines.length];
+		contained = new boolean[machines.length];
+		first = last = NONE;
+		size = 0;
+	}
+
+	/**
+	 * Inserts {@code m} at the front of this list. {@code m} must not be
+	 * contained already.
+	 */
+	void addFirst(IndividualMachine m) {
+		int i = m.idx;
+		assert machines[i] == m && !contained[i];
+
+		contained[i] = true;
+		prev[i] = NONE;
+		next[i] = first;
+		if (first == NONE)
+			last = i;
+		else
+			prev[first] = i;
+		first = i;
+		size++;
+	}
+
+	/**
+	 * Appends {@code m} at the end of this list. {@code m} must not be contained
+	 * already.
+	 */
+	void addLast(IndividualMachine m) {
+		int i = m.idx;
+		assert machines[i] == m && !contained[i];
+
+		contained[i] = true;
+		next[i] = NONE;
+		prev[i] = last;
+		if (last == NONE)
+			first = i;
+		else
+			next[last] = i;
+		last = i;
+		size++;
+	}
+
+	/**
+	 * Same as {@link #addLast(IndividualMachine)}.
+	 */
+	@Override
+	public boolean add(IndividualMachine m) {
+		addLast(m);
+		return true;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		if (!contains(o))
+			return false;
+
+		int i = ((IndividualMachine) o).idx;
+		if (prev[i] == NONE)
+			first = next[i];
+		else
+			next[prev[i]] = next[i];
+		if (next[i] == NONE)
+			last = prev[i];
+		else
+			prev[next[i]] = prev[i];
+
+		contained[i] = false;
+		size--;
+		return true;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		if (!(o instanceof IndividualMachine))
+			return false;
+		IndividualMachine m = (IndividualMachine) o;
+		return m.idx < machines.length && machines[m.idx] == m && contained[m.idx];
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(contained, false);
+		first = last = NONE;
+		size = 0;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the first machine or {@code null} if this list is empty.
+	 */
+	IndividualMachine peekFirst() {
+		return first == NONE ? null : machines[first];
+	}
+
+	/**
+	 * Returns the last machine or {@code null} if this list is empty.
+	 */
+	IndividualMachine peekLast() {
+		return last == NONE ? null : machines[last];
+	}
+
+	/**
+	 * Returns the machine before {@code m} in this list or {@code null} if
+	 * {@code m} is the first one.
+	 */
+	IndividualMachine previous(IndividualMachine m) {
+		assert contains(m);
+		int i = prev[m.idx];
+		return i == NONE ? null : machines[i];
+	}
+
+	/**
+	 * Iterates from the first to the last machine. The iterator doesn't support
+	 * removal.
+	 */
+	@Override
+	public Iterator<IndividualMachine> iterator() {
+		return new Iterator<IndividualMachine>() {
+			private int i = first;
+
+			@Override
+			public boolean hasNext() {
+				return i != NONE;
+			}
+
+			@Override
+			public IndividualMachine next() {
+				if (i == NONE)
+					throw new NoSuchElementException();
+				IndividualMachine res = machines[i];
+				i = next[i];
+				return res;
+			}
+		};
+	}
+
+}
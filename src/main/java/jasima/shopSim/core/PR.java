@@ -19,6 +19,7 @@ package jasima.shopSim.core;
 
 import java.io.Serializable;
 
+import jasima.shopSim.core.FeatureCache.Feature;
 import jasima.shopSim.prioRules.meta.LookaheadThreshold;
 
 /**
@@ -43,6 +44,17 @@ public abstract class PR implements Cloneable, Serializable {
 	private LookaheadThreshold firstLookaheadRule = null;
 	private boolean lookaheadRuleValid = false;
 
+	private static final ClassValue<Class<?>> CALC_PRIO_DECLARER = new ClassValue<Class<?>>() {
+		@Override
+		protected Class<?> computeValue(Class<?> c) {
+			try {
+				return c.getMethod("calcPrio", PrioRuleTarget.class).getDeclaringClass();
+			} catch (NoSuchMethodException e) {
+				throw new AssertionError(e);
+			}
+		}
+	};
+
 	public PR() {
 		super();
 	}
@@ -71,6 +83,140 @@ public abstract class PR implements Cloneable, Serializable {
 	 */
 	public abstract double calcPrio(PrioRuleTarget entry);
 
+	/**
+	 * Computes the priorities of the first {@code n} entries of {@code entries}
+	 * and stores them in {@code prios}, i.e., {@code prios[i]} has to be set to
+	 * the same value {@code calcPrio(entries[i])} would return. Rules overriding
+	 * this method can compute priorities in a tight loop over all entries instead
+	 * of one virtual call per entry. Such rules also have to override
+	 * {@link #hasBulkCalc()}.
+	 * <p>
+	 * The default implementation calls {@link #calcPrio(PrioRuleTarget)} for
+	 * each entry.
+	 * 
+	 * @param entries The entries to compute priorities for.
+	 * @param n       The number of entries.
+	 * @param prios   Array to store the priorities in, its length is at least
+	 *                {@code n}.
+	 */
+	public void calcPrios(PrioRuleTarget[] entries, int n, double[] prios) {
+		for (int i = 0; i < n; i++) {
+			prios[i] = calcPrio(entries[i]);
+		}
+	}
+
+	/**
+	 * Returns whether this rule provides an optimized implementation of
+	 * {@link #calcPrios(PrioRuleTarget[], int, double[])}. If all rules of a
+	 * {@link PriorityQueue} return {@code true}, the queue computes priorities
+	 * one rule at a time for all entries instead of one entry at a time for all
+	 * rules. Therefore the priorities computed by such a rule must not depend on
+	 * the order of calls of {@code calcPrio(PrioRuleTarget)} of different rules.
+	 * <p>
+	 * Tie breakers are checked separately, so this method should only consider
+	 * this rule. The default implementation returns {@code false}. Rules
+	 * returning {@code true} should use {@link #isCalcPrioOf(Class)}, so
+	 * subclasses overriding only {@code calcPrio(PrioRuleTarget)} don't inherit
+	 * a {@code calcPrios(PrioRuleTarget[], int, double[])} computing different
+	 * priorities.
+	 * 
+	 * @return Whether {@code calcPrios(PrioRuleTarget[], int, double[])} should
+	 *         be used.
+	 */
+	public boolean hasBulkCalc() {
+		return false;
+	}
+
+	/**
+	 * Returns whether this rule depends on the individual machine selecting a job
+	 * (see {@link WorkStation#currMachine}) only through the machine's setup
+	 * state, i.e., {@link #beforeCalc(PriorityQueue)}, {@link #keepIdle()} and
+	 * {@link #calcPrio(PrioRuleTarget)} produce the same results for all free
+	 * machines of a {@link WorkStation} having the same setup state, and calling
+	 * them has no side effects. If all rules of a chain return {@code true}, a
+	 * workstation with several free machines evaluates its queue only once per
+	 * distinct setup state instead of once per free machine.
+	 * <p>
+	 * Tie breakers are checked separately, so this method should only consider
+	 * this rule. The default implementation returns {@code false}. Rules
+	 * returning {@code true} should check {@link #isCalcPrioOf(Class)}.
+	 * 
+	 * @return Whether this rule only depends on the setup state of a machine.
+	 */
+	public boolean isMachineInvariant() {
+		return false;
+	}
+
+	/**
+	 * Returns whether the priority this rule assigns to an entry never changes
+	 * while the entry is waiting in the queue {@code q}, i.e., it only depends on
+	 * attributes of the entry fixed at the time it was added. This allows
+	 * {@link PriorityQueue} to compute the priority of each entry only once
+	 * instead of on each selection. Priorities of such rules have to be
+	 * computable without a previous call of
+	 * {@link #beforeCalc(PriorityQueue)}.
+	 * <p>
+	 * Tie breakers are checked separately, so this method should only consider
+	 * this rule. The default implementation returns {@code false}. Rules
+	 * returning {@code true} should check {@link #isCalcPrioOf(Class)}.
+	 * 
+	 * @param q The queue using this rule.
+	 * @return Whether priorities of this rule are time-invariant.
+	 */
+	public boolean isTimeInvariant(PriorityQueue<? extends PrioRuleTarget> q) {
+		return false;
+	}
+
+	/**
+	 * Returns an upper bound of the priority of {@code entry}, i.e., a value
+	 * {@link #calcPrio(PrioRuleTarget)} will never exceed as long as
+	 * {@code entry} is waiting in the queue, even though its priority changes
+	 * over time. The bound is computed once for each entry. If all rules of a
+	 * {@link PriorityQueue} provide bounds (or are time-invariant), the queue
+	 * uses them to avoid computing priorities of entries that can't be selected.
+	 * <p>
+	 * The default implementation returns {@code Double.NaN}, i.e., no bound is
+	 * known. This is also the right choice for rules whose
+	 * {@code calcPrio(PrioRuleTarget)} has side effects or is overridden by a
+	 * subclass (see {@link #isCalcPrioOf(Class)}).
+	 * 
+	 * @param entry The entry to compute a bound for.
+	 * @return An upper bound of the entry's priority or {@code Double.NaN}.
+	 * @see #isTimeInvariant(PriorityQueue)
+	 */
+	public double upperBound(PrioRuleTarget entry) {
+		return Double.NaN;
+	}
+
+	/**
+	 * Returns whether {@link #calcPrio(PrioRuleTarget)} of this rule is the one
+	 * declared in class {@code c}, i.e., it is not overridden by a subclass of
+	 * {@code c}. Rules use this to only claim properties of their priorities
+	 * (like {@link #hasBulkCalc()}) if they actually compute them.
+	 * 
+	 * @param c The class implementing the rule.
+	 * @return Whether {@code c} declares the {@code calcPrio(PrioRuleTarget)} of
+	 *         this rule.
+	 */
+	protected final boolean isCalcPrioOf(Class<? extends PR> c) {
+		return CALC_PRIO_DECLARER.get(getClass()) == c;
+	}
+
+	/**
+	 * Returns the value of feature {@code f} of {@code entry}. While a
+	 * {@link PriorityQueue} selects an entry, values are cached in the
+	 * {@link FeatureCache} of this rule's owner, so each feature is computed only
+	 * once per entry, even if it is used by several rules.
+	 * 
+	 * @param entry The job or batch.
+	 * @param f     The feature.
+	 * @return The value of the feature.
+	 */
+	public double feature(PrioRuleTarget entry, Feature f) {
+		WorkStation o = getOwner();
+		return o != null ? o.getFeatureCache().get(entry, f) : f.compute(entry);
+	}
+
 	/**
 	 * If this method returns true, the machine is kept idle. This method is called
 	 * after beforeCalc(PriorityQueue) but before calcPrio(PrioRuleTarget).
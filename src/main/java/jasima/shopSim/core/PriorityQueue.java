@@ -22,25 +22,63 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 
+import jasima.core.simulation.Checkpointable;
 import jasima.core.util.MsgCategory;
+import jasima.shopSim.prioRules.basic.TieBreakerFASFS;
 
 /**
  * An implementation of a priority queue. The two supported operations are add(T
  * t) and removeLeast(). Order of the elements is determined by a sequencing
  * rule PR.
+ * <p>
+ * Usually priorities of all elements are recomputed on each selection. If the
+ * sequencing rule and all its tie breakers are time-invariant (see
+ * {@link PR#isTimeInvariant(PriorityQueue)}) and the final tie breaker is
+ * {@link TieBreakerFASFS}, each element's priority is computed only once and
+ * elements are kept in a binary heap instead, so selecting an element only
+ * takes O(log n) time. The final tie breaker ensures priorities are unique:
+ * of several elements with equal priorities, the heap might select another one
+ * than a scan over all elements.
+ * <p>
+ * Otherwise, if all rules provide bounds of their priorities (see
+ * {@link PR#upperBound(PrioRuleTarget)}), priorities are only computed for
+ * entries whose bounds don't rule out that they are selected. The result is
+ * the same as when computing all priorities. Rules can also compute the
+ * priorities of all entries at once (see
+ * {@link PR#calcPrios(PrioRuleTarget[], int, double[])}).
+ * <p>
+ * The state saved as a {@link Checkpointable} are the elements of the queue
+ * (but not their state).
  * 
  * @author Torsten Hildebrandt
  * 
  * @param <T>
  *            The element type contained in this PriorityQueue.
  */
-public class PriorityQueue<T extends PrioRuleTarget> implements Serializable {
+public class PriorityQueue<T extends PrioRuleTarget> implements Serializable, Checkpointable {
 
 	private static final long serialVersionUID = -4159482968254168459L;
 
 	public static final double MAX_PRIO = Double.MAX_VALUE;
 	public static final double MIN_PRIO = -MAX_PRIO;
 
+	private final class HeapComparator<O extends PrioRuleTarget> implements Comparator<ListEntry<O>>, Serializable {
+		private static final long serialVersionUID = 5484405457963216613L;
+
+		@Override
+		public int compare(ListEntry<O> i1, ListEntry<O> i2) {
+			if (i1 == i2)
+				return 0;
+
+			int res = comparePrioArrays(i1.prios, i2.prios);
+			if (res == 0) {
+				getWorkStation().getSim().print(MsgCategory.WARN, "equal priorities.");
+				res = Long.compare(i1.seqNum, i2.seqNum);
+			}
+			return res;
+		}
+	}
+
 	private final class ComparatorImpl<O extends PrioRuleTarget> implements Comparator<ListEntry<O>>, Serializable {
 		private static final long serialVersionUID = -6907667564606558578L;
 
@@ -78,27 +116,43 @@ public class PriorityQueue<T extends PrioRuleTarget> implements Serializable {
 	}
 
 	private final Comparator<ListEntry<T>> comparator;
+	private final Comparator<ListEntry<T>> heapComparator;
 
 	protected ListEntry<T>[] nodes_; // the tree nodes, packed into an array
 	protected int count_ = 0; // number of used slots
 
+	// heap mode: nodes_[0..heapSize-1] is a heap with valid priorities, elements
+	// added later are stored after it and inserted on the next selection
+	private boolean heapMode;
+	private int heapSize;
+	private long numAdded;
+
 	private ListEntry<T> reuse; // use old ListEntries again
 
 	private PR sr;
 	// all rules and their tie breakers unrolled in an array
 	private PR[] rules = new PR[0];
+	private boolean[] timeInvariant = new boolean[0];
 	private double[] bestPrios;
 	private final WorkStation workStation;
 
+	// buffers for PR.calcPrios()
+	private PrioRuleTarget[] bulkEntries;
+	private double[] bulkPrios;
+
 	private static class ListEntry<T> {
 		public ListEntry(int numPrios) {
 			super();
 
 			prios = new double[numPrios];
+			bounds = new double[numPrios];
 		}
 
 		public T elem;
 		public final double[] prios;
+		public final double[] bounds; // upper bounds of prios, valid while in queue
+		public boolean boundsValid;
+		public long seqNum; // insertion order, used as final tie breaker in heap mode
 		public ListEntry<T> next; // linked list to reuse ListEntries
 	}
 
@@ -111,6 +165,7 @@ public class PriorityQueue<T extends PrioRuleTarget> implements Serializable {
 		nodes_ = array;
 
 		comparator = new ComparatorImpl<T>();
+		heapComparator = new HeapComparator<T>();
 	}
 
 	/** Return number of elements **/
@@ -127,14 +182,16 @@ public class PriorityQueue<T extends PrioRuleTarget> implements Serializable {
 			e = new ListEntry<T>(rules.length);
 		}
 		e.elem = elem;
-		// e.idx = num++;
+		e.seqNum = numAdded++;
+		e.boundsValid = false;
 
 		// ensure enough capacity
 		if (count_ >= nodes_.length) {
 			setCapacity(3 * nodes_.length / 2 + 1);
 		}
 
-		// simply store in nodes_, priority is computed on removeLargest
+		// simply store in nodes_, priority is computed on removeLargest (or
+		// inserted into the heap there in heap mode)
 		nodes_[count_++] = e;
 	}
 
@@ -148,8 +205,7 @@ public class PriorityQueue<T extends PrioRuleTarget> implements Serializable {
 		int minIdx = updatePrios();
 		if (minIdx >= 0) {
 			final ListEntry<T> entry = nodes_[minIdx];
-			nodes_[minIdx] = nodes_[--count_];
-			nodes_[count_] = null;
+			removeAt(minIdx);
 
 			res = entry.elem;
 			bestPrios = entry.prios;
@@ -194,11 +250,17 @@ public class PriorityQueue<T extends PrioRuleTarget> implements Serializable {
 		if (count_ == 0)
 			return resArray;
 
-		int minIdx = updatePrios();
+		int minIdx = updatePrios(true);
 		ListEntry<T> min = nodes_[minIdx];
 
 		// sort nodes_ by current priorities
-		Arrays.sort(nodes_, 0, count_, comparator);
+		if (heapMode) {
+			// a sorted array is a valid heap, too
+			assert heapSize == count_;
+			Arrays.sort(nodes_, 0, count_, heapComparator);
+		} else {
+			Arrays.sort(nodes_, 0, count_, comparator);
+		}
 		assert comparator.compare(nodes_[0], min) == 0;
 
 		// write result in 'resArray'
@@ -232,11 +294,19 @@ public class PriorityQueue<T extends PrioRuleTarget> implements Serializable {
 	 * by calling equals().
 	 */
 	public boolean remove(T o) {
+		// fast path in heap mode: removing the element selected before
+		if (heapSize > 0 && o == nodes_[0].elem) {
+			final ListEntry<T> entry = nodes_[0];
+			removeAt(0);
+			recycle(entry);
+
+			return true;
+		}
+
 		for (int i = 0; i < count_; i++) {
 			if (o == nodes_[i].elem) {
 				final ListEntry<T> entry = nodes_[i];
-				nodes_[i] = nodes_[--count_]; // swap with last element
-				nodes_[count_] = null;
+				removeAt(i);
 				recycle(entry);
 
 				return true;
@@ -245,6 +315,24 @@ public class PriorityQueue<T extends PrioRuleTarget> implements Serializable {
 		return false;
 	}
 
+	private void removeAt(int i) {
+		if (i >= heapSize) {
+			nodes_[i] = nodes_[--count_]; // swap with last element
+			nodes_[count_] = null;
+		} else {
+			// fill gap with last heap element, its slot with the last pending one
+			final ListEntry<T> last = nodes_[--heapSize];
+			nodes_[heapSize] = nodes_[--count_];
+			nodes_[count_] = null;
+
+			if (i < heapSize) {
+				nodes_[i] = last;
+				siftDown(i);
+				siftUp(i);
+			}
+		}
+	}
+
 	/** Removes all elements. **/
 	public void clear() {
 		for (int i = 0; i < count_; ++i) {
@@ -253,6 +341,7 @@ public class PriorityQueue<T extends PrioRuleTarget> implements Serializable {
 			recycle(entry);
 		}
 		count_ = 0;
+		heapSize = 0;
 	}
 
 	/**
@@ -268,6 +357,26 @@ public class PriorityQueue<T extends PrioRuleTarget> implements Serializable {
 		return false;
 	}
 
+	@Override
+	public Object saveState() {
+		Object[] elems = new Object[count_];
+		for (int i = 0; i < count_; i++) {
+			elems[i] = nodes_[i].elem;
+		}
+		return elems;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void restoreState(Object state) {
+		clear();
+		bestPrios = null;
+		// add in same order to select the same element in case of equal priorities
+		for (Object o : (Object[]) state) {
+			add((T) o);
+		}
+	}
+
 	private void recycle(final ListEntry<T> entry) {
 		entry.elem = null;
 		entry.next = reuse;
@@ -287,6 +396,7 @@ public class PriorityQueue<T extends PrioRuleTarget> implements Serializable {
 		int oldRuleCount = rules.length;
 
 		rules = new PR[dimCount(sr)];
+		timeInvariant = new boolean[rules.length];
 		int i = 0;
 		do {
 			rules[i++] = sr;
@@ -294,6 +404,9 @@ public class PriorityQueue<T extends PrioRuleTarget> implements Serializable {
 
 		// clear cache
 		reuse = null;
+		// priorities have to be computed again
+		heapSize = 0;
+		heapMode = false;
 
 		if (oldRuleCount != rules.length) {
 			// adjust buffer for prio values
@@ -302,9 +415,14 @@ public class PriorityQueue<T extends PrioRuleTarget> implements Serializable {
 				if (e != null) {
 					ListEntry<T> le = new ListEntry<T>(rules.length);
 					le.elem = e.elem;
+					le.seqNum = e.seqNum;
 					nodes_[j] = le;
 				}
 			}
+		} else {
+			for (int j = 0; j < count_; j++) {
+				nodes_[j].boundsValid = false;
+			}
 		}
 	}
 
@@ -324,6 +442,24 @@ public class PriorityQueue<T extends PrioRuleTarget> implements Serializable {
 	}
 
 	private int updatePrios() {
+		return updatePrios(false);
+	}
+
+	private int updatePrios(boolean all) {
+		if (count_ == 0 || workStation == null)
+			return updatePrios0(all);
+
+		// features are valid during a single selection
+		final FeatureCache cache = workStation.getFeatureCache();
+		cache.beginSelection();
+		try {
+			return updatePrios0(all);
+		} finally {
+			cache.endSelection();
+		}
+	}
+
+	private int updatePrios0(boolean all) {
 		if (count_ == 0)
 			return -1;
 
@@ -338,13 +474,36 @@ public class PriorityQueue<T extends PrioRuleTarget> implements Serializable {
 				return -1;
 		}
 
-		updatePrio(nodes_[0]);
+		if (heapSize == 0) {
+			// no valid priorities yet, so we are free to (re-)decide
+			heapMode = isTimeInvariant() && rules[rules.length - 1] instanceof TieBreakerFASFS;
+		}
+
+		if (heapMode) {
+			// priorities never change, only new elements have to be inserted
+			while (heapSize < count_) {
+				updatePrio(nodes_[heapSize]);
+				siftUp(heapSize++);
+			}
+			return 0;
+		}
+
+		if (!all && count_ > 1 && updateBounds()) {
+			return selectUsingBounds();
+		}
+
+		final boolean bulk = count_ > 1 && isBulkCalc();
+		if (bulk)
+			updatePriosBulk();
+		else
+			updatePrio(nodes_[0]);
 		ListEntry<T> minEntry = nodes_[0];
 		int minIdx = 0;
 
 		for (int i = 1, n = count_; i < n; i++) {
 			final ListEntry<T> le = nodes_[i];
-			updatePrio(le);
+			if (!bulk)
+				updatePrio(le);
 			if (comparator.compare(minEntry, le) > 0) {
 				minEntry = le;
 				minIdx = i;
@@ -354,6 +513,143 @@ public class PriorityQueue<T extends PrioRuleTarget> implements Serializable {
 		return minIdx;
 	}
 
+	/**
+	 * Computes bounds for all entries not having them yet. Returns false if there
+	 * is a rule not providing bounds.
+	 */
+	private boolean updateBounds() {
+		for (int j = 0; j < rules.length; j++) {
+			timeInvariant[j] = rules[j].isTimeInvariant(this);
+		}
+
+		for (int i = 0, n = count_; i < n; i++) {
+			final ListEntry<T> le = nodes_[i];
+			if (le.boundsValid)
+				continue;
+
+			final double[] bs = le.bounds;
+			for (int j = 0; j < bs.length; j++) {
+				// priority of time-invariant rules is its own bound
+				double b = timeInvariant[j] ? rules[j].calcPrio(le.elem) : rules[j].upperBound(le.elem);
+				if (Double.isNaN(b))
+					return false;
+				bs[j] = b;
+			}
+			le.boundsValid = true;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Same as a full scan over all entries, but skips entries whose priorities
+	 * can't be larger than the best priorities found so far.
+	 */
+	private int selectUsingBounds() {
+		// entry with the largest bounds is a good first candidate
+		int candIdx = 0;
+		for (int i = 1, n = count_; i < n; i++) {
+			if (comparePrioArrays(nodes_[candIdx].bounds, nodes_[i].bounds) > 0)
+				candIdx = i;
+		}
+		final ListEntry<T> cand = nodes_[candIdx];
+		updatePrio(cand);
+		double[] threshold = cand.prios;
+
+		// find first largest entry in array order, like updatePrios()
+		ListEntry<T> minEntry = null;
+		int minIdx = -1;
+		for (int i = 0, n = count_; i < n; i++) {
+			final ListEntry<T> le = nodes_[i];
+			if (comparePrioArrays(le.bounds, threshold) > 0)
+				continue; // priorities are strictly smaller than threshold
+
+			if (le != cand)
+				updatePrio(le);
+			if (minEntry == null || comparator.compare(minEntry, le) > 0) {
+				minEntry = le;
+				minIdx = i;
+				if (comparePrioArrays(threshold, le.prios) > 0)
+					threshold = le.prios;
+			}
+		}
+
+		return minIdx;
+	}
+
+	private boolean isTimeInvariant() {
+		for (PR rule : rules) {
+			if (!rule.isTimeInvariant(this))
+				return false;
+		}
+		return true;
+	}
+
+	private boolean isBulkCalc() {
+		for (PR rule : rules) {
+			if (!rule.hasBulkCalc())
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Computes all priorities using
+	 * {@link PR#calcPrios(PrioRuleTarget[], int, double[])}, i.e., one rule at a
+	 * time.
+	 */
+	private void updatePriosBulk() {
+		final int n = count_;
+		if (bulkEntries == null || bulkEntries.length < n) {
+			bulkEntries = new PrioRuleTarget[nodes_.length];
+			bulkPrios = new double[nodes_.length];
+		}
+		final PrioRuleTarget[] es = bulkEntries;
+		final double[] ps = bulkPrios;
+
+		for (int i = 0; i < n; i++) {
+			es[i] = nodes_[i].elem;
+		}
+
+		for (int j = 0; j < rules.length; j++) {
+			rules[j].calcPrios(es, n, ps);
+			for (int i = 0; i < n; i++) {
+				nodes_[i].prios[j] = ps[i];
+			}
+		}
+
+		// don't keep references to elements
+		Arrays.fill(es, 0, n, null);
+	}
+
+	private void siftUp(int i) {
+		final ListEntry<T> e = nodes_[i];
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (heapComparator.compare(nodes_[parent], e) <= 0)
+				break;
+			nodes_[i] = nodes_[parent];
+			i = parent;
+		}
+		nodes_[i] = e;
+	}
+
+	private void siftDown(int i) {
+		final ListEntry<T> e = nodes_[i];
+		final int half = heapSize >>> 1;
+		while (i < half) {
+			int child = 2 * i + 1;
+			int right = child + 1;
+			if (right < heapSize && heapComparator.compare(nodes_[right], nodes_[child]) < 0)
+				child = right;
+			if (heapComparator.compare(e, nodes_[child]) <= 0)
+				break;
+			nodes_[i] = nodes_[child];
+			i = child;
+		}
+		nodes_[i] = e;
+	}
+
 	private void updatePrio(ListEntry<T> le) {
 		final double[] vs = le.prios;
 		assert vs.length == rules.length;
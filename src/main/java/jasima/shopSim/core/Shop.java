@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Map;
 
+import jasima.core.simulation.Checkpointable;
 import jasima.core.simulation.SimComponent;
 import jasima.core.simulation.SimComponentContainer;
 import jasima.core.simulation.SimComponentContainerBase;
@@ -33,10 +34,14 @@ import jasima.core.util.observer.NotifierListener;
 /**
  * Implements a shop simulation. The scenarios covered are usually job shops and
  * flow shops.
+ * <p>
+ * A shop can be saved in a {@link jasima.core.simulation.Simulation.Snapshot}
+ * if all its machines and job sources are {@link Checkpointable}, as are
+ * {@link WorkStation}, {@link StaticJobSource} and {@link DynamicJobSource}.
  * 
  * @author Torsten Hildebrandt
  */
-public class Shop extends SimComponentContainerBase {
+public class Shop extends SimComponentContainerBase implements Checkpointable {
 
 	public enum ShopMessage implements SimComponentEvent {
 		JOB_RELEASED, JOB_FINISHED
@@ -113,6 +118,25 @@ public class Shop extends SimComponentContainerBase {
 		mach.enqueueOrProcess(nextJob);
 	}
 
+	@Override
+	public Object saveState() {
+		return new Object[] { jobsStarted, jobsFinished, lastJobReleased, lastJobFinished };
+	}
+
+	@Override
+	public void restoreState(Object state) {
+		Object[] s = (Object[]) state;
+		jobsStarted = (Integer) s[0];
+		jobsFinished = (Integer) s[1];
+		lastJobReleased = (Job) s[2];
+		lastJobFinished = (Job) s[3];
+	}
+
+	@Override
+	public boolean isRollbackSupported() {
+		return false;
+	}
+
 	@Override
 	public void produceResults(Map<String, Object> res) {
 		super.produceResults(res);
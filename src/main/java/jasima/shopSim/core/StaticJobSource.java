@@ -76,4 +76,16 @@ public class StaticJobSource extends JobSource {
 		return j;
 	}
 
+	@Override
+	public Object saveState() {
+		return new Object[] { super.saveState(), nextJob };
+	}
+
+	@Override
+	public void restoreState(Object state) {
+		Object[] s = (Object[]) state;
+		super.restoreState(s[0]);
+		nextJob = (Integer) s[1];
+	}
+
 }
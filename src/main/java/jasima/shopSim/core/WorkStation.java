@@ -17,17 +17,18 @@ limitations under the License.
 */
 package jasima.shopSim.core;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+import jasima.core.simulation.Checkpointable;
 import jasima.core.simulation.SimComponentBase;
 import jasima.core.simulation.SimEvent;
+import jasima.core.simulation.util.SimEventPool;
 import jasima.shopSim.core.IndividualMachine.MachineState;
 import jasima.shopSim.core.batchForming.BatchForming;
 import jasima.shopSim.core.batchForming.HighestJobBatchingMBS;
@@ -38,10 +39,15 @@ import jasima.shopSim.prioRules.meta.IgnoreFutureJobs;
 /**
  * Class to represent a workstation. A workstation is a collection of identical
  * {@link IndividualMachine}s sharing a common queue.
+ * <p>
+ * The state saved as a {@link Checkpointable} includes its queue, the state of
+ * all machines and of all jobs waiting or processed. State of listeners, e.g.,
+ * collecting statistics, is not saved, therefore a workstation can't be used
+ * for optimistic parallel execution.
  * 
  * @author Torsten Hildebrandt
  */
-public class WorkStation extends SimComponentBase {
+public class WorkStation extends SimComponentBase implements Checkpointable {
 
 	public enum WorkStationMessage implements SimComponentEvent {
 		WS_ACTIVATED, WS_DEACTIVATED, WS_JOB_ARRIVAL, WS_JOB_SELECTED, WS_JOB_COMPLETED
@@ -76,6 +82,7 @@ public class WorkStation extends SimComponentBase {
 	private PR batchSequencingRule;
 
 	public final PriorityQueue<Job> queue;
+	private final FeatureCache featureCache;
 
 	protected Shop shop;
 	protected int index; // in shop.machines
@@ -90,11 +97,20 @@ public class WorkStation extends SimComponentBase {
 	// specific machine's setup state
 	public IndividualMachine currMachine;
 
-	ArrayDeque<IndividualMachine> freeMachines;
+	final MachineList freeMachines;
+	// results of evaluating the queue for different setup states, used in
+	// nextJobAndMachine()
+	private int[] evalSetupStates;
+	private PrioRuleTarget[] evalJobs;
+	private double[][] evalPrios;
 
 	protected double workContentReal, workContentFuture;
 	private ArrayList<String> setupStateTranslate;
-	private Map<String, List<Job>> jobsPerBatchFamily;
+	private BatchFamilyIndex batchFamilies;
+
+	// reused to avoid creating new objects for each event
+	private final Runnable selectAndStartAction;
+	private SimEventPool<FutureArrival> futureArrivals;
 
 	// the following fields temporarily contain parameters used by listeners
 	public Job justArrived;
@@ -111,8 +127,10 @@ public class WorkStation extends SimComponentBase {
 	public WorkStation(int numInGroup) {
 		super();
 		this.numInGroup = numInGroup;
+		this.selectAndStartAction = this::selectAndStart0;
 
 		numBusy = 0;
+		featureCache = new FeatureCache();
 		queue = new PriorityQueue<Job>(this);
 
 		PR sr = new FCFS();
@@ -127,6 +145,7 @@ public class WorkStation extends SimComponentBase {
 		for (int i = 0; i < machDat.length; i++) {
 			machDat[i] = new IndividualMachine(this, i);
 		}
+		freeMachines = new MachineList(machDat);
 	}
 
 	@Override
@@ -136,11 +155,12 @@ public class WorkStation extends SimComponentBase {
 		assert translateSetupState(DEF_SETUP_STR) == DEF_SETUP;
 
 		batchingUsed = false;
-		jobsPerBatchFamily = null;
+		batchFamilies = null;
 
 		workContentFuture = workContentReal = 0.0d;
 
-		freeMachines = new ArrayDeque<IndividualMachine>(numInGroup);
+		freeMachines.clear();
+		futureArrivals = new SimEventPool<>(pool -> new FutureArrival());
 		numBusy = 0;
 
 		queue.clear();
@@ -220,7 +240,11 @@ public class WorkStation extends SimComponentBase {
 	public void futureArrival(final Job f, final double arrivesAt) {
 		// execute asynchronously a little later so exactly concurrent job
 		// selections don't see each others results
-		getSim().scheduleAt(shop.simTime(), LOOKAHEAD_PRIO, () -> addToQueue(f, arrivesAt));
+		FutureArrival e = futureArrivals.acquire();
+		e.job = f;
+		e.arrivesAt = arrivesAt;
+		e.setTime(shop.simTime());
+		getSim().schedule(e);
 	}
 
 	private void addToQueue(Job j, double arrivesAt) {
@@ -239,8 +263,8 @@ public class WorkStation extends SimComponentBase {
 			workContentFuture += o.getProcTime();
 		}
 
-		if (jobsPerBatchFamily != null)
-			addJobToBatchFamily(j);
+		if (batchFamilies != null)
+			batchFamilies.add(j);
 
 		if (isTraceEnabled() && !j.isFuture()) {
 			trace("arrives_at", j, this, numBusy() == 0 ? "IDLE" : "PROCESSING", numJobsWaiting() - 1);
@@ -269,16 +293,18 @@ public class WorkStation extends SimComponentBase {
 			workContentReal -= o.getProcTime();
 			assert workContentReal >= -1e-6 : "" + workContentReal;
 			assert removeRes;
-			if (jobsPerBatchFamily != null)
-				removeJobOfBatchFamily(j, o.getBatchFamily());
+			if (batchFamilies != null) {
+				boolean removeIdx = batchFamilies.remove(j);
+				assert removeIdx;
+			}
 		} else {
 			if (removeRes) {
 				Operation o = j.getOps()[j.getTaskNumber() - 1];
 				workContentFuture -= o.getProcTime();
 				assert workContentFuture >= -1e-6 : "" + workContentFuture;
 				numFutures--;
-				if (jobsPerBatchFamily != null)
-					removeJobOfBatchFamily(j, o.getBatchFamily());
+				if (batchFamilies != null)
+					batchFamilies.remove(j);
 			}
 		}
 	}
@@ -386,7 +412,7 @@ public class WorkStation extends SimComponentBase {
 	 */
 	public void selectAndStart() {
 		// execute asynchronously so all jobs arrived/departed before selection
-		getSim().scheduleAt(shop.simTime(), SELECT_PRIO, this::selectAndStart0);
+		getSim().scheduleAtRecycled(shop.simTime(), SELECT_PRIO, selectAndStartAction);
 	}
 
 	protected void selectAndStart0() {
@@ -429,11 +455,7 @@ public class WorkStation extends SimComponentBase {
 	}
 
 	protected PrioRuleTarget nextJobAndMachine() {
-		// just a check if freeMachines contains the right data
-		for (IndividualMachine md : machDat) {
-			if (md.state == MachineState.IDLE)
-				assert freeMachines.contains(md);
-		}
+		assert checkFreeMachines();
 		assert freeMachines.size() > 0;
 
 		PrioRuleTarget maxJob;
@@ -451,26 +473,62 @@ public class WorkStation extends SimComponentBase {
 				if (maxPrio != null)
 					maxPrio = maxPrio.clone();
 
-				Iterator<IndividualMachine> it = freeMachines.descendingIterator();
-				// skip first entry, which was already considered
-				it.next();
-				while (it.hasNext()) {
-					currMachine = it.next();
+				// if rules only depend on a machine's setup state, the queue has to be
+				// evaluated only once per setup state
+				int numEval = 0;
+				final boolean machineInvariant = isMachineInvariant(queue.getSequencingRule());
+				if (machineInvariant) {
+					if (evalSetupStates == null) {
+						evalSetupStates = new int[numInGroup];
+						evalJobs = new PrioRuleTarget[numInGroup];
+						evalPrios = new double[numInGroup][];
+					}
+					evalSetupStates[0] = currMachine.setupState;
+					evalJobs[0] = maxJob;
+					evalPrios[0] = maxPrio;
+					numEval = 1;
+				}
 
-					Job job = queue.peekLargest();
-					double[] prios = queue.getBestPrios();
+				// last machine was already considered above
+				IndividualMachine m = currMachine;
+				while ((m = freeMachines.previous(m)) != null) {
+					currMachine = m;
+
+					PrioRuleTarget job;
+					double[] prios;
+					int i = 0;
+					while (i < numEval && evalSetupStates[i] != m.setupState) {
+						i++;
+					}
+					if (i < numEval) {
+						job = evalJobs[i];
+						prios = evalPrios[i];
+					} else {
+						job = queue.peekLargest();
+						prios = queue.getBestPrios();
+						if (prios != null)
+							prios = prios.clone();
+
+						if (machineInvariant) {
+							evalSetupStates[numEval] = m.setupState;
+							evalJobs[numEval] = job;
+							evalPrios[numEval] = prios;
+							numEval++;
+						}
+					}
 
 					if (maxPrio == null || PriorityQueue.comparePrioArrays(maxPrio, prios) >= 0) {
-						// copy priorities
+						// remember priorities, job and machine
 						maxPrio = prios;
-						if (maxPrio != null)
-							maxPrio = maxPrio.clone();
-						// remember job and machine
 						maxJob = job;
 						maxMachine = currMachine;
 					}
 				}
 
+				if (machineInvariant) {
+					Arrays.fill(evalJobs, 0, numEval, null);
+				}
+
 				currMachine = maxMachine;
 			}
 		} else {
@@ -489,6 +547,22 @@ public class WorkStation extends SimComponentBase {
 		}
 	}
 
+	private boolean checkFreeMachines() {
+		for (IndividualMachine md : machDat) {
+			if (md.state == MachineState.IDLE)
+				assert freeMachines.contains(md);
+		}
+		return true;
+	}
+
+	private static boolean isMachineInvariant(PR sr) {
+		for (PR pr = sr; pr != null; pr = pr.getTieBreaker()) {
+			if (!pr.isMachineInvariant())
+				return false;
+		}
+		return true;
+	}
+
 	public boolean isFree(IndividualMachine im) {
 		return freeMachines.contains(im);
 	}
@@ -568,6 +642,16 @@ public class WorkStation extends SimComponentBase {
 		return setupMatrix;
 	}
 
+	/**
+	 * Returns the cache of job features used while selecting jobs or batches
+	 * for this workstation.
+	 * 
+	 * @see PR#feature(PrioRuleTarget, FeatureCache.Feature)
+	 */
+	public FeatureCache getFeatureCache() {
+		return featureCache;
+	}
+
 	/**
 	 * Translates a setup state {@code s} in a numeric constant.
 	 * 
@@ -638,33 +722,41 @@ public class WorkStation extends SimComponentBase {
 		return index;
 	}
 
-	public Map<String, List<Job>> getJobsByFamily() {
-		if (jobsPerBatchFamily == null) {
-			jobsPerBatchFamily = new HashMap<String, List<Job>>();
+	/**
+	 * Returns the jobs in the queue (including future jobs) grouped by their
+	 * batch family. The index is created on first access and then updated
+	 * whenever a job arrives or leaves.
+	 */
+	public BatchFamilyIndex getBatchFamilyIndex() {
+		if (batchFamilies == null) {
+			batchFamilies = new BatchFamilyIndex();
 			for (int i = 0, n = queue.size(); i < n; i++) {
-				Job j = queue.get(i);
-				addJobToBatchFamily(j);
+				batchFamilies.add(queue.get(i));
 			}
 		}
-		return jobsPerBatchFamily;
+		return batchFamilies;
 	}
 
-	private void addJobToBatchFamily(Job j) {
-		String bf = j.getCurrentOperation().getBatchFamily();
-
-		List<Job> jobsInFamily = jobsPerBatchFamily.get(bf);
-		if (jobsInFamily == null) {
-			jobsInFamily = new ArrayList<Job>();
-			jobsPerBatchFamily.put(bf, jobsInFamily);
+	/**
+	 * Returns the jobs in the queue grouped by their batch family. The map is a
+	 * snapshot, it is not updated when jobs arrive or leave.
+	 *
+	 * @deprecated Each call creates a new map and a list per family, i.e., takes
+	 *             time proportional to the number of jobs in the queue. Use
+	 *             {@link #getBatchFamilyIndex()} instead, which is updated
+	 *             incrementally.
+	 */
+	@Deprecated
+	public Map<String, List<Job>> getJobsByFamily() {
+		Map<String, List<Job>> res = new HashMap<String, List<Job>>();
+		for (BatchFamilyIndex.Family f : getBatchFamilyIndex().families()) {
+			ArrayList<Job> js = new ArrayList<Job>(f.numJobs());
+			for (Job j : f) {
+				js.add(j);
+			}
+			res.put(f.name(), js);
 		}
-
-		jobsInFamily.add(j);
-	}
-
-	private void removeJobOfBatchFamily(Job j, String bf) {
-		List<Job> jobsInFamily = jobsPerBatchFamily.get(bf);
-		boolean removeRes = jobsInFamily.remove(j);
-		assert removeRes;
+		return res;
 	}
 
 	@Override
@@ -708,4 +800,157 @@ public class WorkStation extends SimComponentBase {
 		throw new UnsupportedOperationException("clone()");
 	}
 
+	//
+	//
+	// Checkpointable implementation
+	//
+	//
+
+	private static final class State {
+		final Object queue;
+		final Job[] jobs;
+		final Object[] jobStates;
+		final MachineState[] machStates;
+		final DowntimeSource[] downReasons;
+		final double[] procStarted;
+		final double[] procFinished;
+		final int[] setupStates;
+		final PrioRuleTarget[] curJobs;
+		final IndividualMachine[] freeMachines;
+		final IndividualMachine currMachine;
+		final int numBusy;
+		final int numFutures;
+		final boolean batchingUsed;
+		final double workContentReal;
+		final double workContentFuture;
+		final BatchFamilyIndex batchFamilies;
+
+		State(WorkStation ws) {
+			queue = ws.queue.saveState();
+
+			int n = ws.machDat.length;
+			machStates = new MachineState[n];
+			downReasons = new DowntimeSource[n];
+			procStarted = new double[n];
+			procFinished = new double[n];
+			setupStates = new int[n];
+			curJobs = new PrioRuleTarget[n];
+
+			ArrayList<Job> js = ws.queue.getAllElements(new ArrayList<>());
+			for (int i = 0; i < n; i++) {
+				IndividualMachine im = ws.machDat[i];
+				machStates[i] = im.state;
+				downReasons[i] = im.downReason;
+				procStarted[i] = im.procStarted;
+				procFinished[i] = im.procFinished;
+				setupStates[i] = im.setupState;
+				curJobs[i] = im.curJob;
+				if (im.curJob != null) {
+					for (int j = 0; j < im.curJob.numJobsInBatch(); j++) {
+						js.add(im.curJob.job(j));
+					}
+				}
+			}
+			jobs = js.toArray(new Job[js.size()]);
+			jobStates = new Object[jobs.length];
+			for (int i = 0; i < jobs.length; i++) {
+				jobStates[i] = jobs[i].saveState();
+			}
+
+			freeMachines = ws.freeMachines.toArray(new IndividualMachine[ws.freeMachines.size()]);
+			currMachine = ws.currMachine;
+			numBusy = ws.numBusy;
+			numFutures = ws.numFutures;
+			batchingUsed = ws.batchingUsed;
+			workContentReal = ws.workContentReal;
+			workContentFuture = ws.workContentFuture;
+			batchFamilies = ws.batchFamilies == null ? null : ws.batchFamilies.copy();
+		}
+	}
+
+	@Override
+	public Object saveState() {
+		return new State(this);
+	}
+
+	@Override
+	public void restoreState(Object state) {
+		State s = (State) state;
+
+		queue.restoreState(s.queue);
+		for (int i = 0; i < s.jobs.length; i++) {
+			s.jobs[i].restoreState(s.jobStates[i]);
+		}
+
+		for (int i = 0; i < machDat.length; i++) {
+			IndividualMachine im = machDat[i];
+			im.state = s.machStates[i];
+			im.downReason = s.downReasons[i];
+			im.procStarted = s.procStarted[i];
+			im.procFinished = s.procFinished[i];
+			im.setupState = s.setupStates[i];
+			im.curJob = s.curJobs[i];
+		}
+
+		freeMachines.clear();
+		Collections.addAll(freeMachines, s.freeMachines);
+		currMachine = s.currMachine;
+		numBusy = s.numBusy;
+		numFutures = s.numFutures;
+		batchingUsed = s.batchingUsed;
+		workContentReal = s.workContentReal;
+		workContentFuture = s.workContentFuture;
+		batchFamilies = s.batchFamilies == null ? null : s.batchFamilies.copy();
+
+		// events recycled after the state was saved might be restored
+		futureArrivals.clear();
+	}
+
+	@Override
+	public boolean isRollbackSupported() {
+		return false;
+	}
+
+	/**
+	 * Event to add a future job to the queue, see
+	 * {@link #futureArrival(Job, double)}. Objects of this class are recycled
+	 * after use.
+	 */
+	private final class FutureArrival extends SimEvent implements Checkpointable {
+		Job job;
+		double arrivesAt;
+
+		FutureArrival() {
+			super(0.0, LOOKAHEAD_PRIO);
+		}
+
+		@Override
+		public Object saveState() {
+			return new Object[] { job, arrivesAt, job == null ? null : job.saveState() };
+		}
+
+		@Override
+		public void restoreState(Object state) {
+			Object[] s = (Object[]) state;
+			job = (Job) s[0];
+			arrivesAt = (Double) s[1];
+			if (job != null) {
+				job.restoreState(s[2]);
+			}
+		}
+
+		@Override
+		public void handle() {
+			Job f = job;
+			job = null;
+			addToQueue(f, arrivesAt);
+			futureArrivals.recycle(this);
+		}
+
+		@Override
+		public String toString() {
+			return "FutureArrival(" + getName() + ")";
+		}
+	}
+
 }
@@ -17,10 +17,10 @@ limitations under the License.
 */
 package jasima.shopSim.core.batchForming;
 
-import java.util.List;
-import java.util.Map;
+import java.util.Arrays;
 
 import jasima.shopSim.core.Batch;
+import jasima.shopSim.core.BatchFamilyIndex;
 import jasima.shopSim.core.Job;
 import jasima.shopSim.core.Operation;
 import jasima.shopSim.core.PriorityQueue;
@@ -43,45 +43,88 @@ public class BestOfFamilyBatching extends BatchForming {
 
 	private static final long serialVersionUID = 4249713710542519941L;
 
+	// batches under construction, indexed by family id
+	private Batch[] batches = {};
+	private Batch[] arrivedBatches = {};
+	private int[] maxSize = {};
+	private boolean[] complete = {};
+	// family ids in the order of their best job
+	private int[] familyOrder = {};
+
 	@Override
 	public void formBatches() {
 		final PriorityQueue<Job> q = getOwner().queue;
+		final BatchFamilyIndex idx = getOwner().getBatchFamilyIndex();
 
 		orderedJobs = ensureCapacity(orderedJobs, q.size());
 		q.getAllElementsInOrder(orderedJobs);
 		int numJobs = q.size();
 
-		// split jobs of each family
-		Map<String, List<Job>> jobsByFamily = splitFamilies(orderedJobs, numJobs);
-
-		// form two batches per family, one without future jobs
-		for (List<Job> famJobs : jobsByFamily.values()) {
-			formFamilyBatches(famJobs);
+		ensureFamilyCapacity(idx.numFamilies());
+
+		// form two batches per family, one without future jobs; make batches as
+		// full as possible
+		int numFamilies = 0;
+		for (int i = 0; i < numJobs; i++) {
+			Job job = orderedJobs[i];
+			int f = idx.familyOf(job).id();
+
+			if (batches[f] == null) {
+				Operation o = job.getCurrentOperation();
+				assert WorkStation.BATCH_INCOMPATIBLE.equals(o.getBatchFamily()) ? o.getMaxBatchSize() == 1 : true;
+
+				batches[f] = new Batch(getOwner().shop());
+				arrivedBatches[f] = new Batch(getOwner().shop());
+				maxSize[f] = o.getMaxBatchSize();
+				complete[f] = false;
+				familyOrder[numFamilies++] = f;
+			} else if (complete[f]) {
+				continue; // for i
+			}
+
+			Batch b = batches[f];
+			Batch b2 = arrivedBatches[f];
+			if (b.numJobsInBatch() < maxSize[f])
+				b.addToBatch(job);
+			if (!job.isFuture())
+				b2.addToBatch(job);
+			if (b2.numJobsInBatch() == maxSize[f])
+				complete[f] = true;
 		}
-	}
 
-	private void formFamilyBatches(List<Job> famJobs) {
-		assert famJobs.size() > 0;
+		for (int i = 0; i < numFamilies; i++) {
+			int f = familyOrder[i];
+			Batch b = batches[f];
+			Batch b2 = arrivedBatches[f];
 
-		Job j = famJobs.get(0);
-		Operation o = j.getCurrentOperation();
-		assert WorkStation.BATCH_INCOMPATIBLE.equals(o.getBatchFamily()) ? o.getMaxBatchSize() == 1 : true;
+			possibleBatches.add(b);
+			if (b.isFuture() && b2.numJobsInBatch() > 0)
+				possibleBatches.add(b2);
 
-		// make batches as full as possible
-		Batch b = new Batch(getOwner().shop());
-		Batch b2 = new Batch(getOwner().shop());
-		for (int i = 0, n = famJobs.size(); i < n; i++) {
-			Job job = famJobs.get(i);
-			if (b.numJobsInBatch() < o.getMaxBatchSize())
-				b.addToBatch(job);
-			if (!job.isFuture())
-				b2.addToBatch(job);
-			if (b2.numJobsInBatch() == o.getMaxBatchSize())
-				break;
+			batches[f] = arrivedBatches[f] = null;
+		}
+	}
+
+	private void ensureFamilyCapacity(int numFamilies) {
+		if (batches.length < numFamilies) {
+			int size = Math.max(10, (numFamilies * 5) / 4); // +25%
+			batches = Arrays.copyOf(batches, size);
+			arrivedBatches = Arrays.copyOf(arrivedBatches, size);
+			maxSize = new int[size];
+			complete = new boolean[size];
+			familyOrder = new int[size];
 		}
-		possibleBatches.add(b);
-		if (b.isFuture() && b2.numJobsInBatch() > 0)
-			possibleBatches.add(b2);
+	}
+
+	@Override
+	public BestOfFamilyBatching clone() {
+		BestOfFamilyBatching c = (BestOfFamilyBatching) super.clone();
+		c.batches = new Batch[] {};
+		c.arrivedBatches = new Batch[] {};
+		c.maxSize = new int[] {};
+		c.complete = new boolean[] {};
+		c.familyOrder = new int[] {};
+		return c;
 	}
 
 	@Override
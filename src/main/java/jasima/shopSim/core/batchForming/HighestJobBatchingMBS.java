@@ -17,9 +17,8 @@ limitations under the License.
 */
 package jasima.shopSim.core.batchForming;
 
-import java.util.List;
-
 import jasima.shopSim.core.Batch;
+import jasima.shopSim.core.BatchFamilyIndex.Family;
 import jasima.shopSim.core.Job;
 import jasima.shopSim.core.Operation;
 import jasima.shopSim.core.PriorityQueue;
@@ -77,22 +76,21 @@ public class HighestJobBatchingMBS extends BatchForming {
 			return b;
 		}
 
-		List<Job> js = getOwner().getJobsByFamily().get(bf);
+		Family f = getOwner().getBatchFamilyIndex().family(bf);
 
 		int minSize = (int) Math.ceil(getMbsRel() * o.getMaxBatchSize());
+		int numArrived = f.numArrived();
+		assert numArrived >= 1;
+		if (numArrived < minSize || numArrived > o.getMaxBatchSize())
+			return null;
 
-		for (int i = 0, n = js.size(); i < n; i++) {
-			Job j = js.get(i);
+		for (Job j : f) {
 			if (!j.isFuture())
 				b.addToBatch(j);
 		}
-		assert b.numJobsInBatch() >= 1;
-
-		if (b.numJobsInBatch() >= minSize && b.numJobsInBatch() <= o.getMaxBatchSize())
-			return b;
-		else
-			return null;
+		assert b.numJobsInBatch() == numArrived;
 
+		return b;
 	}
 
 	private void defaultBatchForming() {
@@ -118,9 +116,8 @@ public class HighestJobBatchingMBS extends BatchForming {
 				return;
 			}
 
-			List<Job> js = getOwner().getJobsByFamily().get(bf);
 			int minSize = (int) Math.ceil(getMbsRel() * o.getMaxBatchSize());
-			if (js.size() < minSize)
+			if (getOwner().getBatchFamilyIndex().family(bf).numJobs() < minSize)
 				continue;
 
 			// fill batch with compatible jobs that already have arrived
@@ -21,6 +21,7 @@ import java.util.List;
 import java.util.Map;
 
 import jasima.shopSim.core.Batch;
+import jasima.shopSim.core.BatchFamilyIndex.Family;
 import jasima.shopSim.core.Job;
 import jasima.shopSim.core.Operation;
 import jasima.shopSim.core.PrioRuleTarget;
@@ -87,53 +88,43 @@ public class MostCompleteBatch extends BatchForming {
 	}
 
 	private Batch efficientBatching() {
+		final double simTime = getOwner().shop().simTime();
+
 		double maxRbs = 0.0d;
-		List<Job> maxFam = null;
+		Family maxFam = null;
+		int maxArriveInTime = 0;
 		boolean tie = false;
-		boolean hasIncompatible = false;
 
 		// try efficient way first if situation is clear
-		for (List<Job> js : getOwner().getJobsByFamily().values()) {
-			if (js.size() == 0)
+		for (Family f : getOwner().getBatchFamilyIndex().families()) {
+			if (f.numJobs() == 0)
 				continue;
 
-			Operation o = js.get(0).getCurrentOperation();
+			Operation o = f.first().getCurrentOperation();
 			if (WorkStation.BATCH_INCOMPATIBLE.equals(o.getBatchFamily())) {
-				hasIncompatible = true;
-				continue;
+				return null;
 			}
 
-			double arriveInTimeJobs = 0.0d;
-			for (int i = 0; i < js.size(); i++) {
-				if (js.get(i).getArriveTime() - js.get(i).getShop().simTime() <= maxWait)
-					arriveInTimeJobs++;
-			}
-			double rbs = Math.min(1.0, (arriveInTimeJobs / o.getMaxBatchSize()));
+			int arriveInTimeJobs = numArriveInTime(f, simTime);
+			double rbs = Math.min(1.0, (((double) arriveInTimeJobs) / o.getMaxBatchSize()));
 			if (rbs == maxRbs) {
 				tie = true;
 			} else if (rbs > maxRbs) {
 				maxRbs = rbs;
-				maxFam = js;
+				maxFam = f;
+				maxArriveInTime = arriveInTimeJobs;
 				tie = false;
 			}
 		}
-		if (!tie && !hasIncompatible) {
-			Job j = maxFam.get(0);
-			int mbs = j.getCurrentOperation().getMaxBatchSize();
-			int arriveInTimeJobs = 0;
-			for (int i = 0; i < maxFam.size(); i++) {
-				if (maxFam.get(i).getArriveTime() - maxFam.get(i).getShop().simTime() <= maxWait)
-					arriveInTimeJobs++;
-			}
-			if (arriveInTimeJobs > mbs)
+		if (!tie) {
+			int mbs = maxFam.first().getCurrentOperation().getMaxBatchSize();
+			if (maxArriveInTime > mbs)
 				return null;
 
 			Batch b = new Batch(getOwner().shop());
-			if (j.getArriveTime() - j.getShop().simTime() <= maxWait)
-				b.addToBatch(j);
-			for (int n = 1; n < maxFam.size(); n++) {
-				if (maxFam.get(n).getArriveTime() - maxFam.get(n).getShop().simTime() <= maxWait)
-					b.addToBatch(maxFam.get(n));
+			for (Job j : maxFam) {
+				if (j.getArriveTime() - simTime <= maxWait)
+					b.addToBatch(j);
 			}
 
 			assert b.numJobsInBatch() == maxRbs * mbs;
@@ -143,6 +134,23 @@ public class MostCompleteBatch extends BatchForming {
 		}
 	}
 
+	/**
+	 * Returns the number of jobs of a family arriving within {@code maxWait}.
+	 */
+	private int numArriveInTime(Family f, double simTime) {
+		if (f.numFutures() == 0) {
+			// all jobs are already waiting
+			return f.numJobs();
+		}
+
+		int res = 0;
+		for (Job j : f) {
+			if (j.getArriveTime() - simTime <= maxWait)
+				res++;
+		}
+		return res;
+	}
+
 	private void defaultBatching() {
 		final PriorityQueue<Job> q = getOwner().queue;
 		// detailed approach below
@@ -78,6 +78,42 @@ public class ATC extends PR {
 		return (job.getWeight() / job.currProcTime()) * Math.exp(prod1);
 	}
 
+	@Override
+	public void calcPrios(PrioRuleTarget[] jobs, int n, double[] prios) {
+		if (n == 0)
+			return;
+		final double now = jobs[0].getShop().simTime();
+
+		for (int i = 0; i < n; i++) {
+			final PrioRuleTarget job = jobs[i];
+			if (arrivesTooLate(job)) {
+				prios[i] = PriorityQueue.MIN_PRIO;
+			} else {
+				double slack = job.getCurrentOperationDueDate() - now - job.currProcTime();
+				prios[i] = (job.getWeight() / job.currProcTime()) * Math.exp(-Math.max(slack, 0.0d) / slackNorm);
+			}
+		}
+	}
+
+	@Override
+	public boolean hasBulkCalc() {
+		return isCalcPrioOf(ATC.class);
+	}
+
+	@Override
+	public boolean isMachineInvariant() {
+		return isCalcPrioOf(ATC.class);
+	}
+
+	@Override
+	public double upperBound(PrioRuleTarget job) {
+		if (!isCalcPrioOf(ATC.class) || !(k > 0.0))
+			return Double.NaN;
+		// exponential term is at most 1 if k is positive
+		double wspt = job.getWeight() / job.currProcTime();
+		return wspt >= 0.0 ? wspt : Double.NaN;
+	}
+
 	@Override
 	public String getName() {
 		return "ATC(k=" + getK() + ")";
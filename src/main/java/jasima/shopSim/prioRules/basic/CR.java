@@ -36,6 +36,11 @@ public class CR extends PR {
 		return -((job.getDueDate() - job.getShop().simTime()) / job.remainingProcTime());
 	}
 
+	@Override
+	public boolean isMachineInvariant() {
+		return isCalcPrioOf(CR.class);
+	}
+
 	public static class Variant1 extends PR {
 
 		private static final long serialVersionUID = -7545346726088550611L;
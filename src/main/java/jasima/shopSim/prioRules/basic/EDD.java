@@ -19,6 +19,7 @@ package jasima.shopSim.prioRules.basic;
 
 import jasima.shopSim.core.PR;
 import jasima.shopSim.core.PrioRuleTarget;
+import jasima.shopSim.core.PriorityQueue;
 
 /**
  * This class implements the Earliest Due Date first rule.
@@ -34,4 +35,26 @@ public class EDD extends PR {
 		return -job.getDueDate();
 	}
 
+	@Override
+	public void calcPrios(PrioRuleTarget[] jobs, int n, double[] prios) {
+		for (int i = 0; i < n; i++) {
+			prios[i] = -jobs[i].getDueDate();
+		}
+	}
+
+	@Override
+	public boolean hasBulkCalc() {
+		return isCalcPrioOf(EDD.class);
+	}
+
+	@Override
+	public boolean isMachineInvariant() {
+		return isCalcPrioOf(EDD.class);
+	}
+
+	@Override
+	public boolean isTimeInvariant(PriorityQueue<?> q) {
+		return isCalcPrioOf(EDD.class);
+	}
+
 }
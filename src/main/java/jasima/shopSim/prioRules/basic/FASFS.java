@@ -19,6 +19,7 @@ package jasima.shopSim.prioRules.basic;
 
 import jasima.shopSim.core.PR;
 import jasima.shopSim.core.PrioRuleTarget;
+import jasima.shopSim.core.PriorityQueue;
 
 /**
  * This class implements the First Arrival at Shop First Served rule.
@@ -34,4 +35,26 @@ public class FASFS extends PR {
 		return -job.getRelDate();
 	}
 
+	@Override
+	public void calcPrios(PrioRuleTarget[] jobs, int n, double[] prios) {
+		for (int i = 0; i < n; i++) {
+			prios[i] = -jobs[i].getRelDate();
+		}
+	}
+
+	@Override
+	public boolean hasBulkCalc() {
+		return isCalcPrioOf(FASFS.class);
+	}
+
+	@Override
+	public boolean isMachineInvariant() {
+		return isCalcPrioOf(FASFS.class);
+	}
+
+	@Override
+	public boolean isTimeInvariant(PriorityQueue<?> q) {
+		return isCalcPrioOf(FASFS.class);
+	}
+
 }
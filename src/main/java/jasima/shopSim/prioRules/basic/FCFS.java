@@ -19,6 +19,7 @@ package jasima.shopSim.prioRules.basic;
 
 import jasima.shopSim.core.PR;
 import jasima.shopSim.core.PrioRuleTarget;
+import jasima.shopSim.core.PriorityQueue;
 
 /**
  * This class implements the First Come First Served rule, also known as FIFO
@@ -35,4 +36,26 @@ public class FCFS extends PR {
 		return -j.getArriveTime();
 	}
 
+	@Override
+	public void calcPrios(PrioRuleTarget[] jobs, int n, double[] prios) {
+		for (int i = 0; i < n; i++) {
+			prios[i] = -jobs[i].getArriveTime();
+		}
+	}
+
+	@Override
+	public boolean hasBulkCalc() {
+		return isCalcPrioOf(FCFS.class);
+	}
+
+	@Override
+	public boolean isMachineInvariant() {
+		return isCalcPrioOf(FCFS.class);
+	}
+
+	@Override
+	public boolean isTimeInvariant(PriorityQueue<?> q) {
+		return isCalcPrioOf(FCFS.class);
+	}
+
 }
@@ -36,4 +36,33 @@ public class MOD extends PR {
 		return -Math.max(job.currProcTime(), job.getCurrentOperationDueDate() - job.getShop().simTime());
 	}
 
+	@Override
+	public void calcPrios(PrioRuleTarget[] jobs, int n, double[] prios) {
+		if (n == 0)
+			return;
+		final double now = jobs[0].getShop().simTime();
+
+		for (int i = 0; i < n; i++) {
+			final PrioRuleTarget job = jobs[i];
+			prios[i] = -Math.max(job.currProcTime(), job.getCurrentOperationDueDate() - now);
+		}
+	}
+
+	@Override
+	public boolean hasBulkCalc() {
+		return isCalcPrioOf(MOD.class);
+	}
+
+	@Override
+	public boolean isMachineInvariant() {
+		return isCalcPrioOf(MOD.class);
+	}
+
+	@Override
+	public double upperBound(PrioRuleTarget job) {
+		if (!isCalcPrioOf(MOD.class))
+			return Double.NaN;
+		return -job.currProcTime();
+	}
+
 }
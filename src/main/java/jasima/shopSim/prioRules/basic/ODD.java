@@ -19,6 +19,7 @@ package jasima.shopSim.prioRules.basic;
 
 import jasima.shopSim.core.PR;
 import jasima.shopSim.core.PrioRuleTarget;
+import jasima.shopSim.core.PriorityQueue;
 
 /**
  * This class implements the Operation Due Date rule. The idea to use due dates
@@ -36,4 +37,26 @@ public class ODD extends PR {
 		return -j.getCurrentOperationDueDate();
 	}
 
+	@Override
+	public void calcPrios(PrioRuleTarget[] jobs, int n, double[] prios) {
+		for (int i = 0; i < n; i++) {
+			prios[i] = -jobs[i].getCurrentOperationDueDate();
+		}
+	}
+
+	@Override
+	public boolean hasBulkCalc() {
+		return isCalcPrioOf(ODD.class);
+	}
+
+	@Override
+	public boolean isMachineInvariant() {
+		return isCalcPrioOf(ODD.class);
+	}
+
+	@Override
+	public boolean isTimeInvariant(PriorityQueue<?> q) {
+		return isCalcPrioOf(ODD.class);
+	}
+
 }
@@ -17,6 +17,8 @@ limitations under the License.
 */
 package jasima.shopSim.prioRules.basic;
 
+import jasima.shopSim.core.FeatureCache;
+import jasima.shopSim.core.FeatureCache.Feature;
 import jasima.shopSim.core.PR;
 import jasima.shopSim.core.PrioRuleTarget;
 
@@ -29,9 +31,29 @@ public class SLK extends PR {
 
 	private static final long serialVersionUID = 4022695033610482583L;
 
+	/** The slack of a job as a cached feature, see {@link #slack(PrioRuleTarget)}. */
+	public static final Feature SLACK = FeatureCache.feature("slack", SLK::slack);
+
 	@Override
 	public double calcPrio(PrioRuleTarget job) {
-		return -slack(job);
+		return -feature(job, SLACK);
+	}
+
+	@Override
+	public void calcPrios(PrioRuleTarget[] jobs, int n, double[] prios) {
+		for (int i = 0; i < n; i++) {
+			prios[i] = -feature(jobs[i], SLACK);
+		}
+	}
+
+	@Override
+	public boolean hasBulkCalc() {
+		return isCalcPrioOf(SLK.class);
+	}
+
+	@Override
+	public boolean isMachineInvariant() {
+		return isCalcPrioOf(SLK.class);
 	}
 
 	public static final double slack(PrioRuleTarget j) {
@@ -19,6 +19,7 @@ package jasima.shopSim.prioRules.basic;
 
 import jasima.shopSim.core.PR;
 import jasima.shopSim.core.PrioRuleTarget;
+import jasima.shopSim.core.PriorityQueue;
 
 /**
  * This class implements the Shortest Processing Time rule.
@@ -34,4 +35,26 @@ public class SPT extends PR {
 		return -job.currProcTime();
 	}
 
+	@Override
+	public void calcPrios(PrioRuleTarget[] jobs, int n, double[] prios) {
+		for (int i = 0; i < n; i++) {
+			prios[i] = -jobs[i].currProcTime();
+		}
+	}
+
+	@Override
+	public boolean hasBulkCalc() {
+		return isCalcPrioOf(SPT.class);
+	}
+
+	@Override
+	public boolean isMachineInvariant() {
+		return isCalcPrioOf(SPT.class);
+	}
+
+	@Override
+	public boolean isTimeInvariant(PriorityQueue<?> q) {
+		return isCalcPrioOf(SPT.class);
+	}
+
 }
@@ -37,4 +37,22 @@ public class SRPTPerPT extends PR {
 		return job.remainingProcTime() / job.currProcTime();
 	}
 
+	@Override
+	public void calcPrios(PrioRuleTarget[] jobs, int n, double[] prios) {
+		for (int i = 0; i < n; i++) {
+			final PrioRuleTarget job = jobs[i];
+			prios[i] = job.remainingProcTime() / job.currProcTime();
+		}
+	}
+
+	@Override
+	public boolean hasBulkCalc() {
+		return isCalcPrioOf(SRPTPerPT.class);
+	}
+
+	@Override
+	public boolean isMachineInvariant() {
+		return isCalcPrioOf(SRPTPerPT.class);
+	}
+
 }
@@ -37,7 +37,7 @@ public class SRPTPerSLK extends PR {
 
 	@Override
 	public double calcPrio(PrioRuleTarget job) {
-		return job.remainingProcTime() / SLK.slack(job);
+		return job.remainingProcTime() / feature(job, SLK.SLACK);
 	}
 
 }
@@ -19,6 +19,7 @@ package jasima.shopSim.prioRules.basic;
 
 import jasima.shopSim.core.PR;
 import jasima.shopSim.core.PrioRuleTarget;
+import jasima.shopSim.core.PriorityQueue;
 
 /**
  * This class implements a rule that sequences job in increasing order of their
@@ -45,4 +46,27 @@ public class TieBreakerFASFS extends PR {
 			return 1.0 / (j.getJobNum() + 1);
 	}
 
+	@Override
+	public void calcPrios(PrioRuleTarget[] jobs, int n, double[] prios) {
+		for (int i = 0; i < n; i++) {
+			final PrioRuleTarget j = jobs[i];
+			prios[i] = j.isFuture() ? -j.getJobNum() : 1.0 / (j.getJobNum() + 1);
+		}
+	}
+
+	@Override
+	public boolean hasBulkCalc() {
+		return isCalcPrioOf(TieBreakerFASFS.class);
+	}
+
+	@Override
+	public boolean isMachineInvariant() {
+		return isCalcPrioOf(TieBreakerFASFS.class);
+	}
+
+	@Override
+	public boolean isTimeInvariant(PriorityQueue<?> q) {
+		return isCalcPrioOf(TieBreakerFASFS.class);
+	}
+
 }
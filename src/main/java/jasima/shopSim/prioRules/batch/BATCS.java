@@ -57,6 +57,11 @@ public class BATCS extends ATCS {
 				+ Math.log((double) prt.numJobsInBatch() / prt.getCurrentOperation().getMaxBatchSize());
 	}
 
+	@Override
+	public boolean isMachineInvariant() {
+		return isCalcPrioOf(BATCS.class);
+	}
+
 	public double getEarliestODD(PrioRuleTarget j) {
 		double odd = j.job(0).getCurrentOperationDueDate();
 		for (int i = 1; i < j.numJobsInBatch(); i++) {
@@ -95,6 +100,11 @@ public class BATCS extends ATCS {
 					+ Math.log((double) prt.numJobsInBatch() / prt.getCurrentOperation().getMaxBatchSize());
 		}
 
+		@Override
+		public boolean isMachineInvariant() {
+			return isCalcPrioOf(Variant1.class);
+		}
+
 		public double getTotalOSlack(PrioRuleTarget b) {
 			double oSlack = 0;
 			for (int i = 0; i < b.numJobsInBatch(); i++) {
@@ -17,6 +17,7 @@ limitations under the License.
 */
 package jasima.shopSim.prioRules.batch;
 
+import jasima.shopSim.core.Job;
 import jasima.shopSim.core.PR;
 import jasima.shopSim.core.PrioRuleTarget;
 import jasima.shopSim.core.PriorityQueue;
@@ -46,8 +47,8 @@ public class LBF extends PR {
 			return 1;
 
 		int res = 0;
-		for (int i = 0; i < j.getCurrMachine().getJobsByFamily().get(family).size(); i++) {
-			if (!arrivesTooLate(j.getCurrMachine().getJobsByFamily().get(family).get(i)))
+		for (Job job : j.getCurrMachine().getBatchFamilyIndex().family(family)) {
+			if (!arrivesTooLate(job))
 				res++;
 		}
 		assert res >= 1;
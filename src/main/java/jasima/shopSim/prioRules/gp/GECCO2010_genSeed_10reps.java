@@ -17,9 +17,11 @@ limitations under the License.
 */
 package jasima.shopSim.prioRules.gp;
 
+import jasima.shopSim.core.FeatureCache;
 import jasima.shopSim.core.PrioRuleTarget;
 import jasima.shopSim.core.PriorityQueue;
 import jasima.shopSim.prioRules.upDownStream.PTPlusWINQPlusNPT;
+import jasima.shopSim.prioRules.upDownStream.WINQ;
 
 /**
  * A rule from "Towards Improved Dispatching Rules for Complex Shop Floor
@@ -38,11 +40,11 @@ public class GECCO2010_genSeed_10reps extends GPRuleBase {
 			return PriorityQueue.MIN_PRIO;
 
 		double p = j.currProcTime();
-		double winq = jasima.shopSim.prioRules.upDownStream.WINQ.winq(j);
+		double winq = feature(j, WINQ.WORK_IN_NEXT_QUEUE);
 		double tiq = j.getShop().simTime() - j.getArriveTime();
 		double npt = PTPlusWINQPlusNPT.npt(j);
 		double tis = j.getShop().simTime() - j.getRelDate();
-		double ol = j.numOpsLeft();
+		double ol = feature(j, FeatureCache.NUM_OPS_LEFT);
 
 		return -p * ((npt - npt / p) * winq + (max(p, ol - tiq) * (max(p - npt, p / (tis + p)) + 1) + 1));
 	}
@@ -17,8 +17,10 @@ limitations under the License.
 */
 package jasima.shopSim.prioRules.gp;
 
+import jasima.shopSim.core.FeatureCache;
 import jasima.shopSim.core.PrioRuleTarget;
 import jasima.shopSim.prioRules.upDownStream.PTPlusWINQPlusNPT;
+import jasima.shopSim.prioRules.upDownStream.WINQ;
 
 /**
  * A rule from "Towards Improved Dispatching Rules for Complex Shop Floor
@@ -34,11 +36,11 @@ public class GECCO2010_genSeed_2reps extends GPRuleBase {
 	@Override
 	public double calcPrio(PrioRuleTarget j) {
 		double p = j.currProcTime();
-		double winq = jasima.shopSim.prioRules.upDownStream.WINQ.winq(j);
+		double winq = feature(j, WINQ.WORK_IN_NEXT_QUEUE);
 		double tiq = j.getShop().simTime() - j.getArriveTime();
 		double npt = PTPlusWINQPlusNPT.npt(j);
 		double tis = j.getShop().simTime() - j.getRelDate();
-		double rpt = j.remainingProcTime();
+		double rpt = feature(j, FeatureCache.REM_PROC_TIME);
 
 		return max(winq, ifte(
 				(2 * p * tiq / (winq + 2 * p) + max(p, winq))
@@ -17,8 +17,10 @@ limitations under the License.
 */
 package jasima.shopSim.prioRules.gp;
 
+import jasima.shopSim.core.FeatureCache;
 import jasima.shopSim.core.PrioRuleTarget;
 import jasima.shopSim.prioRules.upDownStream.PTPlusWINQPlusNPT;
+import jasima.shopSim.prioRules.upDownStream.XWINQ;
 
 /**
  * A rule from "Towards Improved Dispatching Rules for Complex Shop Floor
@@ -34,10 +36,10 @@ public class GECCO2010_lookahead extends GPRuleBase {
 	@Override
 	public double calcPrio(PrioRuleTarget j) {
 		double p = j.currProcTime();
-		double winq2 = jasima.shopSim.prioRules.upDownStream.XWINQ.xwinq(j);
+		double winq2 = feature(j, XWINQ.EXT_WORK_IN_NEXT_QUEUE);
 		double tiq = j.getShop().simTime() - j.getArriveTime();
 		double npt = PTPlusWINQPlusNPT.npt(j);
-		double ol = j.numOpsLeft();
+		double ol = feature(j, FeatureCache.NUM_OPS_LEFT);
 
 		return p * (ifte(
 				tiq * (p / ((tiq + npt - 1) * (winq2 + npt)) + winq2)
@@ -0,0 +1,412 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.shopSim.prioRules.gp;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An immutable expression tree as generated by Genetic Programming. Inner
+ * nodes are the functions of {@link GPRuleBase} (see {@link Function}), leaves
+ * are either constants or {@link GPTerminal}s. Expressions can be created using
+ * the static factory methods of this class, e.g.,
+ * {@code mul(neg(terminal(P)), constant(2))}, or parsed from their string
+ * representation, e.g., {@code parse("mul(neg(p), 2)")}.
+ * <p>
+ * Expressions are evaluated using {@link GPExpressionRule}.
+ *
+ * @since 3.0
+ * @see GPExpressionRule
+ */
+public final class GPExpr implements Serializable {
+
+	private static final long serialVersionUID = -3585403525387101372L;
+
+	/**
+	 * The functions that can be used in expressions. Their semantics is the same
+	 * as of the static methods of the same name in {@link GPRuleBase}.
+	 */
+	public enum Function {
+		IFTE("ifte", 3), ADD("add", 2), SUB("sub", 2), MUL("mul", 2), DIV("div", 2),
+		DIV_PROTECTED("divProtected", 2), MAX("max", 2), MIN("min", 2), NEG("neg", 1), ABS("abs", 1);
+
+		private final String symbol;
+		private final int arity;
+
+		private Function(String symbol, int arity) {
+			this.symbol = symbol;
+			this.arity = arity;
+		}
+
+		public String symbol() {
+			return symbol;
+		}
+
+		public int arity() {
+			return arity;
+		}
+
+		/**
+		 * Applies this function to its arguments. Unused arguments are ignored.
+		 */
+		public double apply(double v1, double v2, double v3) {
+			switch (this) {
+			case IFTE:
+				return GPRuleBase.ifte(v1, v2, v3);
+			case ADD:
+				return GPRuleBase.add(v1, v2);
+			case SUB:
+				return GPRuleBase.sub(v1, v2);
+			case MUL:
+				return GPRuleBase.mul(v1, v2);
+			case DIV:
+				return GPRuleBase.div(v1, v2);
+			case DIV_PROTECTED:
+				return GPRuleBase.divProtected(v1, v2);
+			case MAX:
+				return GPRuleBase.max(v1, v2);
+			case MIN:
+				return GPRuleBase.min(v1, v2);
+			case NEG:
+				return GPRuleBase.neg(v1);
+			case ABS:
+				return GPRuleBase.abs(v1);
+			default:
+				throw new AssertionError(this);
+			}
+		}
+
+		/**
+		 * Returns the function with the given symbol.
+		 *
+		 * @param symbol The symbol, e.g., {@code "divProtected"}.
+		 * @return The function or {@code null} if there is no such function.
+		 */
+		public static Function bySymbol(String symbol) {
+			for (Function f : values()) {
+				if (f.symbol.equals(symbol))
+					return f;
+			}
+			return null;
+		}
+	}
+
+	private static final GPExpr[] NO_ARGS = {};
+
+	private final Function function;
+	private final GPTerminal terminal;
+	private final double value;
+	private final GPExpr[] args;
+
+	private GPExpr(Function function, GPTerminal terminal, double value, GPExpr[] args) {
+		super();
+		this.function = function;
+		this.terminal = terminal;
+		this.value = value;
+		this.args = args;
+	}
+
+	// factory methods
+
+	public static GPExpr constant(double value) {
+		return new GPExpr(null, null, value, NO_ARGS);
+	}
+
+	public static GPExpr terminal(GPTerminal t) {
+		return new GPExpr(null, requireNonNull(t), Double.NaN, NO_ARGS);
+	}
+
+	/**
+	 * Creates a new expression applying {@code f} to {@code args}.
+	 *
+	 * @throws IllegalArgumentException If the number of arguments does not match
+	 *                                  the arity of {@code f}.
+	 */
+	public static GPExpr apply(Function f, GPExpr... args) {
+		if (args.length != f.arity()) {
+			throw new IllegalArgumentException(
+					"Function '" + f.symbol() + "' requires " + f.arity() + " argument(s), found " + args.length);
+		}
+		for (GPExpr a : args) {
+			requireNonNull(a);
+		}
+		return new GPExpr(f, null, Double.NaN, args.clone());
+	}
+
+	public static GPExpr ifte(GPExpr cond, GPExpr ifVal, GPExpr elseVal) {
+		return apply(Function.IFTE, cond, ifVal, elseVal);
+	}
+
+	public static GPExpr add(GPExpr e1, GPExpr e2) {
+		return apply(Function.ADD, e1, e2);
+	}
+
+	public static GPExpr sub(GPExpr e1, GPExpr e2) {
+		return apply(Function.SUB, e1, e2);
+	}
+
+	public static GPExpr mul(GPExpr e1, GPExpr e2) {
+		return apply(Function.MUL, e1, e2);
+	}
+
+	public static GPExpr div(GPExpr e1, GPExpr e2) {
+		return apply(Function.DIV, e1, e2);
+	}
+
+	public static GPExpr divProtected(GPExpr e1, GPExpr e2) {
+		return apply(Function.DIV_PROTECTED, e1, e2);
+	}
+
+	public static GPExpr max(GPExpr e1, GPExpr e2) {
+		return apply(Function.MAX, e1, e2);
+	}
+
+	public static GPExpr min(GPExpr e1, GPExpr e2) {
+		return apply(Function.MIN, e1, e2);
+	}
+
+	public static GPExpr neg(GPExpr e) {
+		return apply(Function.NEG, e);
+	}
+
+	public static GPExpr abs(GPExpr e) {
+		return apply(Function.ABS, e);
+	}
+
+	// accessors
+
+	public boolean isConstant() {
+		return function == null && terminal == null;
+	}
+
+	public boolean isTerminal() {
+		return terminal != null;
+	}
+
+	/**
+	 * Returns the function of this node or {@code null} if it is a leaf.
+	 */
+	public Function getFunction() {
+		return function;
+	}
+
+	/**
+	 * Returns the terminal of this node or {@code null} if it is not a terminal.
+	 */
+	public GPTerminal getTerminal() {
+		return terminal;
+	}
+
+	/**
+	 * Returns the value of a constant, {@code NaN} otherwise.
+	 */
+	public double getValue() {
+		return value;
+	}
+
+	public int numArgs() {
+		return args.length;
+	}
+
+	public GPExpr getArg(int i) {
+		return args[i];
+	}
+
+	/**
+	 * Returns the total number of nodes in this expression tree.
+	 */
+	public int size() {
+		int res = 1;
+		for (GPExpr a : args) {
+			res += a.size();
+		}
+		return res;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (!(o instanceof GPExpr))
+			return false;
+		GPExpr e = (GPExpr) o;
+		return function == e.function && terminal == e.terminal
+				&& Double.doubleToLongBits(value) == Double.doubleToLongBits(e.value) && Arrays.equals(args, e.args);
+	}
+
+	@Override
+	public int hashCode() {
+		int h = function != null ? function.hashCode() : terminal != null ? terminal.hashCode() : 0;
+		h = 31 * h + Double.hashCode(value);
+		return 31 * h + Arrays.hashCode(args);
+	}
+
+	/**
+	 * Returns this expression in the syntax accepted by {@link #parse(String)}.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		appendTo(sb);
+		return sb.toString();
+	}
+
+	private void appendTo(StringBuilder sb) {
+		if (terminal != null) {
+			sb.append(terminal.symbol());
+		} else if (function == null) {
+			if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15) {
+				sb.append((long) value);
+			} else {
+				sb.append(value);
+			}
+		} else {
+			sb.append(function.symbol()).append('(');
+			for (int i = 0; i < args.length; i++) {
+				if (i > 0)
+					sb.append(", ");
+				args[i].appendTo(sb);
+			}
+			sb.append(')');
+		}
+	}
+
+	/**
+	 * Parses an expression in prefix notation, e.g.,
+	 * {@code "mul(neg(p), add(winq, 1.5))"}. Valid names are the symbols of
+	 * {@link Function} and {@link GPTerminal}.
+	 *
+	 * @param s The string to parse.
+	 * @return The expression.
+	 * @throws IllegalArgumentException If {@code s} is not a valid expression.
+	 */
+	public static GPExpr parse(String s) {
+		Parser p = new Parser(s);
+		GPExpr res = p.expr();
+		p.skipWhitespace();
+		if (p.pos < s.length()) {
+			throw p.error("end of input expected");
+		}
+		return res;
+	}
+
+	private static final class Parser {
+		private final String s;
+		private int pos;
+
+		Parser(String s) {
+			super();
+			this.s = s;
+			this.pos = 0;
+		}
+
+		GPExpr expr() {
+			skipWhitespace();
+			if (pos >= s.length()) {
+				throw error("expression expected");
+			}
+
+			char c = s.charAt(pos);
+			if (Character.isDigit(c) || c == '-' || c == '+' || c == '.') {
+				return constant(number());
+			}
+
+			String name = identifier();
+			skipWhitespace();
+			if (pos < s.length() && s.charAt(pos) == '(') {
+				Function f = Function.bySymbol(name);
+				if (f == null) {
+					throw error("unknown function '" + name + "'");
+				}
+				pos++;
+				List<GPExpr> args = new ArrayList<>();
+				skipWhitespace();
+				if (pos < s.length() && s.charAt(pos) == ')') {
+					pos++;
+				} else {
+					while (true) {
+						args.add(expr());
+						skipWhitespace();
+						if (pos < s.length() && s.charAt(pos) == ',') {
+							pos++;
+						} else if (pos < s.length() && s.charAt(pos) == ')') {
+							pos++;
+							break;
+						} else {
+							throw error("',' or ')' expected");
+						}
+					}
+				}
+				if (args.size() != f.arity()) {
+					throw error("function '" + name + "' requires " + f.arity() + " argument(s)");
+				}
+				return apply(f, args.toArray(NO_ARGS));
+			} else {
+				GPTerminal t = GPTerminal.bySymbol(name);
+				if (t == null) {
+					throw error("unknown terminal '" + name + "'");
+				}
+				return terminal(t);
+			}
+		}
+
+		private double number() {
+			int start = pos;
+			while (pos < s.length()) {
+				char c = s.charAt(pos);
+				if (Character.isDigit(c) || c == '.' || c == 'e' || c == 'E' || c == '-' || c == '+') {
+					pos++;
+				} else {
+					break;
+				}
+			}
+			try {
+				return Double.parseDouble(s.substring(start, pos));
+			} catch (NumberFormatException e) {
+				pos = start;
+				throw error("invalid number");
+			}
+		}
+
+		private String identifier() {
+			int start = pos;
+			while (pos < s.length() && Character.isJavaIdentifierPart(s.charAt(pos))) {
+				pos++;
+			}
+			if (start == pos) {
+				throw error("name expected");
+			}
+			return s.substring(start, pos);
+		}
+
+		void skipWhitespace() {
+			while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) {
+				pos++;
+			}
+		}
+
+		IllegalArgumentException error(String msg) {
+			return new IllegalArgumentException("Can't parse '" + s + "' at position " + pos + ": " + msg);
+		}
+	}
+
+}
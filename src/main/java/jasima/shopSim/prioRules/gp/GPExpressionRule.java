@@ -0,0 +1,286 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.shopSim.prioRules.gp;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jasima.shopSim.core.PrioRuleTarget;
+import jasima.shopSim.core.PriorityQueue;
+import jasima.shopSim.prioRules.gp.GPExpr.Function;
+
+/**
+ * A priority rule evaluating a {@link GPExpr}, so rules generated by Genetic
+ * Programming can be used without generating and compiling Java classes like
+ * {@link GECCO2010_genSeed_10reps}.
+ * <p>
+ * The expression tree is compiled to a flat register program when the rule is
+ * created: each terminal is computed once per call of {@link #calcPrio}, each
+ * distinct subexpression is computed once (common subexpression elimination),
+ * and subexpressions not depending on a terminal are computed at compile time
+ * (constant folding). Evaluation then is a single loop over an array of
+ * instructions without any recursion or object allocation.
+ *
+ * @since 3.0
+ * @see GPExpr
+ */
+public class GPExpressionRule extends GPRuleBase {
+
+	private static final long serialVersionUID = 2826049458226569561L;
+
+	private static final EnumSet<GPTerminal> TIME_INVARIANT_TERMINALS = EnumSet.of(GPTerminal.P, GPTerminal.NPT,
+			GPTerminal.OL, GPTerminal.RPT, GPTerminal.W);
+
+	private final GPExpr expr;
+
+	// the compiled program; registers are: terminals, constants, temporaries
+	private final GPTerminal[] terminals;
+	private final Function[] ops;
+	private final int[] arg1, arg2, arg3;
+	private final int firstTemp;
+	private final int result;
+	private final boolean timeInvariant;
+	private double[] regs;
+
+	public GPExpressionRule(String expr) {
+		this(GPExpr.parse(expr));
+	}
+
+	public GPExpressionRule(GPExpr expr) {
+		super();
+		this.expr = requireNonNull(expr);
+
+		Compiler c = new Compiler();
+		c.collect(expr);
+		int res = c.compile(expr);
+
+		int numTerms = c.terminals.size();
+		int numConsts = c.constants.size();
+		int numOps = c.ops.size();
+
+		terminals = c.terminals.toArray(new GPTerminal[numTerms]);
+		firstTemp = numTerms + numConsts;
+		ops = c.ops.toArray(new Function[numOps]);
+		arg1 = new int[numOps];
+		arg2 = new int[numOps];
+		arg3 = new int[numOps];
+		for (int i = 0; i < numOps; i++) {
+			int[] args = c.args.get(i);
+			arg1[i] = c.register(args[0]);
+			arg2[i] = args.length > 1 ? c.register(args[1]) : 0;
+			arg3[i] = args.length > 2 ? c.register(args[2]) : 0;
+		}
+		result = c.register(res);
+
+		regs = new double[firstTemp + numOps];
+		for (int i = 0; i < numConsts; i++) {
+			regs[numTerms + i] = c.constants.get(i);
+		}
+
+		timeInvariant = TIME_INVARIANT_TERMINALS.containsAll(c.terminals);
+	}
+
+	@Override
+	public double calcPrio(PrioRuleTarget j) {
+		final double[] r = regs;
+
+		for (int i = 0, n = terminals.length; i < n; i++) {
+			r[i] = terminals[i].value(this, j);
+		}
+
+		for (int i = 0, d = firstTemp, n = ops.length; i < n; i++, d++) {
+			final double v1 = r[arg1[i]];
+			final double v;
+			switch (ops[i]) {
+			case IFTE:
+				v = v1 >= 0.0d ? r[arg2[i]] : r[arg3[i]];
+				break;
+			case ADD:
+				v = v1 + r[arg2[i]];
+				break;
+			case SUB:
+				v = v1 - r[arg2[i]];
+				break;
+			case MUL:
+				v = v1 * r[arg2[i]];
+				break;
+			case DIV:
+				v = v1 / r[arg2[i]];
+				break;
+			case DIV_PROTECTED: {
+				final double v2 = r[arg2[i]];
+				v = v2 == 0.0 ? 1.0 : v1 / v2;
+				break;
+			}
+			case MAX:
+				v = Math.max(v1, r[arg2[i]]);
+				break;
+			case MIN:
+				v = Math.min(v1, r[arg2[i]]);
+				break;
+			case NEG:
+				v = -v1;
+				break;
+			case ABS:
+				v = Math.abs(v1);
+				break;
+			default:
+				throw new AssertionError(ops[i]);
+			}
+			r[d] = v;
+		}
+
+		return r[result];
+	}
+
+	/**
+	 * Returns {@code true} if the expression only uses terminals that don't
+	 * change while a job is waiting in a queue, i.e., processing times, the number
+	 * of operations left and job weights.
+	 */
+	@Override
+	public boolean isTimeInvariant(PriorityQueue<?> q) {
+		return timeInvariant && isCalcPrioOf(GPExpressionRule.class);
+	}
+
+	/**
+	 * Returns the expression evaluated by this rule.
+	 */
+	public GPExpr getExpr() {
+		return expr;
+	}
+
+	/**
+	 * Returns the number of instructions of the compiled program.
+	 */
+	public int programSize() {
+		return ops.length;
+	}
+
+	@Override
+	public String getName() {
+		return "GP(" + expr + ")";
+	}
+
+	@Override
+	public GPExpressionRule clone() {
+		GPExpressionRule clone = (GPExpressionRule) super.clone();
+		clone.regs = regs.clone();
+		return clone;
+	}
+
+	/**
+	 * Translates an expression tree to a register program. During compilation
+	 * operands are identified by "slots": slots >= 0 are temporaries (instruction
+	 * indexes), slots < 0 are terminals or constants. They are mapped to register
+	 * numbers when the program is complete.
+	 */
+	private static final class Compiler {
+		final List<GPTerminal> terminals = new ArrayList<>();
+		final List<Double> constants = new ArrayList<>();
+		final List<Function> ops = new ArrayList<>();
+		final List<int[]> args = new ArrayList<>();
+
+		private final Map<Object, Integer> slots = new HashMap<>();
+
+		/**
+		 * Collects all terminals first, so their order doesn't depend on the
+		 * structure of the tree.
+		 */
+		void collect(GPExpr e) {
+			if (e.isTerminal()) {
+				if (!terminals.contains(e.getTerminal()))
+					terminals.add(e.getTerminal());
+			} else {
+				for (int i = 0; i < e.numArgs(); i++) {
+					collect(e.getArg(i));
+				}
+			}
+		}
+
+		int compile(GPExpr e) {
+			if (e.isTerminal()) {
+				return -1 - terminals.indexOf(e.getTerminal());
+			}
+			if (e.isConstant()) {
+				return constant(e.getValue());
+			}
+
+			Function f = e.getFunction();
+			int[] as = new int[f.arity()];
+			boolean allConst = true;
+			for (int i = 0; i < as.length; i++) {
+				as[i] = compile(e.getArg(i));
+				allConst &= isConstant(as[i]);
+			}
+
+			// constant folding
+			if (allConst) {
+				return constant(f.apply(constValue(as[0]), as.length > 1 ? constValue(as[1]) : Double.NaN,
+						as.length > 2 ? constValue(as[2]) : Double.NaN));
+			}
+			if (f == Function.IFTE && isConstant(as[0])) {
+				return constValue(as[0]) >= 0.0d ? as[1] : as[2];
+			}
+
+			// common subexpression elimination
+			List<Object> key = new ArrayList<>(as.length + 1);
+			key.add(f);
+			for (int a : as) {
+				key.add(a);
+			}
+			Integer slot = slots.get(key);
+			if (slot == null) {
+				slot = ops.size();
+				ops.add(f);
+				args.add(as);
+				slots.put(key, slot);
+			}
+			return slot;
+		}
+
+		private int constant(double v) {
+			Long key = Double.doubleToLongBits(v);
+			Integer slot = slots.get(key);
+			if (slot == null) {
+				slot = -1 - terminals.size() - constants.size();
+				constants.add(v);
+				slots.put(key, slot);
+			}
+			return slot;
+		}
+
+		private boolean isConstant(int slot) {
+			return slot < -terminals.size();
+		}
+
+		private double constValue(int slot) {
+			return constants.get(-1 - slot - terminals.size());
+		}
+
+		int register(int slot) {
+			return slot < 0 ? -1 - slot : terminals.size() + constants.size() + slot;
+		}
+	}
+
+}
@@ -0,0 +1,167 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.shopSim.prioRules.gp;
+
+import jasima.shopSim.core.FeatureCache;
+import jasima.shopSim.core.PR;
+import jasima.shopSim.core.PrioRuleTarget;
+import jasima.shopSim.prioRules.basic.SLK;
+import jasima.shopSim.prioRules.upDownStream.PTPlusWINQPlusNPT;
+
+/**
+ * The standard terminals of GP-generated rules, see {@link GPExpr}. Their
+ * names are the same as the variable names used in rules like
+ * {@link GECCO2010_genSeed_2reps}.
+ *
+ * @since 3.0
+ */
+public enum GPTerminal {
+
+	/** Processing time of the current operation. */
+	P("p") {
+		@Override
+		public double value(PR rule, PrioRuleTarget j) {
+			return j.currProcTime();
+		}
+	},
+
+	/** Processing time of the next operation. */
+	NPT("npt") {
+		@Override
+		public double value(PR rule, PrioRuleTarget j) {
+			return PTPlusWINQPlusNPT.npt(j);
+		}
+	},
+
+	/**
+	 * Work in next queue, see
+	 * {@link jasima.shopSim.prioRules.upDownStream.WINQ#winq(PrioRuleTarget)}.
+	 */
+	WINQ("winq") {
+		@Override
+		public double value(PR rule, PrioRuleTarget j) {
+			return rule.feature(j, jasima.shopSim.prioRules.upDownStream.WINQ.WORK_IN_NEXT_QUEUE);
+		}
+	},
+
+	/**
+	 * Extended work in next queue, see
+	 * {@link jasima.shopSim.prioRules.upDownStream.XWINQ#xwinq(PrioRuleTarget)}.
+	 */
+	XWINQ("xwinq") {
+		@Override
+		public double value(PR rule, PrioRuleTarget j) {
+			return rule.feature(j, jasima.shopSim.prioRules.upDownStream.XWINQ.EXT_WORK_IN_NEXT_QUEUE);
+		}
+	},
+
+	/** Time in queue. */
+	TIQ("tiq") {
+		@Override
+		public double value(PR rule, PrioRuleTarget j) {
+			return j.getShop().simTime() - j.getArriveTime();
+		}
+	},
+
+	/** Time in system. */
+	TIS("tis") {
+		@Override
+		public double value(PR rule, PrioRuleTarget j) {
+			return j.getShop().simTime() - j.getRelDate();
+		}
+	},
+
+	/** Number of operations left (including the current one). */
+	OL("ol") {
+		@Override
+		public double value(PR rule, PrioRuleTarget j) {
+			return rule.feature(j, FeatureCache.NUM_OPS_LEFT);
+		}
+	},
+
+	/** Remaining processing time (including the current operation). */
+	RPT("rpt") {
+		@Override
+		public double value(PR rule, PrioRuleTarget j) {
+			return rule.feature(j, FeatureCache.REM_PROC_TIME);
+		}
+	},
+
+	/** Weight of a job. */
+	W("w") {
+		@Override
+		public double value(PR rule, PrioRuleTarget j) {
+			return j.getWeight();
+		}
+	},
+
+	/** Time until due date. */
+	TTD("ttd") {
+		@Override
+		public double value(PR rule, PrioRuleTarget j) {
+			return j.getDueDate() - j.getShop().simTime();
+		}
+	},
+
+	/** Slack, see {@link SLK#slack(PrioRuleTarget)}. */
+	SL("sl") {
+		@Override
+		public double value(PR rule, PrioRuleTarget j) {
+			return rule.feature(j, SLK.SLACK);
+		}
+	};
+
+	private final String symbol;
+
+	private GPTerminal(String symbol) {
+		this.symbol = symbol;
+	}
+
+	/**
+	 * Computes the value of this terminal.
+	 *
+	 * @param rule The rule evaluating the terminal (used to access the
+	 *             {@link FeatureCache}).
+	 * @param j    The job or batch.
+	 * @return The terminal's value.
+	 */
+	public abstract double value(PR rule, PrioRuleTarget j);
+
+	/**
+	 * Returns the name of this terminal as used in expressions, e.g.,
+	 * {@code "winq"}.
+	 */
+	public String symbol() {
+		return symbol;
+	}
+
+	/**
+	 * Returns the terminal with the given symbol.
+	 *
+	 * @param symbol The symbol, e.g., {@code "winq"}.
+	 * @return The terminal or {@code null} if there is no such terminal.
+	 */
+	public static GPTerminal bySymbol(String symbol) {
+		for (GPTerminal t : values()) {
+			if (t.symbol.equals(symbol))
+				return t;
+		}
+		return null;
+	}
+
+}
@@ -20,6 +20,7 @@ package jasima.shopSim.prioRules.gp;
 import java.util.HashMap;
 import java.util.Map;
 
+import jasima.shopSim.core.FeatureCache;
 import jasima.shopSim.core.Job;
 import jasima.shopSim.core.PrioRuleTarget;
 import jasima.shopSim.core.PriorityQueue;
@@ -105,9 +106,9 @@ public class WSC2010_GPRuleSize98 extends GPRuleBase {
 		double bf = numCompatible(j);
 		double ttd = j.getDueDate() - j.getShop().simTime();
 		double w = j.getWeight();
-		double sl = SLK.slack(j);
+		double sl = feature(j, SLK.SLACK);
 		double s = setupTime(j);
-		double rpt = j.remainingProcTime();
+		double rpt = feature(j, FeatureCache.REM_PROC_TIME);
 		double sAvg = setupAvg();
 
 		return ifte(max(1, rpt) - max(max(1, rpt), sl), w, bf) * bf * max(
@@ -53,6 +53,16 @@ public class Inverse extends PR {
 		getBaseRule().beforeCalc(q);
 	}
 
+	@Override
+	public boolean isTimeInvariant(PriorityQueue<?> q) {
+		return isCalcPrioOf(Inverse.class) && getBaseRule().isTimeInvariant(q);
+	}
+
+	@Override
+	public boolean isMachineInvariant() {
+		return isCalcPrioOf(Inverse.class) && getBaseRule().isMachineInvariant();
+	}
+
 	@Override
 	public String getName() {
 		return "INV_" + String.valueOf(getBaseRule());
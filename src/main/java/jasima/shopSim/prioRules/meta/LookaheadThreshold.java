@@ -19,6 +19,8 @@ package jasima.shopSim.prioRules.meta;
 
 import jasima.shopSim.core.PR;
 import jasima.shopSim.core.PrioRuleTarget;
+import jasima.shopSim.core.PriorityQueue;
+import jasima.shopSim.core.WorkStation;
 
 /**
  * This class implements a method to distinguish lookahead jobs that arrive
@@ -35,6 +37,28 @@ public abstract class LookaheadThreshold extends PR {
 		return arrivesTooLate(t) ? -1 : +1;
 	}
 
+	@Override
+	public boolean isMachineInvariant() {
+		return isCalcPrioOf(LookaheadThreshold.class);
+	}
+
+	/**
+	 * Priorities of future jobs depend on the current simulation time. Without
+	 * lookahead there are no future jobs, so each job gets a constant priority.
+	 */
+	@Override
+	public boolean isTimeInvariant(PriorityQueue<?> q) {
+		WorkStation ws = q.getWorkStation();
+		return isCalcPrioOf(LookaheadThreshold.class) && ws != null && ws.shop() != null && !ws.shop().isEnableLookAhead();
+	}
+
+	@Override
+	public double upperBound(PrioRuleTarget t) {
+		if (!isCalcPrioOf(LookaheadThreshold.class))
+			return Double.NaN;
+		return +1;
+	}
+
 	@Override
 	public abstract boolean arrivesTooLate(PrioRuleTarget prt);
 
@@ -107,6 +107,45 @@ public class ATCS extends PR {
 		// return job.getWeight() / job.currProcTime() * prod1 * prod2;
 	}
 
+	@Override
+	public void calcPrios(PrioRuleTarget[] jobs, int n, double[] prios) {
+		if (n == 0)
+			return;
+		final double now = jobs[0].getShop().simTime();
+		final double[] setupTimes = setupMatrix[getOwner().currMachine.setupState];
+
+		for (int i = 0; i < n; i++) {
+			final PrioRuleTarget job = jobs[i];
+			if (arrivesTooLate(job)) {
+				prios[i] = PriorityQueue.MIN_PRIO;
+			} else {
+				double slack = job.getCurrentOperationDueDate() - now - job.currProcTime();
+				double prod1 = -Math.max(slack, 0.0d) / slackNorm;
+				double prod2 = setupNorm != 0.0 ? -setupTimes[job.getCurrentOperation().getSetupState()] / setupNorm
+						: 0.0;
+				prios[i] = Math.log(job.getWeight() / job.currProcTime()) + prod1 + prod2;
+			}
+		}
+	}
+
+	@Override
+	public boolean hasBulkCalc() {
+		return isCalcPrioOf(ATCS.class);
+	}
+
+	@Override
+	public boolean isMachineInvariant() {
+		return isCalcPrioOf(ATCS.class);
+	}
+
+	@Override
+	public double upperBound(PrioRuleTarget job) {
+		if (!isCalcPrioOf(ATCS.class) || !(k1 > 0.0 && k2 > 0.0))
+			return Double.NaN;
+		// slack and setup terms are never positive if k1 and k2 are
+		return Math.log(job.getWeight() / job.currProcTime());
+	}
+
 	@Override
 	public String getName() {
 		return "ATCS(k1=" + k1 + ";k2=" + k2 + ")";
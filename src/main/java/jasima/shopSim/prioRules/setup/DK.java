@@ -46,6 +46,29 @@ public class DK extends PR {
 			return -(job.getDueDate() + k);
 	}
 
+	@Override
+	public void calcPrios(PrioRuleTarget[] jobs, int n, double[] prios) {
+		final int setupState = getOwner().currMachine.setupState;
+
+		for (int i = 0; i < n; i++) {
+			final PrioRuleTarget job = jobs[i];
+			if (job.getCurrentOperation().getSetupState() == setupState)
+				prios[i] = -job.getDueDate();
+			else
+				prios[i] = -(job.getDueDate() + k);
+		}
+	}
+
+	@Override
+	public boolean hasBulkCalc() {
+		return isCalcPrioOf(DK.class);
+	}
+
+	@Override
+	public boolean isMachineInvariant() {
+		return isCalcPrioOf(DK.class);
+	}
+
 	@Override
 	public String getName() {
 		return "DK(k=" + k + ")";
@@ -71,4 +71,30 @@ public class SNSPT extends PR {
 		return -(sRatio + (job.currProcTime() / procNorm));
 	}
 
+	@Override
+	public void calcPrios(PrioRuleTarget[] jobs, int n, double[] prios) {
+		final double[] setupTimes = setupMatrix[getOwner().currMachine.setupState];
+
+		for (int i = 0; i < n; i++) {
+			final PrioRuleTarget job = jobs[i];
+			if (arrivesTooLate(job)) {
+				prios[i] = PriorityQueue.MIN_PRIO;
+			} else {
+				double sRatio = setupNorm != 0.0 ? setupTimes[job.getCurrentOperation().getSetupState()] / setupNorm
+						: 0.0;
+				prios[i] = -(sRatio + (job.currProcTime() / procNorm));
+			}
+		}
+	}
+
+	@Override
+	public boolean hasBulkCalc() {
+		return isCalcPrioOf(SNSPT.class);
+	}
+
+	@Override
+	public boolean isMachineInvariant() {
+		return isCalcPrioOf(SNSPT.class);
+	}
+
 }
@@ -37,4 +37,24 @@ public class SSPT extends PR {
 				.getSetupState()] + job.currProcTime());
 	}
 
+	@Override
+	public void calcPrios(PrioRuleTarget[] jobs, int n, double[] prios) {
+		final double[] setupTimes = getOwner().getSetupMatrix()[getOwner().currMachine.setupState];
+
+		for (int i = 0; i < n; i++) {
+			final PrioRuleTarget job = jobs[i];
+			prios[i] = -(setupTimes[job.getCurrentOperation().getSetupState()] + job.currProcTime());
+		}
+	}
+
+	@Override
+	public boolean hasBulkCalc() {
+		return isCalcPrioOf(SSPT.class);
+	}
+
+	@Override
+	public boolean isMachineInvariant() {
+		return isCalcPrioOf(SSPT.class);
+	}
+
 }
@@ -32,4 +32,23 @@ public class SST extends PR {
 		return -getOwner().getSetupMatrix()[getOwner().currMachine.setupState][j.getCurrentOperation().getSetupState()];
 	}
 
+	@Override
+	public void calcPrios(PrioRuleTarget[] jobs, int n, double[] prios) {
+		final double[] setupTimes = getOwner().getSetupMatrix()[getOwner().currMachine.setupState];
+
+		for (int i = 0; i < n; i++) {
+			prios[i] = -setupTimes[jobs[i].getCurrentOperation().getSetupState()];
+		}
+	}
+
+	@Override
+	public boolean hasBulkCalc() {
+		return isCalcPrioOf(SST.class);
+	}
+
+	@Override
+	public boolean isMachineInvariant() {
+		return isCalcPrioOf(SST.class);
+	}
+
 }
@@ -42,6 +42,25 @@ public class SetupAvoidance extends PR {
 			return -1;
 	}
 
+	@Override
+	public void calcPrios(PrioRuleTarget[] jobs, int n, double[] prios) {
+		final int setupState = getOwner().currMachine.setupState;
+
+		for (int i = 0; i < n; i++) {
+			prios[i] = jobs[i].getCurrentOperation().getSetupState() == setupState ? +1 : -1;
+		}
+	}
+
+	@Override
+	public boolean hasBulkCalc() {
+		return isCalcPrioOf(SetupAvoidance.class);
+	}
+
+	@Override
+	public boolean isMachineInvariant() {
+		return isCalcPrioOf(SetupAvoidance.class);
+	}
+
 	@Override
 	public String getName() {
 		return "SA";
@@ -32,7 +32,7 @@ public class PTPlusWINQ extends PR {
 
 	@Override
 	public double calcPrio(PrioRuleTarget j) {
-		return -(j.currProcTime() + WINQ.winq(j));
+		return -(j.currProcTime() + feature(j, WINQ.WORK_IN_NEXT_QUEUE));
 	}
 
 }
@@ -33,7 +33,7 @@ public class PTPlusWINQPlusNPT extends PR {
 
 	@Override
 	public double calcPrio(PrioRuleTarget j) {
-		return -(2 * j.currProcTime() + WINQ.winq(j) + npt(j));
+		return -(2 * j.currProcTime() + feature(j, WINQ.WORK_IN_NEXT_QUEUE) + npt(j));
 	}
 
 	/**
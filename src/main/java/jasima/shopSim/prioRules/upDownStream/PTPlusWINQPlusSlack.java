@@ -33,7 +33,7 @@ public class PTPlusWINQPlusSlack extends PR {
 
 	@Override
 	public double calcPrio(PrioRuleTarget j) {
-		return -(j.currProcTime() + WINQ.winq(j)
+		return -(j.currProcTime() + feature(j, WINQ.WORK_IN_NEXT_QUEUE)
 				+ Math.min(j.getDueDate() - j.getShop().simTime() - j.remainingProcTime(), 0.0d));
 	}
 
@@ -17,6 +17,8 @@ limitations under the License.
 */
 package jasima.shopSim.prioRules.upDownStream;
 
+import jasima.shopSim.core.FeatureCache;
+import jasima.shopSim.core.FeatureCache.Feature;
 import jasima.shopSim.core.PR;
 import jasima.shopSim.core.PrioRuleTarget;
 import jasima.shopSim.core.WorkStation;
@@ -33,9 +35,12 @@ public class WINQ extends PR {
 
 	private static final long serialVersionUID = -8927775081368668059L;
 
+	/** WINQ as a cached feature, see {@link #winq(PrioRuleTarget)}. */
+	public static final Feature WORK_IN_NEXT_QUEUE = FeatureCache.feature("winq", WINQ::winq);
+
 	@Override
 	public double calcPrio(PrioRuleTarget job) {
-		return -winq(job);
+		return -feature(job, WORK_IN_NEXT_QUEUE);
 	}
 
 	/**
@@ -17,6 +17,8 @@ limitations under the License.
 */
 package jasima.shopSim.prioRules.upDownStream;
 
+import jasima.shopSim.core.FeatureCache;
+import jasima.shopSim.core.FeatureCache.Feature;
 import jasima.shopSim.core.PR;
 import jasima.shopSim.core.PrioRuleTarget;
 import jasima.shopSim.core.WorkStation;
@@ -37,9 +39,12 @@ public class XWINQ extends PR {
 
 	private static final long serialVersionUID = -83039692160872143L;
 
+	/** XWINQ as a cached feature, see {@link #xwinq(PrioRuleTarget)}. */
+	public static final Feature EXT_WORK_IN_NEXT_QUEUE = FeatureCache.feature("xwinq", XWINQ::xwinq);
+
 	@Override
 	public double calcPrio(PrioRuleTarget job) {
-		return -xwinq(job);
+		return -feature(job, EXT_WORK_IN_NEXT_QUEUE);
 	}
 
 	/**
@@ -36,4 +36,33 @@ public class WMDD extends PR {
 		return -Math.max(job.remainingProcTime(), job.getDueDate() - job.getShop().simTime()) / job.getWeight();
 	}
 
+	@Override
+	public void calcPrios(PrioRuleTarget[] jobs, int n, double[] prios) {
+		if (n == 0)
+			return;
+		final double now = jobs[0].getShop().simTime();
+
+		for (int i = 0; i < n; i++) {
+			final PrioRuleTarget job = jobs[i];
+			prios[i] = -Math.max(job.remainingProcTime(), job.getDueDate() - now) / job.getWeight();
+		}
+	}
+
+	@Override
+	public boolean hasBulkCalc() {
+		return isCalcPrioOf(WMDD.class);
+	}
+
+	@Override
+	public boolean isMachineInvariant() {
+		return isCalcPrioOf(WMDD.class);
+	}
+
+	@Override
+	public double upperBound(PrioRuleTarget job) {
+		if (!isCalcPrioOf(WMDD.class))
+			return Double.NaN;
+		return job.getWeight() > 0.0 ? -job.remainingProcTime() / job.getWeight() : Double.NaN;
+	}
+
 }
@@ -39,4 +39,33 @@ public class WMOD extends PR {
 				/ job.getWeight();
 	}
 
+	@Override
+	public void calcPrios(PrioRuleTarget[] jobs, int n, double[] prios) {
+		if (n == 0)
+			return;
+		final double now = jobs[0].getShop().simTime();
+
+		for (int i = 0; i < n; i++) {
+			final PrioRuleTarget job = jobs[i];
+			prios[i] = -Math.max(job.currProcTime(), job.getCurrentOperationDueDate() - now) / job.getWeight();
+		}
+	}
+
+	@Override
+	public boolean hasBulkCalc() {
+		return isCalcPrioOf(WMOD.class);
+	}
+
+	@Override
+	public boolean isMachineInvariant() {
+		return isCalcPrioOf(WMOD.class);
+	}
+
+	@Override
+	public double upperBound(PrioRuleTarget job) {
+		if (!isCalcPrioOf(WMOD.class))
+			return Double.NaN;
+		return job.getWeight() > 0.0 ? -job.currProcTime() / job.getWeight() : Double.NaN;
+	}
+
 }
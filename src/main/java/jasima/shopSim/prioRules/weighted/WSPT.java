@@ -39,4 +39,28 @@ public class WSPT extends PR {
 			return PriorityQueue.MAX_PRIO;
 	}
 
+	@Override
+	public void calcPrios(PrioRuleTarget[] jobs, int n, double[] prios) {
+		for (int i = 0; i < n; i++) {
+			final PrioRuleTarget job = jobs[i];
+			double p = job.currProcTime();
+			prios[i] = p > 0 ? job.getWeight() / p : PriorityQueue.MAX_PRIO;
+		}
+	}
+
+	@Override
+	public boolean hasBulkCalc() {
+		return isCalcPrioOf(WSPT.class);
+	}
+
+	@Override
+	public boolean isMachineInvariant() {
+		return isCalcPrioOf(WSPT.class);
+	}
+
+	@Override
+	public boolean isTimeInvariant(PriorityQueue<?> q) {
+		return isCalcPrioOf(WSPT.class);
+	}
+
 }
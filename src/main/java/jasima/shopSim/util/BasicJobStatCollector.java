@@ -19,6 +19,7 @@ package jasima.shopSim.util;
 
 import java.util.Map;
 
+import jasima.core.simulation.Checkpointable;
 import jasima.core.simulation.SimComponent;
 import jasima.core.statistics.SummaryStat;
 import jasima.shopSim.core.Job;
@@ -33,7 +34,7 @@ import jasima.shopSim.core.ShopListenerBase;
  * @author Torsten Hildebrandt
  * @see ExtendedJobStatCollector
  */
-public class BasicJobStatCollector extends ShopListenerBase {
+public class BasicJobStatCollector extends ShopListenerBase implements Checkpointable {
 
 	private SummaryStat flowtime;
 	private SummaryStat tardiness;
@@ -86,6 +87,21 @@ public class BasicJobStatCollector extends ShopListenerBase {
 		res.put("cMax", cMax);
 	}
 
+	@Override
+	public Object saveState() {
+		return new Object[] { flowtime.clone(), tardiness.clone(), numTardy, numFinished, cMax };
+	}
+
+	@Override
+	public void restoreState(Object state) {
+		Object[] s = (Object[]) state;
+		flowtime = ((SummaryStat) s[0]).clone();
+		tardiness = ((SummaryStat) s[1]).clone();
+		numTardy = (Integer) s[2];
+		numFinished = (Integer) s[3];
+		cMax = (Double) s[4];
+	}
+
 	@Override
 	public String toString() {
 		return "BasicJobStatCollector";
@@ -19,6 +19,7 @@ package jasima.shopSim.util;
 
 import java.util.Map;
 
+import jasima.core.simulation.Checkpointable;
 import jasima.core.simulation.SimComponent;
 import jasima.core.statistics.SummaryStat;
 import jasima.shopSim.core.Job;
@@ -47,7 +48,7 @@ import jasima.shopSim.core.WorkStation;
  * @author Torsten Hildebrandt
  * @see BasicJobStatCollector
  */
-public class ExtendedJobStatCollector extends ShopListenerBase {
+public class ExtendedJobStatCollector extends ShopListenerBase implements Checkpointable {
 
 	private SummaryStat lateness;
 	private SummaryStat noProcTime;
@@ -153,6 +154,26 @@ public class ExtendedJobStatCollector extends ShopListenerBase {
 		res.put("weightedNumTardy", numTardyWeighted);
 	}
 
+	@Override
+	public Object saveState() {
+		return new Object[] { noProcTime.clone(), lateness.clone(), weightedFlowtime.clone(),
+				weightedTardiness.clone(), conditionalTardiness.clone(), weightedConditionalTardiness.clone(),
+				numTardyWeighted, shop };
+	}
+
+	@Override
+	public void restoreState(Object state) {
+		Object[] s = (Object[]) state;
+		noProcTime = ((SummaryStat) s[0]).clone();
+		lateness = ((SummaryStat) s[1]).clone();
+		weightedFlowtime = ((SummaryStat) s[2]).clone();
+		weightedTardiness = ((SummaryStat) s[3]).clone();
+		conditionalTardiness = ((SummaryStat) s[4]).clone();
+		weightedConditionalTardiness = ((SummaryStat) s[5]).clone();
+		numTardyWeighted = (Double) s[6];
+		shop = (Shop) s[7];
+	}
+
 	@Override
 	public String toString() {
 		return "ExtendedJobStatCollector";
@@ -19,6 +19,7 @@ package jasima.shopSim.util;
 
 import java.util.Map;
 
+import jasima.core.simulation.Checkpointable;
 import jasima.core.simulation.SimComponent;
 import jasima.core.statistics.SummaryStat;
 import jasima.core.statistics.TimeWeightedSummaryStat;
@@ -35,7 +36,7 @@ import jasima.shopSim.core.WorkStationListener;
  * 
  * @author Torsten Hildebrandt
  */
-public class MachineStatCollector implements WorkStationListener, Cloneable {
+public class MachineStatCollector implements WorkStationListener, Cloneable, Checkpointable {
 
 	/*
 	 * Continuous statistic time average number of number of machines busy at each
@@ -132,6 +133,24 @@ public class MachineStatCollector implements WorkStationListener, Cloneable {
 		aveMachinesBusy.value(m.numBusy(), m.shop().simTime());
 	}
 
+	@Override
+	public Object saveState() {
+		return new SummaryStat[] { aveMachinesBusy.clone(), aniq.clone(), stationDelay.clone(),
+				capacityUtilized.clone(), aveBatchSize.clone(), setupTime.clone(), procTime.clone() };
+	}
+
+	@Override
+	public void restoreState(Object state) {
+		SummaryStat[] s = (SummaryStat[]) state;
+		aveMachinesBusy = (TimeWeightedSummaryStat) s[0].clone();
+		aniq = (TimeWeightedSummaryStat) s[1].clone();
+		stationDelay = s[2].clone();
+		capacityUtilized = s[3].clone();
+		aveBatchSize = s[4].clone();
+		setupTime = s[5].clone();
+		procTime = s[6].clone();
+	}
+
 	@Override
 	public MachineStatCollector clone() {
 		try {
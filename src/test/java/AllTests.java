@@ -26,9 +26,11 @@ import org.junit.runners.Suite.SuiteClasses;
  */
 @RunWith(Suite.class)
 @SuiteClasses({ HolthausSimpleTest.class, JobShopTests.class, TestStaticInsts.class, TestStaticInstsTraces.class,
-		TestOrderIndependence.class, TestSetups.class, TestBatching.class, TestBestOfFamilyBatching.class,
-		TestGECCOContinuity.class, TestWinterSim2010Continuity.class, TestMIMAC.class, TestForAllResults.class,
-		TestMimacFab4Trace.class, jasima.core.experiment.AllTests.class, TestDetailedTraces.class, TestDowntimes.class,
+		TestOrderIndependence.class, TestTimeInvariantRules.class, TestFeatureCache.class, TestGPExpressionRule.class,
+		TestBulkCalc.class, TestParallelMachines.class, TestBatchDispatch.class, TestSetups.class,
+		TestBatchFamilyIndex.class, TestBatching.class, TestBestOfFamilyBatching.class, TestGECCOContinuity.class,
+		TestWinterSim2010Continuity.class, TestMIMAC.class, TestForAllResults.class, TestMimacFab4Trace.class,
+		jasima.core.experiment.AllTests.class, TestDetailedTraces.class, TestDowntimes.class,
 		jasima.core.util.AllTests.class, jasima.core.statistics.AllTests.class, jasima.core.simulation.AllTests.class,
 		jasima.core.random.continuous.AllTests.class, jasima.core.run.AllTests.class })
 public class AllTests {
@@ -0,0 +1,86 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+import static org.junit.Assert.assertEquals;
+
+import java.util.Map;
+
+import jasima.core.statistics.SummaryStat;
+import jasima.shopSim.core.PR;
+import jasima.shopSim.models.dynamicShop.DynamicShopExperiment;
+import jasima.shopSim.models.dynamicShop.DynamicShopExperiment.Scenario;
+import jasima.shopSim.prioRules.meta.IgnoreFutureJobs;
+
+/**
+ * Runs the dynamic job shop used by tests comparing optimized rule and queue
+ * implementations with straightforward ones.
+ */
+public class ShopTestHelper {
+
+	private ShopTestHelper() {
+	}
+
+	public static Map<String, Object> runShop(PR rule) {
+		return runShop(rule, false);
+	}
+
+	public static Map<String, Object> runShop(PR rule, boolean lookahead) {
+		DynamicShopExperiment e = createShop(rule, lookahead);
+		e.runExperiment();
+		return e.getResults();
+	}
+
+	/**
+	 * Creates a job shop with 8 machines at 95% utilization running until 3000
+	 * jobs have arrived. With lookahead enabled, {@code rule} is wrapped in
+	 * {@link IgnoreFutureJobs}.
+	 */
+	public static DynamicShopExperiment createShop(PR rule, boolean lookahead) {
+		DynamicShopExperiment e = new DynamicShopExperiment();
+		e.setInitialSeed(23);
+		e.setNumMachines(8);
+		e.setNumOps(2, 8);
+		e.setUtilLevel(0.95);
+		e.setScenario(Scenario.JOB_SHOP);
+		e.setStopArrivalsAfterNumJobs(3000);
+		e.setEnableLookAhead(lookahead);
+		e.setSequencingRule(lookahead ? new IgnoreFutureJobs(rule) : rule);
+		return e;
+	}
+
+	/**
+	 * Checks that flowtimes and tardiness of both runs are the same.
+	 */
+	public static void assertSameResults(Map<String, Object> expected, Map<String, Object> actual) {
+		assertSameStats(expected, actual, "flowtime", "tardiness");
+	}
+
+	/**
+	 * Checks that the {@link SummaryStat} results {@code names} of both runs have
+	 * the same number of values, mean and maximum.
+	 */
+	public static void assertSameStats(Map<String, Object> expected, Map<String, Object> actual, String... names) {
+		for (String name : names) {
+			SummaryStat s1 = (SummaryStat) expected.get(name);
+			SummaryStat s2 = (SummaryStat) actual.get(name);
+			assertEquals(name + ".numObs", s1.numObs(), s2.numObs());
+			assertEquals(name + ".mean", s1.mean(), s2.mean(), 1e-6);
+			assertEquals(name + ".max", s1.max(), s2.max(), 1e-6);
+		}
+	}
+
+}
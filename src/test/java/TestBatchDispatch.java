@@ -0,0 +1,59 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+import java.util.Map;
+
+import org.junit.Test;
+
+import jasima.core.simulation.Simulation;
+import jasima.shopSim.models.dynamicShop.DynamicShopExperiment;
+import jasima.shopSim.prioRules.basic.SPT;
+import jasima.shopSim.prioRules.basic.TieBreakerFASFS;
+
+/**
+ * Checks that shop models produce the same results if
+ * {@link Simulation#setBatchDispatch(boolean) batch dispatch} is enabled.
+ */
+public class TestBatchDispatch {
+
+	@Test
+	public void testSameResults() {
+		check(false);
+	}
+
+	@Test
+	public void testSameResultsWithLookahead() {
+		check(true);
+	}
+
+	private void check(boolean lookahead) {
+		Map<String, Object> expected = ShopTestHelper.runShop(rule(), lookahead);
+
+		DynamicShopExperiment e = ShopTestHelper.createShop(rule(), lookahead);
+		e.addInitAction(sim -> sim.setBatchDispatch(true));
+		e.runExperiment();
+
+		ShopTestHelper.assertSameResults(expected, e.getResults());
+	}
+
+	private static SPT rule() {
+		SPT spt = new SPT();
+		spt.setFinalTieBreaker(new TieBreakerFASFS());
+		return spt;
+	}
+
+}
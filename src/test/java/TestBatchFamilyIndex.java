@@ -0,0 +1,105 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import jasima.shopSim.core.BatchFamilyIndex;
+import jasima.shopSim.core.BatchFamilyIndex.Family;
+import jasima.shopSim.core.Job;
+import jasima.shopSim.core.Operation;
+
+/**
+ * Tests for {@link BatchFamilyIndex}.
+ */
+public class TestBatchFamilyIndex {
+
+	@Test
+	public void testAddRemove() {
+		BatchFamilyIndex idx = new BatchFamilyIndex();
+		Job a1 = job("a", 1.0, 10.0);
+		Job b1 = job("b", 2.0, 20.0);
+		Job a2 = job("a", 3.0, 30.0);
+		Job a3 = job("a", 4.0, 40.0);
+		idx.add(a1);
+		idx.add(b1);
+		idx.add(a2);
+		idx.add(a3);
+
+		assertEquals(4, idx.size());
+		assertEquals(2, idx.numFamilies());
+		Family a = idx.family("a");
+		assertEquals(0, a.id());
+		assertEquals(1, idx.family("b").id());
+		assertSame(a, idx.familyOf(a2));
+		assertEquals(Arrays.asList(a1, a2, a3), jobs(a));
+		assertEquals(8.0, a.workContent(), 1e-9);
+		assertEquals(80.0 / 3, a.meanDueDate(), 1e-9);
+		assertEquals(3, a.numArrived());
+
+		// remove from the middle, the front and the end
+		assertTrue(idx.remove(a2));
+		assertFalse(idx.remove(a2));
+		assertEquals(Arrays.asList(a1, a3), jobs(a));
+		assertTrue(idx.remove(a1));
+		assertSame(a3, a.first());
+		assertTrue(idx.remove(a3));
+		assertNull(a.first());
+		assertEquals(0, a.numJobs());
+		assertEquals(0.0, a.workContent(), 0.0);
+		assertTrue(Double.isNaN(a.meanDueDate()));
+		assertNull(idx.familyOf(a1));
+
+		// ids stay stable
+		idx.add(a2);
+		assertSame(a, idx.familyOf(a2));
+		assertEquals(2, idx.numFamilies());
+		assertEquals(2, idx.size());
+		assertEquals(Arrays.asList(a2), jobs(a));
+	}
+
+	private static List<Job> jobs(Family f) {
+		List<Job> res = new ArrayList<>();
+		for (Job j : f) {
+			res.add(j);
+		}
+		assertEquals(f.numJobs(), res.size());
+		return res;
+	}
+
+	private static Job job(String family, double procTime, double dueDate) {
+		Operation o = new Operation();
+		o.setBatchFamily(family);
+		o.setProcTime(procTime);
+
+		Job j = new Job(null);
+		j.setOps(new Operation[] { o });
+		j.setTaskNumber(0);
+		j.setDueDate(dueDate);
+		return j;
+	}
+
+}
@@ -0,0 +1,156 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Map;
+
+import org.junit.Test;
+
+import jasima.shopSim.core.PR;
+import jasima.shopSim.core.PrioRuleTarget;
+import jasima.shopSim.core.PriorityQueue;
+import jasima.shopSim.models.staticShop.StaticShopExperiment;
+import jasima.shopSim.prioRules.basic.ATC;
+import jasima.shopSim.prioRules.basic.EDD;
+import jasima.shopSim.prioRules.basic.FASFS;
+import jasima.shopSim.prioRules.basic.FCFS;
+import jasima.shopSim.prioRules.basic.MDD;
+import jasima.shopSim.prioRules.basic.MOD;
+import jasima.shopSim.prioRules.basic.ODD;
+import jasima.shopSim.prioRules.basic.SLK;
+import jasima.shopSim.prioRules.basic.SPT;
+import jasima.shopSim.prioRules.basic.SRPT;
+import jasima.shopSim.prioRules.basic.SRPTPerPT;
+import jasima.shopSim.prioRules.basic.TieBreakerFASFS;
+import jasima.shopSim.prioRules.batch.BATCS;
+import jasima.shopSim.prioRules.setup.ATCS;
+import jasima.shopSim.prioRules.setup.DK;
+import jasima.shopSim.prioRules.setup.SNSPT;
+import jasima.shopSim.prioRules.setup.SSPT;
+import jasima.shopSim.prioRules.setup.SST;
+import jasima.shopSim.prioRules.setup.SetupAvoidance;
+import jasima.shopSim.prioRules.weighted.LW;
+import jasima.shopSim.prioRules.weighted.WMDD;
+import jasima.shopSim.prioRules.weighted.WMOD;
+import jasima.shopSim.prioRules.weighted.WSPT;
+
+/**
+ * Checks that {@link PR#calcPrios(PrioRuleTarget[], int, double[])} computes
+ * the same priorities as {@link PR#calcPrio(PrioRuleTarget)}.
+ */
+public class TestBulkCalc {
+
+	// rules are cloned for each machine, so count globally
+	private static int numChecked;
+
+	/**
+	 * Compares the results of both methods for all rules before this one in a
+	 * rule chain.
+	 */
+	@SuppressWarnings("serial")
+	private static class Checker extends PR {
+		@Override
+		public void beforeCalc(PriorityQueue<?> q) {
+			int n = q.size();
+			PrioRuleTarget[] entries = new PrioRuleTarget[n];
+			for (int i = 0; i < n; i++) {
+				entries[i] = q.get(i);
+			}
+			double[] prios = new double[n];
+
+			for (PR r = q.getSequencingRule(); r != this; r = r.getTieBreaker()) {
+				assertTrue(r.toString(), r.hasBulkCalc());
+				r.calcPrios(entries, n, prios);
+				for (int i = 0; i < n; i++) {
+					assertEquals(r.getName(), r.calcPrio(entries[i]), prios[i], 0.0);
+				}
+				numChecked++;
+			}
+		}
+
+		@Override
+		public double calcPrio(PrioRuleTarget entry) {
+			return 0;
+		}
+	}
+
+	@Test
+	public void testBasicAndWeightedRules() {
+		PR rule = chain(new SLK(), new FCFS(), new EDD(), new FASFS(), new ODD(), new SPT(), new SRPT(),
+				new SRPTPerPT(), new MDD(), new MOD(), new ATC(2.0), new LW(), new WSPT(), new WMDD(), new WMOD(),
+				new TieBreakerFASFS(), new Checker());
+
+		numChecked = 0;
+		ShopTestHelper.runShop(rule);
+		assertTrue(numChecked > 0);
+	}
+
+	@Test
+	public void testSetupRules() throws Exception {
+		PR rule = chain(new SST(), new SSPT(), new SetupAvoidance(), new DK(2.0), new SNSPT(), new ATCS(),
+				new Checker());
+
+		numChecked = 0;
+		StaticShopExperiment e = TestStaticInsts.createTstModel(new File("testInstances/01x04setups.txt"), rule);
+		e.runExperiment();
+		assertTrue(numChecked > 0);
+	}
+
+	@SuppressWarnings("serial")
+	@Test
+	public void testOverriddenCalcPrio() {
+		assertTrue(new SPT().hasBulkCalc());
+		assertFalse(new SPT() {
+			@Override
+			public double calcPrio(PrioRuleTarget job) {
+				return job.currProcTime();
+			}
+		}.hasBulkCalc());
+
+		// calcPrios() of ATCS doesn't know about batches
+		assertTrue(new ATCS().hasBulkCalc());
+		assertFalse(new BATCS(1.0, 1.0).hasBulkCalc());
+		assertFalse(new BATCS.Variant1(1.0, 1.0).hasBulkCalc());
+	}
+
+	@SuppressWarnings("serial")
+	@Test
+	public void testSameResults() {
+		Map<String, Object> res1 = ShopTestHelper.runShop(chain(new SLK(), new MDD(), new TieBreakerFASFS()));
+		Map<String, Object> res2 = ShopTestHelper.runShop(chain(new SLK(), new MDD(), new TieBreakerFASFS(), new PR() {
+			// prevents bulk computation
+			@Override
+			public double calcPrio(PrioRuleTarget entry) {
+				return 0;
+			}
+		}));
+
+		ShopTestHelper.assertSameResults(res2, res1);
+	}
+
+	private static PR chain(PR... rules) {
+		for (int i = 1; i < rules.length; i++) {
+			rules[0].setFinalTieBreaker(rules[i]);
+		}
+		return rules[0];
+	}
+
+}
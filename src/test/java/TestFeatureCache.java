@@ -0,0 +1,120 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import jasima.shopSim.core.FeatureCache;
+import jasima.shopSim.core.FeatureCache.Feature;
+import jasima.shopSim.core.PR;
+import jasima.shopSim.core.PrioRuleTarget;
+import jasima.shopSim.core.WorkStation;
+import jasima.shopSim.prioRules.basic.SLK;
+import jasima.shopSim.prioRules.basic.TieBreakerFASFS;
+import jasima.shopSim.prioRules.upDownStream.PTPlusWINQPlusSlack;
+import jasima.shopSim.prioRules.upDownStream.WINQ;
+
+/**
+ * Tests for {@link FeatureCache}.
+ */
+@SuppressWarnings("serial")
+public class TestFeatureCache {
+
+	// rules are cloned for each machine, so count globally
+	private static int numComputed;
+	private static int numComputedNaN;
+	private static final int[] numCalls = new int[2];
+
+	private static final Feature COUNTED_SLACK = FeatureCache.feature("countedSlack", j -> {
+		numComputed++;
+		return SLK.slack(j);
+	});
+
+	private static final Feature COUNTED_NAN = FeatureCache.feature("countedNaN", j -> {
+		numComputedNaN++;
+		return Double.NaN;
+	});
+
+	/** Uses the same feature as its tie breaker. */
+	private static class CountingRule extends PR {
+		private final int idx;
+
+		CountingRule(int idx) {
+			super();
+			this.idx = idx;
+		}
+
+		@Override
+		public double calcPrio(PrioRuleTarget entry) {
+			numCalls[idx]++;
+			feature(entry, COUNTED_NAN);
+			return -Math.round(feature(entry, COUNTED_SLACK) / 100.0);
+		}
+	}
+
+	@Test
+	public void testNotCachedOutsideOfSelection() {
+		WorkStation ws = new WorkStation(1);
+		FeatureCache cache = ws.getFeatureCache();
+		assertFalse(cache.isActive());
+
+		int[] n = { 0 };
+		Feature f = FeatureCache.feature("test", j -> ++n[0]);
+		assertEquals(1.0, cache.get(null, f), 0.0);
+		assertEquals(2.0, cache.get(null, f), 0.0);
+	}
+
+	@Test
+	public void testComputedOncePerSelection() {
+		CountingRule r1 = new CountingRule(0);
+		CountingRule r2 = new CountingRule(1);
+		r1.setTieBreaker(r2);
+		r2.setTieBreaker(new TieBreakerFASFS());
+
+		numComputed = numComputedNaN = 0;
+		numCalls[0] = numCalls[1] = 0;
+		ShopTestHelper.runShop(r1);
+
+		assertTrue(numCalls[0] > 0);
+		assertEquals("numCalls", numCalls[0], numCalls[1]);
+		assertEquals("numComputed", numCalls[0], numComputed);
+		// NaN is a valid value, not a marker of missing values
+		assertEquals("numComputedNaN", numCalls[0], numComputedNaN);
+	}
+
+	@Test
+	public void testSameResults() {
+		Map<String, Object> res1 = ShopTestHelper
+				.runShop(new PTPlusWINQPlusSlack().setFinalTieBreaker(new TieBreakerFASFS()));
+		Map<String, Object> res2 = ShopTestHelper.runShop(new PR() {
+			@Override
+			public double calcPrio(PrioRuleTarget j) {
+				// uncached computation
+				return -(j.currProcTime() + WINQ.winq(j)
+						+ Math.min(j.getDueDate() - j.getShop().simTime() - j.remainingProcTime(), 0.0d));
+			}
+		}.setFinalTieBreaker(new TieBreakerFASFS()));
+
+		ShopTestHelper.assertSameResults(res2, res1);
+	}
+
+}
@@ -0,0 +1,91 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+import static jasima.shopSim.prioRules.gp.GPExpr.add;
+import static jasima.shopSim.prioRules.gp.GPExpr.constant;
+import static jasima.shopSim.prioRules.gp.GPExpr.mul;
+import static jasima.shopSim.prioRules.gp.GPExpr.neg;
+import static jasima.shopSim.prioRules.gp.GPExpr.terminal;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import jasima.shopSim.core.PR;
+import jasima.shopSim.core.WorkStation;
+import jasima.shopSim.prioRules.basic.TieBreakerFASFS;
+import jasima.shopSim.prioRules.gp.GECCO2010_genSeed_10reps;
+import jasima.shopSim.prioRules.gp.GPExpr;
+import jasima.shopSim.prioRules.gp.GPExpressionRule;
+import jasima.shopSim.prioRules.gp.GPTerminal;
+
+/**
+ * Tests for {@link GPExpr} and {@link GPExpressionRule}.
+ */
+public class TestGPExpressionRule {
+
+	private static final String GECCO2010_GENSEED_10REPS = "mul(neg(p), add(mul(sub(npt, div(npt, p)), winq), "
+			+ "add(mul(max(p, sub(ol, tiq)), add(max(sub(p, npt), div(p, add(tis, p))), 1)), 1)))";
+
+	@Test
+	public void testParse() {
+		GPExpr e = GPExpr.parse(GECCO2010_GENSEED_10REPS);
+		assertEquals(GECCO2010_GENSEED_10REPS, e.toString());
+		assertEquals(e, GPExpr.parse(e.toString()));
+		assertEquals(mul(neg(terminal(GPTerminal.P)), add(terminal(GPTerminal.WINQ), constant(1.5))),
+				GPExpr.parse(" mul( neg(p),add(winq,1.5 ))"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseUnknownTerminal() {
+		GPExpr.parse("add(p, foo)");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseWrongArity() {
+		GPExpr.parse("add(p)");
+	}
+
+	@Test
+	public void testCompile() {
+		// constants folded, common subexpression computed once
+		GPExpressionRule r = new GPExpressionRule("add(mul(add(2, 3), p), ifte(sub(1, 2), w, mul(add(2, 3), p)))");
+		assertEquals(2, r.programSize());
+		assertEquals(0, new GPExpressionRule("divProtected(add(1, 2), 0)").programSize());
+	}
+
+	@Test
+	public void testTimeInvariant() {
+		WorkStation ws = new WorkStation(1);
+		assertTrue(new GPExpressionRule("div(w, add(p, npt))").isTimeInvariant(ws.queue));
+		assertFalse(new GPExpressionRule("div(w, add(p, tiq))").isTimeInvariant(ws.queue));
+	}
+
+	@Test
+	public void testSameResultsAsCompiledRule() {
+		Map<String, Object> res1 = ShopTestHelper
+				.runShop(new GECCO2010_genSeed_10reps().setFinalTieBreaker(new TieBreakerFASFS()));
+		Map<String, Object> res2 = ShopTestHelper.runShop(
+				new GPExpressionRule(GECCO2010_GENSEED_10REPS).setFinalTieBreaker(new TieBreakerFASFS()));
+
+		ShopTestHelper.assertSameResults(res1, res2);
+	}
+
+}
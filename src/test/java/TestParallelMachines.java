@@ -0,0 +1,124 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.apache.commons.math3.distribution.ExponentialDistribution;
+import org.junit.Test;
+
+import jasima.core.random.continuous.DblDistribution;
+import jasima.core.random.continuous.DblSequence;
+import jasima.core.random.continuous.DblUniformRange;
+import jasima.core.random.discrete.IntUniformRange;
+import jasima.shopSim.core.PR;
+import jasima.shopSim.core.PrioRuleTarget;
+import jasima.shopSim.core.WorkStation;
+import jasima.shopSim.core.batchForming.HighestJobBatchingMBS;
+import jasima.shopSim.models.mimac.MimacExperiment;
+import jasima.shopSim.models.mimac.MimacExperiment.DataSet;
+import jasima.shopSim.prioRules.basic.FCFS;
+import jasima.shopSim.prioRules.basic.TieBreakerFASFS;
+import jasima.shopSim.prioRules.batch.BATCS;
+import jasima.shopSim.prioRules.meta.IgnoreFutureJobs;
+import jasima.shopSim.prioRules.setup.ATCS;
+import util.ExtendedJobStatCollector;
+
+/**
+ * Checks that {@link WorkStation}s with several free machines select the same
+ * job and machine, no matter whether the queue is evaluated once per machine or
+ * only once per setup state (see {@link PR#isMachineInvariant()}).
+ */
+public class TestParallelMachines {
+
+	/** Prevents sharing queue evaluations between machines. */
+	@SuppressWarnings("serial")
+	private static class NotMachineInvariant extends PR {
+		@Override
+		public double calcPrio(PrioRuleTarget entry) {
+			return 0.0;
+		}
+	}
+
+	@Test
+	public void testRuleProperties() {
+		assertTrue(new ATCS().isMachineInvariant());
+		assertTrue(new IgnoreFutureJobs(new FCFS()).isMachineInvariant());
+		assertTrue(new BATCS(0.01, 0.5).isMachineInvariant());
+	}
+
+	@SuppressWarnings("serial")
+	@Test
+	public void testOverriddenCalcPrio() {
+		// prefers different jobs on each machine
+		assertFalse(new FCFS() {
+			@Override
+			public double calcPrio(PrioRuleTarget j) {
+				return getOwner().currMachine.idx == 0 ? -j.getArriveTime() : j.getArriveTime();
+			}
+		}.isMachineInvariant());
+	}
+
+	@Test
+	public void testSetups() {
+		check(new ATCS(0.01, 0.5).setFinalTieBreaker(new TieBreakerFASFS()), false);
+	}
+
+	@Test
+	public void testSetupsLookahead() {
+		check(new IgnoreFutureJobs(new ATCS(0.01, 0.5).setFinalTieBreaker(new TieBreakerFASFS())), true);
+	}
+
+	@Test
+	public void testFCFS() {
+		check(new FCFS().setFinalTieBreaker(new TieBreakerFASFS()), false);
+	}
+
+	private static void check(PR rule, boolean lookahead) {
+		Map<String, Object> res1 = runShop(rule.clone(), lookahead);
+		Map<String, Object> res2 = runShop(rule.clone().setFinalTieBreaker(new NotMachineInvariant()), lookahead);
+
+		for (String name : new String[] { "numJobsStarted", "numJobsFinished" }) {
+			assertEquals(name, res2.get(name), res1.get(name));
+		}
+		ShopTestHelper.assertSameStats(res2, res1, "flowMean", "tardMean", "weightedTardMean");
+	}
+
+	private static Map<String, Object> runShop(PR rule, boolean lookahead) {
+		MimacExperiment e = new MimacExperiment();
+		e.setInitialSeed(-6437543093816807328l);
+		e.setScenario(DataSet.FAB4r);
+		DblSequence arrivals1 = new DblDistribution(new ExponentialDistribution(1440d / 4.5));
+		DblSequence arrivals2 = new DblDistribution(new ExponentialDistribution(1440d / 10.5));
+		e.setInterArrivalTimes(new DblSequence[] { arrivals1, arrivals2 });
+		e.setDueDateFactors(new DblUniformRange(2.0, 5.0));
+		e.setJobWeights(new IntUniformRange(1, 10));
+		e.setSimulationLength(365 * 24 * 60);
+		e.setMaxJobsInSystem(3 * 250);
+		e.setEnableLookAhead(lookahead);
+		e.addShopListener(new ExtendedJobStatCollector());
+		e.setSequencingRule(rule);
+		e.setBatchForming(new HighestJobBatchingMBS(0.75));
+
+		e.runExperiment();
+		return e.getResults();
+	}
+
+}
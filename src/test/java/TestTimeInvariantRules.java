@@ -0,0 +1,200 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import jasima.shopSim.core.Job;
+import jasima.shopSim.core.Operation;
+import jasima.shopSim.core.PR;
+import jasima.shopSim.core.PrioRuleTarget;
+import jasima.shopSim.core.PriorityQueue;
+import jasima.shopSim.core.WorkStation;
+import jasima.shopSim.prioRules.basic.ATC;
+import jasima.shopSim.prioRules.basic.EDD;
+import jasima.shopSim.prioRules.basic.FCFS;
+import jasima.shopSim.prioRules.basic.MOD;
+import jasima.shopSim.prioRules.basic.SPT;
+import jasima.shopSim.prioRules.basic.TieBreakerFASFS;
+import jasima.shopSim.prioRules.meta.IgnoreFutureJobs;
+import jasima.shopSim.prioRules.meta.SimplePR;
+import jasima.shopSim.prioRules.setup.ATCS;
+import jasima.shopSim.prioRules.weighted.WMDD;
+import jasima.shopSim.prioRules.weighted.WSPT;
+
+/**
+ * Checks that time-invariant rules (selected using a heap in
+ * {@link PriorityQueue}) and rules providing bounds of their priorities produce
+ * the same results as recomputing all priorities on each selection.
+ */
+public class TestTimeInvariantRules {
+
+	@Test
+	public void testRuleProperties() {
+		WorkStation ws = new WorkStation(1);
+		assertTrue(new FCFS().isTimeInvariant(ws.queue));
+		assertTrue(new WSPT().isTimeInvariant(ws.queue));
+		assertFalse(new SimplePR(j -> -j.currProcTime()).isTimeInvariant(ws.queue));
+		// not part of a shop
+		assertFalse(new IgnoreFutureJobs(new FCFS()).isTimeInvariant(ws.queue));
+	}
+
+	@SuppressWarnings("serial")
+	@Test
+	public void testOverriddenCalcPrio() {
+		WorkStation ws = new WorkStation(1);
+		// time-dependent priorities in a subclass of a time-invariant rule
+		assertFalse(new FCFS() {
+			@Override
+			public double calcPrio(PrioRuleTarget j) {
+				return j.getShop().simTime() - j.getArriveTime();
+			}
+		}.isTimeInvariant(ws.queue));
+	}
+
+	@SuppressWarnings("serial")
+	@Test
+	public void testOverriddenCalcPrioBound() {
+		Operation o = new Operation();
+		o.setProcTime(2.0);
+		Job j = new Job(null);
+		j.setOps(new Operation[] { o });
+		j.setDueDate(10.0);
+
+		assertEquals(-2.0, new MOD().upperBound(j), 0.0);
+		// bound of MOD doesn't hold for the overridden priorities
+		assertTrue(Double.isNaN(new MOD() {
+			@Override
+			public double calcPrio(PrioRuleTarget job) {
+				return -job.getDueDate();
+			}
+		}.upperBound(j)));
+	}
+
+	@Test
+	public void testBoundOnlyForPositiveK() {
+		Operation o = new Operation();
+		o.setProcTime(2.0);
+		Job j = new Job(null);
+		j.setOps(new Operation[] { o });
+		j.setDueDate(10.0);
+
+		assertEquals(0.5, new ATC(2.0).upperBound(j), 1e-9);
+		assertTrue(Double.isNaN(new ATC(-1.0).upperBound(j)));
+		assertTrue(Double.isNaN(new ATC(0.0).upperBound(j)));
+		assertEquals(Math.log(0.5), new ATCS(0.5, 2.0).upperBound(j), 1e-9);
+		assertTrue(Double.isNaN(new ATCS(1.0, -1.0).upperBound(j)));
+		assertTrue(Double.isNaN(new ATCS(-1.0, 1.0).upperBound(j)));
+	}
+
+	@Test
+	public void testFCFS() {
+		check(new FCFS(), new SimplePR("FCFS", j -> -j.getArriveTime()));
+	}
+
+	@Test
+	public void testEDD() {
+		check(new EDD(), new SimplePR("EDD", j -> -j.getDueDate()));
+	}
+
+	@Test
+	public void testSPT() {
+		check(new SPT(), new SimplePR("SPT", j -> -j.currProcTime()));
+	}
+
+	@Test
+	public void testWSPT() {
+		check(new WSPT(), new SimplePR("WSPT", j -> j.getWeight() / j.currProcTime()));
+	}
+
+	@SuppressWarnings("serial")
+	@Test
+	public void testATC() {
+		check(new ATC(2.0), new ATC(2.0) {
+			@Override
+			public double upperBound(PrioRuleTarget job) {
+				return Double.NaN;
+			}
+		});
+	}
+
+	@SuppressWarnings("serial")
+	@Test
+	public void testATCLookahead() {
+		check(new ATC(), new ATC() {
+			@Override
+			public double upperBound(PrioRuleTarget job) {
+				return Double.NaN;
+			}
+		}, true);
+	}
+
+	@SuppressWarnings("serial")
+	@Test
+	public void testATCNegativeK() {
+		check(new ATC(-0.5), new ATC(-0.5) {
+			@Override
+			public double upperBound(PrioRuleTarget job) {
+				return Double.NaN;
+			}
+		});
+	}
+
+	@SuppressWarnings("serial")
+	@Test
+	public void testMOD() {
+		check(new MOD(), new MOD() {
+			@Override
+			public double upperBound(PrioRuleTarget job) {
+				return Double.NaN;
+			}
+		});
+	}
+
+	@SuppressWarnings("serial")
+	@Test
+	public void testWMDD() {
+		check(new WMDD(), new WMDD() {
+			@Override
+			public double upperBound(PrioRuleTarget job) {
+				return Double.NaN;
+			}
+		});
+	}
+
+	private static void check(PR fastRule, PR plainRule) {
+		check(fastRule, plainRule, false);
+	}
+
+	private static void check(PR fastRule, PR plainRule, boolean lookahead) {
+		Map<String, Object> res1 = ShopTestHelper.runShop(fastRule.setFinalTieBreaker(new TieBreakerFASFS()),
+				lookahead);
+		Map<String, Object> res2 = ShopTestHelper.runShop(plainRule.setFinalTieBreaker(
+				new SimplePR("TieBreaker", j -> j.isFuture() ? -j.getJobNum() : 1.0 / (j.getJobNum() + 1))),
+				lookahead);
+
+		assertEquals("numJobsFinished", res2.get("numJobsFinished"), res1.get("numJobsFinished"));
+		assertEquals("simTime", (Double) res2.get("simTime"), (Double) res1.get("simTime"), 1e-6);
+		ShopTestHelper.assertSameResults(res2, res1);
+	}
+
+}
@@ -26,9 +26,9 @@ import org.junit.runners.Suite.SuiteClasses;
  * @author Torsten Hildebrandt
  */
 @RunWith(Suite.class)
-@SuiteClasses({ OCBATest.class, Test_FFE_Array_Setter.class, TestExperimentAbort.class, TestExperimentBasics.class,
-		TestExperimentCancellation.class, TestExperimentExceptions.class, TestFFEFactorSetting.class,
-		TestMultipleReplicationExperiment.class })
+@SuiteClasses({ OCBATest.class, Test_FFE_Array_Setter.class, TestCompletionOrder.class, TestExperimentAbort.class,
+		TestExperimentBasics.class, TestExperimentCancellation.class, TestExperimentExceptions.class,
+		TestExperimentJournal.class, TestFFEFactorSetting.class, TestMultipleReplicationExperiment.class, TestSocketExecutor.class })
 
 public class AllTests {
 
@@ -19,6 +19,7 @@ package jasima.core.experiment;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
 import java.util.Map;
@@ -122,6 +123,7 @@ public class OCBATest {
 //			System.out.println("value: "+res);
 			resultMap.put("mean", res);
 			resultMap.put("meanAsSummaryStat", SummaryStat.summarize(res));
+			resultMap.put("meanOf3AsSummaryStat", SummaryStat.summarize(res - 1.0, res, res + 1.0));
 		}
 
 		@Override
@@ -164,6 +166,50 @@ public class OCBATest {
 		System.out.println(res.toString());
 	}
 
+	@Test
+	public void testAsynchronousStopsAtPcsLevel() throws Exception {
+		OCBAExperiment exp = createTestExperiment(100, "mean", new Double[] { 2.0, 3.0, 8.0 }, ProblemType.MAXIMIZE,
+				23, 0.95);
+		exp.setAsynchronous(true);
+
+		Map<String, Object> res = exp.runExperiment();
+
+		assertEquals("best", 8.0, ((TestExp) res.get("bestConfiguration")).getMean(), 0.0);
+		assertTrue("pcs", (Double) res.get("pcs") > 0.95);
+		assertTrue("budget", (Integer) res.get("numEvaluations") < 300);
+		assertEquals("numEvaluations", res.get("numEvaluations"), Arrays.stream((int[]) res.get("allocationVector")).sum());
+	}
+
+	@Test
+	public void testAsynchronousUsesBudget() throws Exception {
+		OCBAExperiment exp = createTestExperiment(10, "mean", new Double[] { 2.0, 2.1, 3.0, 8.0, 8.1, 8.09 },
+				ProblemType.MAXIMIZE, 23, 0.0);
+		exp.setAsynchronous(true);
+
+		Map<String, Object> res = exp.runExperiment();
+
+		assertEquals("numEvaluations", 60, res.get("numEvaluations"));
+		int[] av = (int[]) res.get("allocationVector");
+		assertEquals("allocations", 60, Arrays.stream(av).sum());
+		for (int n : av) {
+			assertTrue("min. replications", n >= 5);
+		}
+	}
+
+	@Test
+	public void testAsynchronousForSummaryStat() throws Exception {
+		OCBAExperiment exp = createTestExperiment(10, "meanOf3AsSummaryStat",
+				new Double[] { 2.0, 2.1, 3.0, 8.0, 8.1, 8.09 }, ProblemType.MAXIMIZE, 23, 0.0);
+		exp.setAsynchronous(true);
+
+		Map<String, Object> res = exp.runExperiment();
+
+		assertEquals("numEvaluations", 60, res.get("numEvaluations"));
+		int[] av = (int[]) res.get("allocationVector");
+		assertEquals("allocations", 60, Arrays.stream(av).sum());
+		assertTrue("best", ((TestExp) res.get("bestConfiguration")).getMean() >= 8.0);
+	}
+
 	@Test
 	@Ignore
 	public void maximizationShouldGiveSameResultsIn1000Runs() throws Exception {
@@ -243,6 +289,11 @@ public class OCBATest {
 
 	private Map<String, Object> performSingleOCBARun(int maxReps, String obj, Double[] means, ProblemType type,
 			long seed, double pcsLevel) {
+		return createTestExperiment(maxReps, obj, means, type, seed, pcsLevel).runExperiment();
+	}
+
+	private OCBAExperiment createTestExperiment(int maxReps, String obj, Double[] means, ProblemType type, long seed,
+			double pcsLevel) {
 		OCBAExperiment exp = new OCBAExperiment();
 		exp.setPcsLevel(pcsLevel);
 		exp.setBaseExperiment(new TestExp());
@@ -257,7 +308,7 @@ public class OCBATest {
 
 		exp.setInitialSeed(seed);
 
-		return exp.runExperiment();
+		return exp;
 	}
 
 	private static int indexOf(double mean, Double[] perf) {
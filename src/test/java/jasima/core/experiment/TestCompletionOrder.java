@@ -0,0 +1,103 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.core.experiment;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import jasima.core.expExecution.ForkJoinPoolExecutor;
+import jasima.core.statistics.SummaryStat;
+
+public class TestCompletionOrder {
+
+	private static final int NUM_RUNS = 8;
+
+	/**
+	 * Experiment finishing the faster the later it is started.
+	 */
+	private final static class UnevenExperiment extends Experiment {
+
+		private static final long serialVersionUID = -2420406046911390101L;
+
+		@Override
+		protected void performRun() {
+			int n = Integer.parseInt(getName().substring("rep".length()));
+			try {
+				Thread.sleep((NUM_RUNS - n) * 20);
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		@Override
+		protected void produceResults() {
+			super.produceResults();
+			resultMap.put("name", getName());
+			resultMap.put("value", Integer.parseInt(getName().substring("rep".length())));
+		}
+	}
+
+	private static MultipleReplicationExperiment createExperiment() {
+		MultipleReplicationExperiment mre = new MultipleReplicationExperiment();
+		mre.setMaxReplications(NUM_RUNS);
+		mre.setBaseExperiment(new UnevenExperiment());
+		mre.setAllowParallelExecution(true);
+		mre.setKeepResults("value");
+		return mre;
+	}
+
+	private static void checkResults(Map<String, Object> res) {
+		assertEquals(NUM_RUNS, res.get(AbstractMultiExperiment.NUM_TASKS_EXECUTED));
+		assertEquals(NUM_RUNS, ((SummaryStat) res.get("value")).numObs());
+		// names and detailed results are independent of the order runs finish
+		assertArrayEquals(new Object[] { "rep1", "rep2", "rep3", "rep4", "rep5", "rep6", "rep7", "rep8" },
+				(Object[]) res.get("name"));
+		for (int i = 1; i <= NUM_RUNS; i++) {
+			assertEquals(i, res.get("value.rep" + i));
+		}
+	}
+
+	@Test
+	public void testResultsInTaskOrder() {
+		checkResults(createExperiment().runExperiment());
+	}
+
+	@Test
+	public void testForkJoinPoolExecutor() {
+		ForkJoinPoolExecutor ex = new ForkJoinPoolExecutor();
+		try {
+			MultipleReplicationExperiment mre = createExperiment();
+			Experiment sub = new UnevenExperiment();
+			sub.nestingLevel(1);
+			// same pool for all nesting levels
+			assertSame(ex.experimentExecutor(mre, null), ex.experimentExecutor(sub, mre));
+
+			Map<String, Object> res = new ExperimentCompletableFuture(mre, ex.experimentExecutor(mre, null))
+					.joinIgnoreExceptions();
+			checkResults(res);
+		} finally {
+			ex.shutdownNow();
+		}
+	}
+
+}
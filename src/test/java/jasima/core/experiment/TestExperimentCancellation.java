@@ -26,8 +26,12 @@ import static org.junit.Assert.fail;
 
 import java.util.Map;
 import java.util.concurrent.CancellationException;
-import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.Timeout;
@@ -41,40 +45,39 @@ public class TestExperimentCancellation {
 	@Rule
 	public Timeout globalTimeout = new Timeout(1000);
 
-	private void cancelAfterMillis(ExpTestControlFlow e, long time) {
-		// cancel from external Thread after 50ms
-		ForkJoinPool.commonPool().execute(() -> {
-			try {
-				Thread.sleep(time);
-				e.cancel();
-			} catch (InterruptedException ex) {
-				ex.printStackTrace();
-			}
+	// runs delayed cancellations and interrupts
+	private ScheduledExecutorService timer;
+
+	@Before
+	public void createTimer() {
+		timer = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "delayedCancellation");
+			t.setDaemon(true);
+			return t;
 		});
 	}
 
+	@After
+	public void cancelPendingActions() throws InterruptedException {
+		// interrupts still pending (e.g., for sub-experiments cancelled by their
+		// parent) mustn't hit pool threads already executing another test
+		timer.shutdownNow();
+		timer.awaitTermination(100, TimeUnit.MILLISECONDS);
+	}
+
+	private void cancelAfterMillis(ExpTestControlFlow e, long time) {
+		// cancel from external Thread after 'time' ms
+		timer.schedule(e::cancel, time, TimeUnit.MILLISECONDS);
+	}
+
 	private void cancelAfterMillis(ExperimentCompletableFuture e, long time) {
-		// cancel from external Thread after 50ms
-		ForkJoinPool.commonPool().execute(() -> {
-			try {
-				Thread.sleep(time);
-			} catch (InterruptedException ex) {
-				ex.printStackTrace();
-			}
-			e.cancel();
-		});
+		// cancel from external Thread after 'time' ms
+		timer.schedule(() -> e.cancel(), time, TimeUnit.MILLISECONDS);
 	}
 
 	private void interruptAfterMillis(Thread executor, long time) {
-		// cancel from external Thread after 50ms
-		ForkJoinPool.commonPool().execute(() -> {
-			try {
-				Thread.sleep(time);
-			} catch (InterruptedException ex) {
-				ex.printStackTrace();
-			}
-			executor.interrupt();
-		});
+		// interrupt from external Thread after 'time' ms
+		timer.schedule(executor::interrupt, time, TimeUnit.MILLISECONDS);
 	}
 
 	@Test(expected = CancellationException.class)
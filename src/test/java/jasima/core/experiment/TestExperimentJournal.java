@@ -0,0 +1,147 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.core.experiment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import jasima.core.statistics.SummaryStat;
+
+/**
+ * Tests for resuming experiments using a journal file.
+ */
+public class TestExperimentJournal {
+
+	private static final AtomicInteger numRuns = new AtomicInteger();
+
+	public static class RandomExperiment extends Experiment {
+
+		private static final long serialVersionUID = -2893413006484155862L;
+
+		private double mean;
+
+		@Override
+		protected void performRun() {
+			numRuns.incrementAndGet();
+		}
+
+		@Override
+		protected void produceResults() {
+			super.produceResults();
+			resultMap.put("value", mean + new Random(getInitialSeed()).nextGaussian());
+		}
+
+		public double getMean() {
+			return mean;
+		}
+
+		public void setMean(double mean) {
+			this.mean = mean;
+		}
+	}
+
+	private File journal;
+
+	@Before
+	public void setUp() throws IOException {
+		journal = File.createTempFile("jasimaJournal", ".dat");
+		assertTrue(journal.delete());
+		numRuns.set(0);
+	}
+
+	@After
+	public void tearDown() {
+		journal.delete();
+	}
+
+	private FullFactorialExperiment createExperiment(long seed) {
+		MultipleReplicationExperiment mre = new MultipleReplicationExperiment(new RandomExperiment(), 4);
+
+		FullFactorialExperiment ffe = new FullFactorialExperiment(mre);
+		ffe.addFactor("baseExperiment.mean", 1.0, 2.0, 3.0);
+		ffe.setInitialSeed(seed);
+		ffe.setJournalFile(journal.getAbsolutePath());
+		return ffe;
+	}
+
+	private static void assertSameResults(Map<String, Object> expected, Map<String, Object> actual) {
+		SummaryStat e = (SummaryStat) expected.get("value.mean");
+		SummaryStat a = (SummaryStat) actual.get("value.mean");
+		assertEquals(e.numObs(), a.numObs());
+		assertEquals(e.mean(), a.mean(), 1e-10);
+		assertEquals(e.variance(), a.variance(), 1e-10);
+		assertEquals(expected.get(AbstractMultiExperiment.NUM_TASKS_EXECUTED),
+				actual.get(AbstractMultiExperiment.NUM_TASKS_EXECUTED));
+	}
+
+	@Test
+	public void testCompletedExperimentIsNotRepeated() {
+		Map<String, Object> res1 = createExperiment(23).runExperiment();
+		assertEquals(12, numRuns.get());
+
+		Map<String, Object> res2 = createExperiment(23).runExperiment();
+		assertEquals("no new runs", 12, numRuns.get());
+
+		assertSameResults(res1, res2);
+	}
+
+	@Test
+	public void testResumeAfterCrash() throws IOException {
+		Map<String, Object> res1 = createExperiment(23).runExperiment();
+		assertEquals(12, numRuns.get());
+
+		// simulate crash: discard end of journal, leaving an incomplete record
+		try (RandomAccessFile f = new RandomAccessFile(journal, "rw")) {
+			f.setLength(f.length() * 6 / 10);
+		}
+
+		Map<String, Object> res2 = createExperiment(23).runExperiment();
+		int numRepeated = numRuns.get() - 12;
+		assertTrue("some runs repeated: " + numRepeated, numRepeated > 0 && numRepeated < 12);
+		assertSameResults(res1, res2);
+
+		// journal is complete again
+		Map<String, Object> res3 = createExperiment(23).runExperiment();
+		assertEquals(12 + numRepeated, numRuns.get());
+		assertSameResults(res1, res3);
+	}
+
+	@Test
+	public void testDifferentSeedIsRejected() {
+		createExperiment(23).runExperiment();
+
+		try {
+			createExperiment(42).runExperiment();
+			fail("journal of different seed accepted");
+		} catch (IllegalArgumentException expected) {
+		}
+	}
+
+}
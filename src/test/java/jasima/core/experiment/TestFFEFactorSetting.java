@@ -19,6 +19,7 @@ package jasima.core.experiment;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.number.IsCloseTo.closeTo;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
@@ -26,8 +27,13 @@ import static org.junit.Assert.assertTrue;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.junit.Test;
 
@@ -200,6 +206,181 @@ public class TestFFEFactorSetting {
 		assertThat("aborted", abort.sum(), closeTo(1.0, 1e-6));
 	}
 
+	@Test
+	public void testLazyConfigurations() {
+		FullFactorialExperiment ffe = createFFE();
+		ffe.setAbortUponBaseExperimentAbort(false);
+		ffe.setLazyConfigurations(true);
+
+		ffe.addFactor("exceptionWhenSetToTrue", false, true);
+		ffe.addFactor("exceptionDuringExecution", false, true);
+		ffe.addFactor("bool1", true, false, null);
+
+		Map<String, Object> res = ConsoleRunner.run(ffe);
+
+		assertThat("main abort state", res.get("expAborted"), is(0));
+
+		SummaryStat field = (SummaryStat) res.get("field");
+		assertThat("runs with results", field.numObs(), is(2));
+
+		SummaryStat abort = (SummaryStat) res.get("baseExperiment.expAborted");
+		assertThat("all executed", abort.numObs(), is(12));
+		assertThat("aborted", abort.sum(), closeTo(10.0, 1e-6));
+	}
+
+	@Test
+	public void testCombinationNumbers() {
+		FullFactorialExperiment ffe = createFFE();
+		ffe.addFactor("exceptionWhenSetToTrue", false, true);
+		ffe.addFactor("exceptionDuringExecution", false, true);
+		ffe.addFactor("bool1", true, false, null);
+
+		assertEquals(12, ffe.getNumCombinations());
+		assertArrayEquals(new int[] { 0, 0, 0 }, ffe.getCombination(0));
+		assertArrayEquals(new int[] { 0, 1, 1 }, ffe.getCombination(4));
+		assertArrayEquals(new int[] { 1, 1, 2 }, ffe.getCombination(11));
+	}
+
+	@Test
+	public void testCombinationRange() {
+		for (boolean lazy : new boolean[] { false, true }) {
+			FullFactorialExperiment ffe = createFFE();
+			ffe.setAbortUponBaseExperimentAbort(false);
+			ffe.setLazyConfigurations(lazy);
+
+			ffe.addFactor("exceptionWhenSetToTrue", false, true);
+			ffe.addFactor("exceptionDuringExecution", false, true);
+			ffe.addFactor("bool1", true, false, null);
+			// all combinations with "exceptionWhenSetToTrue=false"
+			ffe.setFirstCombination(0);
+			ffe.setLastCombination(5);
+
+			Map<String, Object> res = ffe.runExperiment();
+
+			SummaryStat field = (SummaryStat) res.get("field");
+			assertThat("runs with results", field.numObs(), is(2));
+
+			SummaryStat abort = (SummaryStat) res.get("baseExperiment.expAborted");
+			assertThat("executed", abort.numObs(), is(6));
+			assertThat("aborted", abort.sum(), closeTo(4.0, 1e-6));
+		}
+	}
+
+	public static class SeedExperiment extends Experiment {
+		private static final long serialVersionUID = -2385047729418536071L;
+
+		private int value;
+		private int group;
+		private int subGroup;
+
+		@Override
+		protected void performRun() {
+		}
+
+		@Override
+		protected void produceResults() {
+			super.produceResults();
+			resultMap.put("seed", getInitialSeed());
+			resultMap.put("expName", getName());
+		}
+
+		public int getValue() {
+			return value;
+		}
+
+		public void setValue(int value) {
+			this.value = value;
+		}
+
+		public int getGroup() {
+			return group;
+		}
+
+		public void setGroup(int group) {
+			this.group = group;
+		}
+
+		public int getSubGroup() {
+			return subGroup;
+		}
+
+		public void setSubGroup(int subGroup) {
+			this.subGroup = subGroup;
+		}
+	}
+
+	@Test
+	public void testSplitRunSameAsSingleRun() {
+		for (boolean lazy : new boolean[] { false, true }) {
+			Map<String, Object> single = runSeedFFE(lazy, 0, -1);
+			assertEquals("valid combinations", 22, single.size());
+
+			Map<String, Object> split = runSeedFFE(lazy, 0, 6);
+			split.putAll(runSeedFFE(lazy, 7, -1));
+			assertEquals("lazy=" + lazy, single, split);
+		}
+		assertEquals(runSeedFFE(false, 0, -1), runSeedFFE(true, 0, -1));
+	}
+
+	@Test
+	public void testCombinationNumbersBeyondInt() {
+		List<Integer> values = IntStream.range(0, 2000).boxed().collect(Collectors.toList());
+		for (boolean lazy : new boolean[] { false, true }) {
+			FullFactorialExperiment ffe = new FullFactorialExperiment(new SeedExperiment());
+			ffe.setLazyConfigurations(lazy);
+			ffe.addFactor("group", values);
+			ffe.addFactor("subGroup", values);
+			ffe.addFactor("value", values);
+			ffe.setKeepResults("expName");
+			ffe.setFirstCombination(5_000_000_000L);
+			ffe.setLastCombination(5_000_000_001L);
+
+			Map<String, Object> res = ffe.runExperiment();
+
+			assertEquals("lazy=" + lazy, "conf5000000001", res.get("expName.conf5000000001"));
+			assertEquals("lazy=" + lazy, "conf5000000002", res.get("expName.conf5000000002"));
+		}
+	}
+
+	/**
+	 * Returns the detailed "seed" and "expName" results of the given combinations.
+	 */
+	private static Map<String, Object> runSeedFFE(boolean lazy, long first, long last) {
+		FullFactorialExperiment ffe = new FullFactorialExperiment(new SeedExperiment());
+		ffe.setInitialSeed(42);
+		ffe.setCommonRandomNumbers(false);
+		ffe.setSkipSeedCount(3);
+		ffe.setLazyConfigurations(lazy);
+		ffe.addFactor("value", 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11);
+		ffe.setConfigurationValidator((e, conf) -> !Integer.valueOf(3).equals(conf.get("value")));
+		ffe.setKeepResults("seed", "expName");
+		ffe.setFirstCombination(first);
+		ffe.setLastCombination(last);
+
+		Map<String, Object> res = ffe.runExperiment();
+
+		Map<String, Object> details = new HashMap<>();
+		for (Map.Entry<String, Object> e : res.entrySet()) {
+			if (e.getKey().startsWith("seed.conf") || e.getKey().startsWith("expName.conf")) {
+				details.put(e.getKey(), e.getValue());
+			}
+		}
+		return details;
+	}
+
+	@Test
+	public void testExperimentSeedByIndex() {
+		Random r = new Random(23);
+		for (int i = 0; i < 100; i++) {
+			assertEquals(r.nextLong(), AbstractMultiExperiment.nthLong(23, i));
+		}
+		r = new Random(-5);
+		for (int i = 0; i < 12345; i++) {
+			r.nextLong();
+		}
+		assertEquals(r.nextLong(), AbstractMultiExperiment.nthLong(-5, 12345));
+	}
+
 	@Test
 	public void testAbortUponBaseExperimentAbortDefaultValue() {
 		FullFactorialExperiment ffe = new FullFactorialExperiment();
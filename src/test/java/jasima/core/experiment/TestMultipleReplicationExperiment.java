@@ -18,15 +18,74 @@ limitations under the License.
 package jasima.core.experiment;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Map;
+import java.util.Random;
 
 import org.junit.Test;
 
+import jasima.core.statistics.SummaryStat;
 import jasima.shopSim.models.dynamicShop.DynamicShopExperiment;
 
 public class TestMultipleReplicationExperiment {
 
+	/**
+	 * Experiment producing a normally distributed result.
+	 */
+	private static class NormalExperiment extends Experiment {
+
+		private static final long serialVersionUID = 6384913380413516357L;
+
+		private double stdDev = 10.0;
+		private double value;
+
+		@Override
+		protected void performRun() {
+			value = 100.0 + stdDev * new Random(getInitialSeed()).nextGaussian();
+		}
+
+		@Override
+		protected void produceResults() {
+			super.produceResults();
+			resultMap.put("value", value);
+		}
+	}
+
+	private static MultipleReplicationExperiment createDynamicExperiment(boolean streaming) {
+		MultipleReplicationExperiment mre = new MultipleReplicationExperiment(new NormalExperiment(), 1000);
+		mre.addConfIntervalMeasure("value");
+		mre.setAllowancePercentage(0.02);
+		mre.setMinReplications(4);
+		mre.setStreaming(streaming);
+		mre.setInitialSeed(23);
+		return mre;
+	}
+
+	@Test
+	public void testStreamingStopsWhenPrecise() {
+		MultipleReplicationExperiment mre = createDynamicExperiment(true);
+		Map<String, Object> res = mre.runExperiment();
+
+		int numTasks = (int) res.get(MultipleReplicationExperiment.NUM_TASKS_EXECUTED);
+		SummaryStat value = (SummaryStat) res.get("value");
+		assertEquals(numTasks, value.numObs());
+		assertTrue("" + numTasks, numTasks >= 4 && numTasks < 1000);
+		assertTrue(value.confIntRangeSingle(0.05) <= value.mean() * 0.02);
+	}
+
+	@Test
+	public void testMaxReplicationsNotExceeded() {
+		for (boolean streaming : new boolean[] { false, true }) {
+			MultipleReplicationExperiment mre = createDynamicExperiment(streaming);
+			mre.setMaxReplications(10);
+			mre.setAllowancePercentage(0.0001);
+			Map<String, Object> res = mre.runExperiment();
+
+			assertEquals("streaming=" + streaming, 10, res.get(MultipleReplicationExperiment.NUM_TASKS_EXECUTED));
+		}
+	}
+
 	@Test
 	public void testDynRunsWithMinReps() {
 		MultipleReplicationExperiment mre = new MultipleReplicationExperiment();
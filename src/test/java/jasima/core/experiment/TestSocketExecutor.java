@@ -0,0 +1,205 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.core.experiment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jasima.core.expExecution.ExperimentWorker;
+import jasima.core.expExecution.SocketExecutor;
+
+/**
+ * Tests for {@link SocketExecutor} using local worker processes.
+ */
+public class TestSocketExecutor {
+
+	public static class SquareExperiment extends Experiment {
+
+		private static final long serialVersionUID = 5206187263117036113L;
+
+		private int value;
+		private String crashMarker;
+
+		@Override
+		protected void performRun() {
+			if (value < 0) {
+				throw new IllegalArgumentException("negative");
+			}
+			if (crashMarker != null) {
+				File f = new File(crashMarker);
+				if (!f.exists()) {
+					try {
+						f.createNewFile();
+					} catch (IOException e) {
+						throw new RuntimeException(e);
+					}
+					// simulate crash of the worker process
+					Runtime.getRuntime().halt(1);
+				}
+			}
+		}
+
+		@Override
+		protected void produceResults() {
+			super.produceResults();
+			resultMap.put("square", value * value);
+			resultMap.put("notSerializable", new Object() {
+				@Override
+				public String toString() {
+					return "value" + value;
+				}
+			});
+		}
+
+		public int getValue() {
+			return value;
+		}
+
+		public void setValue(int value) {
+			this.value = value;
+		}
+
+		public String getCrashMarker() {
+			return crashMarker;
+		}
+
+		public void setCrashMarker(String crashMarker) {
+			this.crashMarker = crashMarker;
+		}
+	}
+
+	private static SocketExecutor executor;
+
+	@BeforeClass
+	public static void setUp() {
+		executor = new SocketExecutor(Collections.emptyList(), 2);
+	}
+
+	@AfterClass
+	public static void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testResults() {
+		List<ExperimentCompletableFuture> futures = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			SquareExperiment e = new SquareExperiment();
+			e.setValue(i);
+			futures.add(executor.runAsync(e, null));
+		}
+
+		for (int i = 0; i < 6; i++) {
+			Map<String, Object> res = futures.get(i).joinIgnoreExceptions();
+			assertEquals(i * i, res.get("square"));
+			assertEquals("value" + i, res.get("notSerializable"));
+			assertEquals(0, res.get(Experiment.EXP_ABORTED));
+			assertEquals(Experiment.ExperimentState.FINISHED, futures.get(i).getExperiment().state().get());
+		}
+	}
+
+	@Test
+	public void testExceptionInExperiment() {
+		SquareExperiment e = new SquareExperiment();
+		e.setValue(-1);
+
+		Map<String, Object> res = executor.runAsync(e, null).joinIgnoreExceptions();
+
+		assertEquals(1, res.get(Experiment.EXP_ABORTED));
+		assertEquals("negative", res.get(Experiment.EXCEPTION_MESSAGE));
+	}
+
+	@Test
+	public void testWorkerCrashIsResubmitted() throws IOException {
+		File marker = File.createTempFile("jasimaCrash", ".tmp");
+		assertTrue(marker.delete());
+		try {
+			SquareExperiment e = new SquareExperiment();
+			e.setValue(3);
+			e.setCrashMarker(marker.getAbsolutePath());
+
+			Map<String, Object> res = executor.runAsync(e, null).joinIgnoreExceptions();
+
+			assertTrue("crashed once", marker.exists());
+			assertEquals(9, res.get("square"));
+			assertEquals(0, res.get(Experiment.EXP_ABORTED));
+		} finally {
+			marker.delete();
+		}
+	}
+
+	@Test
+	public void testRemoteWorkerRequiresToken() throws IOException {
+		ExperimentWorker worker = new ExperimentWorker(InetAddress.getLoopbackAddress(), 0, "secret");
+		Thread t = new Thread(worker::serve);
+		t.setDaemon(true);
+		t.start();
+
+		List<String> addresses = Collections.singletonList("localhost:" + worker.getPort());
+		SocketExecutor good = new SocketExecutor(addresses, 0, "secret");
+		SocketExecutor bad = new SocketExecutor(addresses, 0, "wrong");
+		try {
+			SquareExperiment e = new SquareExperiment();
+			e.setValue(5);
+			Map<String, Object> res = good.runAsync(e, null).joinIgnoreExceptions();
+			assertEquals(25, res.get("square"));
+
+			SquareExperiment e2 = new SquareExperiment();
+			e2.setValue(6);
+			Map<String, Object> res2 = bad.runAsync(e2, null).joinIgnoreExceptions();
+			assertNull(res2.get("square"));
+			assertEquals(1, res2.get(Experiment.EXP_ABORTED));
+		} finally {
+			good.shutdownNow();
+			bad.shutdownNow();
+			worker.close();
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRemoteWorkersWithoutToken() {
+		new SocketExecutor(Collections.singletonList("localhost:4711"), 0, null);
+	}
+
+	@Test
+	public void testMultiExperimentsRunLocally() {
+		MultipleReplicationExperiment mre = new MultipleReplicationExperiment(new SquareExperiment(), 4);
+		// listeners of experiments executed by a worker are not notified locally
+		boolean[] started = { false };
+		mre.addListener((ExperimentListener.StartingListener) e -> started[0] = true);
+
+		Map<String, Object> res = executor.runAsync(mre, null).joinIgnoreExceptions();
+
+		assertTrue("run locally", started[0]);
+		assertEquals(4, res.get(AbstractMultiExperiment.NUM_TASKS_EXECUTED));
+	}
+
+}
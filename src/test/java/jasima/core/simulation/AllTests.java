@@ -28,7 +28,8 @@ import org.junit.runners.Suite.SuiteClasses;
 @RunWith(Suite.class)
 @SuiteClasses({ TestSimContext.class, TestSimProcessBasics.class, TestSimulationBasics.class,
 		TestSimulationControlFlow.class, TestSimulationPausing.class, TestComponentHierarchy.class,
-		TestComponentInit.class })
+		TestComponentInit.class, TestEventQueues.class, TestSimStepProcess.class, TestParallelSimulation.class,
+		TestSimulationSnapshot.class })
 public class AllTests {
 
 }
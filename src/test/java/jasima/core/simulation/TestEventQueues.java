@@ -0,0 +1,319 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.core.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+import jasima.core.util.MsgCategory;
+
+public class TestEventQueues {
+
+	private static class TestEvent extends SimEvent {
+		public TestEvent(double time, int prio, int eventNum) {
+			super(time, prio);
+			this.eventNum = eventNum;
+		}
+
+		@Override
+		public void handle() {
+		}
+	}
+
+	@Test
+	public void testCalendarQueueSameOrderAsEventHeap() {
+		checkSameOrderAsEventHeap(CalendarQueue::new);
+	}
+
+	@Test
+	public void testPrimitiveEventHeapSameOrderAsEventHeap() {
+		checkSameOrderAsEventHeap(PrimitiveEventHeap::new);
+		checkSameOrderAsEventHeap(() -> new PrimitiveEventHeap(2, 10));
+		checkSameOrderAsEventHeap(() -> new PrimitiveEventHeap(8, 10));
+	}
+
+	@Test
+	public void testCalendarQueueRemove() {
+		checkRemove(new CalendarQueue());
+	}
+
+	@Test
+	public void testEventHeapRemove() {
+		checkRemove(new EventHeap());
+	}
+
+	@Test
+	public void testPrimitiveEventHeapRemove() {
+		checkRemove(new PrimitiveEventHeap());
+	}
+
+	@Test
+	public void testSimulationWithCalendarQueue() {
+		checkSimulationRun(CalendarQueue::new);
+	}
+
+	@Test
+	public void testSimulationWithPrimitiveEventHeap() {
+		checkSimulationRun(PrimitiveEventHeap::new);
+	}
+
+	@Test
+	public void testEventHeapInsertAll() {
+		checkInsertAll(EventHeap::new);
+	}
+
+	@Test
+	public void testPrimitiveEventHeapInsertAll() {
+		checkInsertAll(PrimitiveEventHeap::new);
+		checkInsertAll(() -> new PrimitiveEventHeap(8, 10));
+	}
+
+	@Test
+	public void testCalendarQueueInsertAll() {
+		checkInsertAll(CalendarQueue::new);
+	}
+
+	@Test
+	public void testEventHeapPeek() {
+		checkPeek(new EventHeap());
+	}
+
+	@Test
+	public void testPrimitiveEventHeapPeek() {
+		checkPeek(new PrimitiveEventHeap());
+	}
+
+	@Test
+	public void testCalendarQueuePeek() {
+		checkPeek(new CalendarQueue());
+	}
+
+	@Test
+	public void testSimulationScheduleAll() {
+		List<String> log = new ArrayList<>();
+		Simulation sim = new Simulation();
+
+		List<SimEvent> evts = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			String msg = (i % 10) + ":" + i;
+			evts.add(new SimEvent(i % 10, SimEvent.EVENT_PRIO_NORMAL) {
+				@Override
+				public void handle() {
+					log.add(msg);
+				}
+			});
+		}
+		sim.scheduleAll(evts);
+		sim.performRun();
+
+		assertEquals(100, log.size());
+		assertEquals("0:0", log.get(0));
+		assertEquals("0:10", log.get(1)); // same time: in iteration order
+		assertEquals("9:99", log.get(99));
+		assertEquals(9.0, sim.simTime(), 1e-6);
+	}
+
+	@Test
+	public void testSimulationScheduleAllInvalidEvent() {
+		Simulation sim = new Simulation();
+		sim.setPrintLevel(MsgCategory.OFF);
+		List<Integer> eventNums = new ArrayList<>();
+
+		sim.scheduleAt(5.0, SimEvent.EVENT_PRIO_NORMAL, () -> {
+			List<SimEvent> evts = new ArrayList<>();
+			evts.add(new TestEvent(6.0, SimEvent.EVENT_PRIO_NORMAL, -1));
+			evts.add(new TestEvent(1.0, SimEvent.EVENT_PRIO_NORMAL, -1));
+			evts.add(new TestEvent(7.0, SimEvent.EVENT_PRIO_NORMAL, -1));
+			try {
+				sim.scheduleAll(evts);
+				fail("event in the past not detected");
+			} catch (IllegalArgumentException expected) {
+				// no events scheduled, numbered or counted
+				assertEquals(0, sim.numEvents());
+				assertEquals(0, sim.numAppEvents());
+				assertEquals(-1, evts.get(0).eventNum);
+			}
+
+			eventNums.add(sim.schedule(new TestEvent(6.0, SimEvent.EVENT_PRIO_NORMAL, -1)).eventNum);
+			eventNums.add(sim.schedule(new TestEvent(6.0, SimEvent.EVENT_PRIO_NORMAL, -1)).eventNum);
+		});
+		sim.performRun();
+
+		assertEquals(6.0, sim.simTime(), 0.0);
+		// numbering continues as if scheduleAll() was never called
+		assertEquals(eventNums.get(0) + 1, (int) eventNums.get(1));
+	}
+
+	private void checkInsertAll(Supplier<EventQueue> queueFactory) {
+		Random rnd = new Random(7);
+		for (int numOld : new int[] { 0, 10, 1000 }) {
+			EventQueue q = queueFactory.get();
+			EventHeap heap = new EventHeap();
+
+			int eventNum = 0;
+			for (int i = 0; i < numOld; i++) {
+				TestEvent e = new TestEvent(Math.floor(rnd.nextDouble() * 100), rnd.nextInt(3) - 1, eventNum++);
+				q.insert(e);
+				heap.insert(e);
+			}
+			if (numOld > 0) {
+				// leave root node invalid
+				assertSame(heap.extract(), q.extract());
+			}
+
+			List<SimEvent> bulk = new ArrayList<>();
+			for (int i = 0; i < 5000; i++) {
+				bulk.add(new TestEvent(100 + Math.floor(rnd.nextDouble() * 1000), rnd.nextInt(3) - 1, eventNum++));
+			}
+			q.insertAll(bulk);
+			for (SimEvent e : bulk) {
+				heap.insert(e);
+			}
+
+			assertEquals(heap.size(), q.size());
+			while (heap.size() > 0) {
+				assertSame(heap.extract(), q.extract());
+			}
+			assertEquals(0, q.size());
+		}
+	}
+
+	private void checkSameOrderAsEventHeap(Supplier<EventQueue> queueFactory) {
+		Random rnd = new Random(23);
+		EventQueue q = queueFactory.get();
+		EventHeap heap = new EventHeap();
+
+		int eventNum = Integer.MIN_VALUE;
+		double now = 0.0;
+		for (int i = 0; i < 1000; i++) {
+			TestEvent e = new TestEvent(Math.floor(rnd.nextDouble() * 50), rnd.nextInt(3) - 1, eventNum++);
+			q.insert(e);
+			heap.insert(e);
+		}
+
+		// hold model with some ties in time and prio
+		for (int i = 0; i < 100000; i++) {
+			SimEvent e1 = q.extract();
+			SimEvent e2 = heap.extract();
+			assertSame("event " + i, e2, e1);
+			now = e1.getTime();
+
+			int n = rnd.nextInt(3); // 0, 1 or 2 new events to let size vary
+			for (int j = 0; j < n; j++) {
+				double t = now + (rnd.nextInt(4) == 0 ? 0.0 : Math.floor(-Math.log(rnd.nextDouble()) * 20));
+				TestEvent e = new TestEvent(t, rnd.nextInt(3) - 1, eventNum++);
+				q.insert(e);
+				heap.insert(e);
+			}
+			if (q.size() == 0) {
+				break;
+			}
+		}
+
+		while (heap.size() > 0) {
+			assertSame(heap.extract(), q.extract());
+		}
+		assertEquals(0, q.size());
+	}
+
+	private void checkPeek(EventQueue q) {
+		assertNull(q.peek());
+
+		Random rnd = new Random(11);
+		int eventNum = 0;
+		for (int i = 0; i < 1000; i++) {
+			q.insert(new TestEvent(Math.floor(rnd.nextDouble() * 100), rnd.nextInt(3) - 1, eventNum++));
+		}
+
+		double now = 0.0;
+		while (q.size() > 0) {
+			int size = q.size();
+			SimEvent next = q.peek();
+			assertSame(next, q.peek());
+			assertEquals(size, q.size());
+			assertSame(next, q.extract());
+			now = next.getTime();
+
+			// peek directly after extract() and insert()
+			if (rnd.nextBoolean() && eventNum < 3000) {
+				SimEvent next2 = q.peek();
+				q.insert(new TestEvent(now + Math.floor(rnd.nextDouble() * 10), rnd.nextInt(3) - 1, eventNum++));
+				if (next2 != null) {
+					assertTrue(q.peek().compareTo(next2) <= 0);
+				}
+			}
+		}
+		assertNull(q.peek());
+	}
+
+	private void checkRemove(EventQueue q) {
+		Random rnd = new Random(42);
+		List<SimEvent> events = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			TestEvent e = new TestEvent(rnd.nextDouble() * 1000, 0, i);
+			events.add(e);
+			q.insert(e);
+		}
+
+		List<SimEvent> remaining = new ArrayList<>();
+		for (int i = 0; i < events.size(); i++) {
+			if (i % 3 == 0) {
+				assertTrue(q.remove(events.get(i)));
+			} else {
+				remaining.add(events.get(i));
+			}
+		}
+		assertFalse(q.remove(events.get(0)));
+		assertEquals(remaining.size(), q.size());
+
+		remaining.sort(null);
+		assertEquals(remaining, q.allEvents());
+		for (SimEvent e : remaining) {
+			assertSame(e, q.extract());
+		}
+	}
+
+	private void checkSimulationRun(Supplier<EventQueue> queueFactory) {
+		List<Double> times = new ArrayList<>();
+
+		Simulation sim = new Simulation() {
+			@Override
+			protected EventQueue createEventQueue() {
+				return queueFactory.get();
+			}
+		};
+		sim.setSimulationLength(1000.0);
+		sim.schedulePeriodically(0.0, 7.5, SimEvent.EVENT_PRIO_NORMAL, () -> times.add(sim.simTime()));
+		sim.performRun();
+
+		assertEquals(134, times.size());
+		assertEquals(997.5, times.get(times.size() - 1), 1e-6);
+	}
+
+}
@@ -0,0 +1,341 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.core.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import jasima.core.experiment.Experiment;
+import jasima.core.simulation.Simulation.SimulationFailed;
+import jasima.shopSim.core.Job;
+import jasima.shopSim.core.Operation;
+import jasima.shopSim.core.Shop;
+import jasima.shopSim.core.WorkStation;
+
+public class TestParallelSimulation {
+
+	@Rule
+	public Timeout globalTimeout = new Timeout(60, TimeUnit.SECONDS);
+
+	@Test
+	public void testPingPong() {
+		List<String> log = Collections.synchronizedList(new ArrayList<>());
+
+		ParallelSimulation ps = new ParallelSimulation();
+		ps.setLookahead(2.0);
+		Partition a = ps.addPartition("a");
+		Partition b = ps.addPartition("b");
+
+		Runnable[] pong = new Runnable[1];
+		Runnable[] ping = new Runnable[1];
+		ping[0] = () -> {
+			log.add("ping@" + a.getSim().simTime());
+			if (a.getSim().simTime() < 20) {
+				a.send(b, 3.0, SimEvent.EVENT_PRIO_NORMAL, pong[0]);
+			}
+		};
+		pong[0] = () -> {
+			log.add("pong@" + b.getSim().simTime());
+			b.send(a, 2.0, SimEvent.EVENT_PRIO_NORMAL, ping[0]);
+		};
+		a.getSim().scheduleAt(1.0, SimEvent.EVENT_PRIO_NORMAL, ping[0]);
+
+		Map<String, Object> res = ps.performRun();
+
+		assertEquals("[ping@1.0, pong@4.0, ping@6.0, pong@9.0, ping@11.0, pong@14.0, ping@16.0, pong@19.0, ping@21.0]",
+				log.toString());
+		// both partitions end at the end of the last time window (21+lookahead)
+		assertEquals(23.0, (Double) res.get("simTime"), 1e-6);
+		assertEquals(23.0, (Double) res.get("a.simTime"), 1e-6);
+		assertEquals(23.0, (Double) res.get("b.simTime"), 1e-6);
+	}
+
+	@Test
+	public void testSimulationLength() {
+		int[] numEvents = { 0, 0 };
+
+		ParallelSimulation ps = new ParallelSimulation();
+		ps.setLookahead(1.0);
+		ps.setSimulationLength(100.0);
+		for (int i = 0; i < 2; i++) {
+			int n = i;
+			Partition p = ps.addPartition("p" + i);
+			p.getSim().schedulePeriodically(0.0, 0.3, SimEvent.EVENT_PRIO_NORMAL, () -> numEvents[n]++);
+		}
+
+		Map<String, Object> res = ps.performRun();
+
+		assertEquals(100.0, (Double) res.get("p0.simTime"), 1e-6);
+		assertEquals(100.0, (Double) res.get("p1.simTime"), 1e-6);
+		assertEquals(334, numEvents[0]);
+		assertEquals(334, numEvents[1]);
+		// about one window per time unit (lookahead)
+		int numWindows = (Integer) res.get(ParallelSimulation.NUM_WINDOWS);
+		assertTrue(res.toString(), numWindows > 50 && numWindows <= 101);
+	}
+
+	@Test
+	public void testEndInPartitionEndsAll() {
+		ParallelSimulation ps = new ParallelSimulation();
+		ps.setLookahead(5.0);
+		Partition a = ps.addPartition("a");
+		Partition b = ps.addPartition("b");
+		a.getSim().scheduleAt(12.0, SimEvent.EVENT_PRIO_NORMAL, () -> a.getSim().end());
+		b.getSim().schedulePeriodically(0.0, 1.0, SimEvent.EVENT_PRIO_NORMAL, () -> {
+		});
+
+		Map<String, Object> res = ps.performRun();
+
+		assertEquals(12.0, (Double) res.get("a.simTime"), 1e-6);
+		// b runs until end of the window containing t=12
+		assertEquals(15.0, (Double) res.get("b.simTime"), 1e-6);
+	}
+
+	@Test(expected = SimulationFailed.class)
+	public void testDelaySmallerThanLookahead() {
+		ParallelSimulation ps = new ParallelSimulation();
+		ps.setLookahead(5.0);
+		Partition a = ps.addPartition("a");
+		Partition b = ps.addPartition("b");
+		a.getSim().scheduleAt(1.0, SimEvent.EVENT_PRIO_NORMAL, () -> a.send(b, 1.0, 0, () -> {
+		}));
+		b.getSim().schedulePeriodically(0.0, 1.0, SimEvent.EVENT_PRIO_NORMAL, () -> {
+		});
+
+		ps.performRun();
+	}
+
+	@Test
+	public void testShopsAreDeterministic() {
+		Map<String, Object> res1 = runShops();
+		Map<String, Object> res2 = runShops();
+
+		assertEquals(200, res1.get("area1.numJobsStarted"));
+		assertEquals(0, res1.get("area1.numJobsFinished"));
+		assertEquals(200, res1.get("area2.numJobsFinished"));
+
+		res1.remove(Experiment.RUNTIME);
+		res2.remove(Experiment.RUNTIME);
+		res1.keySet().removeIf(k -> k.endsWith("." + Experiment.RUNTIME));
+		res2.keySet().removeIf(k -> k.endsWith("." + Experiment.RUNTIME));
+		assertEquals(res1.toString(), res2.toString());
+	}
+
+	@Test
+	public void testShopsFallBackToConservative() {
+		Shop shop = new Shop();
+		shop.addMachine(new WorkStation(1));
+
+		ParallelSimulation ps = new ParallelSimulation();
+		ps.setLookahead(1.0);
+		ps.setOptimistic(true);
+		ps.addPartition("area1", shop);
+		ps.addPartition("area2", new SimComponentContainerBase());
+		Map<String, Object> res = ps.performRun();
+
+		assertTrue(res.containsKey(ParallelSimulation.NUM_WINDOWS));
+		assertFalse(res.containsKey(ParallelSimulation.NUM_GVT_ROUNDS));
+	}
+
+	@Test
+	public void testOptimisticSameResultsAsConservative() {
+		for (int checkpointInterval : new int[] { 1, 10, 100 }) {
+			List<PholdNode> cons = runPhold(false, checkpointInterval);
+			List<PholdNode> opt = runPhold(true, checkpointInterval);
+
+			for (int i = 0; i < cons.size(); i++) {
+				assertTrue(cons.get(i).count > 0);
+				assertEquals("count" + i, cons.get(i).count, opt.get(i).count);
+				assertEquals("checksum" + i, cons.get(i).checksum, opt.get(i).checksum, 0.0);
+				assertEquals(200.0, opt.get(i).getSim().simTime(), 1e-6);
+			}
+		}
+	}
+
+	@Test
+	public void testOptimisticRollback() {
+		ParallelSimulation ps = new ParallelSimulation();
+		ps.setLookahead(1.0);
+		ps.setSimulationLength(100.0);
+		ps.setOptimistic(true);
+		PholdNode na = new PholdNode(0, 0.0);
+		Partition a = ps.addPartition("a", na);
+		Partition b = ps.addPartition("b", new SimComponentContainerBase());
+
+		// no schedulePeriodically(), its events are not Checkpointable
+		Runnable[] tick = new Runnable[1];
+		tick[0] = () -> {
+			na.arrive();
+			a.getSim().scheduleIn(1.0, SimEvent.EVENT_PRIO_NORMAL, tick[0]);
+		};
+		a.getSim().scheduleAt(0.0, SimEvent.EVENT_PRIO_NORMAL, tick[0]);
+		b.getSim().scheduleAt(1.0, SimEvent.EVENT_PRIO_NORMAL, () -> {
+			// give partition a time to execute events speculatively
+			try {
+				Thread.sleep(200);
+			} catch (InterruptedException ignore) {
+			}
+			b.send(a, 1.5, SimEvent.EVENT_PRIO_NORMAL, () -> na.arrive());
+		});
+
+		Map<String, Object> res = ps.performRun();
+
+		assertTrue(res.toString(), (Long) res.get("a." + ParallelSimulation.NUM_ROLLBACKS) > 0);
+		// 101 periodic events plus one message at time 2.5
+		assertEquals(102, na.count);
+		assertEquals(5050.0 + 2.5, na.checksum, 1e-6);
+		assertEquals(100.0, (Double) res.get("a.simTime"), 1e-6);
+	}
+
+	/**
+	 * Component of a PHOLD model: tokens arriving at a node are either forwarded
+	 * to itself or to a random node in another partition.
+	 */
+	private static class PholdNode extends SimComponentBase implements Checkpointable {
+		private final double lookahead;
+		private List<PholdNode> nodes;
+		private Partition partition;
+		private long seed;
+		int count;
+		double checksum;
+
+		PholdNode(long seed, double lookahead) {
+			super();
+			this.seed = seed;
+			this.lookahead = lookahead;
+		}
+
+		@Override
+		public void init() {
+			super.init();
+			if (nodes == null) {
+				return;
+			}
+			for (int i = 0; i < 5; i++) {
+				getSim().scheduleAt(nextRandom() * 10, SimEvent.EVENT_PRIO_NORMAL, this::arrive);
+			}
+		}
+
+		void arrive() {
+			count++;
+			checksum += simTime();
+			if (nodes == null) {
+				return;
+			}
+
+			double delay = -Math.log(1.0 - nextRandom());
+			if (nextRandom() < 0.5) {
+				getSim().scheduleIn(delay, SimEvent.EVENT_PRIO_NORMAL, this::arrive);
+			} else {
+				PholdNode dest = nodes.get((int) (nextRandom() * nodes.size()));
+				partition.send(dest.partition, lookahead + delay, SimEvent.EVENT_PRIO_NORMAL, dest::arrive);
+			}
+		}
+
+		private double nextRandom() {
+			seed = (seed * 0x5DEECE66DL + 0xBL) & ((1L << 48) - 1);
+			return (seed >>> 22) / (double) (1L << 26);
+		}
+
+		@Override
+		public Object saveState() {
+			return new double[] { seed, count, checksum };
+		}
+
+		@Override
+		public void restoreState(Object state) {
+			double[] s = (double[]) state;
+			seed = (long) s[0];
+			count = (int) s[1];
+			checksum = s[2];
+		}
+	}
+
+	private static List<PholdNode> runPhold(boolean optimistic, int checkpointInterval) {
+		double lookahead = 0.1;
+		ParallelSimulation ps = new ParallelSimulation();
+		ps.setLookahead(lookahead);
+		ps.setSimulationLength(200.0);
+		ps.setOptimistic(optimistic);
+		ps.setCheckpointInterval(checkpointInterval);
+		ps.setGvtInterval(50);
+
+		List<PholdNode> nodes = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			PholdNode n = new PholdNode(23 + i, lookahead);
+			n.nodes = nodes;
+			nodes.add(n);
+			n.partition = ps.addPartition("p" + i, n);
+		}
+
+		Map<String, Object> res = ps.performRun();
+		assertEquals(optimistic, res.containsKey(ParallelSimulation.NUM_GVT_ROUNDS));
+
+		return nodes;
+	}
+
+	private static Map<String, Object> runShops() {
+		Shop shop1 = new Shop();
+		WorkStation m1 = new WorkStation(1);
+		shop1.addMachine(m1);
+
+		Shop shop2 = new Shop();
+		WorkStation m2 = new WorkStation(1);
+		shop2.addMachine(m2);
+
+		ParallelSimulation ps = new ParallelSimulation();
+		ps.setLookahead(0.5);
+		Partition p1 = ps.addPartition("area1", shop1);
+		ps.addPartition("area2", shop2);
+
+		Simulation sim = p1.getSim();
+		Random rnd = new Random(23);
+		for (int i = 0; i < 200; i++) {
+			Operation op1 = new Operation();
+			op1.setMachine(m1);
+			op1.setProcTime(rnd.nextDouble());
+			Operation op2 = new Operation();
+			op2.setMachine(m2);
+			op2.setProcTime(rnd.nextDouble());
+
+			sim.scheduleAt(i, SimEvent.EVENT_PRIO_NORMAL, () -> {
+				Job j = new Job(shop1);
+				j.setOps(new Operation[] { op1, op2 });
+				j.setTaskNumber(0);
+				j.setRelDate(sim.simTime());
+				j.setDueDate(sim.simTime() + 10);
+				shop1.startJob(j);
+			});
+		}
+
+		return ps.performRun();
+	}
+
+}
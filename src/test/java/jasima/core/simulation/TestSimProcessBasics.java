@@ -30,8 +30,10 @@ import static org.hamcrest.CoreMatchers.isA;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
 
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -340,6 +342,9 @@ public class TestSimProcessBasics {
 
 	@Test
 	public void testThreadReuse() throws Exception {
+		// only platform threads are pooled
+		assumeTrue(SimProcessUtil.getProcessExecutor() == SimProcessUtil.platformThreadExecutor());
+
 		AtomicReference<Thread> t = new AtomicReference<>(null);
 
 		SimContext.simulationOf("simulation1", sim -> {
@@ -496,6 +501,33 @@ public class TestSimProcessBasics {
 		System.out.println("  time [ms] " + t);
 	}
 
+	@Test
+	public void testManyConcurrentProcessesInVirtualThreads() throws MightBlock {
+		assumeTrue("virtual threads not supported", SimProcessUtil.isVirtualThreadSupported());
+
+		int N = 20000;
+		ExecutorService oldExecutor = SimProcessUtil.getProcessExecutor();
+		SimProcessUtil.setProcessExecutor(SimProcessUtil.virtualThreadExecutor());
+		try {
+			AtomicInteger numFinished = new AtomicInteger(0);
+			Map<String, Object> res = SimContext.simulationOf(sim -> {
+				for (int n = 0; n < N; n++) {
+					int i = n;
+					activate("process" + n, () -> {
+						waitFor(i % 10);
+						waitFor(1.0);
+						numFinished.incrementAndGet();
+					});
+				}
+				assertEquals("all processes alive", N + 1, sim.numRunnableProcesses());
+			});
+			assertEquals("simTime", 10.0, (Double) res.get("simTime"), 1e-6);
+			assertEquals("all processes finished", N, numFinished.get());
+		} finally {
+			SimProcessUtil.setProcessExecutor(oldExecutor);
+		}
+	}
+
 	public static void suspendingProcess() throws MightBlock {
 		waitFor(1.0);
 		suspend();
@@ -0,0 +1,251 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.core.simulation;
+
+import static jasima.core.simulation.SimContext.waitFor;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import jasima.core.simulation.SimProcess.ProcessState;
+import jasima.core.simulation.Simulation.SimulationFailed;
+import jasima.core.simulation.generic.ConditionQueue;
+import jasima.core.simulation.generic.Q;
+import jasima.core.simulation.generic.Resource;
+import jasima.core.util.SimProcessUtil;
+import jasima.core.util.observer.ObservableValue;
+
+public class TestSimStepProcess {
+
+	@Rule
+	public Timeout globalTimeout = new Timeout(60, TimeUnit.SECONDS);
+
+	@Test
+	public void testWaitFor() {
+		List<Double> times = new ArrayList<>();
+		Map<String, Object> res = Simulation.of(sim -> {
+			SimStepProcess<Void> p = sim.activateSteps("steps", () -> {
+				SimStepProcess<?> self = SimStepProcess.current();
+				times.add(sim.simTime());
+				self.waitFor(1.5, () -> {
+					times.add(sim.simTime());
+					self.waitFor(2.0, () -> times.add(sim.simTime()));
+				});
+			});
+			assertEquals(ProcessState.SCHEDULED, p.processState());
+		});
+		assertEquals("simTime", 3.5, (Double) res.get("simTime"), 1e-6);
+		assertEquals("[0.0, 1.5, 3.5]", times.toString());
+	}
+
+	@Test
+	public void testNoThreadsCreated() {
+		int threadsBefore = SimProcessUtil.numThreadsCreated();
+		int[] numFinished = { 0 };
+		Simulation sim = new Simulation();
+		for (int i = 0; i < 10000; i++) {
+			int n = i;
+			sim.scheduleAt(0.0, SimEvent.EVENT_PRIO_NORMAL, () -> sim.activateSteps(() -> {
+				SimStepProcess<?> self = SimStepProcess.current();
+				self.waitFor(n % 10, () -> self.waitFor(1.0, () -> numFinished[0]++));
+			}));
+		}
+		sim.performRun();
+		assertEquals("simTime", 10.0, sim.simTime(), 1e-6);
+		assertEquals(10000, numFinished[0]);
+		assertEquals("no additional threads", threadsBefore, SimProcessUtil.numThreadsCreated());
+		assertEquals("all processes finished", 0, sim.numRunnableProcesses());
+	}
+
+	@Test
+	public void testQueueWithThreadBackedProducer() {
+		List<String> taken = new ArrayList<>();
+		Map<String, Object> res = Simulation.of(sim -> {
+			Q<Integer> q = new Q<>();
+			q.setCapacity(1);
+
+			sim.activateSteps("consumer", new Runnable() {
+				@Override
+				public void run() {
+					Runnable loop = this;
+					q.take(i -> {
+						taken.add(sim.simTime() + ":" + i);
+						if (i < 3) {
+							SimStepProcess.current().waitFor(1.0, loop);
+						}
+					});
+				}
+			});
+
+			sim.activate("producer", () -> {
+				for (int i = 1; i <= 3; i++) {
+					q.put(i);
+				}
+			});
+		});
+		assertEquals("simTime", 2.0, (Double) res.get("simTime"), 1e-6);
+		assertEquals("[0.0:1, 1.0:2, 2.0:3]", taken.toString());
+	}
+
+	@Test
+	public void testQueueWithThreadBackedConsumer() {
+		List<String> taken = new ArrayList<>();
+		Simulation.of(sim -> {
+			Q<Integer> q = new Q<>();
+			q.setCapacity(1);
+
+			sim.activate("consumer", () -> {
+				for (int i = 1; i <= 3; i++) {
+					int item = q.take();
+					taken.add(sim.simTime() + ":" + item);
+					waitFor(1.0);
+				}
+			});
+
+			int[] n = { 0 };
+			sim.activateSteps("producer", new Runnable() {
+				@Override
+				public void run() {
+					if (++n[0] <= 3) {
+						q.put(n[0], this);
+					}
+				}
+			});
+		});
+		assertEquals("[0.0:1, 1.0:2, 2.0:3]", taken.toString());
+	}
+
+	@Test
+	public void testResource() {
+		List<String> log = new ArrayList<>();
+		Map<String, Object> res = Simulation.of(sim -> {
+			Resource r = new Resource("machine", 1);
+
+			for (int i = 0; i < 2; i++) {
+				String name = "step" + i;
+				sim.activateSteps(name, () -> r.seize(() -> {
+					log.add(sim.simTime() + ":" + name);
+					SimStepProcess.current().waitFor(2.0, r::release);
+				}));
+			}
+
+			sim.activate("thread", () -> {
+				r.seize();
+				log.add(sim.simTime() + ":thread");
+				waitFor(2.0);
+				r.release();
+			});
+		});
+		assertEquals("simTime", 6.0, (Double) res.get("simTime"), 1e-6);
+		assertEquals("[0.0:step0, 2.0:step1, 4.0:thread]", log.toString());
+	}
+
+	@Test
+	public void testConditionQueue() {
+		double[] triggered = { -1.0 };
+		Simulation.of(sim -> {
+			ObservableValue<Integer> ov = new ObservableValue<>(0);
+			ConditionQueue cq = new ConditionQueue(() -> ov.get() == 5, ov);
+
+			sim.activateSteps(() -> {
+				SimStepProcess<?> self = SimStepProcess.current();
+				self.suspend(() -> triggered[0] = sim.simTime());
+				cq.executeWhenTrue(self::resume);
+			});
+
+			sim.activate(() -> {
+				for (int i = 1; i <= 5; i++) {
+					waitFor(1.0);
+					ov.set(i);
+				}
+			});
+		});
+		assertEquals(5.0, triggered[0], 1e-6);
+	}
+
+	@Test
+	public void testJoinAndResult() {
+		Map<String, Object> res = Simulation.of(sim -> {
+			SimStepProcess<Integer> worker = new SimStepProcess<>(sim, () -> {
+				SimStepProcess<Integer> self = (SimStepProcess<Integer>) SimStepProcess.current();
+				self.waitFor(3.0, () -> self.setResult(42));
+			});
+			sim.activateProcess(worker);
+
+			sim.activateSteps(() -> SimStepProcess.current().join(worker,
+					() -> sim.addResult("joined", sim.simTime() + ":" + worker.get())));
+		});
+		assertEquals("3.0:42", res.get("joined"));
+	}
+
+	@Test
+	public void testEntity() {
+		List<Double> times = new ArrayList<>();
+		Map<String, Object> res = Simulation.of(sim -> {
+			sim.activateEntity(new SimStepEntity("entity") {
+				int n = 0;
+
+				@Override
+				protected void lifecycleStart() {
+					times.add(simTime());
+					if (++n < 3) {
+						waitFor(2.0, this::lifecycleStart);
+					}
+				}
+			});
+		});
+		assertEquals("simTime", 4.0, (Double) res.get("simTime"), 1e-6);
+		assertEquals("[0.0, 2.0, 4.0]", times.toString());
+	}
+
+	@Test(expected = SimulationFailed.class)
+	public void testExceptionInStep() {
+		Simulation.of(sim -> {
+			sim.activateSteps(() -> SimStepProcess.current().waitFor(1.0, () -> {
+				throw new IllegalStateException("failing step");
+			}));
+		});
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testBlockingCallNotAllowed() throws Throwable {
+		try {
+			Simulation.of(sim -> {
+				sim.activateSteps(() -> {
+					try {
+						waitFor(1.0);
+					} catch (SimProcess.MightBlock e) {
+						throw new AssertionError(e);
+					}
+				});
+			});
+		} catch (SimulationFailed e) {
+			assertTrue(e.getCause() instanceof UnsupportedOperationException);
+			throw e.getCause();
+		}
+	}
+
+}
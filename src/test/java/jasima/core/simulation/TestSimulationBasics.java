@@ -20,13 +20,17 @@ package jasima.core.simulation;
 import static jasima.core.simulation.SimEvent.EVENT_PRIO_MIN;
 import static jasima.core.simulation.SimEvent.EVENT_PRIO_NORMAL;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.time.Clock;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.Year;
 import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
@@ -242,6 +246,139 @@ public class TestSimulationBasics {
 		assertEquals(360.0, sim.toSimTime(instant), 1e-6);
 	}
 
+	@Test
+	public void testRescheduleAndUnschedule() {
+		StringBuilder sb = new StringBuilder();
+
+		Simulation sim = new Simulation();
+		sim.addPrintListener(System.out::println);
+		SimEvent a = sim.scheduleAt(1.0, EVENT_PRIO_NORMAL, () -> sb.append("a" + sim.simTime()));
+		SimEvent b = sim.scheduleAt(2.0, EVENT_PRIO_NORMAL, () -> sb.append("b" + sim.simTime()));
+		SimEvent c = sim.scheduleAt(3.0, EVENT_PRIO_NORMAL, () -> sb.append("c" + sim.simTime()));
+		sim.scheduleAt(1.5, EVENT_PRIO_NORMAL, () -> {
+			sim.reschedule(a, 4.0); // not scheduled anymore, so just schedule again
+			sim.reschedule(b, 5.0);
+			assertEquals("unschedule", true, sim.unschedule(c));
+			assertEquals("unschedule twice", false, sim.unschedule(c));
+		});
+
+		sim.performRun();
+
+		assertEquals("a1.0a4.0b5.0", sb.toString());
+		assertEquals("simTime", 5.0, sim.simTime(), 1e-6);
+		assertEquals("numAppEvents", 0, sim.numAppEvents());
+	}
+
+	@Test
+	public void testRecycledEvents() {
+		StringBuilder sb = new StringBuilder();
+		Set<SimEvent> eventObjects = Collections.newSetFromMap(new IdentityHashMap<>());
+
+		Simulation sim = new Simulation();
+		sim.addPrintListener(System.out::println);
+		Runnable[] action = new Runnable[1];
+		action[0] = () -> {
+			eventObjects.add(sim.currentEvent());
+			sb.append((int) sim.simTime());
+			if (sim.simTime() < 1000) {
+				sim.scheduleInRecycled(1.0, EVENT_PRIO_NORMAL, action[0]);
+			}
+		};
+		sim.scheduleAtRecycled(1.0, EVENT_PRIO_NORMAL, action[0]);
+		sim.scheduleAtRecycled(0.5, EVENT_PRIO_NORMAL, () -> sb.append("x"));
+
+		sim.performRun();
+
+		assertEquals("simTime", 1000.0, sim.simTime(), 1e-6);
+		assertEquals("x123", sb.substring(0, 4));
+		assertTrue("event objects reused", eventObjects.size() <= 2);
+	}
+
+	@Test
+	public void testBatchDispatchSameOrder() {
+		String expected = runBatchModel(false, true, new int[1]);
+		String actual = runBatchModel(true, true, new int[1]);
+
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void testBatchDispatchNumBatches() {
+		int[] numBatches = { 0 };
+		String res = runBatchModel(true, false, numBatches);
+
+		// 1:0, 1:1, 2:0, 2:1, 3:0, 3:1; events scheduled with same time and
+		// prio belong to the same batch
+		assertEquals(6, numBatches[0]);
+		assertTrue(res, res.startsWith("1.0:e0 1.0:e6 e0' e6' 1.0:e3 1.0:e9 2.0:e4 "));
+	}
+
+	@Test
+	public void testBatchDispatchWithProcessNumBatches() {
+		int[] numSteps = { 0 };
+		runBatchModel(false, true, numSteps);
+		int[] numBatches = { 0 };
+		runBatchModel(true, true, numBatches);
+
+		// batches left early to run the process are not started again
+		assertEquals(numSteps[0], numBatches[0]);
+	}
+
+	/**
+	 * Runs a small model with many events of the same time and priority. With
+	 * batch dispatch, {@code numBatches} counts the calls of
+	 * {@code eventBatchStarting()}, otherwise the number of changes of time or
+	 * priority between subsequent events.
+	 */
+	private static String runBatchModel(boolean batchDispatch, boolean withProcess, int[] numBatches) {
+		StringBuilder sb = new StringBuilder();
+
+		Simulation sim = new Simulation() {
+			private double lastTime = Double.NaN;
+			private int lastPrio;
+
+			@Override
+			protected void eventBatchStarting() {
+				numBatches[0]++;
+			}
+
+			@Override
+			protected void runEventHandler(SimEvent evt) {
+				if (!isBatchDispatch() && (simTime() != lastTime || currentPrio() != lastPrio)) {
+					lastTime = simTime();
+					lastPrio = currentPrio();
+					numBatches[0]++;
+				}
+				super.runEventHandler(evt);
+			}
+		};
+		sim.setBatchDispatch(batchDispatch);
+		for (int i = 0; i < 12; i++) {
+			String s = "e" + i;
+			sim.scheduleAt(1 + i % 3, i % 2, () -> {
+				sb.append(sim.simTime() + ":" + s + " ");
+				if (sim.currentPrio() == 0) {
+					sim.scheduleIn(0.0, 0, () -> sb.append(s + "' "));
+				}
+			});
+		}
+		if (withProcess) {
+			sim.setMainProcessActions(simCtx -> {
+				simCtx.activate("p", () -> {
+					for (int i = 0; i < 6; i++) {
+						sb.append(sim.simTime() + ":p ");
+						// continues the batch the process was activated in
+						sim.scheduleIn(0.0, sim.currentPrio(), () -> sb.append("p' "));
+						SimContext.waitFor(0.5);
+					}
+				});
+			});
+		}
+		sim.performRun();
+
+		return sb.toString();
+	}
+
 	public static void dummyHandler() {
 		// dummy method, does nothing
 	}
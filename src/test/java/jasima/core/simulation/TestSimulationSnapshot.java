@@ -0,0 +1,267 @@
+/*
+This file is part of jasima, the Java simulator for manufacturing and logistics.
+
+Copyright 2010-2022 jasima contributors (see license.txt)
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package jasima.core.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import jasima.core.experiment.Experiment;
+import jasima.core.random.RandomFactory;
+import jasima.core.random.RandomFactoryOld;
+import jasima.core.random.continuous.DblConst;
+import jasima.core.random.continuous.DblExp;
+import jasima.core.random.continuous.DblUniformRange;
+import jasima.core.random.discrete.IntUniformRange;
+import jasima.core.simulation.Simulation.SimulationFailed;
+import jasima.core.simulation.Simulation.Snapshot;
+import jasima.core.simulation.arrivalprocess.ArrivalsStationary;
+import jasima.core.statistics.SummaryStat;
+import jasima.shopSim.core.DowntimeSource;
+import jasima.shopSim.core.DynamicJobSource;
+import jasima.shopSim.core.Shop;
+import jasima.shopSim.core.WorkStation;
+import jasima.shopSim.util.BasicJobStatCollector;
+import jasima.shopSim.util.MachineStatCollector;
+
+public class TestSimulationSnapshot {
+
+	@Rule
+	public Timeout globalTimeout = new Timeout(60, TimeUnit.SECONDS);
+
+	@Test
+	public void testRestoredRunContinuesIdentically() {
+		Simulation sim = new Simulation();
+		sim.setSimulationLength(100.0);
+		sim.addComponent(new Counter());
+
+		assertRestoredRunContinuesIdentically(sim, 40.0);
+	}
+
+	@Test
+	public void testForkedRunsUseSeeds() {
+		Simulation sim = new Simulation();
+		sim.setSimulationLength(100.0);
+		sim.addComponent(new Counter());
+
+		List<Map<String, Object>> res = sim.performForkedRuns(50.0, 1, 2, 1);
+
+		assertEquals(3, res.size());
+		assertEquals(normalize(res.get(0)), normalize(res.get(2)));
+		assertNotEquals(normalize(res.get(0)), normalize(res.get(1)));
+	}
+
+	@Test
+	public void testShopRestoredRunContinuesIdentically() {
+		assertRestoredRunContinuesIdentically(createShopSim(), 300.0);
+	}
+
+	@Test
+	public void testShopForkedRuns() {
+		List<Map<String, Object>> res = createShopSim().performForkedRuns(300.0, 1, 2, 1);
+
+		assertEquals(normalize(res.get(0)), normalize(res.get(2)));
+		assertNotEquals(normalize(res.get(0)), normalize(res.get(1)));
+		for (Map<String, Object> r : res) {
+			assertEquals(2000.0, (Double) r.get("simTime"), 0.0);
+			assertTrue(((SummaryStat) r.get("flowtime")).numObs() > 0);
+		}
+	}
+
+	@SuppressWarnings("deprecation")
+	@Test
+	public void testStreamsWithSameName() {
+		// allows streams with the same name
+		RandomFactory f = new RandomFactoryOld();
+		f.setSeed(23);
+		Random r1 = f.createInstance("stream");
+		Random r2 = f.createInstance("stream");
+		r1.nextDouble();
+
+		Object state = f.saveState();
+		double[] expected = { r1.nextDouble(), r2.nextDouble() };
+		f.restoreState(state);
+		assertEquals(expected[0], r1.nextDouble(), 0.0);
+		assertEquals(expected[1], r2.nextDouble(), 0.0);
+
+		f.reseedStreams(42);
+		RandomFactory f2 = new RandomFactoryOld();
+		f2.setSeed(42);
+		assertEquals(f2.createInstance("stream").nextDouble(), r1.nextDouble(), 0.0);
+		assertEquals(f2.createInstance("stream").nextDouble(), r2.nextDouble(), 0.0);
+	}
+
+	@Test
+	public void testComponentsNotCheckpointable() {
+		Simulation sim = new Simulation();
+		sim.setSimulationLength(10.0);
+		sim.addComponent(new SimComponentBase("plain"));
+		sim.addComponent(new Counter());
+
+		try {
+			sim.performForkedRuns(5.0, 1);
+			fail("IllegalStateException expected");
+		} catch (SimulationFailed e) {
+			assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+	}
+
+	@Test
+	public void testActiveProcess() {
+		Simulation sim = new Simulation();
+		sim.setSimulationLength(10.0);
+		sim.setMainProcessActions(() -> SimContext.waitFor(100.0));
+
+		try {
+			sim.performForkedRuns(5.0, 1);
+			fail("IllegalStateException expected");
+		} catch (SimulationFailed e) {
+			assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+	}
+
+	/**
+	 * Runs {@code sim}, saving a snapshot at {@code snapshotTime}, then restores
+	 * this snapshot and runs again. Results of both runs have to be equal.
+	 */
+	private static void assertRestoredRunContinuesIdentically(Simulation sim, double snapshotTime) {
+		Snapshot[] snapshot = { null };
+		sim.init();
+		sim.beforeRun();
+		sim.scheduleAt(snapshotTime, SimEvent.EVENT_PRIO_MAX, () -> snapshot[0] = sim.saveSnapshot());
+		Map<String, Object> res1 = run(sim);
+
+		assertEquals(snapshotTime, snapshot[0].simTime(), 0.0);
+		sim.restoreSnapshot(snapshot[0]);
+		Map<String, Object> res2 = run(sim);
+
+		assertEquals(normalize(res1), normalize(res2));
+	}
+
+	private static Map<String, Object> run(Simulation sim) {
+		sim.run();
+		sim.afterRun();
+		sim.done();
+		Map<String, Object> res = new LinkedHashMap<>();
+		sim.produceResults(res);
+		return res;
+	}
+
+	private static Map<String, Object> normalize(Map<String, Object> res) {
+		Map<String, Object> m = new TreeMap<>();
+		res.forEach((k, v) -> {
+			if (v instanceof SummaryStat) {
+				SummaryStat s = (SummaryStat) v;
+				v = s.numObs() + "/" + s.mean() + "/" + s.max();
+			}
+			m.put(k, v);
+		});
+		m.remove(Experiment.RUNTIME);
+		return m;
+	}
+
+	private static Simulation createShopSim() {
+		Simulation sim = new Simulation();
+		sim.setSimulationLength(2000.0);
+		sim.setStatsResetTime(500.0);
+
+		Shop shop = new Shop();
+		shop.setEnableLookAhead(true);
+		WorkStation m1 = new WorkStation(1);
+		WorkStation m2 = new WorkStation(2);
+		shop.addMachine(m1);
+		shop.addMachine(m2);
+
+		DowntimeSource ds = new DowntimeSource(m1.machDat()[0]);
+		ds.setTimeBetweenFailures(new DblExp(50.0));
+		ds.setTimeToRepair(new DblConst(2.0));
+		m1.machDat()[0].downsources = Arrays.asList(ds);
+
+		DynamicJobSource src = new DynamicJobSource();
+		src.setArrivalProcess(new ArrivalsStationary(new DblExp(1.25)));
+		src.setMachIdx(new IntUniformRange(0, 1));
+		src.setProcTimes(new DblUniformRange(0.5, 1.5));
+		shop.addJobSource(src);
+
+		shop.addListener(new BasicJobStatCollector());
+		shop.installMachineListener(new MachineStatCollector(), true);
+
+		sim.addComponent(shop);
+		return sim;
+	}
+
+	/**
+	 * Simple event-only model: counts events happening at random times.
+	 */
+	private static class Counter extends SimComponentBase implements Checkpointable {
+		private Random rnd;
+		int count;
+		double sum;
+
+		Counter() {
+			super("counter");
+		}
+
+		@Override
+		public void init() {
+			super.init();
+			rnd = getSim().initRndGen("counter");
+			count = 0;
+			sum = 0.0;
+			scheduleIn(rnd.nextDouble(), SimEvent.EVENT_PRIO_NORMAL, this::event);
+		}
+
+		void event() {
+			count++;
+			sum += simTime();
+			scheduleIn(rnd.nextDouble(), SimEvent.EVENT_PRIO_NORMAL, this::event);
+		}
+
+		@Override
+		public void produceResults(Map<String, Object> res) {
+			res.put("count", count);
+			res.put("sum", sum);
+		}
+
+		@Override
+		public Object saveState() {
+			return new double[] { count, sum };
+		}
+
+		@Override
+		public void restoreState(Object state) {
+			double[] s = (double[]) state;
+			count = (int) s[0];
+			sum = s[1];
+		}
+	}
+
+}